@@ -52,7 +52,7 @@ import org.slf4j.LoggerFactory;
  */
 @GUIMenuSortOrder(4)
 @TestElementMetadata(labelResource = "displayName")
-public class ConstantThroughputTimer extends AbstractTestElement implements Timer, TestBean {
+public class ConstantThroughputTimer extends AbstractTestElement implements ScheduledTimer, TestBean {
     private static final long serialVersionUID = 4;
 
     private static class ThroughputInfo{
@@ -101,6 +101,11 @@ public class ConstantThroughputTimer extends AbstractTestElement implements Time
      */
     private long previousTime = 0;
 
+    /**
+     * Time the last sample was scheduled to start at, it is in the past if the thread is behind schedule.
+     */
+    private long intendedStartTime = 0;
+
     //For calculating throughput across all threads
     private static final ThroughputInfo allThreadsInfo = new ThroughputInfo();
 
@@ -158,14 +163,28 @@ public class ConstantThroughputTimer extends AbstractTestElement implements Time
         */
         long currentTarget = previousTime  + calculateDelay();
         if (currentTime > currentTarget) {
+            // The first sample has no schedule yet, the others should have started at currentTarget
+            intendedStartTime = previousTime == 0 ? currentTime : currentTarget;
             // We're behind schedule -- try to catch up:
             previousTime = currentTime; // assume the sample will run immediately
             return 0;
         }
+        intendedStartTime = currentTarget;
         previousTime = currentTarget; // assume the sample will run as soon as the delay has expired
         return currentTarget - currentTime;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Note: the timer does not try to catch up with the missed schedule, so the intended start time
+     * is relative to the start of the previous sample.
+     */
+    @Override
+    public long getIntendedStartTime() {
+        return intendedStartTime;
+    }
+
     /**
      * Calculate the target time by adding the result of private method
      * <code>calculateDelay()</code> to the given <code>currentTime</code>
@@ -245,6 +264,7 @@ public class ConstantThroughputTimer extends AbstractTestElement implements Time
         threadGroupsInfoMap.clear();
         // no need to sync as one per instance
         previousTime = 0;
+        intendedStartTime = 0;
     }
 
     /**
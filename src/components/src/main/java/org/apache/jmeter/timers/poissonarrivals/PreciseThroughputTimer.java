@@ -28,7 +28,7 @@ import org.apache.jmeter.testbeans.TestBean;
 import org.apache.jmeter.testelement.AbstractTestElement;
 import org.apache.jmeter.threads.AbstractThreadGroup;
 import org.apache.jmeter.threads.JMeterContextService;
-import org.apache.jmeter.timers.Timer;
+import org.apache.jmeter.timers.ScheduledTimer;
 import org.apache.jorphan.collections.IdentityKey;
 import org.apache.jorphan.util.JMeterStopThreadException;
 import org.apiguardian.api.API;
@@ -42,7 +42,7 @@ import org.slf4j.LoggerFactory;
  */
 @GUIMenuSortOrder(3)
 @TestElementMetadata(labelResource = "displayName")
-public class PreciseThroughputTimer extends AbstractTestElement implements Cloneable, Timer, TestBean, ThroughputProvider, DurationProvider {
+public class PreciseThroughputTimer extends AbstractTestElement implements Cloneable, ScheduledTimer, TestBean, ThroughputProvider, DurationProvider {
     private static final Logger log = LoggerFactory.getLogger(PreciseThroughputTimer.class);
 
     private static final long serialVersionUID = 4;
@@ -85,6 +85,11 @@ public class PreciseThroughputTimer extends AbstractTestElement implements Clone
     private int batchSize;
     private int batchThreadDelay;
 
+    /**
+     * Time of the last generated arrival, it is in the past if the thread is behind schedule.
+     */
+    private transient long intendedStartTime;
+
     @Override
     public Object clone() {
         final PreciseThroughputTimer newTimer = (PreciseThroughputTimer) super.clone();
@@ -100,7 +105,8 @@ public class PreciseThroughputTimer extends AbstractTestElement implements Clone
         }
         long now = System.currentTimeMillis();
         long testStarted = JMeterContextService.getTestStartTime();
-        long delay = (long) (nextEvent * TimeUnit.SECONDS.toMillis(1) + testStarted - now);
+        intendedStartTime = (long) (nextEvent * TimeUnit.SECONDS.toMillis(1) + testStarted);
+        long delay = intendedStartTime - now;
         if (log.isDebugEnabled()) {
             log.debug("Calculated delay is {}", delay);
         }
@@ -116,6 +122,11 @@ public class PreciseThroughputTimer extends AbstractTestElement implements Clone
         return delay;
     }
 
+    @Override
+    public long getIntendedStartTime() {
+        return intendedStartTime;
+    }
+
     private EventProducer getEventProducer() {
         long testStarted = JMeterContextService.getTestStartTime();
         long prevStarted = PREV_TEST_STARTED.get();
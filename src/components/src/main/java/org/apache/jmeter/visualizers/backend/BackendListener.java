@@ -20,45 +20,80 @@ package org.apache.jmeter.visualizers.backend;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import org.apache.jmeter.config.Arguments;
 import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.AsyncSampleListener;
 import org.apache.jmeter.samplers.Remoteable;
 import org.apache.jmeter.samplers.SampleEvent;
-import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.AbstractTestElement;
 import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.TestStateListener;
 import org.apache.jmeter.testelement.property.TestElementProperty;
+import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.backend.graphite.GraphiteBackendListenerClient;
+import org.apache.jorphan.collections.BoundedMpscQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Async Listener that delegates SampleResult handling to implementations of {@link BackendListenerClient}
+ * <p>
+ * The results are passed to the client through a bounded lock-free queue, in batches of at most
+ * {@value #BATCH_SIZE_PROPERTY} results that wait at most {@value #BATCH_MAX_LATENCY_PROPERTY} milliseconds.
+ * When the client can't keep up and the queue is full, {@value #BACKPRESSURE_PROPERTY} decides whether
+ * the sampling threads wait or the results are dropped (see {@link Backpressure}).
+ * The queue metrics are available to the client with {@link BackendListenerContext#getQueueMetrics()}.
  *
  * @since 2.13
  */
 public class BackendListener
         extends AbstractTestElement
-        implements Backend, Serializable, SampleListener, TestStateListener, NoThreadClone, Remoteable {
+        implements Backend, Serializable, AsyncSampleListener, TestStateListener, NoThreadClone, Remoteable {
+
+    /**
+     * What a sampling thread does when the queue is full.
+     *
+     * @since 6.0
+     */
+    public enum Backpressure {
+        /** Wait until the client frees some room, the sampling thread is slowed down by the client */
+        BLOCK,
+        /** Drop the result and count it */
+        DROP,
+        /**
+         * Keep one result out of {@value BackendListener#SAMPLE_RATE_PROPERTY} (the sampling thread waits for it),
+         * drop and count the others
+         */
+        SAMPLE
+    }
 
     private static final class ListenerClientData {
         private BackendListenerClient client;
-        private BlockingQueue<SampleResult> queue;
-        private LongAdder queueWaits; // how many times we had to wait to queue a SampleResult
-        private LongAdder queueWaitTime; // how long we had to wait (nanoSeconds)
+        private BoundedMpscQueue<SampleResult> queue;
+        private BackendQueueMetrics metrics;
+        private Backpressure backpressure;
+        private int sampleRate;
+        private final AtomicLong rejectedResults = new AtomicLong();
+        private Thread worker;
+        private volatile boolean workerParked;
         // @GuardedBy("LOCK")
         private int instanceCount; // number of active tests
         private CountDownLatch latch;
+
+        private void wakeUpWorker() {
+            if (workerParked) {
+                LockSupport.unpark(worker);
+            }
+        }
     }
 
     private static final long serialVersionUID = 1L;
@@ -73,6 +108,27 @@ public class BackendListener
     /** Queue size */
     public static final String QUEUE_SIZE = "QUEUE_SIZE";
 
+    /** What to do when the queue is full: block, drop or sample, see {@link Backpressure} */
+    public static final String BACKPRESSURE_PROPERTY = "backend_queue_backpressure"; // $NON-NLS-1$
+
+    /** With {@link Backpressure#SAMPLE}, one result out of this number is kept when the queue is full */
+    public static final String SAMPLE_RATE_PROPERTY = "backend_queue_sample_rate"; // $NON-NLS-1$
+
+    /** Maximal number of results passed to the client at once, 0 means the queue capacity */
+    public static final String BATCH_SIZE_PROPERTY = "backend_batch_size"; // $NON-NLS-1$
+
+    /**
+     * Maximal time in milliseconds the results wait for a batch to fill,
+     * 0 means the results are passed as soon as the queue is empty
+     */
+    public static final String BATCH_MAX_LATENCY_PROPERTY = "backend_batch_max_latency"; // $NON-NLS-1$
+
+    /** How long the worker sleeps when there's nothing to send */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** How long a sampling thread sleeps before it retries to queue a result */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
     /**
      * Lock used to protect accumulators update + instanceCount update
      */
@@ -153,17 +209,34 @@ public class BackendListener
             }
             return;
         }
-        try {
-            if (!listenerClientData.queue.offer(sr)) { // we failed to add the element first time
-                listenerClientData.queueWaits.add(1L);
-                long t1 = System.nanoTime();
-                listenerClientData.queue.put(sr);
-                long t2 = System.nanoTime();
-                listenerClientData.queueWaitTime.add(t2 - t1);
+        ListenerClientData data = listenerClientData;
+        if (!data.queue.offer(sr)) { // we failed to add the element first time
+            if (data.backpressure == Backpressure.BLOCK
+                    || data.backpressure == Backpressure.SAMPLE
+                    && data.rejectedResults.incrementAndGet() % data.sampleRate == 0) {
+                put(data, sr);
+            } else {
+                data.metrics.resultDropped();
             }
-        } catch (Exception err) {
-            log.error("sampleOccurred, failed to queue the sample", err);
         }
+        data.wakeUpWorker();
+    }
+
+    /**
+     * Waits until the worker frees some room in the queue.
+     */
+    private static void put(ListenerClientData data, SampleResult sr) {
+        long start = System.nanoTime();
+        while (!data.queue.offer(sr)) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.error("sampleOccurred, interrupted while waiting to queue the sample");
+                data.metrics.resultDropped();
+                return;
+            }
+            LockSupport.unpark(data.worker);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        data.metrics.queueWaited(System.nanoTime() - start);
     }
 
     /**
@@ -174,64 +247,65 @@ public class BackendListener
         private final ListenerClientData listenerClientData;
         private final BackendListenerContext context;
         private final BackendListenerClient backendListenerClient;
+        private final int batchSize;
+        private final long maxLatencyNanos;
 
-        private Worker(BackendListenerClient backendListenerClient, Arguments arguments, ListenerClientData listenerClientData) {
+        private Worker(BackendListenerClient backendListenerClient, Arguments arguments,
+                ListenerClientData listenerClientData, int batchSize, long maxLatencyNanos) {
             this.listenerClientData = listenerClientData;
             // Allow BackendListenerClient implementations to get access to test element name
             arguments.addArgument(TestElement.NAME, getName());
-            context = new BackendListenerContext(arguments);
+            context = new BackendListenerContext(arguments, listenerClientData.metrics);
             this.backendListenerClient = backendListenerClient;
+            this.batchSize = batchSize;
+            this.maxLatencyNanos = maxLatencyNanos;
         }
 
         @Override
         public void run() {
             final boolean isDebugEnabled = log.isDebugEnabled();
-            List<SampleResult> sampleResults = new ArrayList<>(listenerClientData.queue.size());
+            final BoundedMpscQueue<SampleResult> queue = listenerClientData.queue;
+            List<SampleResult> sampleResults = new ArrayList<>(batchSize);
+            long batchStart = 0;
             try {
-                try {
-
-                    boolean endOfLoop = false;
-                    while (!endOfLoop) {
-                        if (isDebugEnabled) {
-                            log.debug("Thread: {} taking SampleResult from queue: {}", Thread.currentThread().getName(),
-                                    listenerClientData.queue.size());
+                boolean endOfLoop = false;
+                while (!endOfLoop && !isInterrupted()) {
+                    SampleResult sampleResult = queue.poll();
+                    // The == comparison is not a mistake
+                    if (sampleResult == FINAL_SAMPLE_RESULT) {
+                        endOfLoop = true;
+                    } else if (sampleResult != null) {
+                        if (sampleResults.isEmpty()) {
+                            batchStart = System.nanoTime();
                         }
-                        SampleResult sampleResult = listenerClientData.queue.take();
-                        if (isDebugEnabled) {
-                            log.debug("Thread: {} took SampleResult: {}, isFinal: {}",
-                                    Thread.currentThread().getName(),
-                                    sampleResult,
-                                    sampleResult == FINAL_SAMPLE_RESULT);
+                        sampleResults.add(sampleResult);
+                        if (sampleResults.size() >= batchSize) {
+                            sendToListener(backendListenerClient, context, sampleResults, listenerClientData.metrics);
                         }
-                        // try to process as many as possible
-                        // The == comparison is not a mistake
-                        while (!(endOfLoop = sampleResult == FINAL_SAMPLE_RESULT) && sampleResult != null) {
-                            sampleResults.add(sampleResult);
-                            if (isDebugEnabled) {
-                                log.debug("Thread: {} polling from queue: {}", Thread.currentThread().getName(),
-                                        listenerClientData.queue.size());
+                    } else {
+                        long waitNanos = IDLE_PARK_NANOS;
+                        if (!sampleResults.isEmpty()) {
+                            long remaining = maxLatencyNanos - (System.nanoTime() - batchStart);
+                            if (remaining <= 0) {
+                                if (isDebugEnabled) {
+                                    log.debug("Thread: {} sending {} SampleResults, queue is empty", getName(),
+                                            sampleResults.size());
+                                }
+                                sendToListener(backendListenerClient, context, sampleResults,
+                                        listenerClientData.metrics);
+                                continue;
                             }
-                            sampleResult = listenerClientData.queue.poll(); // returns null if nothing on queue currently
-                            if (isDebugEnabled) {
-                                log.debug("Thread: {} took from queue: {}, isFinal: {}", Thread.currentThread().getName(),
-                                        sampleResult, sampleResult == FINAL_SAMPLE_RESULT);
-                            }
-                        }
-                        if (isDebugEnabled) {
-                            log.debug("Thread: {} exiting with FINAL EVENT: {}, null: {}",
-                                    Thread.currentThread().getName(), sampleResult == FINAL_SAMPLE_RESULT,
-                                    sampleResult == null);
+                            waitNanos = Math.min(waitNanos, remaining);
                         }
-                        sendToListener(backendListenerClient, context, sampleResults);
-                        if (!endOfLoop) {
-                            LockSupport.parkNanos(100);
+                        listenerClientData.workerParked = true;
+                        if (queue.isEmpty()) {
+                            LockSupport.parkNanos(this, waitNanos);
                         }
+                        listenerClientData.workerParked = false;
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
                 }
                 // We may have been interrupted
-                sendToListener(backendListenerClient, context, sampleResults);
+                sendToListener(backendListenerClient, context, sampleResults, listenerClientData.metrics);
                 log.info("Worker ended");
             } finally {
                 listenerClientData.latch.countDown();
@@ -245,13 +319,17 @@ public class BackendListener
      * @param backendListenerClient {@link BackendListenerClient}
      * @param context               {@link BackendListenerContext}
      * @param sampleResults         List of {@link SampleResult}
+     * @param metrics               metrics that record the time taken by the client
      */
     private static void sendToListener(
             BackendListenerClient backendListenerClient,
             BackendListenerContext context,
-            List<SampleResult> sampleResults) {
+            List<SampleResult> sampleResults,
+            BackendQueueMetrics metrics) {
         if (!sampleResults.isEmpty()) {
+            long start = System.nanoTime();
             backendListenerClient.handleSampleResults(sampleResults, context);
+            metrics.batchHandled(sampleResults.size(), System.nanoTime() - start);
             sampleResults.clear();
         }
     }
@@ -303,20 +381,33 @@ public class BackendListener
                 // that only 1 instance of BackendListenerClient is used
                 clientClass = initClass(); // may be null
                 BackendListenerClient backendListenerClient = createBackendListenerClientImpl(clientClass);
-                BackendListenerContext context = new BackendListenerContext((Arguments) getArguments().clone());
 
                 listenerClientData = new ListenerClientData();
-                listenerClientData.queue = new ArrayBlockingQueue<>(queueSize);
-                listenerClientData.queueWaits = new LongAdder();
-                listenerClientData.queueWaitTime = new LongAdder();
+                listenerClientData.queue = new BoundedMpscQueue<>(queueSize);
+                listenerClientData.metrics = new BackendQueueMetrics(listenerClientData.queue);
+                listenerClientData.backpressure = getBackpressure();
+                listenerClientData.sampleRate = Math.max(1, JMeterUtils.getPropDefault(SAMPLE_RATE_PROPERTY, 10));
                 listenerClientData.latch = new CountDownLatch(1);
                 listenerClientData.client = backendListenerClient;
+                BackendListenerContext context = new BackendListenerContext((Arguments) getArguments().clone(),
+                        listenerClientData.metrics);
+                int batchSize = JMeterUtils.getPropDefault(BATCH_SIZE_PROPERTY, 0);
+                if (batchSize <= 0) {
+                    batchSize = listenerClientData.queue.capacity();
+                }
+                long maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(
+                        Math.max(0L, JMeterUtils.getPropDefault(BATCH_MAX_LATENCY_PROPERTY, 0L)));
                 if (log.isInfoEnabled()) {
-                    log.info("{}: Starting worker with class: {} and queue capacity: {}", getName(), clientClass,
-                            getQueueSize());
+                    log.info("{}: Starting worker with class: {}, queue capacity: {}, backpressure: {}, " +
+                                    "batch size: {}, batch max latency: {} ms",
+                            getName(), clientClass, listenerClientData.queue.capacity(),
+                            listenerClientData.backpressure, batchSize,
+                            TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos));
                 }
-                Worker worker = new Worker(backendListenerClient, (Arguments) getArguments().clone(), listenerClientData);
+                Worker worker = new Worker(backendListenerClient, (Arguments) getArguments().clone(),
+                        listenerClientData, batchSize, maxLatencyNanos);
                 worker.setDaemon(true);
+                listenerClientData.worker = worker;
                 worker.start();
                 if (log.isInfoEnabled()) {
                     log.info("{}: Started  worker with class: {}", getName(), clientClass);
@@ -359,25 +450,42 @@ public class BackendListener
                 log.error("No listener client data found for BackendListener {}", myName);
             }
         }
-        try {
-            listenerClientData.queue.put(FINAL_SAMPLE_RESULT);
-        } catch (Exception ex) {
-            log.warn("testEnded() with exception: {}", ex.getMessage(), ex);
+        // The worker makes room unless it has already ended
+        while (listenerClientData.latch.getCount() > 0 && !listenerClientData.queue.offer(FINAL_SAMPLE_RESULT)) {
+            LockSupport.unpark(listenerClientData.worker);
+            LockSupport.parkNanos(FULL_PARK_NANOS);
         }
-        if (listenerClientData.queueWaits.longValue() > 0) {
+        LockSupport.unpark(listenerClientData.worker);
+        BackendQueueMetrics metrics = listenerClientData.metrics;
+        if (metrics.getQueueWaits() > 0 || metrics.getDroppedResults() > 0) {
             log.warn(
-                    "QueueWaits: {}; QueueWaitTime: {} (nanoseconds), you may need to increase queue capacity, see property 'backend_queue_capacity'",
-                    listenerClientData.queueWaits, listenerClientData.queueWaitTime);
+                    "QueueWaits: {}; QueueWaitTime: {} (milliseconds); DroppedResults: {}, "
+                            + "you may need to increase queue capacity, see property 'backend_queue_capacity'",
+                    metrics.getQueueWaits(), metrics.getQueueWaitMillis(), metrics.getDroppedResults());
         }
         try {
             listenerClientData.latch.await();
-            BackendListenerContext context = new BackendListenerContext(getArguments());
+            if (log.isInfoEnabled()) {
+                log.info("{}: queue metrics: {}", myName, metrics);
+            }
+            BackendListenerContext context = new BackendListenerContext(getArguments(), metrics);
             listenerClientData.client.teardownTest(context);
         } catch (Exception e) {
             throw new IllegalStateException("Failed calling teardownTest", e);
         }
     }
 
+    private static Backpressure getBackpressure() {
+        String value = JMeterUtils.getPropDefault(BACKPRESSURE_PROPERTY, Backpressure.BLOCK.name());
+        try {
+            return Backpressure.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid value '{}' for property {}, defaulting to {}",
+                    value, BACKPRESSURE_PROPERTY, Backpressure.BLOCK);
+            return Backpressure.BLOCK;
+        }
+    }
+
     @Override
     public void testEnded() {
         testEnded("local"); //$NON-NLS-1$
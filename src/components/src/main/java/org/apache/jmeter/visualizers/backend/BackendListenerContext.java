@@ -44,14 +44,38 @@ public class BackendListenerContext {
     /** The initialization parameters. */
     private final Map<String, String> params;
 
+    /** Metrics of the queue that feeds the client, null if the client is not run by {@link BackendListener} */
+    private final BackendQueueMetrics queueMetrics;
+
     /** @param args the initialization parameters. */
     public BackendListenerContext(Arguments args) {
+        this(args, null);
+    }
+
+    /**
+     * @param args         the initialization parameters.
+     * @param queueMetrics metrics of the queue that feeds the client
+     */
+    BackendListenerContext(Arguments args, BackendQueueMetrics queueMetrics) {
         this.params = args.getArgumentsAsMap();
+        this.queueMetrics = queueMetrics;
     }
 
     /** @param params the initialization parameters. */
     public BackendListenerContext(Map<String, String> params) {
         this.params = params;
+        this.queueMetrics = null;
+    }
+
+    /**
+     * Returns the metrics of the queue between the sampling threads and the client,
+     * so the client can export them with its own metrics.
+     *
+     * @return the metrics of the queue or null if the client is not run by {@link BackendListener}
+     * @since 6.0
+     */
+    public BackendQueueMetrics getQueueMetrics() {
+        return queueMetrics;
     }
 
     /**
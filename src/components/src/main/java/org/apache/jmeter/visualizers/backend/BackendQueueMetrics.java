@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jorphan.collections.BoundedMpscQueue;
+import org.apiguardian.api.API;
+
+/**
+ * Metrics of the queue between the sampling threads and a {@link BackendListenerClient}:
+ * how full the queue is, how often the sampling threads had to wait or drop results, and how long the client
+ * takes to handle the results.
+ * The counters are cumulated since the start of the test.
+ * <p>
+ * Thread safe class
+ *
+ * @see BackendListenerContext#getQueueMetrics()
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public final class BackendQueueMetrics {
+    private final BoundedMpscQueue<?> queue;
+    private final LongAdder queueWaits = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder droppedResults = new LongAdder();
+    private final LongAdder handledBatches = new LongAdder();
+    private final LongAdder handledResults = new LongAdder();
+    private final LongAdder handlerNanos = new LongAdder();
+    private final LongAccumulator maxHandlerNanos = new LongAccumulator(Long::max, 0);
+
+    BackendQueueMetrics(BoundedMpscQueue<?> queue) {
+        this.queue = queue;
+    }
+
+    void queueWaited(long nanos) {
+        queueWaits.increment();
+        queueWaitNanos.add(nanos);
+    }
+
+    void resultDropped() {
+        droppedResults.increment();
+    }
+
+    void batchHandled(int results, long nanos) {
+        handledBatches.increment();
+        handledResults.add(results);
+        handlerNanos.add(nanos);
+        maxHandlerNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return approximate number of results in the queue
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return maximum number of results the queue can hold
+     */
+    public int getQueueCapacity() {
+        return queue.capacity();
+    }
+
+    /**
+     * @return how many times a sampling thread had to wait because the queue was full
+     */
+    public long getQueueWaits() {
+        return queueWaits.sum();
+    }
+
+    /**
+     * @return how long the sampling threads waited because the queue was full
+     */
+    public long getQueueWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum());
+    }
+
+    /**
+     * @return number of results dropped because the queue was full
+     */
+    public long getDroppedResults() {
+        return droppedResults.sum();
+    }
+
+    /**
+     * @return number of calls of {@link BackendListenerClient#handleSampleResults}
+     */
+    public long getHandledBatches() {
+        return handledBatches.sum();
+    }
+
+    /**
+     * @return number of results passed to {@link BackendListenerClient#handleSampleResults}
+     */
+    public long getHandledResults() {
+        return handledResults.sum();
+    }
+
+    /**
+     * @return average time of {@link BackendListenerClient#handleSampleResults} in milliseconds
+     */
+    public double getMeanHandlerMillis() {
+        long batches = handledBatches.sum();
+        return batches == 0 ? 0 : handlerNanos.sum() / 1e6 / batches;
+    }
+
+    /**
+     * @return maximal time of {@link BackendListenerClient#handleSampleResults} in milliseconds
+     */
+    public double getMaxHandlerMillis() {
+        return maxHandlerNanos.get() / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return "queueSize=" + getQueueSize() + ", queueCapacity=" + getQueueCapacity()
+                + ", queueWaits=" + getQueueWaits() + ", queueWaitMillis=" + getQueueWaitMillis()
+                + ", droppedResults=" + getDroppedResults() + ", handledResults=" + getHandledResults()
+                + ", handledBatches=" + getHandledBatches() + ", meanHandlerMillis=" + getMeanHandlerMillis()
+                + ", maxHandlerMillis=" + getMaxHandlerMillis();
+    }
+}
@@ -18,9 +18,11 @@
 package org.apache.jmeter.visualizers.backend;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.jmeter.control.TransactionController;
@@ -28,14 +30,23 @@ import org.apache.jmeter.report.processor.DescriptiveStatisticsFactory;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.documentation.VisibleForTesting;
+import org.apache.jorphan.math.LogLinearHistogram;
+import org.apiguardian.api.API;
 
 /**
  * Sampler metric
+ * <p>
+ * In {@link WindowMode#HISTOGRAM} mode, the response times are counted in lock-free histograms
+ * instead of sliding windows, so the samples are added without lock, and the percentiles are computed
+ * in O(number of buckets) without sorting.
+ * The percentiles differ from the exact ones by less than {@code 2^-(precision+1)} of their value,
+ * where the precision is set with the {@code backend_metrics_histogram_precision} property.
  * @since 2.13
  */
 public class SamplerMetric {
     private static final int SLIDING_WINDOW_SIZE = JMeterUtils.getPropDefault("backend_metrics_window", 100);
     private static final int LARGE_SLIDING_WINDOW_SIZE = JMeterUtils.getPropDefault("backend_metrics_large_window", 5000);
+    private static final int HISTOGRAM_PRECISION = JMeterUtils.getPropDefault("backend_metrics_histogram_precision", 6);
 
     private static volatile WindowMode globalWindowMode = WindowMode.get();
 
@@ -59,12 +70,18 @@ public class SamplerMetric {
      * Timeboxed percentiles don't makes sense
      */
     private final DescriptiveStatistics pctResponseStats = DescriptiveStatisticsFactory.createDescriptiveStatistics(SLIDING_WINDOW_SIZE);
-    private int successes;
-    private int failures;
-    private int hits;
-    private final Map<ErrorMetric, Integer> errors = new HashMap<>();
-    private long sentBytes;
-    private long receivedBytes;
+    /**
+     * Response times of OK, KO and All samples in {@link WindowMode#HISTOGRAM} mode, null in the other modes
+     */
+    private final ResponseTimes okResponses;
+    private final ResponseTimes koResponses;
+    private final ResponseTimes allResponses;
+    private final LongAdder successes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final Map<ErrorMetric, Integer> errors = new ConcurrentHashMap<>();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
 
 
     /**
@@ -77,6 +94,15 @@ public class SamplerMetric {
                 stat.setWindowSize(SLIDING_WINDOW_SIZE);
             }
         }
+        if (globalWindowMode == WindowMode.HISTOGRAM) {
+            okResponses = new ResponseTimes();
+            koResponses = new ResponseTimes();
+            allResponses = new ResponseTimes();
+        } else {
+            okResponses = null;
+            koResponses = null;
+            allResponses = null;
+        }
     }
 
     /**
@@ -101,7 +127,7 @@ public class SamplerMetric {
      * Add a {@link SampleResult} to be used in the statistics
      * @param result {@link SampleResult} to be used
      */
-    public synchronized void add(SampleResult result) {
+    public void add(SampleResult result) {
         add(result, false);
     }
 
@@ -109,35 +135,45 @@ public class SamplerMetric {
      * Add a {@link SampleResult} and its sub-results to be used in the statistics
      * @param result {@link SampleResult} to be used
      */
-    public synchronized void addCumulated(SampleResult result) {
+    public void addCumulated(SampleResult result) {
         add(result, true);
     }
 
     /**
-     * Add a {@link SampleResult} to be used in the statistics
+     * Add a {@link SampleResult} to be used in the statistics.
+     * The sliding windows need a lock, the counters and the histograms don't.
      * @param result {@link SampleResult} to be used
      * @param isCumulated is the overall Sampler Metric
      */
-    private synchronized void add(SampleResult result, boolean isCumulated) {
+    private void add(SampleResult result, boolean isCumulated) {
         if(result.isSuccessful()) {
-            successes+=result.getSampleCount()-result.getErrorCount();
+            successes.add(result.getSampleCount()-result.getErrorCount());
         } else {
-            failures+=result.getErrorCount();
+            failures.add(result.getErrorCount());
             ErrorMetric error = new ErrorMetric(result);
-            errors.put(error, errors.getOrDefault(error, 0) + result.getErrorCount() );
+            errors.merge(error, result.getErrorCount(), Integer::sum);
         }
         long time = result.getTime();
+        if (allResponses != null) {
+            allResponses.add(time);
+            (result.isSuccessful() ? okResponses : koResponses).add(time);
+        } else {
+            addToWindows(result.isSuccessful(), time);
+        }
+        addHits(result, isCumulated);
+        addNetworkData(result, isCumulated);
+    }
+
+    private synchronized void addToWindows(boolean successful, long time) {
         allResponsesStats.addValue((double) time);
         pctResponseStats.addValue((double) time);
-        if(result.isSuccessful()) {
+        if(successful) {
             // Should we also compute KO , all response time ?
             // only take successful requests for time computing
             okResponsesStats.addValue((double) time);
         }else {
             koResponsesStats.addValue((double) time);
         }
-        addHits(result, isCumulated);
-        addNetworkData(result, isCumulated);
     }
 
     /**
@@ -150,8 +186,8 @@ public class SamplerMetric {
                 && result.getSubResults().length == 0) { // Transaction controller without generate parent sampler
             return;
         }
-        sentBytes += result.getSentBytes();
-        receivedBytes += result.getBytesAsLong();
+        sentBytes.add(result.getSentBytes());
+        receivedBytes.add(result.getBytesAsLong());
     }
 
     /**
@@ -166,7 +202,7 @@ public class SamplerMetric {
             return;
         }
         if (!(TransactionController.isFromTransactionController(result) && subResults.length > 0)) {
-            hits += result.getSampleCount();
+            hits.add(result.getSampleCount());
         }
         for (SampleResult subResult : subResults) {
             addHits(subResult, isCumulated);
@@ -187,13 +223,20 @@ public class SamplerMetric {
                 stat.clear();
             }
             break;
+        case HISTOGRAM:
+            break;
+        }
+        if (allResponses != null) {
+            okResponses.clear();
+            koResponses.clear();
+            allResponses.clear();
         }
         errors.clear();
-        successes = 0;
-        failures = 0;
-        hits = 0;
-        sentBytes = 0;
-        receivedBytes = 0;
+        successes.reset();
+        failures.reset();
+        hits.reset();
+        sentBytes.reset();
+        receivedBytes.reset();
     }
 
     /**
@@ -202,7 +245,7 @@ public class SamplerMetric {
      * @return number of total requests
      */
     public int getTotal() {
-        return successes+failures;
+        return getSuccesses()+getFailures();
     }
 
     /**
@@ -211,7 +254,7 @@ public class SamplerMetric {
      * @return number of successful requests
      */
     public int getSuccesses() {
-        return successes;
+        return successes.intValue();
     }
 
     /**
@@ -220,7 +263,7 @@ public class SamplerMetric {
      * @return number of failed requests
      */
     public int getFailures() {
-        return failures;
+        return failures.intValue();
     }
 
     /**
@@ -230,6 +273,9 @@ public class SamplerMetric {
      *         been added yet
      */
     public double getOkMaxTime() {
+        if (okResponses != null) {
+            return okResponses.getMax();
+        }
         return okResponsesStats.getMax();
     }
 
@@ -240,6 +286,9 @@ public class SamplerMetric {
      *         added yet
      */
     public double getOkMinTime() {
+        if (okResponses != null) {
+            return okResponses.getMin();
+        }
         return okResponsesStats.getMin();
     }
 
@@ -249,6 +298,9 @@ public class SamplerMetric {
      * @return The arithmetic mean of the stored values
      */
     public double getOkMean() {
+        if (okResponses != null) {
+            return okResponses.getMean();
+        }
         return okResponsesStats.getMean();
     }
 
@@ -261,6 +313,9 @@ public class SamplerMetric {
      *         values.
      */
     public double getOkPercentile(double percentile) {
+        if (okResponses != null) {
+            return okResponses.getPercentile(percentile);
+        }
         return okResponsesStats.getPercentile(percentile);
     }
 
@@ -271,6 +326,9 @@ public class SamplerMetric {
      *         been added yet
      */
     public double getKoMaxTime() {
+        if (koResponses != null) {
+            return koResponses.getMax();
+        }
         return koResponsesStats.getMax();
     }
 
@@ -281,6 +339,9 @@ public class SamplerMetric {
      *         added yet
      */
     public double getKoMinTime() {
+        if (koResponses != null) {
+            return koResponses.getMin();
+        }
         return koResponsesStats.getMin();
     }
 
@@ -290,6 +351,9 @@ public class SamplerMetric {
      * @return The arithmetic mean of the stored values
      */
     public double getKoMean() {
+        if (koResponses != null) {
+            return koResponses.getMean();
+        }
         return koResponsesStats.getMean();
     }
 
@@ -302,6 +366,9 @@ public class SamplerMetric {
      *         values.
      */
     public double getKoPercentile(double percentile) {
+        if (koResponses != null) {
+            return koResponses.getPercentile(percentile);
+        }
         return koResponsesStats.getPercentile(percentile);
     }
 
@@ -312,6 +379,9 @@ public class SamplerMetric {
      *         been added yet
      */
     public double getAllMaxTime() {
+        if (allResponses != null) {
+            return allResponses.getMax();
+        }
         return allResponsesStats.getMax();
     }
 
@@ -322,6 +392,9 @@ public class SamplerMetric {
      *         added yet
      */
     public double getAllMinTime() {
+        if (allResponses != null) {
+            return allResponses.getMin();
+        }
         return allResponsesStats.getMin();
     }
 
@@ -331,6 +404,9 @@ public class SamplerMetric {
      * @return The arithmetic mean of the stored values
      */
     public double getAllMean() {
+        if (allResponses != null) {
+            return allResponses.getMean();
+        }
         return allResponsesStats.getMean();
     }
 
@@ -343,6 +419,9 @@ public class SamplerMetric {
      *         values.
      */
     public double getAllPercentile(double percentile) {
+        if (allResponses != null) {
+            return allResponses.getPercentile(percentile);
+        }
         return pctResponseStats.getPercentile(percentile);
     }
 
@@ -351,7 +430,7 @@ public class SamplerMetric {
      * @return the hits
      */
     public int getHits() {
-        return hits;
+        return hits.intValue();
     }
 
     /**
@@ -366,13 +445,99 @@ public class SamplerMetric {
      * @return the sentBytes
      */
     public long getSentBytes() {
-        return sentBytes;
+        return sentBytes.sum();
     }
 
     /**
      * @return the receivedBytes
      */
     public long getReceivedBytes() {
-        return receivedBytes;
+        return receivedBytes.sum();
+    }
+
+    /**
+     * Returns the response times of the successful samples of the current time interval.
+     *
+     * @return a copy of the histogram, or null if the metric is not in {@link WindowMode#HISTOGRAM} mode
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    public LogLinearHistogram getOkHistogram() {
+        return okResponses == null ? null : new LogLinearHistogram(okResponses.histogram);
+    }
+
+    /**
+     * Returns the response times of the failed samples of the current time interval.
+     *
+     * @return a copy of the histogram, or null if the metric is not in {@link WindowMode#HISTOGRAM} mode
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    public LogLinearHistogram getKoHistogram() {
+        return koResponses == null ? null : new LogLinearHistogram(koResponses.histogram);
+    }
+
+    /**
+     * Returns the response times of all the samples of the current time interval.
+     *
+     * @return a copy of the histogram, or null if the metric is not in {@link WindowMode#HISTOGRAM} mode
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    public LogLinearHistogram getAllHistogram() {
+        return allResponses == null ? null : new LogLinearHistogram(allResponses.histogram);
+    }
+
+    /**
+     * Response times of a time interval, the statistics are NaN if there are no samples
+     * as with {@link DescriptiveStatistics}.
+     */
+    private static final class ResponseTimes {
+        private final LogLinearHistogram histogram = new LogLinearHistogram(HISTOGRAM_PRECISION);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator min = new LongAccumulator(Long::min, Long.MAX_VALUE);
+        private final LongAccumulator max = new LongAccumulator(Long::max, Long.MIN_VALUE);
+
+        void add(long time) {
+            histogram.record(time);
+            sum.add(time);
+            min.accumulate(time);
+            max.accumulate(time);
+            count.increment();
+        }
+
+        void clear() {
+            histogram.clear();
+            count.reset();
+            sum.reset();
+            min.reset();
+            max.reset();
+        }
+
+        double getMin() {
+            return count.sum() == 0 ? Double.NaN : min.get();
+        }
+
+        double getMax() {
+            return count.sum() == 0 ? Double.NaN : max.get();
+        }
+
+        double getMean() {
+            long n = count.sum();
+            return n == 0 ? Double.NaN : (double) sum.sum() / n;
+        }
+
+        /**
+         * @param percentile the requested percentile (scaled from 0 - 100)
+         * @return the percentile, within the range of the values
+         */
+        double getPercentile(double percentile) {
+            if (count.sum() == 0) {
+                return Double.NaN;
+            }
+            long value = histogram.getPercentPoint(percentile / 100);
+            return Math.max(min.get(), Math.min(max.get(), value));
+        }
     }
 }
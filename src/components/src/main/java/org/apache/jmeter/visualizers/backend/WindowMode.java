@@ -23,13 +23,20 @@ import org.apache.jmeter.util.JMeterUtils;
 
 /**
  * Metrics are sent into boxes which can be {@link #FIXED a fixed-size sliding window} or {@link #TIMED time boxed}.
+ * {@link #HISTOGRAM} boxes are time boxed too, but they count the response times in histograms
+ * instead of keeping them.
  * @since 3.2
  */
 public enum WindowMode {
     /** Fixed-size sliding window. **/
     FIXED,
     /** Time boxed. **/
-    TIMED;
+    TIMED,
+    /**
+     * Time boxed, the response times are counted in histograms.
+     * @since 6.0
+     */
+    HISTOGRAM;
 
     /**
      * Gets defined JMeter mode.
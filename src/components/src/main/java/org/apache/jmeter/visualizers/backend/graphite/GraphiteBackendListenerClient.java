@@ -39,6 +39,7 @@ import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
 import org.apache.jmeter.visualizers.backend.BackendListenerClient;
 import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.apache.jmeter.visualizers.backend.BackendQueueMetrics;
 import org.apache.jmeter.visualizers.backend.SamplerMetric;
 import org.apache.jmeter.visualizers.backend.UserMetric;
 import org.slf4j.Logger;
@@ -80,6 +81,12 @@ public class GraphiteBackendListenerClient extends AbstractBackendListenerClient
     private static final String METRIC_MEAN_ACTIVE_THREADS = "meanAT"; //$NON-NLS-1$
     private static final String METRIC_STARTED_THREADS = "startedT"; //$NON-NLS-1$
     private static final String METRIC_FINISHED_THREADS = "endedT"; //$NON-NLS-1$
+    // Queue Metrics
+    private static final String METRIC_QUEUE_SIZE = "queueSize"; //$NON-NLS-1$
+    private static final String METRIC_QUEUE_DROPPED = "queueDropped"; //$NON-NLS-1$
+    private static final String METRIC_QUEUE_WAIT_TIME = "queueWaitTime"; //$NON-NLS-1$
+    private static final String METRIC_HANDLER_MEAN_TIME = "handlerMeanTime"; //$NON-NLS-1$
+    private static final String METRIC_HANDLER_MAX_TIME = "handlerMaxTime"; //$NON-NLS-1$
 
     // Response time Metrics
     private static final String METRIC_SEPARATOR = "."; //$NON-NLS-1$
@@ -135,6 +142,8 @@ public class GraphiteBackendListenerClient extends AbstractBackendListenerClient
 
     private GraphiteMetricsSender graphiteMetricsManager;
 
+    private BackendQueueMetrics queueMetrics;
+
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> timerHandle;
 
@@ -182,10 +191,31 @@ public class GraphiteBackendListenerClient extends AbstractBackendListenerClient
         graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
                 METRIC_FINISHED_THREADS,
                 Integer.toString(userMetric.getFinishedThreads()));
+        if (queueMetrics != null) {
+            addQueueMetrics(timestampInSeconds);
+        }
 
         graphiteMetricsManager.writeAndSendMetrics();
     }
 
+    private void addQueueMetrics(long timestampInSeconds) {
+        graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
+                METRIC_QUEUE_SIZE,
+                Integer.toString(queueMetrics.getQueueSize()));
+        graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
+                METRIC_QUEUE_DROPPED,
+                Long.toString(queueMetrics.getDroppedResults()));
+        graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
+                METRIC_QUEUE_WAIT_TIME,
+                Long.toString(queueMetrics.getQueueWaitMillis()));
+        graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
+                METRIC_HANDLER_MEAN_TIME,
+                Double.toString(queueMetrics.getMeanHandlerMillis()));
+        graphiteMetricsManager.addMetric(timestampInSeconds, TEST_CONTEXT_NAME,
+                METRIC_HANDLER_MAX_TIME,
+                Double.toString(queueMetrics.getMaxHandlerMillis()));
+    }
+
     /**
      * Add request metrics to metrics manager.
      * Note if total number of requests is 0, no response time metrics are sent.
@@ -300,6 +330,7 @@ public class GraphiteBackendListenerClient extends AbstractBackendListenerClient
     @Override
     public void setupTest(BackendListenerContext context) throws Exception {
         String graphiteMetricsSenderClass = context.getParameter(GRAPHITE_METRICS_SENDER);
+        queueMetrics = context.getQueueMetrics();
 
         String graphiteHost = context.getParameter(GRAPHITE_HOST);
         int graphitePort = context.getIntParameter(GRAPHITE_PORT, DEFAULT_PLAINTEXT_PROTOCOL_PORT);
@@ -38,6 +38,7 @@ import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
 import org.apache.jmeter.visualizers.backend.BackendListenerClient;
 import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.apache.jmeter.visualizers.backend.BackendQueueMetrics;
 import org.apache.jmeter.visualizers.backend.ErrorMetric;
 import org.apache.jmeter.visualizers.backend.SamplerMetric;
 import org.apache.jmeter.visualizers.backend.UserMetric;
@@ -90,6 +91,11 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
     private static final String METRIC_MEAN_ACTIVE_THREADS = "meanAT=";
     private static final String METRIC_STARTED_THREADS = "startedT=";
     private static final String METRIC_ENDED_THREADS = "endedT=";
+    private static final String METRIC_QUEUE_SIZE = "queueSize=";
+    private static final String METRIC_QUEUE_DROPPED = "queueDropped=";
+    private static final String METRIC_QUEUE_WAIT_TIME = "queueWaitTime=";
+    private static final String METRIC_HANDLER_MEAN_TIME = "handlerMeanTime=";
+    private static final String METRIC_HANDLER_MAX_TIME = "handlerMaxTime=";
 
     private static final String TAG_OK = "ok";
     private static final String TAG_KO = "ko";
@@ -126,6 +132,7 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
     private String applicationName = "";
     private String userTag = "";
     private InfluxdbMetricsSender influxdbMetricsManager;
+    private BackendQueueMetrics queueMetrics;
 
     private ScheduledExecutorService scheduler;
     private ScheduledFuture<?> timerHandle;
@@ -166,6 +173,14 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
         field.append(METRIC_MEAN_ACTIVE_THREADS).append(userMetrics.getMeanActiveThreads()).append(',');
         field.append(METRIC_STARTED_THREADS).append(userMetrics.getStartedThreads()).append(',');
         field.append(METRIC_ENDED_THREADS).append(userMetrics.getFinishedThreads());
+        if (queueMetrics != null) {
+            field.append(',');
+            field.append(METRIC_QUEUE_SIZE).append(queueMetrics.getQueueSize()).append(',');
+            field.append(METRIC_QUEUE_DROPPED).append(queueMetrics.getDroppedResults()).append(',');
+            field.append(METRIC_QUEUE_WAIT_TIME).append(queueMetrics.getQueueWaitMillis()).append(',');
+            field.append(METRIC_HANDLER_MEAN_TIME).append(queueMetrics.getMeanHandlerMillis()).append(',');
+            field.append(METRIC_HANDLER_MAX_TIME).append(queueMetrics.getMaxHandlerMillis());
+        }
 
         influxdbMetricsManager.addMetric(measurement, tag.toString(), field.toString());
 
@@ -315,6 +330,7 @@ public class InfluxdbBackendListenerClient extends AbstractBackendListenerClient
     @Override
     public void setupTest(BackendListenerContext context) throws Exception {
         summaryOnly = context.getBooleanParameter("summaryOnly", false);
+        queueMetrics = context.getQueueMetrics();
         samplersRegex = context.getParameter("samplersRegex", "");
         applicationName = AbstractInfluxdbMetricsSender.tagToStringValue(
                 context.getParameter("application", ""));
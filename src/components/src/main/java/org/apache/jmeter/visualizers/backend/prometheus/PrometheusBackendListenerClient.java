@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend.prometheus;
+
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.jmeter.config.Arguments;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.AbstractBackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerClient;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.apache.jorphan.math.LogLinearHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.auto.service.AutoService;
+
+/**
+ * Implementation of {@link BackendListenerClient} that exposes the metrics of the test on an embedded HTTP endpoint,
+ * in Prometheus text format, so Prometheus scrapes every injector instead of the injectors pushing their metrics.
+ * <p>
+ * The endpoint serves, cumulated since the start of the test:
+ * <ul>
+ *     <li>the number of samples by label and status, and of errors by label and response code</li>
+ *     <li>the bytes sent and received by label</li>
+ *     <li>a histogram of the response times by label, with log-linear buckets</li>
+ *     <li>the number of threads, and of active threads by thread group</li>
+ *     <li>metrics of the injector: CPU, heap, garbage collections and backend listener queue</li>
+ * </ul>
+ *
+ * @since 6.0
+ */
+@AutoService(BackendListenerClient.class)
+public class PrometheusBackendListenerClient extends AbstractBackendListenerClient {
+
+    private static final Logger log = LoggerFactory.getLogger(PrometheusBackendListenerClient.class);
+
+    //+ Argument names
+    // These are stored in the JMX file, so DO NOT CHANGE ANY VALUES
+    private static final String PROMETHEUS_HOST = "prometheusHost"; //$NON-NLS-1$
+    private static final String PROMETHEUS_PORT = "prometheusPort"; //$NON-NLS-1$
+    private static final String PROMETHEUS_PATH = "prometheusPath"; //$NON-NLS-1$
+    private static final String SAMPLERS_REGEX = "samplersRegex"; //$NON-NLS-1$
+    private static final String HISTOGRAM_PRECISION = "histogramPrecision"; //$NON-NLS-1$
+    //- Argument names
+
+    private static final int DEFAULT_PORT = 9270;
+    private static final String DEFAULT_PATH = "/metrics"; //$NON-NLS-1$
+    private static final int DEFAULT_HISTOGRAM_PRECISION = 3;
+
+    private static final Map<String, String> DEFAULT_ARGS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_ARGS.put(PROMETHEUS_HOST, "");
+        DEFAULT_ARGS.put(PROMETHEUS_PORT, Integer.toString(DEFAULT_PORT));
+        DEFAULT_ARGS.put(PROMETHEUS_PATH, DEFAULT_PATH);
+        DEFAULT_ARGS.put(SAMPLERS_REGEX, ".*");
+        DEFAULT_ARGS.put(HISTOGRAM_PRECISION, Integer.toString(DEFAULT_HISTOGRAM_PRECISION));
+    }
+
+    private volatile PrometheusRegistry registry;
+    private PrometheusEndpoint endpoint;
+
+    public PrometheusBackendListenerClient() {
+        super();
+    }
+
+    @Override
+    public void handleSampleResults(List<SampleResult> sampleResults, BackendListenerContext context) {
+        PrometheusRegistry currentRegistry = registry;
+        for (SampleResult sampleResult : sampleResults) {
+            currentRegistry.add(sampleResult);
+        }
+    }
+
+    @Override
+    public void setupTest(BackendListenerContext context) throws Exception {
+        super.setupTest(context);
+        int precision = context.getIntParameter(HISTOGRAM_PRECISION, DEFAULT_HISTOGRAM_PRECISION);
+        if (precision < 1 || precision > LogLinearHistogram.MAX_PRECISION_BITS) {
+            log.warn("Invalid {} {}, defaulting to {}", HISTOGRAM_PRECISION, precision, DEFAULT_HISTOGRAM_PRECISION);
+            precision = DEFAULT_HISTOGRAM_PRECISION;
+        }
+        Pattern samplersToFilter = Pattern.compile(context.getParameter(SAMPLERS_REGEX, ".*"));
+        registry = new PrometheusRegistry(precision, samplersToFilter, context.getQueueMetrics());
+
+        String host = context.getParameter(PROMETHEUS_HOST, "");
+        int port = context.getIntParameter(PROMETHEUS_PORT, DEFAULT_PORT);
+        String path = context.getParameter(PROMETHEUS_PATH, DEFAULT_PATH);
+        InetSocketAddress address = StringUtils.isBlank(host)
+                ? new InetSocketAddress(port)
+                : new InetSocketAddress(host.trim(), port);
+        endpoint = new PrometheusEndpoint(address, path, () -> registry.scrape());
+        log.info("Serving Prometheus metrics on http://{}:{}{}", StringUtils.defaultIfBlank(host, "0.0.0.0"),
+                getPort(), path);
+    }
+
+    /**
+     * @return the port the endpoint listens on, useful when the configured port is 0
+     */
+    int getPort() {
+        return endpoint.getPort();
+    }
+
+    @Override
+    public void teardownTest(BackendListenerContext context) throws Exception {
+        if (endpoint != null) {
+            endpoint.close();
+            endpoint = null;
+        }
+        super.teardownTest(context);
+    }
+
+    @Override
+    public Arguments getDefaultParameters() {
+        Arguments arguments = new Arguments();
+        DEFAULT_ARGS.forEach(arguments::addArgument);
+        return arguments;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend.prometheus;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Minimal HTTP/1.1 server that answers the scrapes of Prometheus on a single path.
+ * <p>
+ * Scrapes are rare and cheap, so the connections are served one at a time by the thread that accepts them,
+ * and each connection is closed after its response.
+ * It only relies on {@link ServerSocket}, so the endpoint does not need the {@code jdk.httpserver} module.
+ * <p>
+ * Thread safe class
+ */
+final class PrometheusEndpoint implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PrometheusEndpoint.class);
+
+    /** Maximal length of the request line and of each header line */
+    private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+    /** Maximal number of header lines of a request */
+    private static final int MAX_HEADERS = 100;
+
+    private static final int READ_TIMEOUT_MS = 10_000;
+
+    private final ServerSocket serverSocket;
+    private final String path;
+    private final Supplier<String> scrape;
+    private final Thread acceptor;
+
+    /**
+     * Binds the endpoint and starts serving the scrapes.
+     *
+     * @param address the address to listen on, its port can be 0 to use an ephemeral port
+     * @param path    the path of the metrics
+     * @param scrape  provides the metrics in Prometheus text format
+     * @throws IOException if the address can't be bound
+     */
+    PrometheusEndpoint(InetSocketAddress address, String path, Supplier<String> scrape) throws IOException {
+        this.path = path;
+        this.scrape = scrape;
+        this.serverSocket = new ServerSocket();
+        try {
+            serverSocket.bind(address);
+        } catch (IOException e) {
+            serverSocket.close();
+            throw e;
+        }
+        this.acceptor = new Thread(this::acceptConnections, "prometheus-endpoint-" + getPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the port the endpoint listens on
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                socket.setSoTimeout(READ_TIMEOUT_MS);
+                handle(socket);
+            } catch (SocketException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Error while serving Prometheus scrape", e);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Error while serving Prometheus scrape", e);
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        OutputStream out = socket.getOutputStream();
+        String requestLine = readLine(in);
+        String[] parts = requestLine == null ? new String[0] : requestLine.split(" ");
+        if (parts.length != 3 || !skipHeaders(in)) {
+            respond(out, 400, "Bad Request", null, false);
+            return;
+        }
+        String method = parts[0];
+        String target = parts[1];
+        int query = target.indexOf('?');
+        if (!path.equals(query < 0 ? target : target.substring(0, query))) {
+            respond(out, 404, "Not Found", null, false);
+            return;
+        }
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            respond(out, 405, "Method Not Allowed", null, false);
+            return;
+        }
+        byte[] body = scrape.get().getBytes(StandardCharsets.UTF_8);
+        respond(out, 200, "OK", body, "HEAD".equals(method));
+    }
+
+    /**
+     * @return false if the headers are not terminated by an empty line or are too long
+     */
+    private static boolean skipHeaders(InputStream in) throws IOException {
+        for (int i = 0; i < MAX_HEADERS; i++) {
+            String line = readLine(in);
+            if (line == null) {
+                return false;
+            }
+            if (line.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the line without its terminator, or null at the end of the stream or if the line is too long
+     */
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_LINE_LENGTH) {
+                return null;
+            }
+            line.append((char) b);
+        }
+        return null;
+    }
+
+    private static void respond(OutputStream out, int status, String reason, byte[] body, boolean headOnly)
+            throws IOException {
+        StringBuilder headers = new StringBuilder(128);
+        headers.append("HTTP/1.1 ").append(status).append(' ').append(reason).append("\r\n");
+        if (status == 405) {
+            headers.append("Allow: GET, HEAD\r\n");
+        }
+        if (body != null) {
+            headers.append("Content-Type: ").append(PrometheusRegistry.CONTENT_TYPE).append("\r\n");
+        }
+        headers.append("Content-Length: ").append(body == null ? 0 : body.length).append("\r\n")
+                .append("Connection: close\r\n\r\n");
+        out.write(headers.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (body != null && !headOnly) {
+            out.write(body);
+        }
+        out.flush();
+    }
+
+    /**
+     * Stops serving the scrapes and waits for the scrape in progress, if any.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        try {
+            acceptor.join(READ_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend.prometheus;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import javax.management.JMException;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.visualizers.backend.BackendQueueMetrics;
+import org.apache.jmeter.visualizers.backend.ErrorMetric;
+import org.apache.jorphan.math.LogLinearHistogram;
+
+/**
+ * Metrics exposed by {@link PrometheusBackendListenerClient}, with the
+ * <a href="https://prometheus.io/docs/instrumenting/exposition_formats/">Prometheus text format</a>.
+ * <p>
+ * The samples are recorded without locks: counters are {@link LongAdder}s and the response times are
+ * counted in {@link LogLinearHistogram}s, so a scrape only reads the counters and never blocks the recording.
+ * All the values are cumulated since the start of the test.
+ * <p>
+ * Thread safe class
+ */
+final class PrometheusRegistry {
+    /** Label of the samples that are not matched by the samplers regex */
+    static final String OTHERS_LABEL = "__others__"; // $NON-NLS-1$
+
+    /** Content type of {@link #scrape()} */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8"; // $NON-NLS-1$
+
+    /** Suffix that {@code AbstractThreadGroup} appends to the thread group name: group number and thread number */
+    private static final Pattern THREAD_NUMBER_SUFFIX = Pattern.compile(" \\d+-\\d+$");
+
+    private static final class LabelMetrics {
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder sentBytes = new LongAdder();
+        private final LongAdder receivedBytes = new LongAdder();
+        private final LongAdder elapsedSum = new LongAdder();
+        private final LogLinearHistogram responseTimes;
+        private final ConcurrentMap<String, LongAdder> errorsByCode = new ConcurrentHashMap<>();
+
+        private LabelMetrics(int precisionBits) {
+            responseTimes = new LogLinearHistogram(precisionBits);
+        }
+    }
+
+    private final int precisionBits;
+    private final Pattern samplersToFilter;
+    private final BackendQueueMetrics queueMetrics;
+    private final ConcurrentMap<String, LabelMetrics> labels = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> groupThreads = new ConcurrentHashMap<>();
+    private volatile int lastScrapeLength = 4096;
+
+    /**
+     * @param precisionBits    precision of the response time buckets, see {@link LogLinearHistogram}
+     * @param samplersToFilter the labels that get their own metrics, others are counted as {@value #OTHERS_LABEL}
+     * @param queueMetrics     metrics of the backend listener queue, may be null
+     */
+    PrometheusRegistry(int precisionBits, Pattern samplersToFilter, BackendQueueMetrics queueMetrics) {
+        this.precisionBits = precisionBits;
+        this.samplersToFilter = samplersToFilter;
+        this.queueMetrics = queueMetrics;
+    }
+
+    /**
+     * Records a sample.
+     *
+     * @param result the sample to record
+     */
+    void add(SampleResult result) {
+        String label = result.getSampleLabel();
+        if (!samplersToFilter.matcher(label).find()) {
+            label = OTHERS_LABEL;
+        }
+        LabelMetrics metrics = labels.get(label);
+        if (metrics == null) {
+            metrics = labels.computeIfAbsent(label, k -> new LabelMetrics(precisionBits));
+        }
+        int errors = result.getErrorCount();
+        metrics.successes.add(result.getSampleCount() - (long) errors);
+        if (errors > 0) {
+            metrics.failures.add(errors);
+            String code = new ErrorMetric(result).getResponseCode();
+            LongAdder count = metrics.errorsByCode.get(code);
+            if (count == null) {
+                count = metrics.errorsByCode.computeIfAbsent(code, k -> new LongAdder());
+            }
+            count.add(errors);
+        }
+        metrics.sentBytes.add(result.getSentBytes());
+        metrics.receivedBytes.add(result.getBytesAsLong());
+        metrics.elapsedSum.add(result.getTime());
+        metrics.responseTimes.record(result.getTime());
+
+        String threadGroup = threadGroupName(result.getThreadName());
+        AtomicInteger threads = groupThreads.get(threadGroup);
+        if (threads == null) {
+            threads = groupThreads.computeIfAbsent(threadGroup, k -> new AtomicInteger());
+        }
+        threads.set(result.getGroupThreads());
+    }
+
+    static String threadGroupName(String threadName) {
+        if (threadName == null) {
+            return "";
+        }
+        return THREAD_NUMBER_SUFFIX.matcher(threadName).replaceFirst("");
+    }
+
+    /**
+     * @return the metrics in Prometheus text format
+     */
+    String scrape() {
+        StringBuilder sb = new StringBuilder(lastScrapeLength + 256);
+        Map<String, LabelMetrics> sortedLabels = new TreeMap<>(labels);
+
+        header(sb, "jmeter_samples_total", "counter", "Number of samples by label and status");
+        sortedLabels.forEach((label, m) -> {
+            sample(sb, "jmeter_samples_total", label, "status", "ok", m.successes.sum());
+            sample(sb, "jmeter_samples_total", label, "status", "ko", m.failures.sum());
+        });
+        header(sb, "jmeter_errors_total", "counter", "Number of failed samples by label and response code");
+        sortedLabels.forEach((label, m) ->
+                new TreeMap<>(m.errorsByCode).forEach((code, count) ->
+                        sample(sb, "jmeter_errors_total", label, "response_code", code, count.sum())));
+        header(sb, "jmeter_sent_bytes_total", "counter", "Bytes sent by label");
+        sortedLabels.forEach((label, m) -> sample(sb, "jmeter_sent_bytes_total", label, null, null, m.sentBytes.sum()));
+        header(sb, "jmeter_received_bytes_total", "counter", "Bytes received by label");
+        sortedLabels.forEach((label, m) ->
+                sample(sb, "jmeter_received_bytes_total", label, null, null, m.receivedBytes.sum()));
+        header(sb, "jmeter_response_time_seconds", "histogram", "Response times by label");
+        sortedLabels.forEach((label, m) -> histogram(sb, label, m));
+
+        JMeterContextService.ThreadCounts threadCounts = JMeterContextService.getThreadCounts();
+        header(sb, "jmeter_threads", "gauge", "Number of threads of the injector by state");
+        value(sb, "jmeter_threads{state=\"active\"}", threadCounts.activeThreads);
+        value(sb, "jmeter_threads{state=\"started\"}", threadCounts.startedThreads);
+        value(sb, "jmeter_threads{state=\"finished\"}", threadCounts.finishedThreads);
+        header(sb, "jmeter_thread_group_active_threads", "gauge",
+                "Number of active threads of the thread group at its last sample");
+        new TreeMap<>(groupThreads).forEach((group, threads) -> {
+            sb.append("jmeter_thread_group_active_threads{thread_group=\"");
+            escape(sb, group);
+            sb.append("\"} ").append(threads.get()).append('\n');
+        });
+
+        injectorMetrics(sb);
+        lastScrapeLength = sb.length();
+        return sb.toString();
+    }
+
+    private static void histogram(StringBuilder sb, String label, LabelMetrics m) {
+        long[] cumulated = new long[1];
+        m.responseTimes.forEachBucket((lowest, highest, count) -> {
+            cumulated[0] += count;
+            sb.append("jmeter_response_time_seconds_bucket{label=\"");
+            escape(sb, label);
+            sb.append("\",le=\"").append(seconds(highest)).append("\"} ").append(cumulated[0]).append('\n');
+        });
+        sb.append("jmeter_response_time_seconds_bucket{label=\"");
+        escape(sb, label);
+        sb.append("\",le=\"+Inf\"} ").append(cumulated[0]).append('\n');
+        sample(sb, "jmeter_response_time_seconds_count", label, null, null, cumulated[0]);
+        sb.append("jmeter_response_time_seconds_sum{label=\"");
+        escape(sb, label);
+        sb.append("\"} ").append(seconds(m.elapsedSum.sum())).append('\n');
+    }
+
+    private void injectorMetrics(StringBuilder sb) {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        Object processCpuLoad = processCpuLoad(os);
+        if (processCpuLoad instanceof Number) {
+            header(sb, "jmeter_injector_process_cpu_load", "gauge",
+                    "Recent CPU usage of the injector process between 0 and 1, negative if not available");
+            value(sb, "jmeter_injector_process_cpu_load", ((Number) processCpuLoad).doubleValue());
+        }
+        header(sb, "jmeter_injector_system_load_average", "gauge",
+                "System load average for the last minute, negative if not available");
+        value(sb, "jmeter_injector_system_load_average", os.getSystemLoadAverage());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        header(sb, "jmeter_injector_heap_used_bytes", "gauge", "Used heap of the injector");
+        value(sb, "jmeter_injector_heap_used_bytes", heap.getUsed());
+        header(sb, "jmeter_injector_heap_max_bytes", "gauge", "Maximal heap of the injector, -1 if undefined");
+        value(sb, "jmeter_injector_heap_max_bytes", heap.getMax());
+
+        header(sb, "jmeter_injector_gc_collections_total", "counter", "Number of garbage collections by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sample(sb, "jmeter_injector_gc_collections_total", null, "gc", gc.getName(),
+                    Math.max(0, gc.getCollectionCount()));
+        }
+        header(sb, "jmeter_injector_gc_seconds_total", "counter", "Time spent in garbage collections by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            sb.append("jmeter_injector_gc_seconds_total{gc=\"");
+            escape(sb, gc.getName());
+            sb.append("\"} ").append(seconds(Math.max(0, gc.getCollectionTime()))).append('\n');
+        }
+        header(sb, "jmeter_injector_jvm_threads", "gauge", "Number of live JVM threads of the injector");
+        value(sb, "jmeter_injector_jvm_threads", ManagementFactory.getThreadMXBean().getThreadCount());
+
+        if (queueMetrics != null) {
+            header(sb, "jmeter_backend_queue_size", "gauge", "Number of samples waiting in the backend listener queue");
+            value(sb, "jmeter_backend_queue_size", queueMetrics.getQueueSize());
+            header(sb, "jmeter_backend_queue_capacity", "gauge", "Capacity of the backend listener queue");
+            value(sb, "jmeter_backend_queue_capacity", queueMetrics.getQueueCapacity());
+            header(sb, "jmeter_backend_queue_dropped_total", "counter",
+                    "Samples dropped because the backend listener queue was full");
+            value(sb, "jmeter_backend_queue_dropped_total", queueMetrics.getDroppedResults());
+            header(sb, "jmeter_backend_queue_wait_seconds_total", "counter",
+                    "Time the threads waited because the backend listener queue was full");
+            sb.append("jmeter_backend_queue_wait_seconds_total ")
+                    .append(seconds(queueMetrics.getQueueWaitMillis())).append('\n');
+        }
+    }
+
+    /**
+     * Reads the CPU load through the attributes of the platform MBean, as the JVMs do not all provide it.
+     *
+     * @return the value of the {@code ProcessCpuLoad} attribute, or null if the JVM does not provide it
+     */
+    private static Object processCpuLoad(OperatingSystemMXBean os) {
+        try {
+            return ManagementFactory.getPlatformMBeanServer().getAttribute(os.getObjectName(), "ProcessCpuLoad");
+        } catch (JMException e) { // NOSONAR The metric is not exposed when it is not available
+            return null;
+        }
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void value(StringBuilder sb, String nameAndLabels, long value) {
+        sb.append(nameAndLabels).append(' ').append(value).append('\n');
+    }
+
+    private static void value(StringBuilder sb, String nameAndLabels, double value) {
+        sb.append(nameAndLabels).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String label,
+            String extraName, String extraValue, long value) {
+        sb.append(name).append('{');
+        if (label != null) {
+            sb.append("label=\"");
+            escape(sb, label);
+            sb.append('"');
+            if (extraName != null) {
+                sb.append(',');
+            }
+        }
+        if (extraName != null) {
+            sb.append(extraName).append("=\"");
+            escape(sb, extraValue);
+            sb.append('"');
+        }
+        sb.append("} ").append(value).append('\n');
+    }
+
+    /**
+     * Escapes a label value: backslash, double-quote and line feed must be escaped.
+     */
+    static void escape(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * @param millis a duration in milliseconds
+     * @return the duration in seconds, without rounding
+     */
+    static String seconds(long millis) {
+        return BigDecimal.valueOf(millis, 3).toPlainString();
+    }
+}
@@ -19,10 +19,21 @@ package org.apache.jmeter.control;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.jmeter.assertions.ResponseAssertion;
+import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.junit.JMeterTestCase;
 import org.apache.jmeter.sampler.DebugSampler;
+import org.apache.jmeter.samplers.AsyncSampleListener;
+import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.test.samplers.CollectSamplesListener;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.threads.AsyncListenerNotifier;
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.JMeterThread;
 import org.apache.jmeter.threads.JMeterVariables;
@@ -31,6 +42,7 @@ import org.apache.jmeter.threads.TestCompiler;
 import org.apache.jmeter.threads.ThreadGroup;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 
 public class TestTransactionController extends JMeterTestCase {
@@ -81,4 +93,79 @@ public class TestTransactionController extends JMeterTestCase {
         assertEquals("Number of samples in transaction : 1, number of failing samples : 1",
                 listener.getEvents().get(0).getResult().getResponseMessage());
     }
+
+    @TempDir
+    File spillDirectory;
+
+    /**
+     * Slow listener notified off the sampling thread, that records the labels of the samples it receives.
+     */
+    private static class SlowAsyncListener extends AbstractTestElement implements AsyncSampleListener, NoThreadClone {
+        private static final long serialVersionUID = 1L;
+        private final transient List<String> labels = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void sampleOccurred(SampleEvent e) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            labels.add(e.getResult().getSampleLabel());
+        }
+
+        @Override
+        public void sampleStarted(SampleEvent e) {
+            // not used
+        }
+
+        @Override
+        public void sampleStopped(SampleEvent e) {
+            // not used
+        }
+    }
+
+    @Test
+    public void testTransactionSampleFollowsChildrenWithAsyncNotifier() throws Exception {
+        JMeterContextService.getContext().setVariables(new JMeterVariables());
+
+        SlowAsyncListener listener = new SlowAsyncListener();
+
+        TransactionController transactionController = new TransactionController();
+        transactionController.setName("transaction");
+        transactionController.setGenerateParentSample(false);
+
+        DebugSampler first = new DebugSampler();
+        first.setName("first");
+        DebugSampler second = new DebugSampler();
+        second.setName("second");
+
+        LoopController loop = new LoopController();
+        loop.setLoops(1);
+        loop.setContinueForever(false);
+
+        ListedHashTree hashTree = new ListedHashTree();
+        hashTree.add(loop);
+        hashTree.add(loop, transactionController);
+        hashTree.add(transactionController, first);
+        hashTree.add(transactionController, second);
+        hashTree.add(loop, listener);
+
+        TestCompiler compiler = new TestCompiler(hashTree);
+        hashTree.traverse(compiler);
+
+        ThreadGroup threadGroup = new ThreadGroup();
+        threadGroup.setNumThreads(1);
+
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(1, 16, AsyncListenerNotifier.Backpressure.BLOCK, spillDirectory);
+
+        JMeterThread thread = new JMeterThread(hashTree, threadGroup, notifier);
+        thread.setThreadGroup(threadGroup);
+        thread.run();
+        notifier.shutdown();
+
+        assertEquals(Arrays.asList("first", "second", "transaction"), listener.labels,
+                "Transaction sample must be received after the samples of its children");
+    }
 }
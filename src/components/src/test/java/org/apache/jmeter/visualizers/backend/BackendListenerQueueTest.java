@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.util.JMeterUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class BackendListenerQueueTest extends JMeterTestCase {
+    private static final int PRODUCERS = 4;
+    private static final int RESULTS_PER_PRODUCER = 2000;
+
+    private static volatile CountDownLatch gate;
+    private static final AtomicInteger handledResults = new AtomicInteger();
+    private static volatile int maxBatchSize;
+    private static volatile BackendQueueMetrics queueMetrics;
+
+    public static class RecordingClient extends AbstractBackendListenerClient {
+        @Override
+        public void setupTest(BackendListenerContext context) throws Exception {
+            super.setupTest(context);
+            queueMetrics = context.getQueueMetrics();
+        }
+
+        @Override
+        public void handleSampleResults(List<SampleResult> sampleResults, BackendListenerContext context) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maxBatchSize = Math.max(maxBatchSize, sampleResults.size());
+            handledResults.addAndGet(sampleResults.size());
+        }
+    }
+
+    @AfterEach
+    void resetProperties() {
+        JMeterUtils.getJMeterProperties().remove(BackendListener.BACKPRESSURE_PROPERTY);
+        JMeterUtils.getJMeterProperties().remove(BackendListener.BATCH_SIZE_PROPERTY);
+        JMeterUtils.getJMeterProperties().remove(BackendListener.BATCH_MAX_LATENCY_PROPERTY);
+    }
+
+    private static BackendListener startListener(String name, String queueSize, CountDownLatch clientGate) {
+        gate = clientGate;
+        handledResults.set(0);
+        maxBatchSize = 0;
+        BackendListener listener = new BackendListener();
+        listener.setName(name);
+        listener.setClassname(RecordingClient.class.getName());
+        listener.setQueueSize(queueSize);
+        listener.testStarted();
+        return listener;
+    }
+
+    private static void sampleConcurrently(BackendListener listener) throws InterruptedException {
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < RESULTS_PER_PRODUCER; i++) {
+                    SampleResult result = SampleResult.createTestSample(i);
+                    listener.sampleOccurred(new SampleEvent(result, "tg"));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+
+    @Test
+    void blockDeliversAllResultsInBatches() throws InterruptedException {
+        JMeterUtils.setProperty(BackendListener.BATCH_SIZE_PROPERTY, "16");
+        JMeterUtils.setProperty(BackendListener.BATCH_MAX_LATENCY_PROPERTY, "5");
+        BackendListener listener = startListener("block", "8", new CountDownLatch(0));
+        sampleConcurrently(listener);
+        listener.testEnded();
+
+        assertEquals(PRODUCERS * RESULTS_PER_PRODUCER, handledResults.get(), "handled results");
+        assertTrue(maxBatchSize <= 16, () -> "Batches should have at most 16 results, got " + maxBatchSize);
+        assertEquals(0, queueMetrics.getDroppedResults(), "dropped results");
+        assertEquals(PRODUCERS * RESULTS_PER_PRODUCER, queueMetrics.getHandledResults(), "metrics handled results");
+        assertTrue(queueMetrics.getHandledBatches() >= PRODUCERS * RESULTS_PER_PRODUCER / 16,
+                () -> "Handled batches: " + queueMetrics.getHandledBatches());
+        assertEquals(0, queueMetrics.getQueueSize(), "queue size");
+    }
+
+    @Test
+    void dropCountsResultsThatDoNotFit() throws InterruptedException {
+        JMeterUtils.setProperty(BackendListener.BACKPRESSURE_PROPERTY, "drop");
+        CountDownLatch clientGate = new CountDownLatch(1);
+        BackendListener listener = startListener("drop", "4", clientGate);
+        sampleConcurrently(listener);
+        clientGate.countDown();
+        listener.testEnded();
+
+        assertTrue(queueMetrics.getDroppedResults() > 0, "Some results should be dropped");
+        assertEquals(PRODUCERS * RESULTS_PER_PRODUCER, handledResults.get() + queueMetrics.getDroppedResults(),
+                "Every result should be either handled or dropped");
+        assertEquals(0, queueMetrics.getQueueWaits(), "queue waits");
+    }
+
+    @Test
+    void sampleKeepsSomeResultsThatDoNotFit() throws InterruptedException {
+        JMeterUtils.setProperty(BackendListener.BACKPRESSURE_PROPERTY, "sample");
+        CountDownLatch clientGate = new CountDownLatch(1);
+        BackendListener listener = startListener("sample", "4", clientGate);
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            clientGate.countDown();
+        });
+        release.start();
+        sampleConcurrently(listener);
+        release.join();
+        listener.testEnded();
+
+        assertTrue(queueMetrics.getDroppedResults() > 0, "Some results should be dropped");
+        assertTrue(queueMetrics.getQueueWaits() > 0, "Some results should wait for the queue");
+        assertEquals(PRODUCERS * RESULTS_PER_PRODUCER, handledResults.get() + queueMetrics.getDroppedResults(),
+                "Every result should be either handled or dropped");
+    }
+}
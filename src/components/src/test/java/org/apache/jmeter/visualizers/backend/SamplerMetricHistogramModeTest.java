@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jorphan.math.LogLinearHistogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SamplerMetricHistogramModeTest {
+
+    @BeforeEach
+    @SuppressWarnings("deprecation")
+    public void initMode() throws Exception {
+        SamplerMetric.setDefaultWindowMode(WindowMode.HISTOGRAM);
+    }
+
+    @AfterEach
+    @SuppressWarnings("deprecation")
+    public void resetMode() throws Exception {
+        SamplerMetric.setDefaultWindowMode(WindowMode.get());
+    }
+
+    private static SampleResult createSampleResult(boolean success, long elapsed) {
+        SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_000L + elapsed);
+        result.setSuccessful(success);
+        result.setSampleCount(1);
+        result.setErrorCount(success ? 0 : 1);
+        result.setSentBytes(1000);
+        result.setBytes(2000L);
+        return result;
+    }
+
+    @Test
+    public void computesStatisticsFromHistograms() throws Exception {
+        SamplerMetric metric = new SamplerMetric();
+        for (int i = 1; i <= 1000; i++) {
+            metric.add(createSampleResult(i % 10 != 0, i));
+        }
+        assertEquals(900, metric.getSuccesses(), "successes");
+        assertEquals(100, metric.getFailures(), "failures");
+        assertEquals(1000, metric.getHits(), "hits");
+        assertEquals(1, metric.getAllMinTime(), 0.0, "all.min");
+        assertEquals(1000, metric.getAllMaxTime(), 0.0, "all.max");
+        assertEquals(500.5, metric.getAllMean(), 0.001, "all.mean");
+        assertEquals(10, metric.getKoMinTime(), 0.0, "ko.min");
+        assertEquals(999, metric.getOkMaxTime(), 0.0, "ok.max");
+        // Default precision of 6 bits: less than 1/128 error
+        assertEquals(900, metric.getAllPercentile(90), 900 / 128.0, "all.pct90");
+        assertEquals(990, metric.getAllPercentile(99), 990 / 128.0, "all.pct99");
+        assertEquals(500, metric.getKoPercentile(50), 500 / 128.0, "ko.pct50");
+        assertEquals(100, metric.getErrors().values().stream().mapToInt(Integer::intValue).sum(), "errors");
+    }
+
+    @Test
+    public void resetsHistogramsForTimeInterval() throws Exception {
+        SamplerMetric metric = new SamplerMetric();
+        metric.add(createSampleResult(true, 100));
+        metric.add(createSampleResult(false, 200));
+        LogLinearHistogram all = metric.getAllHistogram();
+        assertNotNull(all, "histogram in HISTOGRAM mode");
+        assertEquals(2, all.getCount(), "all histogram count");
+        assertEquals(1, metric.getOkHistogram().getCount(), "ok histogram count");
+        assertEquals(1, metric.getKoHistogram().getCount(), "ko histogram count");
+
+        metric.resetForTimeInterval();
+
+        assertEquals(Double.NaN, metric.getOkMaxTime(), 0.0, "After reset ok.max");
+        assertEquals(Double.NaN, metric.getAllPercentile(90), 0.0, "After reset all.pct90");
+        assertEquals(0, metric.getAllHistogram().getCount(), "After reset all histogram count");
+        assertEquals(2, all.getCount(), "The returned histogram is a copy");
+        assertEquals(0, metric.getHits(), "After reset hits");
+        assertEquals(0, metric.getSentBytes(), "After reset sent bytes");
+    }
+
+    @Test
+    public void addsSamplesConcurrently() throws Exception {
+        SamplerMetric metric = new SamplerMetric();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metric.add(createSampleResult(true, i % 100));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(40_000, metric.getSuccesses(), "successes");
+        assertEquals(40_000, metric.getAllHistogram().getCount(), "all histogram count");
+        assertEquals(40_000_000L, metric.getSentBytes(), "sent bytes");
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.visualizers.backend.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.visualizers.backend.BackendListenerContext;
+import org.junit.jupiter.api.Test;
+
+class PrometheusBackendListenerClientTest {
+
+    private static SampleResult sample(String label, boolean success, long elapsed) {
+        SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_000L + elapsed);
+        result.setSampleLabel(label);
+        result.setSuccessful(success);
+        result.setSampleCount(1);
+        result.setErrorCount(success ? 0 : 1);
+        result.setResponseCode(success ? "200" : "500");
+        result.setSentBytes(100);
+        result.setBytes(1000L);
+        result.setThreadName("Thread Group 1-3");
+        result.setGroupThreads(7);
+        return result;
+    }
+
+    private static void assertContainsLine(String scrape, String line) {
+        assertTrue(Arrays.asList(scrape.split("\n")).contains(line),
+                () -> "Expected line <" + line + "> in:\n" + scrape);
+    }
+
+    @Test
+    void exposesCountersAndCumulativeBuckets() {
+        PrometheusRegistry registry = new PrometheusRegistry(3, Pattern.compile("^login"), null);
+        for (int i = 1; i <= 10; i++) {
+            registry.add(sample("login", i != 10, i * 10));
+        }
+        registry.add(sample("other \"page\"", true, 5));
+
+        String scrape = registry.scrape();
+
+        assertContainsLine(scrape, "jmeter_samples_total{label=\"login\",status=\"ok\"} 9");
+        assertContainsLine(scrape, "jmeter_samples_total{label=\"login\",status=\"ko\"} 1");
+        assertContainsLine(scrape, "jmeter_samples_total{label=\"__others__\",status=\"ok\"} 1");
+        assertContainsLine(scrape, "jmeter_errors_total{label=\"login\",response_code=\"500\"} 1");
+        assertContainsLine(scrape, "jmeter_sent_bytes_total{label=\"login\"} 1000");
+        assertContainsLine(scrape, "jmeter_received_bytes_total{label=\"login\"} 10000");
+        assertContainsLine(scrape, "jmeter_response_time_seconds_bucket{label=\"login\",le=\"0.010\"} 1");
+        assertContainsLine(scrape, "jmeter_response_time_seconds_bucket{label=\"login\",le=\"+Inf\"} 10");
+        assertContainsLine(scrape, "jmeter_response_time_seconds_count{label=\"login\"} 10");
+        assertContainsLine(scrape, "jmeter_response_time_seconds_sum{label=\"login\"} 0.550");
+        assertContainsLine(scrape, "jmeter_thread_group_active_threads{thread_group=\"Thread Group\"} 7");
+
+        long previous = 0;
+        for (String line : scrape.split("\n")) {
+            if (line.startsWith("jmeter_response_time_seconds_bucket{label=\"login\"")) {
+                long count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                assertTrue(count >= previous, () -> "Buckets should be cumulative: " + line);
+                previous = count;
+            }
+        }
+    }
+
+    @Test
+    void escapesLabelValues() {
+        StringBuilder sb = new StringBuilder();
+        PrometheusRegistry.escape(sb, "a\\b\"c\nd");
+        assertEquals("a\\\\b\\\"c\\nd", sb.toString());
+    }
+
+    @Test
+    void extractsThreadGroupName() {
+        assertEquals("Thread Group", PrometheusRegistry.threadGroupName("Thread Group 1-3"));
+        assertEquals("host-Group 2", PrometheusRegistry.threadGroupName("host-Group 2 12-345"));
+        assertEquals("main", PrometheusRegistry.threadGroupName("main"));
+    }
+
+    @Test
+    void servesMetricsOverHttp() throws Exception {
+        PrometheusBackendListenerClient client = new PrometheusBackendListenerClient();
+        Map<String, String> params = new HashMap<>();
+        params.put("prometheusHost", "127.0.0.1");
+        params.put("prometheusPort", "0");
+        params.put("prometheusPath", "/metrics");
+        BackendListenerContext context = new BackendListenerContext(params);
+        client.setupTest(context);
+        try {
+            client.handleSampleResults(Arrays.asList(sample("home", true, 20), sample("home", false, 30)), context);
+
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://127.0.0.1:" + client.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"),
+                    () -> "Content type: " + connection.getContentType());
+            String body = read(connection);
+            assertContainsLine(body, "jmeter_samples_total{label=\"home\",status=\"ok\"} 1");
+            assertContainsLine(body, "jmeter_samples_total{label=\"home\",status=\"ko\"} 1");
+            assertTrue(body.contains("jmeter_injector_heap_used_bytes "), () -> "Injector metrics missing:\n" + body);
+        } finally {
+            client.teardownTest(context);
+        }
+    }
+
+    @Test
+    void rejectsOtherPathsAndMethods() throws Exception {
+        try (PrometheusEndpoint endpoint = new PrometheusEndpoint(
+                new InetSocketAddress("127.0.0.1", 0), "/metrics", () -> "jmeter_up 1\n")) {
+            String base = "http://127.0.0.1:" + endpoint.getPort();
+
+            HttpURLConnection unknownPath = (HttpURLConnection) new URL(base + "/other").openConnection();
+            assertEquals(404, unknownPath.getResponseCode());
+
+            HttpURLConnection post = (HttpURLConnection) new URL(base + "/metrics").openConnection();
+            post.setRequestMethod("POST");
+            post.setDoOutput(true);
+            post.getOutputStream().close();
+            assertEquals(405, post.getResponseCode());
+            assertEquals("GET, HEAD", post.getHeaderField("Allow"));
+
+            HttpURLConnection head = (HttpURLConnection) new URL(base + "/metrics?x=1").openConnection();
+            head.setRequestMethod("HEAD");
+            assertEquals(200, head.getResponseCode());
+
+            HttpURLConnection get = (HttpURLConnection) new URL(base + "/metrics").openConnection();
+            assertEquals("jmeter_up 1\n", read(get));
+        }
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine.util;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.functions.Function;
+import org.apache.jmeter.functions.InvalidVariableException;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares rendering of {@link CompoundVariable} via {@link CompiledTemplate} with the former
+ * interpretation of the parsed components.
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx128m"})
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompoundVariableBenchmark {
+    @Param({
+            "/api/v1/users/${userId}/orders?page=${page}&size=20",
+            "{\"user\":\"${user}\",\"token\":\"${token}\",\"items\":[${item1},${item2},${item3}]}",
+    })
+    public String expression;
+
+    private List<Object> components;
+    private CompiledTemplate template;
+
+    @Setup
+    public void setup() throws InvalidVariableException {
+        JMeterVariables vars = new JMeterVariables();
+        vars.put("userId", "42");
+        vars.put("page", "7");
+        vars.put("user", "jmeter");
+        vars.put("token", "0123456789abcdef0123456789abcdef");
+        vars.put("item1", "100");
+        vars.put("item2", "200");
+        vars.put("item3", "300");
+        JMeterContextService.getContext().setVariables(vars);
+        components = new FunctionParser().compileString(expression);
+        template = CompiledTemplate.compile(components);
+    }
+
+    @Benchmark
+    public String interpreted() {
+        // Former implementation of CompoundVariable#execute
+        StringBuilder results = new StringBuilder();
+        for (Object item : components) {
+            if (item instanceof Function) {
+                try {
+                    results.append(((Function) item).execute(null, null));
+                } catch (InvalidVariableException e) {
+                    throw new IllegalStateException(e);
+                }
+            } else if (item instanceof SimpleVariable) {
+                results.append(((SimpleVariable) item).toString());
+            } else {
+                results.append(item);
+            }
+        }
+        return results.toString();
+    }
+
+    @Benchmark
+    public String compiled() {
+        return template.render(null, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompoundVariableBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
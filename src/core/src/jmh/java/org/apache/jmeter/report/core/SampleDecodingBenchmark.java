@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.util.JMeterUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of reading the fields of {@value #SAMPLES} samples of a synthetic JTL the way the consumers
+ * of the dashboard report do: every sample goes through about twenty consumers, which read the same few columns.
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx512m"})
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SampleDecodingBenchmark {
+    static final int SAMPLES = 100_000;
+
+    /** Number of consumers reading the sample, like the default graphs, statistics and errors consumers */
+    static final int CONSUMERS = 20;
+
+    private static final String[] COLUMNS = {
+            CSVSaveService.TIME_STAMP, CSVSaveService.CSV_ELAPSED, CSVSaveService.LABEL,
+            CSVSaveService.RESPONSE_CODE, CSVSaveService.RESPONSE_MESSAGE, CSVSaveService.THREAD_NAME,
+            CSVSaveService.DATA_TYPE, CSVSaveService.SUCCESSFUL, CSVSaveService.FAILURE_MESSAGE,
+            CSVSaveService.CSV_BYTES, CSVSaveService.CSV_SENT_BYTES, CSVSaveService.CSV_THREAD_COUNT1,
+            CSVSaveService.CSV_THREAD_COUNT2, CSVSaveService.CSV_URL, CSVSaveService.CSV_LATENCY,
+            CSVSaveService.CSV_IDLETIME, CSVSaveService.CSV_CONNECT_TIME};
+
+    /**
+     * {@code decoded} uses the typed getters of {@link Sample}, {@code converted} converts the column for every
+     * read with {@link Sample#getData(Class, String)}, as the getters did before they cached the parsed values.
+     */
+    @Param({"decoded", "converted"})
+    String implementation;
+
+    SampleMetadata metadata;
+    String[][] rows;
+
+    @Setup
+    public void setup() {
+        if (JMeterUtils.getJMeterHome() == null) {
+            String prefix = ".";
+            for (int i = 0; i < 5 && !new File(prefix, "bin/jmeter.properties").canRead(); i++) {
+                prefix = "../" + prefix;
+            }
+            JMeterUtils.setJMeterHome(new File(prefix).getAbsolutePath());
+            JMeterUtils.loadJMeterProperties(prefix + "/bin/jmeter.properties");
+        }
+        metadata = new SampleMetadata(',', COLUMNS);
+        Random random = new Random(42);
+        rows = new String[SAMPLES][];
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < SAMPLES; i++) {
+            timestamp += random.nextInt(5);
+            boolean success = random.nextInt(100) != 0;
+            rows[i] = new String[]{
+                    Long.toString(timestamp), Integer.toString(random.nextInt(2000)), "HTTP Request " + (i % 10),
+                    success ? "200" : "500", success ? "OK" : "Internal Server Error", "Thread Group 1-" + (i % 50),
+                    "text", Boolean.toString(success), "", Integer.toString(random.nextInt(100_000)),
+                    Integer.toString(random.nextInt(1_000)), "50", "50", "https://jmeter.apache.org/",
+                    Integer.toString(random.nextInt(1000)), "0", Integer.toString(random.nextInt(100))};
+        }
+    }
+
+    @Benchmark
+    public void readFields(Blackhole blackhole) {
+        boolean decoded = "decoded".equals(implementation);
+        for (int i = 0; i < SAMPLES; i++) {
+            Sample sample = new Sample(i, metadata, rows[i]);
+            for (int c = 0; c < CONSUMERS; c++) {
+                blackhole.consume(sample.getName());
+                if (decoded) {
+                    blackhole.consume(sample.getSuccess());
+                    blackhole.consume(sample.getStartTime());
+                    blackhole.consume(sample.getElapsedTime());
+                } else {
+                    blackhole.consume(sample.getData(boolean.class, CSVSaveService.SUCCESSFUL));
+                    blackhole.consume(sample.getData(long.class, CSVSaveService.TIME_STAMP)
+                            - sample.getData(long.class, CSVSaveService.CSV_ELAPSED));
+                    blackhole.consume(sample.getData(long.class, CSVSaveService.CSV_ELAPSED));
+                }
+            }
+            // Read by a few consumers only
+            if (decoded) {
+                blackhole.consume(sample.getLatency());
+                blackhole.consume(sample.getConnectTime());
+                blackhole.consume(sample.getReceivedBytes());
+                blackhole.consume(sample.getSentBytes());
+            } else {
+                blackhole.consume(sample.getData(long.class, CSVSaveService.CSV_LATENCY));
+                blackhole.consume(sample.getData(long.class, CSVSaveService.CSV_CONNECT_TIME));
+                blackhole.consume(sample.getData(long.class, CSVSaveService.CSV_BYTES));
+                blackhole.consume(sample.getData(long.class, CSVSaveService.CSV_SENT_BYTES));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SampleDecodingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
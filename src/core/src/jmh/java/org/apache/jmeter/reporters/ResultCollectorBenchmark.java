@@ -17,8 +17,19 @@
 
 package org.apache.jmeter.reporters;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.CSVSaveService;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -29,6 +40,8 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
@@ -61,6 +74,82 @@ public class ResultCollectorBenchmark {
         return collector.isSampleWanted(success);
     }
 
+    /**
+     * JTL file shared by all the benchmark threads.
+     */
+    @State(Scope.Benchmark)
+    public static class JtlFile {
+        /**
+         * {@code sync} writes from the sampling threads to the shared writer as ResultCollector does by default,
+         * {@code batched} uses {@link BatchingResultWriter}.
+         */
+        @Param({"sync", "batched"})
+        String writer;
+
+        @Param({"false", "true"})
+        boolean autoflush;
+
+        File file;
+        PrintWriter out;
+        BatchingResultWriter batchingWriter;
+
+        @Setup
+        public void setup() throws IOException {
+            file = File.createTempFile("jmh-result-collector", ".jtl");
+            out = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)),
+                    StandardCharsets.UTF_8), autoflush);
+            if ("batched".equals(writer)) {
+                batchingWriter = new BatchingResultWriter(out, CSVSaveService::saveSampleResult,
+                        16384, 1000, "jmh-writer");
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (batchingWriter != null) {
+                batchingWriter.close();
+            }
+            out.close();
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Sample of a sampling thread.
+     */
+    @State(Scope.Thread)
+    public static class Sample {
+        SampleEvent event;
+
+        @Setup
+        public void setup() {
+            SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_123L);
+            result.setSampleLabel("HTTP Request " + Thread.currentThread().getId());
+            result.setResponseCodeOK();
+            result.setResponseMessageOK();
+            result.setThreadName("Thread Group 1-" + Thread.currentThread().getId());
+            result.setDataType(SampleResult.TEXT);
+            result.setSuccessful(true);
+            result.setBytes(1234L);
+            result.setSaveConfig(new SampleSaveConfiguration());
+            event = new SampleEvent(result, "Thread Group");
+        }
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void writeSample64Threads(JtlFile jtl, Sample sample) throws IOException {
+        if (jtl.batchingWriter != null) {
+            jtl.batchingWriter.write(sample.event);
+        } else {
+            CSVSaveService.saveSampleResult(sample.event, jtl.out);
+        }
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(ResultCollectorBenchmark.class.getSimpleName())
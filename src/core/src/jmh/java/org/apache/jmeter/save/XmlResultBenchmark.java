@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.reporters.ResultCollectorHelper;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares XStream with the streaming writer and reader on a JTL file of {@value #SAMPLES} samples.
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx512m"})
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XmlResultBenchmark {
+    static final int SAMPLES = 1_000_000;
+
+    /**
+     * {@code xstream} uses XStream for every sample, {@code streaming} uses {@link XmlResultWriter} and
+     * {@link XmlResultReader}.
+     */
+    @Param({"xstream", "streaming"})
+    String implementation;
+
+    @Param({"false", "true"})
+    boolean saveAll;
+
+    SampleEvent event;
+    XmlResultWriter writer;
+    File file;
+
+    @Setup
+    public void setup() throws IOException {
+        if (JMeterUtils.getJMeterHome() == null) {
+            String prefix = ".";
+            for (int i = 0; i < 5 && !new File(prefix, "bin/jmeter.properties").canRead(); i++) {
+                prefix = "../" + prefix;
+            }
+            JMeterUtils.setJMeterHome(new File(prefix).getAbsolutePath());
+            JMeterUtils.loadJMeterProperties(prefix + "/bin/jmeter.properties");
+        }
+        SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_123L);
+        result.setSampleLabel("HTTP Request");
+        result.setResponseCodeOK();
+        result.setResponseMessageOK();
+        result.setThreadName("Thread Group 1-1");
+        result.setDataType(SampleResult.TEXT);
+        result.setSuccessful(true);
+        result.setBytes(1234L);
+        result.setResponseData("<html><body>Hello, world</body></html>", StandardCharsets.UTF_8.name());
+        result.setSamplerData("GET https://jmeter.apache.org/");
+        SampleSaveConfiguration config = saveAll ? new SampleSaveConfiguration(true) : new SampleSaveConfiguration();
+        config.setAsXml(true);
+        result.setSaveConfig(config);
+        event = new SampleEvent(result, "Thread Group");
+        writer = new XmlResultWriter();
+
+        file = File.createTempFile("jmh-xml-result", ".jtl");
+        try (Writer out = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(file)),
+                StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testResults version=\"1.2\">\n");
+            for (int i = 0; i < SAMPLES; i++) {
+                writer.write(event, out);
+            }
+            out.write("</testResults>\n");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        Writer out = Writer.nullWriter();
+        if ("streaming".equals(implementation)) {
+            for (int i = 0; i < SAMPLES; i++) {
+                writer.write(event, out);
+            }
+        } else {
+            for (int i = 0; i < SAMPLES; i++) {
+                SaveService.saveSampleResultWithXStream(event, out);
+            }
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws IOException {
+        Visualizer visualizer = new Visualizer() {
+            @Override
+            public void add(SampleResult sample) {
+                blackhole.consume(sample);
+            }
+
+            @Override
+            public boolean isStats() {
+                return false;
+            }
+        };
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            if ("streaming".equals(implementation)) {
+                XmlResultReader.read(in, visualizer::add);
+            } else {
+                SaveService.loadTestResults(in, new ResultCollectorHelper(new ResultCollector(), visualizer));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(XmlResultBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
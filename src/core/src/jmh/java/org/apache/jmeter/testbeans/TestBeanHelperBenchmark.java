@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.testbeans;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.property.JMeterProperty;
+import org.apache.jorphan.util.Converter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the per-sample cost of {@link TestBeanHelper#prepare} compared to the former
+ * reflective implementation.
+ */
+@Fork(value = 1, jvmArgsPrepend = {"-Xmx128m"})
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TestBeanHelperBenchmark {
+    public static class SampleBean extends AbstractTestElement implements TestBean {
+        private static final long serialVersionUID = 1L;
+
+        private String host;
+        private String path;
+        private int port;
+        private long timeout;
+        private boolean followRedirects;
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(long timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isFollowRedirects() {
+            return followRedirects;
+        }
+
+        public void setFollowRedirects(boolean followRedirects) {
+            this.followRedirects = followRedirects;
+        }
+    }
+
+    private SampleBean bean;
+    private final List<String> names = new ArrayList<>();
+    private final List<Method> writeMethods = new ArrayList<>();
+    private final List<Class<?>> types = new ArrayList<>();
+    private int counter;
+
+    @Setup
+    public void setup() throws IntrospectionException {
+        bean = new SampleBean();
+        bean.setProperty("host", "jmeter.apache.org");
+        bean.setProperty("path", "/usermanual/index.html");
+        bean.setProperty("port", 443);
+        bean.setProperty("timeout", 30000L);
+        bean.setProperty("followRedirects", true);
+        for (PropertyDescriptor descriptor : Introspector.getBeanInfo(SampleBean.class).getPropertyDescriptors()) {
+            if (!TestBeanHelper.isDescriptorIgnored(descriptor)) {
+                names.add(descriptor.getName());
+                writeMethods.add(descriptor.getWriteMethod());
+                types.add(descriptor.getPropertyType());
+            }
+        }
+    }
+
+    @Benchmark
+    public SampleBean reflection() throws InvocationTargetException, IllegalAccessException {
+        // Former implementation of TestBeanHelper#prepare for plain values
+        Object[] tmp = new Object[1];
+        for (int i = 0; i < names.size(); i++) {
+            JMeterProperty jprop = bean.getProperty(names.get(i));
+            tmp[0] = Converter.convert(jprop.getStringValue(), types.get(i));
+            writeMethods.get(i).invoke(bean, tmp);
+        }
+        return bean;
+    }
+
+    @Benchmark
+    public SampleBean prepare_unchanged() {
+        TestBeanHelper.prepare(bean);
+        return bean;
+    }
+
+    @Benchmark
+    public SampleBean prepare_changed() {
+        // Modify a property, so its setter is called on every invocation
+        bean.setProperty("port", counter++ & 1023);
+        TestBeanHelper.prepare(bean);
+        return bean;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TestBeanHelperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .detectJvmArgs()
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -91,6 +91,23 @@ public class PropertyGetBooleanBenchmarkJava {
         return testPlan.getProps().get(TestElementSchema::getEnabled);
     }
 
+    @Benchmark
+    public boolean getPropertyAsBoolean_byName() {
+        // The slot is looked up by the property name
+        return testPlan.getPropertyAsBoolean(enabled.getName());
+    }
+
+    @Benchmark
+    public String getName_schemaSlot() {
+        // Schema-declared property, it is read from the slot array
+        return testPlan.getName();
+    }
+
+    @Benchmark
+    public String getPropertyAsString_byName() {
+        return testPlan.getPropertyAsString(TestElementSchema.INSTANCE.getName().getName());
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(PropertyGetBooleanBenchmarkJava.class.getSimpleName())
@@ -1244,6 +1244,7 @@ public class JMeter implements JMeterPlugin {
         public void testStarted(String host) {
             final long now=System.currentTimeMillis();
             log.info("Started remote host:  {} ({})", host, now);
+            startRefreshingReport();
         }
 
         @Override
@@ -1252,6 +1253,18 @@ public class JMeter implements JMeterPlugin {
                 final long now = System.currentTimeMillis();
                 log.info("{} ({})", JMeterUtils.getResString("running_test"), now);//$NON-NLS-1$
             }
+            startRefreshingReport();
+        }
+
+        /**
+         * Refreshes the dashboard during the test if
+         * {@value org.apache.jmeter.report.config.ReportGeneratorConfiguration#REPORT_GENERATOR_KEY_REFRESH_INTERVAL}
+         * is set, it is generated at the end of the test anyway.
+         */
+        private void startRefreshingReport() {
+            if (reportGenerator != null) {
+                reportGenerator.startRefreshing();
+            }
         }
 
         @SuppressWarnings("JdkObsolete")
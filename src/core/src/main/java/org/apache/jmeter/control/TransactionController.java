@@ -59,7 +59,7 @@ public class TransactionController extends GenericController implements SampleLi
     private transient TransactionSampler transactionSampler;
 
     /**
-     * Only used in NON parent Mode
+     * Only used in NON parent Mode, when the transaction does not run in a {@link JMeterThread}
      */
     private transient ListenerNotifier lnf;
 
@@ -297,7 +297,10 @@ public class TransactionController extends GenericController implements SampleLi
             // We must set res to null now, before sending the event for the transaction,
             // so that we can ignore that event in our sampleOccurred method
             res = null;
-            lnf.notifyListeners(event, pack.getSampleListeners());
+            // Use the notifier of the thread, so the transaction sample reaches the listeners after its children
+            JMeterThread thread = threadContext.getThread();
+            ListenerNotifier notifier = thread != null ? thread.getNotifier() : lnf;
+            notifier.notifyListeners(event, pack.getSampleListeners());
         }
     }
 
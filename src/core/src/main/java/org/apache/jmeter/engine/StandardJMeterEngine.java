@@ -44,11 +44,13 @@ import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.TestPlan;
 import org.apache.jmeter.testelement.TestStateListener;
 import org.apache.jmeter.threads.AbstractThreadGroup;
+import org.apache.jmeter.threads.AsyncListenerNotifier;
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.ListenerNotifier;
 import org.apache.jmeter.threads.PostThreadGroup;
 import org.apache.jmeter.threads.SetupThreadGroup;
 import org.apache.jmeter.threads.TestCompiler;
+import org.apache.jmeter.timers.TimerService;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.ListedHashTree;
@@ -443,6 +445,7 @@ public class StandardJMeterEngine implements JMeterEngine, Runnable {
         test.traverse(postSearcher);
 
         TestCompiler.initialize();
+        TimerService.getInstance().resetStatistics();
         // for each thread group, generate threads
         // hand each thread the sampler controller
         // and the listeners, and the timer
@@ -450,7 +453,7 @@ public class StandardJMeterEngine implements JMeterEngine, Runnable {
         Iterator<AbstractThreadGroup> iter = searcher.getSearchResults().iterator();
         Iterator<PostThreadGroup> postIter = postSearcher.getSearchResults().iterator();
 
-        ListenerNotifier notifier = new ListenerNotifier();
+        ListenerNotifier notifier = AsyncListenerNotifier.isEnabled() ? new AsyncListenerNotifier() : new ListenerNotifier();
 
         int groupCount = 0;
         JMeterContextService.clearTotalThreads();
@@ -540,6 +543,9 @@ public class StandardJMeterEngine implements JMeterEngine, Runnable {
             waitThreadsStopped(); // wait for Post threads to stop
         }
 
+        TimerService.getInstance().logStatistics();
+        // Listeners must receive all the samples before testEnded
+        notifier.shutdown();
         notifyTestListenersOfEnd(testListeners);
         JMeterContextService.endTest();
         if (JMeter.isNonGUI() && SYSTEM_EXIT_FORCED) {
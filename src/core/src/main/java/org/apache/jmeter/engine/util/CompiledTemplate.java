@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.functions.Function;
+import org.apache.jmeter.functions.InvalidVariableException;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Flat program that renders the components of a {@link CompoundVariable}.
+ * <p>
+ * The program is built once, when the expression is parsed (e.g. by {@link ValueReplacer} at
+ * {@link org.apache.jmeter.engine.PreCompiler} time): adjacent literals and folded {@link org.apache.jmeter.functions.PureFunction}
+ * calls are merged, and variable references keep only the variable name.
+ * The rendering appends into a per-thread buffer, so the only allocation is the resulting string.
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ */
+final class CompiledTemplate {
+    private static final Logger log = LoggerFactory.getLogger(CompiledTemplate.class);
+
+    static final CompiledTemplate EMPTY = new CompiledTemplate(new byte[0], new String[0], new Function[0], 0, "");
+
+    private static final byte LITERAL = 0;
+    private static final byte VARIABLE = 1;
+    private static final byte FUNCTION = 2;
+
+    private static final ThreadLocal<RenderBuffers> BUFFERS = ThreadLocal.withInitial(RenderBuffers::new);
+
+    private final byte[] kinds;
+    /** Literal text or the variable name, depending on the kind */
+    private final String[] texts;
+    private final Function[] functions;
+    private final int sizeHint;
+    /** Result of the template if it does not depend on variables and functions, null otherwise */
+    private final String constant;
+
+    private CompiledTemplate(byte[] kinds, String[] texts, Function[] functions, int sizeHint, String constant) {
+        this.kinds = kinds;
+        this.texts = texts;
+        this.functions = functions;
+        this.sizeHint = sizeHint;
+        this.constant = constant;
+    }
+
+    /**
+     * Builds the program out of the components produced by {@link FunctionParser#compileString(String)}.
+     *
+     * @param components strings, {@link SimpleVariable} and {@link Function} instances
+     * @return the compiled template
+     */
+    static CompiledTemplate compile(List<Object> components) {
+        List<Byte> kinds = new ArrayList<>(components.size());
+        List<String> texts = new ArrayList<>(components.size());
+        List<Function> functions = new ArrayList<>(components.size());
+        StringBuilder literal = new StringBuilder();
+        int sizeHint = 0;
+        boolean hasLiteral = false;
+        for (Object item : components) {
+            if (item instanceof FoldedFunction) {
+                literal.append(((FoldedFunction) item).getValue());
+                hasLiteral = true;
+                continue;
+            }
+            if (!(item instanceof Function) && !(item instanceof SimpleVariable)) {
+                literal.append(item);
+                hasLiteral = true;
+                continue;
+            }
+            if (hasLiteral) {
+                addPart(kinds, texts, functions, LITERAL, literal.toString(), null);
+                sizeHint += literal.length();
+                literal.setLength(0);
+                hasLiteral = false;
+            }
+            if (item instanceof Function) {
+                addPart(kinds, texts, functions, FUNCTION, null, (Function) item);
+            } else {
+                addPart(kinds, texts, functions, VARIABLE, ((SimpleVariable) item).getName(), null);
+            }
+            // Most values are short, so a small estimate is enough
+            sizeHint += 16;
+        }
+        if (kinds.isEmpty()) {
+            return new CompiledTemplate(new byte[0], new String[0], new Function[0], 0, literal.toString());
+        }
+        if (hasLiteral) {
+            addPart(kinds, texts, functions, LITERAL, literal.toString(), null);
+            sizeHint += literal.length();
+        }
+        byte[] kindArray = new byte[kinds.size()];
+        for (int i = 0; i < kindArray.length; i++) {
+            kindArray[i] = kinds.get(i);
+        }
+        return new CompiledTemplate(kindArray, texts.toArray(new String[0]), functions.toArray(new Function[0]),
+                sizeHint, null);
+    }
+
+    private static void addPart(List<Byte> kinds, List<String> texts, List<Function> functions,
+            byte kind, String text, Function function) {
+        kinds.add(kind);
+        texts.add(text);
+        functions.add(function);
+    }
+
+    /**
+     * @return true if the template always renders to the same value
+     */
+    boolean isConstant() {
+        return constant != null;
+    }
+
+    /**
+     * Renders the template in the context of the current thread.
+     *
+     * @param previousResult the previous {@link SampleResult}
+     * @param currentSampler the current {@link Sampler}
+     * @return the rendered value
+     */
+    String render(SampleResult previousResult, Sampler currentSampler) {
+        if (constant != null) {
+            return constant;
+        }
+        RenderBuffers buffers = BUFFERS.get();
+        StringBuilder result = buffers.acquire(sizeHint);
+        try {
+            JMeterVariables vars = null;
+            for (int i = 0; i < kinds.length; i++) {
+                switch (kinds[i]) {
+                    case LITERAL:
+                        result.append(texts[i]);
+                        break;
+                    case VARIABLE:
+                        if (vars == null) {
+                            vars = JMeterContextService.getContext().getVariables();
+                        }
+                        appendVariable(result, vars, texts[i]);
+                        break;
+                    default:
+                        Function function = functions[i];
+                        try {
+                            result.append(function.execute(previousResult, currentSampler));
+                        } catch (InvalidVariableException e) {
+                            // Debug only, as the template is rendered for every sample
+                            log.debug("Invalid variable: {}", function, e);
+                        }
+                        // Functions might replace the variables of the thread
+                        vars = null;
+                        break;
+                }
+            }
+            return result.toString();
+        } finally {
+            buffers.release(result);
+        }
+    }
+
+    private static void appendVariable(StringBuilder result, JMeterVariables vars, String name) {
+        String value = vars == null ? null : vars.get(name);
+        if (value == null) {
+            result.append("${").append(name).append('}');
+        } else {
+            result.append(value);
+        }
+    }
+
+    /**
+     * Per-thread stack of buffers: functions render their arguments while the enclosing template
+     * is being rendered, so every nesting level needs its own buffer.
+     */
+    private static final class RenderBuffers {
+        private static final int MAX_DEPTH = 8;
+        /** Larger buffers are released after use, so a single huge value does not stay in memory */
+        private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+        private final StringBuilder[] stack = new StringBuilder[MAX_DEPTH];
+        private int depth;
+
+        StringBuilder acquire(int sizeHint) {
+            int level = depth++;
+            if (level >= MAX_DEPTH) {
+                return new StringBuilder(sizeHint);
+            }
+            StringBuilder buffer = stack[level];
+            if (buffer == null) {
+                buffer = new StringBuilder(Math.max(64, sizeHint));
+                stack[level] = buffer;
+            }
+            buffer.setLength(0);
+            return buffer;
+        }
+
+        void release(StringBuilder buffer) {
+            int level = --depth;
+            if (level < MAX_DEPTH && buffer.capacity() > MAX_RETAINED_CAPACITY) {
+                stack[level] = null;
+            }
+        }
+    }
+}
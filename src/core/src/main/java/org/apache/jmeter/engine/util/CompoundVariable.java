@@ -57,6 +57,9 @@ public class CompoundVariable implements Function {
     // Type is ArrayList, so we can use ArrayList#clone
     private ArrayList<Object> compiledComponents = new ArrayList<>();
 
+    // Immutable, so it can be shared with the copies
+    private CompiledTemplate template = CompiledTemplate.EMPTY;
+
     static {
         try {
             final String contain = // Classnames must contain this string [.functions.]
@@ -132,31 +135,18 @@ public class CompoundVariable implements Function {
             return ""; // $NON-NLS-1$
         }
 
-        StringBuilder results = new StringBuilder();
-        for (Object item : compiledComponents) {
-            if (item instanceof Function) {
-                try {
-                    results.append(((Function) item).execute(previousResult, currentSampler));
-                } catch (InvalidVariableException e) {
-                    // TODO should level be more than debug ?
-                    log.debug("Invalid variable: {}", item, e);
-                }
-            } else if (item instanceof SimpleVariable) {
-                results.append(((SimpleVariable) item).toString());
-            } else {
-                results.append(item);
-            }
-        }
+        String results = template.render(previousResult, currentSampler);
         if (!isDynamic) {
-            permanentResults = results.toString();
+            permanentResults = results;
         }
-        return results.toString();
+        return results;
     }
 
     @SuppressWarnings("unchecked") // clone will produce correct type
     public CompoundVariable getFunction() {
         CompoundVariable func = new CompoundVariable();
         func.compiledComponents = (ArrayList<Object>) compiledComponents.clone();
+        func.template = template;
         func.rawParameters = rawParameters;
         func.hasFunction = hasFunction;
         func.isDynamic = isDynamic;
@@ -173,6 +163,7 @@ public class CompoundVariable implements Function {
         // TODO should this also clear isDynamic, rawParameters, permanentResults?
         hasFunction = false;
         compiledComponents.clear();
+        template = CompiledTemplate.EMPTY;
     }
 
     public void setParameters(String parameters) throws InvalidVariableException {
@@ -186,13 +177,16 @@ public class CompoundVariable implements Function {
             hasFunction = true;
         }
         permanentResults = null; // To be calculated and cached on first execution
-        isDynamic = false;
-        for (Object item : compiledComponents) {
-            if (item instanceof Function || item instanceof SimpleVariable) {
-                isDynamic = true;
-                break;
-            }
-        }
+        template = CompiledTemplate.compile(compiledComponents);
+        // Calls of pure functions with constant arguments are folded, so they do not make the value dynamic
+        isDynamic = !template.isConstant();
+    }
+
+    /**
+     * @return true if the value depends on variables or functions, so it must be computed on every execution
+     */
+    boolean isDynamic() {
+        return isDynamic;
     }
 
     static Object getNamedFunction(String functionName) throws InvalidVariableException {
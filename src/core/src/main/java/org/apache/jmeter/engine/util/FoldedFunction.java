@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine.util;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.jmeter.functions.Function;
+import org.apache.jmeter.functions.PureFunction;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+
+/**
+ * Call of a {@link PureFunction} with constant arguments, evaluated once at compile time.
+ */
+final class FoldedFunction implements Function {
+    private final Function function;
+    private final String value;
+
+    FoldedFunction(Function function, String value) {
+        this.function = function;
+        this.value = value;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String execute(SampleResult previousResult, Sampler currentSampler) {
+        return value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setParameters(Collection<CompoundVariable> parameters) {
+        // The arguments were already evaluated
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getReferenceKey() {
+        return function.getReferenceKey();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<String> getArgumentDesc() {
+        return function.getArgumentDesc();
+    }
+
+    @Override
+    public String toString() {
+        return "FoldedFunction{" + function.getReferenceKey() + "=" + value + "}";
+    }
+}
@@ -20,10 +20,12 @@ package org.apache.jmeter.engine.util;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.jmeter.engine.StandardJMeterEngine;
 import org.apache.jmeter.functions.Function;
 import org.apache.jmeter.functions.InvalidVariableException;
+import org.apache.jmeter.functions.PureFunction;
 import org.apache.jmeter.testelement.TestStateListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -128,7 +130,8 @@ class FunctionParser {
                     String funcName = buffer.toString();
                     function = CompoundVariable.getNamedFunction(funcName.trim());
                     if (function instanceof Function) {
-                        ((Function) function).setParameters(parseParams(reader));
+                        ArrayList<CompoundVariable> parameters = parseParams(reader);
+                        ((Function) function).setParameters(parameters);
                         if (firstNonSpace(reader, '#') != '}') {
                             reader.reset();// set to start of string
                             char []cb = new char[100];
@@ -139,6 +142,9 @@ class FunctionParser {
                         if (function instanceof TestStateListener) {
                             StandardJMeterEngine.register((TestStateListener) function);
                         }
+                        if (function instanceof PureFunction) {
+                            return foldConstant((Function) function, parameters);
+                        }
                         return function;
                     } else { // Function does not exist, so treat as per missing variable
                         buffer.append(current[0]);
@@ -163,6 +169,31 @@ class FunctionParser {
         return buffer.toString();
     }
 
+    /**
+     * Evaluates the call of a {@link PureFunction} if all its arguments are constant.
+     *
+     * @param function   the function with the parameters already set
+     * @param parameters the arguments of the call
+     * @return {@link FoldedFunction} with the result, or the function itself if the call can't be evaluated now
+     */
+    private static Object foldConstant(Function function, List<CompoundVariable> parameters) {
+        for (CompoundVariable parameter : parameters) {
+            if (parameter.isDynamic()) {
+                return function;
+            }
+        }
+        try {
+            String value = function.execute(null, null);
+            if (value != null) {
+                return new FoldedFunction(function, value);
+            }
+        } catch (InvalidVariableException | RuntimeException e) {
+            log.debug("Unable to evaluate constant function call {}, it will be evaluated at runtime",
+                    function.getReferenceKey(), e);
+        }
+        return function;
+    }
+
     private static char firstNonSpace(StringReader reader, char defaultResult) throws IOException {
         char[] current = new char[1];
         while (reader.read(current) == 1) {
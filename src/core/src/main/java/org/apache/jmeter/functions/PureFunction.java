@@ -0,0 +1,34 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.functions;
+
+import org.apiguardian.api.API;
+
+/**
+ * Implement this method-less interface to indicate the result of your {@link Function} depends only
+ * on its arguments, and the function has no side effects (e.g. it does not store the result in a variable).
+ * <p>
+ * When all the arguments of such a function are constant, the function is evaluated once
+ * when the expression is compiled, and the result is reused afterwards.
+ *
+ * @see org.apache.jmeter.engine.util.CompoundVariable
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public interface PureFunction extends Function {
+}
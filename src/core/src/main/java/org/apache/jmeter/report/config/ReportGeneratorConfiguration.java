@@ -62,6 +62,16 @@ public class ReportGeneratorConfiguration {
     private static final File REPORT_GENERATOR_KEY_TEMP_DIR_DEFAULT = new File(
             "temp");
 
+    // Number of parts of the results file processed in parallel
+    public static final String REPORT_GENERATOR_KEY_PARALLELISM = REPORT_GENERATOR_KEY_PREFIX
+            + KEY_DELIMITER + "parallelism";
+    private static final Integer REPORT_GENERATOR_KEY_PARALLELISM_DEFAULT = 1;
+
+    // Seconds between two refreshes of the dashboard during the test
+    public static final String REPORT_GENERATOR_KEY_REFRESH_INTERVAL = REPORT_GENERATOR_KEY_PREFIX
+            + KEY_DELIMITER + "refresh_interval";
+    private static final Integer REPORT_GENERATOR_KEY_REFRESH_INTERVAL_DEFAULT = 0;
+
     // Apdex Satisfied Threshold
     private static final String REPORT_GENERATOR_KEY_APDEX_SATISFIED_THRESHOLD = REPORT_GENERATOR_KEY_PREFIX
             + KEY_DELIMITER + "apdex_satisfied_threshold";
@@ -276,6 +286,8 @@ public class ReportGeneratorConfiguration {
     private Date endDate;
     private String sampleFilter;
     private File tempDirectory;
+    private int parallelism;
+    private int refreshInterval;
     private long apdexSatisfiedThreshold;
     private long apdexToleratedThreshold;
     private Map<String, Long[]> apdexPerTransaction = new HashMap<>();
@@ -322,6 +334,52 @@ public class ReportGeneratorConfiguration {
         this.tempDirectory = tempDirectory;
     }
 
+    /**
+     * Gets the number of parts of the results file processed in parallel.
+     *
+     * @return the parallelism, 1 to process the file serially, 0 or less to use all the processors
+     * @since 6.0
+     */
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of parts of the results file processed in parallel.
+     *
+     * @param parallelism
+     *            the parallelism, 1 to process the file serially, 0 or less to use all the processors
+     * @since 6.0
+     */
+    public final void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the interval between two refreshes of the dashboard generated at
+     * the end of the test, while the test is running.
+     *
+     * @return the interval in seconds, 0 or less to generate the dashboard at
+     *         the end of the test only
+     * @since 6.0
+     */
+    public final int getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Sets the interval between two refreshes of the dashboard generated at
+     * the end of the test, while the test is running.
+     *
+     * @param refreshInterval
+     *            the interval in seconds, 0 or less to generate the dashboard
+     *            at the end of the test only
+     * @since 6.0
+     */
+    public final void setRefreshInterval(int refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
     /**
      * Gets the apdex satisfied threshold.
      *
@@ -622,6 +680,20 @@ public class ReportGeneratorConfiguration {
                 REPORT_GENERATOR_KEY_TEMP_DIR_DEFAULT, File.class);
         configuration.setTempDirectory(tempDirectory);
 
+        // Load parallelism
+        final int parallelism = getRequiredProperty(props,
+                REPORT_GENERATOR_KEY_PARALLELISM,
+                REPORT_GENERATOR_KEY_PARALLELISM_DEFAULT,
+                int.class);
+        configuration.setParallelism(parallelism);
+
+        // Load refresh interval
+        final int refreshInterval = getRequiredProperty(props,
+                REPORT_GENERATOR_KEY_REFRESH_INTERVAL,
+                REPORT_GENERATOR_KEY_REFRESH_INTERVAL_DEFAULT,
+                int.class);
+        configuration.setRefreshInterval(refreshInterval);
+
         // Load apdex satisfied threshold
         final long apdexSatisfiedThreshold = getRequiredProperty(props,
                 REPORT_GENERATOR_KEY_APDEX_SATISFIED_THRESHOLD,
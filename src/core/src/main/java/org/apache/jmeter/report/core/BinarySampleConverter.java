@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.File;
+
+import org.apiguardian.api.API;
+
+/**
+ * Converts result files between the CSV format and the binary format described in {@link BinarySampleFormat}.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class BinarySampleConverter {
+
+    private BinarySampleConverter() {
+        super();
+    }
+
+    /**
+     * Converts a CSV result file to the binary format.
+     *
+     * @param csvFile    the CSV file to read
+     * @param binaryFile the binary file to write
+     * @param separator  the separator of the CSV file
+     * @return the number of converted samples
+     */
+    public static long toBinary(File csvFile, File binaryFile, char separator) {
+        try (CsvSampleReader reader = new CsvSampleReader(csvFile, separator, true);
+                BinarySampleWriter writer = new BinarySampleWriter(binaryFile, reader.getMetadata())) {
+            return copy(reader, writer);
+        }
+    }
+
+    /**
+     * Converts a binary result file to CSV with a header line.
+     *
+     * @param binaryFile the binary file to read
+     * @param csvFile    the CSV file to write
+     * @return the number of converted samples
+     */
+    public static long toCsv(File binaryFile, File csvFile) {
+        try (BinarySampleReader reader = new BinarySampleReader(binaryFile);
+                CsvSampleWriter writer = new CsvSampleWriter(csvFile, reader.getMetadata())) {
+            writer.writeHeader();
+            return copy(reader, writer);
+        }
+    }
+
+    private static long copy(SampleReader reader, SampleWriter writer) {
+        long count = 0;
+        Sample sample;
+        while ((sample = reader.readSample()) != null) {
+            writer.write(sample);
+            count++;
+        }
+        return count;
+    }
+}
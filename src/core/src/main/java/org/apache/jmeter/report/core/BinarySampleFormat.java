@@ -0,0 +1,332 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.apiguardian.api.API;
+
+/**
+ * Compact binary columnar format of the result files.
+ * <p>
+ * A file is a sequence of segments, so the results of several tests can be appended to the same file:
+ * <pre>
+ * file    = segment+
+ * segment = "JTLB" version separator columnCount columnName* block* 0
+ * block   = payloadLength payload
+ * payload = rowCount column*
+ * column  = LONG (zigzag delta)*
+ *         | DICTIONARY dictionarySize string* index*
+ * </pre>
+ * The integers are unsigned variable length integers (7 bits per byte) and the strings are
+ * UTF-8 bytes prefixed by their length.
+ * A column of a block is saved as deltas between consecutive values when all the values of the block
+ * are integers, e.g. timestamps, elapsed times and byte counts.
+ * The other columns, e.g. labels, response codes and thread names, are saved as indexes in a dictionary
+ * local to the block, so every block can be decoded on its own.
+ * <p>
+ * A segment whose writer was killed has no final {@code 0}: a segment appended afterwards starts where a block
+ * length is expected (see {@link #isSegmentStart(long, InputStream)}).
+ * <p>
+ * The values are the same as the values of the CSV files, so the binary files can be converted to CSV
+ * without loss (see {@link BinarySampleConverter}).
+ *
+ * @see BinarySampleWriter
+ * @see BinarySampleReader
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class BinarySampleFormat {
+
+    /** The bytes every segment starts with */
+    static final byte[] MAGIC = {'J', 'T', 'L', 'B'};
+
+    /** Version of the format */
+    static final int VERSION = 1;
+
+    /** Encoding of a column saved as deltas of integers */
+    static final int LONG_COLUMN = 1;
+
+    /** Encoding of a column saved as indexes in a dictionary */
+    static final int DICTIONARY_COLUMN = 2;
+
+    /** Default number of rows of a block */
+    static final int DEFAULT_BLOCK_ROWS = 4096;
+
+    private BinarySampleFormat() {
+        super();
+    }
+
+    /**
+     * Checks if the file starts with the binary format header.
+     *
+     * @param file the file to check
+     * @return true if the file is a binary result file
+     */
+    public static boolean isBinaryFile(File file) {
+        if (!file.isFile()) {
+            return false;
+        }
+        byte[] header = new byte[MAGIC.length];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            new DataInputStream(in).readFully(header);
+        } catch (IOException e) { // NOSONAR File is shorter than the header, or can't be read
+            return false;
+        }
+        return Arrays.equals(MAGIC, header);
+    }
+
+    /**
+     * Ends the last segment of a binary result file whose writer was killed, so that new segments can be
+     * appended: the truncated block or header at the end of the file is removed and the missing end of the
+     * segment is written.
+     *
+     * @param file the file to check, nothing is done if it is not a binary result file
+     * @return true if the file was changed
+     * @throws IOException if the file can't be read or written
+     */
+    public static boolean terminateLastSegment(File file) throws IOException {
+        if (!isBinaryFile(file)) {
+            return false;
+        }
+        // Offset following the last complete block or segment
+        long end = 0;
+        boolean terminated = true;
+        try (PositionInputStream in = new PositionInputStream(
+                new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            boolean inSegment = false;
+            while (true) {
+                if (!inSegment) {
+                    byte[] magic = new byte[MAGIC.length];
+                    int read = in.readNBytes(magic, 0, magic.length);
+                    if (read == 0) {
+                        break;
+                    }
+                    if (read == magic.length && !Arrays.equals(MAGIC, magic)) {
+                        throw new IOException("Unexpected data at offset " + end + " of binary result file " + file);
+                    }
+                    if (read < magic.length || !skipSegmentHeader(in)) {
+                        break;
+                    }
+                    inSegment = true;
+                    terminated = false;
+                    end = in.position;
+                }
+                long length = readVarLong(in);
+                if (length < 0) {
+                    break;
+                } else if (length == 0) {
+                    inSegment = false;
+                    terminated = true;
+                } else if (isSegmentStart(length, in)) {
+                    // A segment appended after a killed run, that is readable as is
+                    if (!skipSegmentHeader(in)) {
+                        break;
+                    }
+                } else {
+                    in.skipNBytes(length);
+                }
+                end = in.position;
+            }
+        } catch (EOFException e) { // NOSONAR The truncated data is removed below
+            // The data following the last complete block is truncated
+        }
+        if (terminated && end == file.length()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(end);
+            if (!terminated) {
+                channel.write(ByteBuffer.wrap(new byte[]{0}), end);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the stream ends before the end of the header
+     */
+    private static boolean skipSegmentHeader(InputStream in) throws IOException {
+        try {
+            readVarLong(in); // version
+            readVarLong(in); // separator
+            long count = readVarLong(in);
+            if (count < 0) {
+                return false;
+            }
+            for (long i = 0; i < count; i++) {
+                long length = readVarLong(in);
+                if (length < 0) {
+                    return false;
+                }
+                in.skipNBytes(length);
+            }
+            return true;
+        } catch (EOFException e) { // NOSONAR Truncated header
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether a block length is the first byte of the magic of another segment, which happens
+     * when the writer of a segment was killed before writing its end and a segment was appended afterwards.
+     * A block can't have this length and payload: the payload would start with a row count followed by
+     * an unknown column encoding.
+     *
+     * @param length the block length that was read
+     * @param in     the stream positioned after the block length, that must support mark and reset.
+     *               The magic is consumed only when it is found.
+     * @return true if the block length was the start of a segment
+     * @throws IOException if the stream can't be read
+     */
+    static boolean isSegmentStart(long length, InputStream in) throws IOException {
+        if (length != MAGIC[0]) {
+            return false;
+        }
+        in.mark(MAGIC.length);
+        byte[] rest = new byte[MAGIC.length - 1];
+        if (in.readNBytes(rest, 0, rest.length) == rest.length
+                && Arrays.equals(rest, Arrays.copyOfRange(MAGIC, 1, MAGIC.length))) {
+            return true;
+        }
+        in.reset();
+        return false;
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads a variable length integer from a stream.
+     *
+     * @param in the stream
+     * @return the value or -1 if the stream ends before the first byte
+     * @throws EOFException if the stream ends in the middle of the value
+     * @throws IOException  if the stream can't be read
+     */
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated integer");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed integer");
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new EOFException("Truncated string");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Stream that counts the bytes read and skipped.
+     */
+    private static final class PositionInputStream extends FilterInputStream {
+        private long position;
+        private long markPosition;
+
+        PositionInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public synchronized void mark(int readlimit) {
+            super.mark(readlimit);
+            markPosition = position;
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            super.reset();
+            position = markPosition;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.apache.jorphan.util.JOrphanUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reader of the binary columnar result files written by {@link BinarySampleWriter}.
+ * <p>
+ * The blocks are decoded one at a time, and the values repeated in a block share the same {@link String}
+ * instance. The segments appended to the file must have the same columns.
+ * When the file ends in the middle of a block, e.g. because JMeter was killed during the test,
+ * the truncated block is ignored. The results appended after a killed test are read as well.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class BinarySampleReader implements SampleReader {
+
+    private static final Logger log = LoggerFactory.getLogger(BinarySampleReader.class);
+
+    private static final int BUF_SIZE = 1024 * 1024;
+
+    private final String source;
+    private final DataInputStream input;
+    private final SampleMetadata metadata;
+    private final String[] columnNames;
+    private final int columnCount;
+
+    /** Values of the current block: [column][row] */
+    private final String[][] block;
+    private int blockRows;
+    private int blockRow;
+    private long row;
+    private boolean ended;
+    private Sample lastSampleRead;
+
+    /**
+     * Instantiates a new binary sample reader.
+     *
+     * @param inputFile the input file (must not be {@code null})
+     */
+    public BinarySampleReader(File inputFile) {
+        this(openFile(inputFile), inputFile.getAbsolutePath());
+    }
+
+    /**
+     * Instantiates a new binary sample reader.
+     *
+     * @param input  the stream to read, it is closed by {@link #close()}
+     * @param source the name of the source used in the messages
+     */
+    public BinarySampleReader(InputStream input, String source) {
+        this.source = source;
+        // The start of a segment appended after a killed run is detected with mark and reset
+        this.input = new DataInputStream(input.markSupported() ? input : new BufferedInputStream(input));
+        try {
+            if (!readMagic()) {
+                throw new IllegalArgumentException("File is empty");
+            }
+            SampleMetadata header = readSegmentHeader();
+            this.metadata = header;
+            this.columnCount = header.getColumnCount();
+            this.columnNames = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columnNames[i] = header.getColumnName(i);
+            }
+        } catch (IOException | RuntimeException e) {
+            JOrphanUtils.closeQuietly(this.input);
+            throw new SampleException("Could not read metadata of " + source, e);
+        }
+        this.block = new String[columnCount][];
+        this.lastSampleRead = nextSample();
+    }
+
+    private static InputStream openFile(File inputFile) {
+        if (!(inputFile.isFile() && inputFile.canRead())) {
+            throw new IllegalArgumentException(inputFile.getAbsolutePath()
+                    + " does not exist or is not readable");
+        }
+        try {
+            return new BufferedInputStream(Files.newInputStream(inputFile.toPath()), BUF_SIZE);
+        } catch (IOException e) {
+            throw new SampleException("Could not create file reader !", e);
+        }
+    }
+
+    /**
+     * @return false if the stream ends before the segment
+     */
+    private boolean readMagic() throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            return false;
+        }
+        byte[] magic = new byte[BinarySampleFormat.MAGIC.length];
+        magic[0] = (byte) first;
+        input.readFully(magic, 1, magic.length - 1);
+        if (!Arrays.equals(BinarySampleFormat.MAGIC, magic)) {
+            throw new IOException("Not a binary result file: " + source);
+        }
+        return true;
+    }
+
+    private SampleMetadata readSegmentHeader() throws IOException {
+        long version = BinarySampleFormat.readVarLong(input);
+        if (version != BinarySampleFormat.VERSION) {
+            throw new IOException("Unsupported version " + version + " of binary result file " + source);
+        }
+        char separator = (char) BinarySampleFormat.readVarLong(input);
+        int count = (int) BinarySampleFormat.readVarLong(input);
+        if (count < 0) {
+            throw new EOFException("Truncated header");
+        }
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = BinarySampleFormat.readString(input);
+        }
+        return new SampleMetadata(separator, names);
+    }
+
+    @Override
+    public SampleMetadata getMetadata() {
+        return metadata;
+    }
+
+    private Sample nextSample() {
+        while (blockRow >= blockRows) {
+            if (!readBlock()) {
+                return null;
+            }
+        }
+        String[] data = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            data[i] = block[i][blockRow];
+        }
+        blockRow++;
+        return new Sample(row++, metadata, data);
+    }
+
+    private boolean readBlock() {
+        if (ended) {
+            return false;
+        }
+        byte[] payload;
+        try {
+            long length = BinarySampleFormat.readVarLong(input);
+            while (length == 0 || BinarySampleFormat.isSegmentStart(length, input)) {
+                if (length == 0) {
+                    // End of the segment, the results of another test may follow
+                    if (!readMagic()) {
+                        ended = true;
+                        return false;
+                    }
+                } else {
+                    log.warn("Binary result file {} has results appended after an incomplete test, read {} samples",
+                            source, row);
+                }
+                readNextSegmentHeader();
+                length = BinarySampleFormat.readVarLong(input);
+            }
+            if (length < 0) {
+                // The writer was not closed
+                log.warn("Binary result file {} is not complete, read {} samples", source, row);
+                ended = true;
+                return false;
+            }
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Block is too large: " + length);
+            }
+            payload = new byte[(int) length];
+            input.readFully(payload);
+        } catch (EOFException e) {
+            log.warn("Ignoring truncated block at the end of binary result file {}, read {} samples",
+                    source, row, e);
+            ended = true;
+            return false;
+        } catch (IOException e) {
+            throw new SampleException("Could not read sample <" + row + "> of " + source, e);
+        }
+        try {
+            decodeBlock(new DataInputStream(new ByteArrayInputStream(payload)));
+        } catch (IOException | RuntimeException e) {
+            throw new SampleException("Corrupted block at sample <" + row + "> of " + source, e);
+        }
+        return true;
+    }
+
+    private void readNextSegmentHeader() throws IOException {
+        SampleMetadata next = readSegmentHeader();
+        boolean sameColumns = next.getColumnCount() == columnCount;
+        for (int i = 0; sameColumns && i < columnCount; i++) {
+            sameColumns = columnNames[i].equals(next.getColumnName(i));
+        }
+        if (!sameColumns) {
+            throw new SampleException("Results appended to " + source + " have different columns: "
+                    + next + ", expected " + metadata);
+        }
+    }
+
+    private void decodeBlock(DataInputStream in) throws IOException {
+        int rows = (int) BinarySampleFormat.readVarLong(in);
+        if (rows < 0) {
+            throw new EOFException("Missing row count");
+        }
+        for (int c = 0; c < columnCount; c++) {
+            String[] values = block[c];
+            if (values == null || values.length < rows) {
+                values = new String[rows];
+                block[c] = values;
+            }
+            int encoding = (int) BinarySampleFormat.readVarLong(in);
+            if (encoding == BinarySampleFormat.LONG_COLUMN) {
+                long value = 0;
+                for (int r = 0; r < rows; r++) {
+                    value += BinarySampleFormat.unzigzag(BinarySampleFormat.readVarLong(in));
+                    values[r] = Long.toString(value);
+                }
+            } else if (encoding == BinarySampleFormat.DICTIONARY_COLUMN) {
+                String[] dictionary = new String[(int) BinarySampleFormat.readVarLong(in)];
+                for (int i = 0; i < dictionary.length; i++) {
+                    dictionary[i] = BinarySampleFormat.readString(in);
+                }
+                for (int r = 0; r < rows; r++) {
+                    values[r] = dictionary[(int) BinarySampleFormat.readVarLong(in)];
+                }
+            } else {
+                throw new IOException("Unknown encoding " + encoding + " of column " + columnNames[c]);
+            }
+        }
+        blockRows = rows;
+        blockRow = 0;
+    }
+
+    @Override
+    public Sample readSample() {
+        Sample out = lastSampleRead;
+        lastSampleRead = nextSample();
+        return out;
+    }
+
+    @Override
+    public Sample peek() {
+        return lastSampleRead;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return lastSampleRead != null;
+    }
+
+    @Override
+    public void close() {
+        JOrphanUtils.closeQuietly(input);
+    }
+}
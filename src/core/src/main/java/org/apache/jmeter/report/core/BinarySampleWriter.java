@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+import org.apiguardian.api.API;
+
+/**
+ * Writes samples in the binary columnar format described in {@link BinarySampleFormat}.
+ * <p>
+ * The rows are buffered and encoded column by column when a block is full, when the writer is flushed
+ * or closed. The segment is complete only once the writer is closed.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class BinarySampleWriter extends SampleWriter {
+
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final OutputStream output;
+    private final int columnCount;
+    private final int blockRows;
+
+    /** Values of the pending rows: [column][row] */
+    private final String[][] columns;
+    private final long[] longValues;
+    private final int[] indexes;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> dictionaryValues = new ArrayList<>();
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(64 * 1024);
+
+    private int rows;
+    private long sampleCount;
+    private boolean closed;
+
+    /**
+     * @param output   the output stream to write data to. (Must not be {@code null})
+     * @param metadata the description for data that this writer will write. (
+     *                 {@code metadata} must not be {@code null}.)
+     */
+    public BinarySampleWriter(OutputStream output, SampleMetadata metadata) {
+        this(output, metadata, BinarySampleFormat.DEFAULT_BLOCK_ROWS);
+    }
+
+    /**
+     * @param output    the output stream to write data to. (Must not be {@code null})
+     * @param metadata  the description for data that this writer will write. (
+     *                  {@code metadata} must not be {@code null}.)
+     * @param blockRows the maximum number of rows of a block
+     */
+    public BinarySampleWriter(OutputStream output, SampleMetadata metadata, int blockRows) {
+        Validate.isTrue(blockRows > 0, "blockRows must be positive, got %d", blockRows);
+        this.output = output;
+        this.columnCount = metadata.getColumnCount();
+        this.blockRows = blockRows;
+        this.columns = new String[columnCount][blockRows];
+        this.longValues = new long[blockRows];
+        this.indexes = new int[blockRows];
+        try {
+            writeSegmentHeader(metadata);
+        } catch (IOException e) {
+            throw new SampleException("Could not write binary results header", e);
+        }
+    }
+
+    /**
+     * @param output   the output file to write data to. (Must not be {@code null})
+     * @param metadata the description for data that this writer will write. (
+     *                 {@code metadata} must not be {@code null}.)
+     */
+    public BinarySampleWriter(File output, SampleMetadata metadata) {
+        this(newOutputStream(output), metadata);
+    }
+
+    private static OutputStream newOutputStream(File output) {
+        try {
+            return new BufferedOutputStream(Files.newOutputStream(output.toPath()));
+        } catch (IOException e) {
+            throw new SampleException(e.getMessage(), e);
+        }
+    }
+
+    private void writeSegmentHeader(SampleMetadata metadata) throws IOException {
+        output.write(BinarySampleFormat.MAGIC);
+        BinarySampleFormat.writeVarLong(output, BinarySampleFormat.VERSION);
+        BinarySampleFormat.writeVarLong(output, metadata.getSeparator());
+        BinarySampleFormat.writeVarLong(output, columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            BinarySampleFormat.writeString(output, metadata.getColumnName(i));
+        }
+    }
+
+    @Override
+    public long write(Sample sample) {
+        String[] values = new String[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = sample.getData(i);
+        }
+        return writeRow(values);
+    }
+
+    /**
+     * Writes the values of a row in the order of the columns of the metadata.
+     * Missing values are written as empty strings.
+     *
+     * @param values the values of the columns
+     * @return The number of samples written at this time
+     */
+    public long writeRow(String... values) {
+        Validate.validState(!closed, "Writer is closed");
+        int count = Math.min(values.length, columnCount);
+        for (int i = 0; i < count; i++) {
+            String value = values[i];
+            columns[i][rows] = value == null ? "" : value;
+        }
+        for (int i = count; i < columnCount; i++) {
+            columns[i][rows] = "";
+        }
+        rows++;
+        sampleCount++;
+        if (rows == blockRows) {
+            writeBlock();
+        }
+        return sampleCount;
+    }
+
+    private void writeBlock() {
+        try {
+            payload.reset();
+            BinarySampleFormat.writeVarLong(payload, rows);
+            for (String[] column : columns) {
+                writeColumn(column);
+                Arrays.fill(column, 0, rows, null);
+            }
+            BinarySampleFormat.writeVarLong(output, payload.size());
+            payload.writeTo(output);
+        } catch (IOException e) {
+            throw new SampleException("Could not write block of " + rows + " samples", e);
+        } finally {
+            rows = 0;
+        }
+    }
+
+    private void writeColumn(String[] values) throws IOException {
+        if (parseLongs(values)) {
+            BinarySampleFormat.writeVarLong(payload, BinarySampleFormat.LONG_COLUMN);
+            long previous = 0;
+            for (int r = 0; r < rows; r++) {
+                BinarySampleFormat.writeVarLong(payload, BinarySampleFormat.zigzag(longValues[r] - previous));
+                previous = longValues[r];
+            }
+            return;
+        }
+        dictionary.clear();
+        dictionaryValues.clear();
+        for (int r = 0; r < rows; r++) {
+            String value = values[r];
+            Integer index = dictionary.get(value);
+            if (index == null) {
+                index = dictionaryValues.size();
+                dictionary.put(value, index);
+                dictionaryValues.add(value);
+            }
+            indexes[r] = index;
+        }
+        BinarySampleFormat.writeVarLong(payload, BinarySampleFormat.DICTIONARY_COLUMN);
+        BinarySampleFormat.writeVarLong(payload, dictionaryValues.size());
+        for (String value : dictionaryValues) {
+            BinarySampleFormat.writeString(payload, value);
+        }
+        for (int r = 0; r < rows; r++) {
+            BinarySampleFormat.writeVarLong(payload, indexes[r]);
+        }
+    }
+
+    /**
+     * Parses the values into {@link #longValues} if they are all written the way {@link Long#toString(long)}
+     * would write them, so the conversion back to strings is lossless.
+     */
+    private boolean parseLongs(String[] values) {
+        for (int r = 0; r < rows; r++) {
+            String value = values[r];
+            if (!isCanonicalLong(value)) {
+                return false;
+            }
+            longValues[r] = Long.parseLong(value);
+        }
+        return true;
+    }
+
+    static boolean isCanonicalLong(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        int digits = length - start;
+        if (digits == 0 || digits > MAX_LONG_DIGITS) {
+            return false;
+        }
+        if (value.charAt(start) == '0' && (digits > 1 || start == 1)) {
+            // Leading zeros and "-0" would not be written back the same way
+            return false;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the pending rows as a block and flushes the underlying stream.
+     */
+    public void flush() {
+        if (closed) {
+            return;
+        }
+        if (rows > 0) {
+            writeBlock();
+        }
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new SampleException("Could not flush binary results", e);
+        }
+    }
+
+    /**
+     * Writes the pending rows and the end of the segment, then closes the underlying stream.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (OutputStream out = output) {
+            if (rows > 0) {
+                writeBlock();
+            }
+            BinarySampleFormat.writeVarLong(out, 0);
+        } catch (IOException e) {
+            throw new SampleException("Could not write end of binary results", e);
+        }
+    }
+}
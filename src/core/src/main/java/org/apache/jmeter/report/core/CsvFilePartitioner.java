@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.jmeter.save.BlockCompressedFiles;
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.save.SaveService;
+
+/**
+ * Splits a CSV results file in parts that can be read in parallel
+ * (see {@link CsvSampleReader#CsvSampleReader(File, SampleMetadata, long, long)}).
+ * <p>
+ * The parts are aligned on the records: a line feed ends a record unless it is in a quoted field,
+ * that is when the number of quotes before it in the file is odd.
+ * The quotes of the nominal parts are counted in parallel, then each boundary is found by scanning
+ * the bytes following its nominal offset, so the file is never parsed to be split.
+ * <p>
+ * Only the uncompressed CSV files with a header, whose charset encodes the quotes and the line feeds
+ * as single bytes that can't be part of other characters, can be split.
+ *
+ * @since 6.0
+ */
+public final class CsvFilePartitioner {
+
+    private static final int BUF_SIZE = 64 * 1024;
+    private static final Charset CHARSET =
+            Charset.forName(SaveService.getFileEncoding(StandardCharsets.UTF_8.displayName()));
+
+    private CsvFilePartitioner() {
+        // utility class -> hide the constructor
+    }
+
+    /**
+     * @param file the results file
+     * @return true if the file can be split
+     */
+    public static boolean isPartitionable(File file) {
+        if (!isAsciiCompatible(CHARSET) || !file.isFile()
+                || BinarySampleFormat.isBinaryFile(file) || BlockCompressedFiles.isCompressed(file)) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), CHARSET)) {
+            String header = reader.readLine();
+            return header != null
+                    && CSVSaveService.getSampleSaveConfiguration(header, file.getAbsolutePath()) != null;
+        } catch (IOException e) { // NOSONAR The file will fail to be read later on
+            return false;
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        if (!Arrays.equals(new byte[]{CSVSaveService.QUOTING_CHAR, '\n'},
+                (CSVSaveService.QUOTING_CHAR + "\n").getBytes(charset))) {
+            return false;
+        }
+        // UTF-8 never uses ASCII bytes in multibyte characters
+        return StandardCharsets.UTF_8.equals(charset)
+                || charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f;
+    }
+
+    /**
+     * Splits the records of a file in parts of about the same size.
+     * The parts that would start in the middle of a record are extended to its end,
+     * so there may be fewer parts than requested.
+     *
+     * @param file       the results file, that must be partitionable (see {@link #isPartitionable(File)})
+     * @param partitions the number of parts to create
+     * @param executor   the executor used to scan the parts in parallel
+     * @return the offsets of the parts: part {@code i} goes from {@code offsets[i]} included
+     * to {@code offsets[i + 1]} excluded, the first part starting after the header
+     * @throws IOException if the file can't be read
+     */
+    public static long[] split(File file, int partitions, ExecutorService executor) throws IOException {
+        long length = file.length();
+        // The header is the first record of the file
+        long dataStart = findRecordStart(file, 0, false, length);
+        long dataLength = length - dataStart;
+        if (partitions < 2 || dataLength <= 0) {
+            return new long[]{dataStart, length};
+        }
+
+        long[] nominalOffsets = new long[partitions + 1];
+        for (int i = 0; i <= partitions; i++) {
+            nominalOffsets[i] = dataStart + dataLength / partitions * i
+                    + Math.min(i, dataLength % partitions);
+        }
+        List<Callable<Long>> quoteCounts = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            long start = nominalOffsets[i];
+            long end = nominalOffsets[i + 1];
+            quoteCounts.add(() -> countQuotes(file, start, end));
+        }
+        List<Long> quotes = invokeAll(executor, quoteCounts);
+
+        List<Callable<Long>> boundaryScans = new ArrayList<>(partitions - 1);
+        long quotesBefore = 0;
+        for (int i = 1; i < partitions; i++) {
+            quotesBefore += quotes.get(i - 1);
+            long start = nominalOffsets[i];
+            boolean inQuotes = quotesBefore % 2 != 0;
+            boundaryScans.add(() -> findRecordStart(file, start, inQuotes, length));
+        }
+        List<Long> boundaries = invokeAll(executor, boundaryScans);
+
+        long[] offsets = new long[partitions + 1];
+        int count = 0;
+        offsets[count++] = dataStart;
+        for (long boundary : boundaries) {
+            // A record spanning several nominal parts leaves empty parts
+            if (boundary > offsets[count - 1] && boundary < length) {
+                offsets[count++] = boundary;
+            }
+        }
+        offsets[count++] = length;
+        return Arrays.copyOf(offsets, count);
+    }
+
+    /**
+     * Finds the start of the records of a file, that follow its header.
+     *
+     * @param file the results file
+     * @return the offset following the header, or the length of the file if the header is not complete
+     * @throws IOException if the file can't be read
+     */
+    public static long findDataStart(File file) throws IOException {
+        return findRecordStart(file, 0, false, file.length());
+    }
+
+    /**
+     * Finds the end of the last complete record of a part of a file that is still being written,
+     * so the records can be read without the one being written.
+     *
+     * @param file  the results file
+     * @param start the start of a record
+     * @param end   the end of the part to scan, usually the length of the file
+     * @return the offset following the last line feed out of quotes in the part,
+     * or {@code start} if the part has no complete record
+     * @throws IOException if the file can't be read
+     */
+    public static long findRecordsEnd(File file, long start, long end) throws IOException {
+        long recordsEnd = start;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            skipFully(in, start);
+            byte[] buffer = new byte[BUF_SIZE];
+            boolean quoted = false;
+            long offset = start;
+            long remaining = end - start;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == CSVSaveService.QUOTING_CHAR) {
+                        quoted = !quoted;
+                    } else if (b == '\n' && !quoted) {
+                        recordsEnd = offset + i + 1;
+                    }
+                }
+                offset += read;
+                remaining -= read;
+            }
+        }
+        return recordsEnd;
+    }
+
+    private static <T> List<T> invokeAll(ExecutorService executor, List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while splitting results file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not split results file", e.getCause());
+        }
+        return results;
+    }
+
+    private static long countQuotes(File file, long start, long end) throws IOException {
+        long quotes = 0;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            skipFully(in, start);
+            byte[] buffer = new byte[BUF_SIZE];
+            long remaining = end - start;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == CSVSaveService.QUOTING_CHAR) {
+                        quotes++;
+                    }
+                }
+                remaining -= read;
+            }
+        }
+        return quotes;
+    }
+
+    /**
+     * @return the offset following the first line feed out of quotes found from the start offset,
+     * or the length of the file if there is none
+     */
+    private static long findRecordStart(File file, long start, boolean inQuotes, long length) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            skipFully(in, start);
+            byte[] buffer = new byte[BUF_SIZE];
+            boolean quoted = inQuotes;
+            long offset = start;
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == CSVSaveService.QUOTING_CHAR) {
+                        quoted = !quoted;
+                    } else if (b == '\n' && !quoted) {
+                        return offset + i + 1;
+                    }
+                }
+                offset += read;
+            }
+        }
+        return length;
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of file, could not skip " + bytes + " bytes");
+            }
+            remaining -= skipped;
+        }
+    }
+}
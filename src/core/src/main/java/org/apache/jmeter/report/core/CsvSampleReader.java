@@ -18,20 +18,21 @@
 package org.apache.jmeter.report.core;
 
 import java.io.BufferedReader;
-import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BlockCompressedFiles;
 import org.apache.jmeter.save.CSVSaveService;
 import org.apache.jmeter.save.SaveService;
 import org.apache.jmeter.util.JMeterUtils;
@@ -41,13 +42,13 @@ import org.slf4j.LoggerFactory;
 
 
 /**
- * Reader class for reading CSV files.
+ * Reader class for reading CSV files, they may be compressed (see {@link BlockCompressedFiles}).
  * <p>
  * Handles {@link SampleMetadata} reading and sample extraction.
  *
  * @since 3.0
  */
-public class CsvSampleReader implements Closeable{
+public class CsvSampleReader implements SampleReader {
 
     private static final Logger log = LoggerFactory.getLogger(CsvSampleReader.class);
 
@@ -84,7 +85,25 @@ public class CsvSampleReader implements Closeable{
      *                         SampleSaveConfiguration to define metadata
      */
     public CsvSampleReader(File inputFile, char separator, boolean useSaveSampleCfg) {
-        this(inputFile, null, separator, useSaveSampleCfg);
+        this(inputFile, null, separator, useSaveSampleCfg, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Instantiates a new csv sample reader which skips the compressed blocks of the file
+     * whose samples all started outside a time window (see {@link BlockCompressedFiles}).
+     * The samples read may still be outside the window.
+     *
+     * @param inputFile        the input file (must not be {@code null})
+     * @param separator        the separator
+     * @param useSaveSampleCfg indicates whether the reader uses jmeter
+     *                         SampleSaveConfiguration to define metadata
+     * @param minStartTime     the beginning of the time window in milliseconds since the epoch
+     * @param maxStartTime     the end of the time window in milliseconds since the epoch
+     * @since 6.0
+     */
+    public CsvSampleReader(File inputFile, char separator, boolean useSaveSampleCfg,
+            long minStartTime, long maxStartTime) {
+        this(inputFile, null, separator, useSaveSampleCfg, minStartTime, maxStartTime);
     }
 
     /**
@@ -94,21 +113,43 @@ public class CsvSampleReader implements Closeable{
      * @param metadata  the metadata
      */
     public CsvSampleReader(File inputFile, SampleMetadata metadata) {
-        this(inputFile, metadata, DEFAULT_SEPARATOR, false);
+        this(inputFile, metadata, DEFAULT_SEPARATOR, false, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Instantiates a csv sample reader of a part of an uncompressed file.
+     * The part must start at the beginning of a record and end after the end of a record
+     * (see {@link CsvFilePartitioner}).
+     *
+     * @param inputFile   the input file (must not be {@code null})
+     * @param metadata    the metadata of the samples of the file
+     * @param startOffset the offset of the first byte to read
+     * @param endOffset   the offset of the byte following the last byte to read
+     * @since 6.0
+     */
+    public CsvSampleReader(File inputFile, SampleMetadata metadata, long startOffset, long endOffset) {
+        this(inputFile, metadata, metadata.getSeparator(), false,
+                () -> openRange(inputFile, startOffset, endOffset));
     }
 
     private CsvSampleReader(File inputFile, SampleMetadata metadata,
-            char separator, boolean useSaveSampleCfg) {
+            char separator, boolean useSaveSampleCfg, long minStartTime, long maxStartTime) {
+        this(inputFile, metadata, separator, useSaveSampleCfg,
+                () -> BlockCompressedFiles.newInputStream(inputFile, minStartTime, maxStartTime));
+    }
+
+    private CsvSampleReader(File inputFile, SampleMetadata metadata,
+            char separator, boolean useSaveSampleCfg, InputStreamOpener opener) {
         if (!(inputFile.isFile() && inputFile.canRead())) {
             throw new IllegalArgumentException(inputFile.getAbsolutePath()
                     + " does not exist or is not readable");
         }
         this.file = inputFile;
         try {
-            this.fis = new FileInputStream(file);
+            this.fis = opener.open();
             this.isr = new InputStreamReader(fis, CHARSET);
             this.reader = new BufferedReader(isr, BUF_SIZE);
-        } catch (FileNotFoundException | UnsupportedEncodingException ex) {
+        } catch (IOException ex) {
             JOrphanUtils.closeQuietly(isr);
             JOrphanUtils.closeQuietly(fis);
             JOrphanUtils.closeQuietly(this.reader);
@@ -135,6 +176,22 @@ public class CsvSampleReader implements Closeable{
         this.lastSampleRead = nextSample();
     }
 
+    @FunctionalInterface
+    private interface InputStreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    private static InputStream openRange(File file, long startOffset, long endOffset) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            channel.position(startOffset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedInputStream(Channels.newInputStream(channel), endOffset - startOffset);
+    }
+
     private Pair<Boolean, SampleMetadata> readMetadata(char separator, boolean useSaveSampleCfg) {
         try {
             SampleMetadata result;
@@ -172,6 +229,7 @@ public class CsvSampleReader implements Closeable{
         }
     }
 
+    @Override
     public SampleMetadata getMetadata() {
         return metadata;
     }
@@ -208,6 +266,7 @@ public class CsvSampleReader implements Closeable{
     /**
      * @return next sample from the file.
      */
+    @Override
     public Sample readSample() {
         Sample out = lastSampleRead;
         lastSampleRead = nextSample();
@@ -217,6 +276,7 @@ public class CsvSampleReader implements Closeable{
     /**
      * @return next sample from file but keep the reading file position.
      */
+    @Override
     public Sample peek() {
         return lastSampleRead;
     }
@@ -224,6 +284,7 @@ public class CsvSampleReader implements Closeable{
     /**
      * @return flag, that indicates whether the file contains more samples
      */
+    @Override
     public boolean hasNext() {
         return lastSampleRead != null;
     }
@@ -18,8 +18,8 @@
 package org.apache.jmeter.report.core;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.save.CSVSaveService;
-import org.apache.jmeter.util.JMeterUtils;
 
 /**
  * Represents a sample read from a CSV source.
@@ -27,6 +27,12 @@ import org.apache.jmeter.util.JMeterUtils;
  * Getters with a string parameter are implemented for convenience but should be
  * avoided as they are inefficient
  * </p>
+ * <p>
+ * The numeric fields of the well-known columns are parsed on first use only,
+ * and then kept in primitive fields, so the consumers that read them several
+ * times do not parse them again. This cache is not synchronized: a sample must
+ * be safely published to be used by another thread.
+ * </p>
  *
  * @since 3.0
  */
@@ -38,11 +44,31 @@ public class Sample {
 
     private static final String EMPTY_CONTROLLER_PATTERN = "Number of samples in transaction : 0";
 
-    private final boolean storesStartTimeStamp;
+    private static final int TIMESTAMP = 1;
+    private static final int ELAPSED = 1 << 1;
+    private static final int LATENCY = 1 << 2;
+    private static final int CONNECT_TIME = 1 << 3;
+    private static final int INTENDED_START_TIME = 1 << 4;
+    private static final int RECEIVED_BYTES = 1 << 5;
+    private static final int SENT_BYTES = 1 << 6;
+    private static final int SUCCESS = 1 << 7;
+
     private final SampleMetadata metadata;
+    private final SampleFields fields;
     private final String[] data;
     private final long row;
 
+    /** Bit set of the fields below that were already parsed from data */
+    private int decoded;
+    private long timestamp;
+    private long elapsedTime;
+    private long latency;
+    private long connectTime;
+    private long intendedStartTime;
+    private long receivedBytes;
+    private long sentBytes;
+    private boolean success;
+
     /**
      * Build a sample from a string array
      *
@@ -58,7 +84,7 @@ public class Sample {
         this.row = row;
         this.metadata = metadata;
         this.data = data;
-        this.storesStartTimeStamp = JMeterUtils.getPropDefault("sampleresult.timestamp.start", false);
+        this.fields = metadata.getFields();
     }
 
     /**
@@ -132,6 +158,33 @@ public class Sample {
         return getData(clazz, metadata.ensureIndexOf(name), name);
     }
 
+    /**
+     * Gets the rank of a well-known column.
+     *
+     * @throws SampleException
+     *             when the column is not in the metadata
+     */
+    private int ensureColumn(int index, String name) {
+        return index < 0 ? metadata.ensureIndexOf(name) : index;
+    }
+
+    private String getColumnData(int index, String name) {
+        return data[ensureColumn(index, name)];
+    }
+
+    /**
+     * Parses a long column, the same way {@link #getData(Class, int, String)}
+     * does without going through the generic converters.
+     */
+    private long parseLong(int index, String name) {
+        int column = ensureColumn(index, name);
+        try {
+            return Long.parseLong(data[column].trim());
+        } catch (NumberFormatException ex) { // NOSONAR getData reports the error
+            return getData(long.class, column, name);
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -148,7 +201,11 @@ public class Sample {
      * @return the time stamp
      */
     public long getTimestamp() {
-        return getData(long.class, CSVSaveService.TIME_STAMP);
+        if ((decoded & TIMESTAMP) == 0) {
+            timestamp = parseLong(fields.timestamp, CSVSaveService.TIME_STAMP);
+            decoded |= TIMESTAMP;
+        }
+        return timestamp;
     }
 
     /**
@@ -157,7 +214,11 @@ public class Sample {
      * @return the elapsed time stored in the sample
      */
     public long getElapsedTime() {
-        return getData(long.class, CSVSaveService.CSV_ELAPSED);
+        if ((decoded & ELAPSED) == 0) {
+            elapsedTime = parseLong(fields.elapsed, CSVSaveService.CSV_ELAPSED);
+            decoded |= ELAPSED;
+        }
+        return elapsedTime;
     }
 
     /**
@@ -177,7 +238,7 @@ public class Sample {
      * @return the start time
      */
     public long getStartTime() {
-        return storesStartTimeStamp ? getTimestamp() : getTimestamp() - getElapsedTime();
+        return fields.storesStartTimeStamp ? getTimestamp() : getTimestamp() - getElapsedTime();
     }
 
     /**
@@ -197,7 +258,7 @@ public class Sample {
      * @return the end time
      */
     public long getEndTime() {
-        return storesStartTimeStamp ? getTimestamp() + getElapsedTime() : getTimestamp();
+        return fields.storesStartTimeStamp ? getTimestamp() + getElapsedTime() : getTimestamp();
     }
 
     /**
@@ -206,7 +267,7 @@ public class Sample {
      * @return the response code stored in the sample
      */
     public String getResponseCode() {
-        return getData(CSVSaveService.RESPONSE_CODE);
+        return getColumnData(fields.responseCode, CSVSaveService.RESPONSE_CODE);
     }
 
     /**
@@ -215,7 +276,7 @@ public class Sample {
      * @return the failure message stored in the sample
      */
     public String getFailureMessage() {
-        return getData(CSVSaveService.FAILURE_MESSAGE);
+        return getColumnData(fields.failureMessage, CSVSaveService.FAILURE_MESSAGE);
     }
 
     /**
@@ -224,7 +285,7 @@ public class Sample {
      * @return the name stored in the sample
      */
     public String getName() {
-        return getData(CSVSaveService.LABEL);
+        return getColumnData(fields.label, CSVSaveService.LABEL);
     }
 
     /**
@@ -233,7 +294,7 @@ public class Sample {
      * @return the response message stored in the sample
      */
     public String getResponseMessage() {
-        return getData(CSVSaveService.RESPONSE_MESSAGE);
+        return getColumnData(fields.responseMessage, CSVSaveService.RESPONSE_MESSAGE);
     }
 
     /**
@@ -242,7 +303,11 @@ public class Sample {
      * @return the latency stored in the sample
      */
     public long getLatency() {
-        return getData(long.class, CSVSaveService.CSV_LATENCY);
+        if ((decoded & LATENCY) == 0) {
+            latency = parseLong(fields.latency, CSVSaveService.CSV_LATENCY);
+            decoded |= LATENCY;
+        }
+        return latency;
     }
 
     /**
@@ -251,11 +316,38 @@ public class Sample {
      * @return the connect time stored in the sample or 0 is column is not in results
      */
     public long getConnectTime() {
-        if(metadata.indexOf(CSVSaveService.CSV_CONNECT_TIME) >= 0) {
-            return getData(long.class, CSVSaveService.CSV_CONNECT_TIME);
-        } else {
-            return 0L;
+        if ((decoded & CONNECT_TIME) == 0) {
+            connectTime = fields.connectTime == SampleFields.ABSENT ? 0L
+                    : parseLong(fields.connectTime, CSVSaveService.CSV_CONNECT_TIME);
+            decoded |= CONNECT_TIME;
+        }
+        return connectTime;
+    }
+
+    /**
+     * Gets the intended start time stored in the sample.
+     *
+     * @return the intended start time stored in the sample or 0 if column is not in results
+     * @since 6.0
+     */
+    public long getIntendedStartTime() {
+        if ((decoded & INTENDED_START_TIME) == 0) {
+            intendedStartTime = fields.intendedStartTime == SampleFields.ABSENT ? 0L
+                    : parseLong(fields.intendedStartTime, CSVSaveService.CSV_INTENDED_START_TIME);
+            decoded |= INTENDED_START_TIME;
         }
+        return intendedStartTime;
+    }
+
+    /**
+     * Gets the elapsed time corrected for coordinated omission, see
+     * {@link org.apache.jmeter.samplers.SampleResult#getCorrectedTime()}.
+     *
+     * @return the corrected elapsed time, or the elapsed time if the intended start time is not in results
+     * @since 6.0
+     */
+    public long getCorrectedElapsedTime() {
+        return SampleResult.correctedTime(getElapsedTime(), getStartTime(), getIntendedStartTime());
     }
 
     /**
@@ -264,7 +356,11 @@ public class Sample {
      * @return the success status stored in the sample
      */
     public boolean getSuccess() {
-        return getData(boolean.class, CSVSaveService.SUCCESSFUL);
+        if ((decoded & SUCCESS) == 0) {
+            success = Boolean.parseBoolean(getColumnData(fields.success, CSVSaveService.SUCCESSFUL));
+            decoded |= SUCCESS;
+        }
+        return success;
     }
 
     /**
@@ -273,7 +369,11 @@ public class Sample {
      * @return the number of received bytes stored in the sample
      */
     public long getReceivedBytes() {
-        return getData(long.class, CSVSaveService.CSV_BYTES);
+        if ((decoded & RECEIVED_BYTES) == 0) {
+            receivedBytes = parseLong(fields.receivedBytes, CSVSaveService.CSV_BYTES);
+            decoded |= RECEIVED_BYTES;
+        }
+        return receivedBytes;
     }
 
     /**
@@ -282,11 +382,12 @@ public class Sample {
      * @return the number of sent bytes stored in the sample
      */
     public long getSentBytes() {
-        if(metadata.indexOf(CSVSaveService.CSV_SENT_BYTES) >= 0) {
-            return getData(long.class, CSVSaveService.CSV_SENT_BYTES);
-        } else {
-            return 0L;
+        if ((decoded & SENT_BYTES) == 0) {
+            sentBytes = fields.sentBytes == SampleFields.ABSENT ? 0L
+                    : parseLong(fields.sentBytes, CSVSaveService.CSV_SENT_BYTES);
+            decoded |= SENT_BYTES;
         }
+        return sentBytes;
     }
 
     /**
@@ -295,7 +396,8 @@ public class Sample {
      * @return the number of threads in the group of this sample
      */
     public int getGroupThreads() {
-        return getData(int.class, CSVSaveService.CSV_THREAD_COUNT1);
+        return getData(int.class, ensureColumn(fields.groupThreads, CSVSaveService.CSV_THREAD_COUNT1),
+                CSVSaveService.CSV_THREAD_COUNT1);
     }
 
     /**
@@ -304,7 +406,8 @@ public class Sample {
      * @return the overall number of threads
      */
     public int getAllThreads() {
-        return getData(int.class, CSVSaveService.CSV_THREAD_COUNT2);
+        return getData(int.class, ensureColumn(fields.allThreads, CSVSaveService.CSV_THREAD_COUNT2),
+                CSVSaveService.CSV_THREAD_COUNT2);
     }
 
     /**
@@ -313,7 +416,7 @@ public class Sample {
      * @return the thread name stored in the sample
      */
     public String getThreadName() {
-        return getData(CSVSaveService.THREAD_NAME);
+        return getColumnData(fields.threadName, CSVSaveService.THREAD_NAME);
     }
 
     /**
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import org.apache.jmeter.save.CSVSaveService;
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * Indexes of the well-known sample columns in a {@link SampleMetadata}, so the
+ * samples sharing the metadata do not look up the column names for each
+ * field they decode.
+ * <p>
+ * Instances are immutable and are computed once per metadata (see
+ * {@link SampleMetadata#getFields()}).
+ *
+ * @since 6.0
+ */
+final class SampleFields {
+
+    /** Value of the indexes of the columns that are not in the metadata */
+    static final int ABSENT = -1;
+
+    final boolean storesStartTimeStamp;
+    final int timestamp;
+    final int elapsed;
+    final int label;
+    final int responseCode;
+    final int responseMessage;
+    final int failureMessage;
+    final int threadName;
+    final int success;
+    final int receivedBytes;
+    final int sentBytes;
+    final int groupThreads;
+    final int allThreads;
+    final int latency;
+    final int connectTime;
+    final int intendedStartTime;
+
+    SampleFields(SampleMetadata metadata) {
+        storesStartTimeStamp = JMeterUtils.getPropDefault("sampleresult.timestamp.start", false);
+        timestamp = metadata.indexOf(CSVSaveService.TIME_STAMP);
+        elapsed = metadata.indexOf(CSVSaveService.CSV_ELAPSED);
+        label = metadata.indexOf(CSVSaveService.LABEL);
+        responseCode = metadata.indexOf(CSVSaveService.RESPONSE_CODE);
+        responseMessage = metadata.indexOf(CSVSaveService.RESPONSE_MESSAGE);
+        failureMessage = metadata.indexOf(CSVSaveService.FAILURE_MESSAGE);
+        threadName = metadata.indexOf(CSVSaveService.THREAD_NAME);
+        success = metadata.indexOf(CSVSaveService.SUCCESSFUL);
+        receivedBytes = metadata.indexOf(CSVSaveService.CSV_BYTES);
+        sentBytes = metadata.indexOf(CSVSaveService.CSV_SENT_BYTES);
+        groupThreads = metadata.indexOf(CSVSaveService.CSV_THREAD_COUNT1);
+        allThreads = metadata.indexOf(CSVSaveService.CSV_THREAD_COUNT2);
+        latency = metadata.indexOf(CSVSaveService.CSV_LATENCY);
+        connectTime = metadata.indexOf(CSVSaveService.CSV_CONNECT_TIME);
+        intendedStartTime = metadata.indexOf(CSVSaveService.CSV_INTENDED_START_TIME);
+    }
+}
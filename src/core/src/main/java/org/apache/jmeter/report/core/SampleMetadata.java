@@ -47,6 +47,9 @@ public class SampleMetadata {
     /** character separator used for separating columns */
     private char separator;
 
+    /** Indexes of the well-known columns, computed on first use */
+    private SampleFields fields;
+
     /**
      * Builds metadata from separator character and a list of column names
      *
@@ -131,6 +134,9 @@ public class SampleMetadata {
         if (saveConfig.saveConnectTime()) {
             configuredColumns.add(CSVSaveService.CSV_CONNECT_TIME);
         }
+        if (saveConfig.saveIntendedStartTime()) {
+            configuredColumns.add(CSVSaveService.CSV_INTENDED_START_TIME);
+        }
         initialize(saveConfig.getDelimiter().charAt(0), configuredColumns);
     }
 
@@ -219,6 +225,25 @@ public class SampleMetadata {
         return index;
     }
 
+    /**
+     * Gets the indexes of the well-known columns decoded by {@link Sample}.
+     * <p>
+     * They are computed once and shared by all the samples of this metadata.
+     * The fields are immutable, so concurrent first calls may only compute
+     * them more than once.
+     *
+     * @return the indexes of the well-known columns
+     * @since 6.0
+     */
+    SampleFields getFields() {
+        SampleFields result = fields;
+        if (result == null) {
+            result = new SampleFields(this);
+            fields = result;
+        }
+        return result;
+    }
+
     /*
      * (non-Javadoc)
      *
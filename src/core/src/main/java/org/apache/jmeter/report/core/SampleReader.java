@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import java.io.Closeable;
+
+import org.apiguardian.api.API;
+
+/**
+ * Reads the samples of a results file one by one.
+ *
+ * @see CsvSampleReader
+ * @see BinarySampleReader
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public interface SampleReader extends Closeable {
+
+    /**
+     * @return the description of the columns of the samples
+     */
+    SampleMetadata getMetadata();
+
+    /**
+     * @return next sample from the file or {@code null} if there are no more samples
+     */
+    Sample readSample();
+
+    /**
+     * @return next sample from file but keep the reading file position.
+     */
+    Sample peek();
+
+    /**
+     * @return flag, that indicates whether the file contains more samples
+     */
+    boolean hasNext();
+
+    @Override
+    void close();
+}
@@ -81,7 +81,7 @@ public class JsonExporter extends AbstractDataExporter {
             itemsData.forEach(r -> createStatistic(statistics, (MapResultData)r));
 
             LOGGER.info("Checking output folder");
-            File outputDir = checkAndGetOutputFolder(reportGeneratorConfiguration);
+            File outputDir = checkAndGetOutputFolder(reportGeneratorConfiguration, context.isRefreshingReport());
 
             File outputFile = new File(outputDir, OUTPUT_FILENAME);
             LOGGER.info("Writing statistics JSON to {}", outputFile);
@@ -96,11 +96,12 @@ public class JsonExporter extends AbstractDataExporter {
     /**
      * Check folder and return output folder.
      * @param reportGeneratorConfiguration {@link ReportGeneratorConfiguration}
+     * @param refreshingReport true if the statistics file of a previous export may be overwritten
      * @return {@link File} output folder
      * @throws ExportException
      */
-    private File checkAndGetOutputFolder(ReportGeneratorConfiguration reportGeneratorConfiguration)
-            throws ExportException {
+    private File checkAndGetOutputFolder(ReportGeneratorConfiguration reportGeneratorConfiguration,
+            boolean refreshingReport) throws ExportException {
         final ExporterConfiguration exportCfg = reportGeneratorConfiguration
                 .getExportConfigurations().get(getName());
         // Get output directory property value
@@ -111,7 +112,9 @@ public class JsonExporter extends AbstractDataExporter {
             outputDir = new File(globallyDefinedOutputDir);
         }
 
-        JOrphanUtils.canSafelyWriteToFolder(outputDir, JSON_FILE_FILTER);
+        if (!refreshingReport) {
+            JOrphanUtils.canSafelyWriteToFolder(outputDir, JSON_FILE_FILTER);
+        }
         try {
             FileUtils.forceMkdir(outputDir);
         } catch (IOException ex) {
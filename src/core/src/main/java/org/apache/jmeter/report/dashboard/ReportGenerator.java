@@ -22,9 +22,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -36,7 +41,11 @@ import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
 import org.apache.jmeter.report.core.ControllerSamplePredicate;
 import org.apache.jmeter.report.core.ConvertException;
 import org.apache.jmeter.report.core.Converters;
+import org.apache.jmeter.report.core.CsvFilePartitioner;
+import org.apache.jmeter.report.core.CsvSampleReader;
+import org.apache.jmeter.report.core.Sample;
 import org.apache.jmeter.report.core.SampleException;
+import org.apache.jmeter.report.core.SampleMetadata;
 import org.apache.jmeter.report.core.StringConverter;
 import org.apache.jmeter.report.processor.AbstractSampleConsumer;
 import org.apache.jmeter.report.processor.AggregateConsumer;
@@ -48,6 +57,7 @@ import org.apache.jmeter.report.processor.FilterConsumer;
 import org.apache.jmeter.report.processor.MaxAggregator;
 import org.apache.jmeter.report.processor.MinAggregator;
 import org.apache.jmeter.report.processor.NormalizerSampleConsumer;
+import org.apache.jmeter.report.processor.PartitionedCsvFileSampleSource;
 import org.apache.jmeter.report.processor.RequestsSummaryConsumer;
 import org.apache.jmeter.report.processor.SampleConsumer;
 import org.apache.jmeter.report.processor.SampleContext;
@@ -73,9 +83,12 @@ public class ReportGenerator {
 
     private static final Logger log = LoggerFactory.getLogger(ReportGenerator.class);
 
-    private static final boolean CSV_OUTPUT_FORMAT = "csv"
-            .equalsIgnoreCase(JMeterUtils.getPropDefault(
-                    "jmeter.save.saveservice.output_format", "csv"));
+    private static final String OUTPUT_FORMAT = JMeterUtils.getPropDefault(
+            "jmeter.save.saveservice.output_format", "csv");
+
+    /** The binary files are read by the same sample source as the CSV files */
+    private static final boolean CSV_OUTPUT_FORMAT = "csv".equalsIgnoreCase(OUTPUT_FORMAT)
+            || "binary".equalsIgnoreCase(OUTPUT_FORMAT);
 
     private static final char CSV_DEFAULT_SEPARATOR =
             // We cannot use JMeterUtils#getPropDefault as it applies a trim on value
@@ -101,6 +114,9 @@ public class ReportGenerator {
 
     private static final Pattern POTENTIAL_CAMEL_CASE_PATTERN = Pattern.compile("_(.)");
 
+    /** Maximum time to wait for the end of a refresh of the dashboard before the final generation */
+    private static final long REFRESH_TERMINATION_TIMEOUT_MINUTES = 5;
+
     private final File testFile;
     private final ReportGeneratorConfiguration configuration;
 
@@ -112,6 +128,25 @@ public class ReportGenerator {
      */
     private final ResultCollector resultCollector;
 
+    /** Refreshes the dashboard during the test, see {@link #startRefreshing()} */
+    private ScheduledExecutorService refresher;
+
+    /*
+     * State of the dashboard refreshed during the test: the consumers chain is
+     * created once the results file has a header, and keeps the state of all
+     * the samples read up to the offset
+     */
+    private AbstractSampleConsumer refreshedChain;
+    private SampleContext refreshedContext;
+    private SampleMetadata refreshedMetadata;
+    private long refreshedOffset;
+    private long refreshedSampleCount;
+    private boolean refreshTempDirCreated;
+    private boolean refreshDisabled;
+
+    /** Whether the exporters already wrote a dashboard in their output folders */
+    private volatile boolean refreshExported;
+
     /**
      * Instantiates a new report generator.
      *
@@ -123,7 +158,7 @@ public class ReportGenerator {
             throws ConfigurationException {
         if (!CSV_OUTPUT_FORMAT) {
             throw new IllegalArgumentException(
-                    "Report generation requires csv output format, check 'jmeter.save.saveservice.output_format' property");
+                    "Report generation requires csv or binary output format, check 'jmeter.save.saveservice.output_format' property");
         }
 
         log.info("ReportGenerator will use for Parsing the separator: '{}'", CSV_DEFAULT_SEPARATOR);
@@ -194,6 +229,7 @@ public class ReportGenerator {
      * @throws GenerationException when the generation failed
      */
     public void generate() throws GenerationException {
+        stopRefreshing();
 
         if (resultCollector != null) {
             log.info("Flushing result collector before report Generation");
@@ -204,49 +240,190 @@ public class ReportGenerator {
         File tmpDir = configuration.getTempDirectory();
         boolean tmpDirCreated = createTempDir(tmpDir);
 
-        // Build consumers chain
         SampleContext sampleContext = new SampleContext();
         sampleContext.setWorkingDirectory(tmpDir);
-        SampleSource source = new CsvFileSampleSource(testFile, CSV_DEFAULT_SEPARATOR);
-        source.setSampleContext(sampleContext);
-
-        NormalizerSampleConsumer normalizer = new NormalizerSampleConsumer();
-        normalizer.setName(NORMALIZER_CONSUMER_NAME);
+        sampleContext.setRefreshingReport(refreshExported);
 
-        FilterConsumer dateRangeConsumer = createFilterByDateRange();
-        dateRangeConsumer.addSampleConsumer(createBeginDateConsumer());
-        dateRangeConsumer.addSampleConsumer(createEndDateConsumer());
+        // Generate data
+        log.debug("Start samples processing");
+        try {
+            if (!processInParallel(sampleContext)) {
+                processSerially(sampleContext);
+            }
+        } catch (SampleException ex) {
+            throw new GenerationException("Error while processing samples: " + ex.getMessage(), ex);
+        }
+        log.debug("End of samples processing");
 
-        FilterConsumer nameFilter = createNameFilter();
+        exportData(sampleContext);
 
-        FilterConsumer excludeControllerFilter = createExcludeControllerFilter();
+        removeTempDir(tmpDir, tmpDirCreated);
 
-        nameFilter.addSampleConsumer(excludeControllerFilter);
+        log.debug("End of report generation");
+    }
 
-        dateRangeConsumer.addSampleConsumer(nameFilter);
+    /**
+     * Starts refreshing the dashboard every
+     * {@value ReportGeneratorConfiguration#REPORT_GENERATOR_KEY_REFRESH_INTERVAL} seconds
+     * while the test writes the results file, when the dashboard is generated at the end of the test
+     * and the interval is positive.
+     * <p>
+     * The refreshes stop when {@link #generate()} is called.
+     *
+     * @see #refresh()
+     * @since 6.0
+     */
+    public synchronized void startRefreshing() {
+        int interval = configuration.getRefreshInterval();
+        if (resultCollector == null || interval <= 0 || refresher != null || refreshDisabled) {
+            return;
+        }
+        log.info("Dashboard will be refreshed every {} seconds from results file: {}", interval, testFile);
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ReportGenerator-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.SECONDS);
+    }
 
-        normalizer.addSampleConsumer(dateRangeConsumer);
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (GenerationException | RuntimeException ex) {
+            log.error("Error refreshing the dashboard, it will only be generated at the end of the test", ex);
+            synchronized (this) {
+                refreshDisabled = true;
+                closeRefreshedChain();
+            }
+        }
+    }
 
-        source.addSampleConsumer(normalizer);
+    /**
+     * Stops the refreshes and waits for the end of the current one, so the final generation
+     * does not run concurrently.
+     */
+    private void stopRefreshing() {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = refresher;
+            refresher = null;
+            refreshDisabled = true;
+        }
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(REFRESH_TERMINATION_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                    log.warn("Dashboard refresh did not end within {} minutes", REFRESH_TERMINATION_TIMEOUT_MINUTES);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeRefreshedChain();
+        }
+    }
 
-        // Get graph configurations
-        Map<String, GraphConfiguration> graphConfigurations = configuration
-                .getGraphConfigurations();
+    /**
+     * Refreshes the dashboard with the samples written to the results file since the previous refresh.
+     * <p>
+     * The consumers keep their state from one refresh to the next (see
+     * {@link AbstractSampleConsumer#publishResults()}), so a refresh only reads the records completed since
+     * the previous one, then exports the results of all the samples read so far.
+     * The graphs that can only be computed once all the samples are read are left out until the final
+     * generation.
+     * Only uncompressed CSV files with a header can be refreshed.
+     *
+     * @return true if the dashboard was exported, false if there was no new sample
+     * or the results file can't be refreshed
+     * @throws GenerationException when the samples can't be read or the dashboard can't be exported
+     * @since 6.0
+     */
+    public synchronized boolean refresh() throws GenerationException {
+        if (refreshDisabled) {
+            return false;
+        }
+        try {
+            if (refreshedChain == null && !startRefreshedChain()) {
+                return false;
+            }
+            long end = CsvFilePartitioner.findRecordsEnd(testFile, refreshedOffset, testFile.length());
+            if (end <= refreshedOffset) {
+                return false;
+            }
+            try (CsvSampleReader reader = new CsvSampleReader(testFile, refreshedMetadata, refreshedOffset, end)) {
+                Sample sample;
+                while ((sample = reader.readSample()) != null) {
+                    refreshedChain.consume(sample, 0);
+                    refreshedSampleCount++;
+                }
+            }
+            refreshedOffset = end;
+        } catch (IOException | SampleException ex) {
+            throw new GenerationException("Error while refreshing samples: " + ex.getMessage(), ex);
+        }
+        refreshedChain.publishResults();
+        refreshedContext.setRefreshingReport(refreshExported);
+        exportData(refreshedContext);
+        refreshExported = true;
+        log.info("Dashboard refreshed with {} samples of results file: {}", refreshedSampleCount, testFile);
+        return true;
+    }
 
-        // Process configuration to build graph consumers
-        for (Map.Entry<String, GraphConfiguration> entryGraphCfg : graphConfigurations.entrySet()) {
-            addGraphConsumer(nameFilter, excludeControllerFilter, entryGraphCfg);
+    /**
+     * @return true if the consumers chain was started, false if the results file has no record yet
+     * or can't be refreshed
+     */
+    private boolean startRefreshedChain() throws IOException, GenerationException {
+        if (!testFile.isFile()) {
+            return false;
+        }
+        long dataStart = CsvFilePartitioner.findDataStart(testFile);
+        if (dataStart >= testFile.length()) {
+            // The header or the first record are not written yet
+            return false;
+        }
+        if (!CsvFilePartitioner.isPartitionable(testFile)) {
+            log.warn("Results file {} is compressed, binary or has no header, "
+                    + "the dashboard will only be generated at the end of the test", testFile);
+            refreshDisabled = true;
+            return false;
+        }
+        try (CsvSampleReader reader = new CsvSampleReader(testFile, CSV_DEFAULT_SEPARATOR, true)) {
+            refreshedMetadata = reader.getMetadata();
+        }
+        AbstractSampleConsumer chain = createConsumersChain(true);
+        if (!chain.isPublishable()) {
+            log.warn("Some report consumers can only compute their results at the end of the test, "
+                    + "the dashboard will only be generated at the end of the test");
+            refreshDisabled = true;
+            return false;
         }
+        File tmpDir = configuration.getTempDirectory();
+        refreshTempDirCreated = createTempDir(tmpDir);
+        refreshedContext = new SampleContext();
+        refreshedContext.setWorkingDirectory(tmpDir);
+        chain.setSampleContext(refreshedContext);
+        chain.setConsumedMetadata(refreshedMetadata, 0);
+        chain.setChannelAttribute(0, CsvFileSampleSource.SOURCE_FILE_ATTRIBUTE, testFile);
+        chain.startConsuming();
+        refreshedChain = chain;
+        refreshedOffset = dataStart;
+        return true;
+    }
 
-        // Generate data
-        log.debug("Start samples processing");
-        try {
-            source.run(); // NOSONAR
-        } catch (SampleException ex) {
-            throw new GenerationException("Error while processing samples: " + ex.getMessage(), ex);
+    private void closeRefreshedChain() {
+        if (refreshedChain == null) {
+            return;
         }
-        log.debug("End of samples processing");
+        refreshedChain = null;
+        refreshedContext = null;
+        removeTempDir(configuration.getTempDirectory(), refreshTempDirCreated);
+        refreshTempDirCreated = false;
+    }
 
+    private void exportData(SampleContext sampleContext) throws GenerationException {
         log.debug("Start data exporting");
 
         // Process configuration to build data exporters
@@ -262,10 +439,89 @@ public class ReportGenerator {
         }
 
         log.debug("End of data exporting");
+    }
 
-        removeTempDir(tmpDir, tmpDirCreated);
+    @SuppressWarnings("JavaUtilDate")
+    private void processSerially(SampleContext sampleContext) throws GenerationException {
+        // The compressed blocks outside the date range are not even decompressed
+        SampleSource source = new CsvFileSampleSource(testFile, CSV_DEFAULT_SEPARATOR,
+                configuration.getStartDate() != null ? configuration.getStartDate().getTime() : Long.MIN_VALUE,
+                configuration.getEndDate() != null ? configuration.getEndDate().getTime() : Long.MAX_VALUE);
+        source.setSampleContext(sampleContext);
+        source.addSampleConsumer(createConsumersChain(false));
+        source.run(); // NOSONAR
+    }
 
-        log.debug("End of report generation");
+    /**
+     * Splits the results file in parts consumed in parallel by their own consumers chains,
+     * when the parallelism is enabled and the file and all the consumers support it.
+     *
+     * @return true if the samples were processed, false if they have to be processed serially
+     */
+    private boolean processInParallel(SampleContext sampleContext) throws GenerationException {
+        int parallelism = configuration.getParallelism();
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (parallelism < 2) {
+            return false;
+        }
+        PartitionedCsvFileSampleSource source =
+                new PartitionedCsvFileSampleSource(testFile, CSV_DEFAULT_SEPARATOR, parallelism);
+        int partitions = source.getPartitionCount();
+        if (partitions < 2) {
+            return false;
+        }
+        List<AbstractSampleConsumer> chains = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            chains.add(createConsumersChain(false));
+        }
+        if (!chains.get(0).isMergeable()) {
+            log.info("Some report consumers can not be merged, samples of {} will be processed serially", testFile);
+            return false;
+        }
+        try {
+            source.run(sampleContext, chains);
+            return true;
+        } catch (SampleException ex) {
+            log.warn("Parallel processing of {} failed, processing samples serially", testFile, ex);
+            sampleContext.getData().clear();
+            return false;
+        }
+    }
+
+    /**
+     * @param publishableOnly true to leave out the graphs that can't publish their results
+     *                        before they are stopped (see {@link AbstractSampleConsumer#isPublishable()})
+     * @return the head of a new chain made of all the consumers that compute the report data
+     */
+    private AbstractSampleConsumer createConsumersChain(boolean publishableOnly) throws GenerationException {
+        NormalizerSampleConsumer normalizer = new NormalizerSampleConsumer();
+        normalizer.setName(NORMALIZER_CONSUMER_NAME);
+
+        FilterConsumer dateRangeConsumer = createFilterByDateRange();
+        dateRangeConsumer.addSampleConsumer(createBeginDateConsumer());
+        dateRangeConsumer.addSampleConsumer(createEndDateConsumer());
+
+        FilterConsumer nameFilter = createNameFilter();
+
+        FilterConsumer excludeControllerFilter = createExcludeControllerFilter();
+
+        nameFilter.addSampleConsumer(excludeControllerFilter);
+
+        dateRangeConsumer.addSampleConsumer(nameFilter);
+
+        normalizer.addSampleConsumer(dateRangeConsumer);
+
+        // Get graph configurations
+        Map<String, GraphConfiguration> graphConfigurations = configuration
+                .getGraphConfigurations();
+
+        // Process configuration to build graph consumers
+        for (Map.Entry<String, GraphConfiguration> entryGraphCfg : graphConfigurations.entrySet()) {
+            addGraphConsumer(nameFilter, excludeControllerFilter, entryGraphCfg, publishableOnly);
+        }
+        return normalizer;
     }
 
     /**
@@ -325,7 +581,8 @@ public class ReportGenerator {
 
     private static void addGraphConsumer(FilterConsumer nameFilter,
             FilterConsumer excludeControllerFilter,
-            Map.Entry<String, ? extends GraphConfiguration> entryGraphCfg)
+            Map.Entry<String, ? extends GraphConfiguration> entryGraphCfg,
+            boolean publishableOnly)
             throws GenerationException {
         String graphName = entryGraphCfg.getKey();
         GraphConfiguration graphConfiguration = entryGraphCfg.getValue();
@@ -353,6 +610,10 @@ public class ReportGenerator {
                         propertyValue, setterName);
             }
             graph.initialize();
+            if (publishableOnly && !graph.isPublishable()) {
+                log.info("Graph {} can only be computed at the end of the test, it is not refreshed", graphName);
+                return;
+            }
 
             // Choose which entry point to use to plug the graph
             AbstractSampleConsumer entryPoint = graphConfiguration
@@ -208,6 +208,144 @@ public abstract class AbstractSampleConsumer extends AbstractSampleProcessor
         }
     }
 
+    /**
+     * Indicates whether the state of this consumer and of all its consumers can
+     * be merged with the state of a copy of them which consumed other samples
+     * (see {@link #merge(AbstractSampleConsumer)}).
+     *
+     * @return true if this consumer chain can be merged
+     * @since 6.0
+     */
+    public boolean isMergeable() {
+        if (!isStateMergeable()) {
+            return false;
+        }
+        for (SampleConsumer consumer : sampleConsumers) {
+            if (!(consumer instanceof AbstractSampleConsumer)
+                    || !((AbstractSampleConsumer) consumer).isMergeable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indicates whether {@link #mergeState(AbstractSampleConsumer)} is
+     * implemented for this consumer.
+     *
+     * @return false by default, so the samples are consumed by a single chain
+     * @since 6.0
+     */
+    protected boolean isStateMergeable() {
+        return false;
+    }
+
+    /**
+     * Merges the state of a consumer chain, built the same way as this one, that
+     * started consuming other samples. The samples of the other chain are
+     * considered as consumed after the samples of this chain.
+     * <p>
+     * The other chain must not be stopped, and must not be used afterwards.
+     * Only this chain is stopped, to produce the results of both chains.
+     *
+     * @param other
+     *            the consumer to merge, of the same class as this consumer
+     * @throws UnsupportedOperationException
+     *             when the chain is not mergeable (see {@link #isMergeable()})
+     * @throws IllegalArgumentException
+     *             when the other chain was not built the same way
+     * @since 6.0
+     */
+    public final void merge(AbstractSampleConsumer other) {
+        if (other.getClass() != getClass()
+                || other.sampleConsumers.size() != sampleConsumers.size()) {
+            throw new IllegalArgumentException("Cannot merge " + other.getName()
+                    + " into " + getName() + ", consumer chains differ");
+        }
+        mergeState(other);
+        producedSampleCount += other.producedSampleCount;
+        for (int i = 0; i < sampleConsumers.size(); i++) {
+            ((AbstractSampleConsumer) sampleConsumers.get(i))
+                    .merge((AbstractSampleConsumer) other.sampleConsumers.get(i));
+        }
+    }
+
+    /**
+     * Merges the state of the other consumer into the state of this consumer,
+     * the consumers of both are merged afterwards.
+     *
+     * @param other
+     *            the consumer to merge, of the same class as this consumer
+     * @see #merge(AbstractSampleConsumer)
+     * @since 6.0
+     */
+    protected void mergeState(AbstractSampleConsumer other) {
+        throw new UnsupportedOperationException(getClass().getName()
+                + " can not merge the samples consumed by another consumer");
+    }
+
+    /**
+     * Indicates whether this consumer and all its consumers can store the
+     * results of the samples consumed so far in the sample context, and then go
+     * on consuming samples (see {@link #publishResults()}).
+     *
+     * @return true if the results of this consumer chain can be published
+     * @since 6.0
+     */
+    public boolean isPublishable() {
+        if (!isStatePublishable()) {
+            return false;
+        }
+        for (SampleConsumer consumer : sampleConsumers) {
+            if (!(consumer instanceof AbstractSampleConsumer)
+                    || !((AbstractSampleConsumer) consumer).isPublishable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Indicates whether {@link #publishState()} is implemented for this
+     * consumer.
+     *
+     * @return false by default, so the results are only stored when the
+     *         consumer is stopped
+     * @since 6.0
+     */
+    protected boolean isStatePublishable() {
+        return false;
+    }
+
+    /**
+     * Stores the results of the samples consumed so far by this consumer and
+     * all its consumers in the sample context, as {@link #stopConsuming()}
+     * does, but keeps their state so that they go on consuming samples.
+     *
+     * @throws UnsupportedOperationException
+     *             when the chain is not publishable (see
+     *             {@link #isPublishable()})
+     * @since 6.0
+     */
+    public final void publishResults() {
+        publishState();
+        for (SampleConsumer consumer : sampleConsumers) {
+            ((AbstractSampleConsumer) consumer).publishResults();
+        }
+    }
+
+    /**
+     * Stores the results of the samples consumed so far by this consumer in
+     * the sample context, without changing its state.
+     *
+     * @see #publishResults()
+     * @since 6.0
+     */
+    protected void publishState() {
+        throw new UnsupportedOperationException(getClass().getName()
+                + " can only store its results when it is stopped");
+    }
+
     @Override
     public void startProducing() {
         producedSampleCount = 0;
@@ -17,7 +17,7 @@
 
 package org.apache.jmeter.report.processor;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.jmeter.report.core.Sample;
@@ -88,7 +88,8 @@ public abstract class AbstractSummaryConsumer<TData> extends
     public static final String RESULT_VALUE_SUPPORTS_CONTROLLERS_DISCRIMINATION = "supportsControllersDiscrimination";
     public static final String RESULT_VALUE_TITLES = "titles";
 
-    private final Map<String, SummaryInfo> infos = new HashMap<>();
+    // Keeps the order in which the keys were found, so merged consumers produce the same results
+    private final Map<String, SummaryInfo> infos = new LinkedHashMap<>();
     private final SummaryInfo overallInfo = new SummaryInfo(false);
     private final boolean supportsControllersDiscrimination;
 
@@ -189,6 +190,52 @@ public abstract class AbstractSummaryConsumer<TData> extends
      */
     protected abstract void updateData(SummaryInfo info, Sample sample);
 
+    /**
+     * Merges the data of two infos having the same key, the samples aggregated
+     * in the second data being considered as consumed after the samples of the
+     * first one.
+     * <p>
+     * Subclasses that implement it must also override
+     * {@link #isStateMergeable()} to return true.
+     *
+     * @param data
+     *            the data of this consumer, to update or replace
+     * @param otherData
+     *            the data of the consumer to merge, must not be used
+     *            afterwards
+     * @return the merged data
+     * @since 6.0
+     */
+    protected TData mergeData(TData data, TData otherData) {
+        throw new UnsupportedOperationException(getClass().getName()
+                + " can not merge summary data");
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        @SuppressWarnings("unchecked")
+        AbstractSummaryConsumer<TData> consumer = (AbstractSummaryConsumer<TData>) other;
+        for (Map.Entry<String, SummaryInfo> entry : consumer.infos.entrySet()) {
+            SummaryInfo otherInfo = entry.getValue();
+            SummaryInfo info = infos.get(entry.getKey());
+            if (info == null) {
+                info = new SummaryInfo(otherInfo.isController());
+                infos.put(entry.getKey(), info);
+            }
+            mergeInfo(info, otherInfo);
+        }
+        mergeInfo(overallInfo, consumer.overallInfo);
+    }
+
+    private void mergeInfo(SummaryInfo info, SummaryInfo otherInfo) {
+        TData otherData = otherInfo.getData();
+        if (otherData == null) {
+            return;
+        }
+        TData data = info.getData();
+        info.setData(data == null ? otherData : mergeData(data, otherData));
+    }
+
     private MapResultData createResultFromKey(String key) {
         SummaryInfo info = (key == null) ? overallInfo : infos.get(key);
         MapResultData result = null;
@@ -247,6 +294,27 @@ public abstract class AbstractSummaryConsumer<TData> extends
      */
     @Override
     public void stopConsuming() {
+        publishState();
+
+        super.stopProducing();
+
+        // Reset infos
+        infos.clear();
+        overallInfo.setData(null);
+    }
+
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.AbstractSampleConsumer#publishState()
+     */
+    @Override
+    protected void publishState() {
         MapResultData result = new MapResultData();
 
         // Push the support flag in the result
@@ -277,11 +345,5 @@ public abstract class AbstractSummaryConsumer<TData> extends
 
         // Store the result in the context
         setDataToContext(getName(), result);
-
-        super.stopProducing();
-
-        // Reset infos
-        infos.clear();
-        overallInfo.setData(null);
     }
 }
@@ -107,8 +107,27 @@ public class AggregateConsumer extends AbstractSampleConsumer {
      */
     @Override
     public void stopConsuming() {
-        setDataToContext(getName(), new ValueResultData(aggregator.getResult()));
+        publishState();
         super.stopProducing();
     }
 
+    @Override
+    protected boolean isStateMergeable() {
+        return aggregator instanceof MergeableAggregator;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        ((MergeableAggregator) aggregator).merge(((AggregateConsumer) other).aggregator);
+    }
+
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    @Override
+    protected void publishState() {
+        setDataToContext(getName(), new ValueResultData(aggregator.getResult()));
+    }
 }
@@ -167,4 +167,14 @@ public class ApdexSummaryConsumer extends
         return titles;
     }
 
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected ApdexSummaryData mergeData(ApdexSummaryData data, ApdexSummaryData otherData) {
+        data.merge(otherData);
+        return data;
+    }
 }
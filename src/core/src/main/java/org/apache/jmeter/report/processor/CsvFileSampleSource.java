@@ -25,10 +25,13 @@ import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.jmeter.report.core.BinarySampleFormat;
+import org.apache.jmeter.report.core.BinarySampleReader;
 import org.apache.jmeter.report.core.CsvSampleReader;
 import org.apache.jmeter.report.core.Sample;
 import org.apache.jmeter.report.core.SampleException;
 import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.core.SampleReader;
 import org.apache.jmeter.report.core.TimeHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +62,9 @@ import org.slf4j.LoggerFactory;
  * <li>If the input file is named <code>results.csv</code> then it will
  * be produced on the channel 0.</li>
  * </ul>
+ * The files saved in the binary format (see {@link BinarySampleFormat}) are read as well,
+ * whatever their extension, and so are the compressed CSV files
+ * (see {@link org.apache.jmeter.save.BlockCompressedFiles}).
  *
  * @since 3.0
  */
@@ -72,8 +78,8 @@ public class CsvFileSampleSource extends AbstractSampleSource {
     /** input csv files to be produced */
     private final File[] inputFiles;
 
-    /** csv readers corresponding to the input files */
-    private final CsvSampleReader[] csvReaders;
+    /** readers corresponding to the input files */
+    private final SampleReader[] csvReaders;
 
     /** mock producer to produce samples to its consumers */
     private final PrivateProducer producer;
@@ -87,6 +93,44 @@ public class CsvFileSampleSource extends AbstractSampleSource {
      *                  columns
      */
     public CsvFileSampleSource(final File inputFile, final char separator) {
+        this(inputFile, separator, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Build a sample source from the specified input file and character
+     * separator, that skips the compressed blocks of the files whose samples all started outside
+     * a time window. The samples still have to be filtered, as a block may contain samples from outside the window.
+     *
+     * @param inputFile    The input sample file (CSV file) (must not be {@code null})
+     * @param separator    The character separator to be used for delimiting samples
+     *                     columns
+     * @param minStartTime the beginning of the time window in milliseconds since the epoch
+     * @param maxStartTime the end of the time window in milliseconds since the epoch
+     * @since 6.0
+     */
+    public CsvFileSampleSource(final File inputFile, final char separator,
+            final long minStartTime, final long maxStartTime) {
+        File[] secondaryInputs = findSecondaryInputs(inputFile);
+        inputFiles = new File[secondaryInputs.length + 1];
+        csvReaders = new SampleReader[secondaryInputs.length + 1];
+        int k = 0;
+        // primary input file (ex. input.csv)
+        csvReaders[k] = createReader(inputFile, separator, minStartTime, maxStartTime);
+        inputFiles[k] = inputFile;
+        // secondary input files (ex. input-1.csv, input-2.csv, input-3.csv)
+        for (File input : secondaryInputs) {
+            k++;
+            csvReaders[k] = createReader(input, separator, minStartTime, maxStartTime);
+            inputFiles[k] = secondaryInputs[k - 1];
+        }
+        producer = new PrivateProducer();
+    }
+
+    /**
+     * @param inputFile the primary input file
+     * @return the secondary input files (ex. input-1.csv, input-2.csv)
+     */
+    static File[] findSecondaryInputs(File inputFile) {
         final String inputRootName = getFileRootName(inputFile.getName());
         final String inputExtension = getFileExtension(inputFile.getName());
 
@@ -105,19 +149,14 @@ public class CsvFileSampleSource extends AbstractSampleSource {
         if (secondaryInputs == null) {
             secondaryInputs = new File[0];
         }
-        inputFiles = new File[secondaryInputs.length + 1];
-        csvReaders = new CsvSampleReader[secondaryInputs.length + 1];
-        int k = 0;
-        // primary input file (ex. input.csv)
-        csvReaders[k] = new CsvSampleReader(inputFile, separator, true);
-        inputFiles[k] = inputFile;
-        // secondary input files (ex. input-1.csv, input-2.csv, input-3.csv)
-        for (File input : secondaryInputs) {
-            k++;
-            csvReaders[k] = new CsvSampleReader(input, separator, true);
-            inputFiles[k] = secondaryInputs[k - 1];
+        return secondaryInputs;
+    }
+
+    private static SampleReader createReader(File input, char separator, long minStartTime, long maxStartTime) {
+        if (BinarySampleFormat.isBinaryFile(input)) {
+            return new BinarySampleReader(input);
         }
-        producer = new PrivateProducer();
+        return new CsvSampleReader(input, separator, true, minStartTime, maxStartTime);
     }
 
     private static String getFileRootName(String fName) {
@@ -167,7 +206,7 @@ public class CsvFileSampleSource extends AbstractSampleSource {
         for (int i = 0; i < csvReaders.length; i++) {
             long sampleCount = 0;
             long start = now();
-            CsvSampleReader csvReader = csvReaders[i];
+            SampleReader csvReader = csvReaders[i];
             producer.setSampleContext(context);
             producer.setProducedMetadata(csvReader.getMetadata(), i);
             producer.setChannelAttribute(i, SOURCE_FILE_ATTRIBUTE,
@@ -177,4 +177,20 @@ public class ErrorsSummaryConsumer extends AbstractSummaryConsumer<Long> {
                 .getResString("reportgenerator_summary_errors_rate_all")));
         return titles;
     }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected Long mergeData(Long data, Long otherData) {
+        return data + otherData;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        super.mergeState(other);
+        errorCount += ((ErrorsSummaryConsumer) other).errorCount;
+    }
 }
@@ -20,6 +20,7 @@ package org.apache.jmeter.report.processor;
 import java.io.File;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Objects;
@@ -31,13 +32,16 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.commons.lang3.Validate;
+import org.apache.jmeter.report.core.BinarySampleFormat;
+import org.apache.jmeter.report.core.BinarySampleReader;
+import org.apache.jmeter.report.core.BinarySampleWriter;
 import org.apache.jmeter.report.core.CsvFile;
 import org.apache.jmeter.report.core.CsvSampleReader;
-import org.apache.jmeter.report.core.CsvSampleWriter;
 import org.apache.jmeter.report.core.Sample;
 import org.apache.jmeter.report.core.SampleComparator;
 import org.apache.jmeter.report.core.SampleException;
 import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.core.SampleReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,6 +79,19 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Meanwhile, it is equally important to set a {@link SampleComparator} to
  * define sample ordering </p>
+ * <p>
+ * In <b>adaptive mode</b> (the default), samples that arrive nearly sorted,
+ * like the samples of a results file written by a single JMeter instance, are
+ * sorted with a reorder buffer sized from the observed disorder (see
+ * {@link SampleReorderBuffer}) instead of sorted chunks. The samples that
+ * leave the buffer are spilled to a single run file, unless they all fit in
+ * memory. If the disorder gets too large, the run becomes the first chunk of
+ * the external sort.
+ * </p>
+ * <p>
+ * The chunk files are written in the binary format of
+ * {@link BinarySampleFormat}.
+ * </p>
  *
  * @since 3.0
  */
@@ -110,6 +127,16 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
 
     private final AtomicInteger sequence = new AtomicInteger();
 
+    private boolean adaptive = true;
+
+    /** not null while the samples are sorted with the reorder buffer */
+    private SampleReorderBuffer reorderBuffer;
+
+    /** samples emitted by the reorder buffer, in order */
+    private File runFile;
+
+    private BinarySampleWriter runWriter;
+
 
     public ExternalSampleSorter() {
         chunkSize = DEFAULT_CHUNK_SIZE;
@@ -169,6 +196,26 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
         return parallelize;
     }
 
+    /**
+     * Enables adaptive mode, which sorts nearly sorted samples with a reorder
+     * buffer instead of an external sort
+     *
+     * @param adaptive
+     *            {@code true} to enable, {@code false} to always sort chunks
+     * @since 6.0
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * @return {@code true} when adaptive mode is enabled, {@code false} otherwise
+     * @since 6.0
+     */
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
     /**
      * Sort an input CSV file to an sorted output CSV file.<br>
      * <p>
@@ -255,6 +302,10 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
         SampleWriterConsumer writerConsumer = new SampleWriterConsumer();
         writerConsumer.setOutputFile(output);
         writerConsumer.setWriteHeader(writeHeader);
+        if (getSampleContext() != null) {
+            // The consumers got the context before the writer was added
+            writerConsumer.setSampleContext(getSampleContext());
+        }
         addSampleConsumer(writerConsumer);
         try {
             super.setConsumedMetadata(readSampleMetadata, 0);
@@ -283,20 +334,72 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
         samples = new ArrayList<>();
         sampleMetadata = getConsumedMetadata(0);
         sampleComparator.initialize(sampleMetadata);
+        runFile = null;
+        runWriter = null;
+        reorderBuffer = adaptive
+                ? new SampleReorderBuffer(createOrder(), (int) Math.min(chunkSize, Integer.MAX_VALUE - 1))
+                : null;
     }
 
     @Override
     public void consume(Sample s, int channel) {
-        samples.add(s);
         inputSampleCount.incrementAndGet();
+        if (reorderBuffer != null) {
+            if (reorderBuffer.offer(s, this::writeToRun)) {
+                return;
+            }
+            switchToExternalSort();
+        }
+        samples.add(s);
         if (samples.size() >= chunkSize) {
             chunks.add(sortAndDump(samples, sampleMetadata));
             samples.clear();
         }
     }
 
+    private Comparator<Sample> createOrder() {
+        return revertedSort
+                ? (left, right) -> Long.signum(sampleComparator.compare(right, left))
+                : (left, right) -> Long.signum(sampleComparator.compare(left, right));
+    }
+
+    private void writeToRun(Sample sample) {
+        if (runWriter == null) {
+            runFile = getChunkFile();
+            runWriter = new BinarySampleWriter(runFile, sampleMetadata);
+        }
+        runWriter.write(sample);
+        chunkedSampleCount.incrementAndGet();
+    }
+
+    private void closeRun() {
+        if (runWriter != null) {
+            runWriter.close();
+            runWriter = null;
+        }
+    }
+
+    /**
+     * The samples are too far from their place for the reorder buffer: the
+     * samples emitted so far are sorted, so they become the first chunk.
+     */
+    private void switchToExternalSort() {
+        LOG.info("sort(): samples are not nearly sorted after {} samples (max displacement {}), switching to external sort",
+                inputSampleCount.get(), reorderBuffer.getObservedDisplacement());
+        closeRun();
+        if (runFile != null) {
+            chunks.add(runFile);
+        }
+        samples.addAll(reorderBuffer.removeAll());
+        reorderBuffer = null;
+    }
+
     @Override
     public void stopConsuming() {
+        if (reorderBuffer != null) {
+            produceNearlySorted();
+            return;
+        }
         if (!samples.isEmpty()) {
             chunks.add(sortAndDump(samples, sampleMetadata));
         }
@@ -314,6 +417,34 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
         super.startProducing();
         sortFilesParallel(chunks, sampleMetadata, this);
         super.stopProducing();
+        cleanUp();
+    }
+
+    private void produceNearlySorted() {
+        closeRun();
+        LOG.info("sort(): {} samples sorted with a reorder buffer of {} samples (max displacement {}), {} spilled",
+                inputSampleCount.get(), reorderBuffer.getCapacity(),
+                reorderBuffer.getObservedDisplacement(), chunkedSampleCount.get());
+        super.setProducedMetadata(sampleMetadata, 0);
+        super.startProducing();
+        if (runFile != null) {
+            try (SampleReader reader = openChunk(runFile, sampleMetadata)) {
+                Sample sample;
+                while ((sample = reader.readSample()) != null) {
+                    produce(sample, 0);
+                }
+            }
+            if (!runFile.delete()) {
+                LOG.warn("Was not able to delete file {}", runFile);
+            }
+        }
+        reorderBuffer.drain(sample -> produce(sample, 0));
+        reorderBuffer = null;
+        super.stopProducing();
+        cleanUp();
+    }
+
+    private void cleanUp() {
         if (this.pool != null) {
             this.pool.shutdown();
         }
@@ -344,9 +475,9 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
             LOG.debug("sortAndDump(): Dumping chunk " + out);
             start = System.currentTimeMillis();
         }
-        try (CsvSampleWriter csvWriter = new CsvSampleWriter(out, sampleMetadata)){
+        try (BinarySampleWriter writer = new BinarySampleWriter(out, sampleMetadata)) {
             for (Sample sample : sortedSamples) {
-                csvWriter.write(sample);
+                writer.write(sample);
                 chunkedSampleCount.incrementAndGet();
             }
         }
@@ -467,7 +598,7 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
             mergeFiles(metadata, leftFile, rightFile, out);
         } else {
             File f = chunks.get(0);
-            try (CsvSampleReader reader = new CsvSampleReader(f, metadata)) {
+            try (SampleReader reader = openChunk(f, metadata)) {
                 Sample sample;
                 while ((sample = reader.readSample()) != null) {
                     out.produce(sample, 0);
@@ -501,37 +632,30 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
 
     private File mergeFiles(File left, File right, SampleMetadata metadata) {
         File out = getChunkFile();
-        mergeFiles(metadata, left, right, out, false);
+        mergeFiles(metadata, left, right, out);
         return out;
     }
 
     private void mergeFiles(SampleMetadata metadata, File left, File right,
-            File out, boolean writeHeader) {
-        if (out == null) {
-            out = getChunkFile();
-        }
-
-        try (CsvSampleWriter csvWriter = new CsvSampleWriter(out, metadata);
-                CsvSampleReader l = new CsvSampleReader(left, metadata);
-                CsvSampleReader r = new CsvSampleReader(right, metadata)) {
-            if (writeHeader) {
-                csvWriter.writeHeader();
-            }
+            File out) {
+        try (BinarySampleWriter writer = new BinarySampleWriter(out, metadata);
+                SampleReader l = openChunk(left, metadata);
+                SampleReader r = openChunk(right, metadata)) {
             while (l.hasNext() || r.hasNext()) {
                 if (l.hasNext() && r.hasNext()) {
                     Sample firstLeft = l.peek();
                     Sample firstRight = r.peek();
                     if (leftBeforeRight(firstLeft, firstRight)) {
-                        csvWriter.write(firstLeft);
+                        writer.write(firstLeft);
                         l.readSample();
                     } else {
-                        csvWriter.write(firstRight);
+                        writer.write(firstRight);
                         r.readSample();
                     }
                 } else if (l.hasNext()) {
-                    csvWriter.write(l.readSample());
+                    writer.write(l.readSample());
                 } else if (r.hasNext()) {
-                    csvWriter.write(r.readSample());
+                    writer.write(r.readSample());
                 }
             }
         }
@@ -539,8 +663,8 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
 
     private void mergeFiles(SampleMetadata metadata, File left, File right,
             SampleProducer out) {
-        try (CsvSampleReader l = new CsvSampleReader(left, metadata);
-                CsvSampleReader r = new CsvSampleReader(right, metadata)) {
+        try (SampleReader l = openChunk(left, metadata);
+                SampleReader r = openChunk(right, metadata)) {
             while (l.hasNext() || r.hasNext()) {
                 if (l.hasNext() && r.hasNext()) {
                     Sample firstLeft = l.peek();
@@ -579,10 +703,21 @@ public class ExternalSampleSorter extends AbstractSampleConsumer {
                 && sampleComparator.compare(leftSample, rightSample) >= 0;
     }
 
+    /**
+     * Opens a chunk file written by this sorter, or a CSV chunk given to
+     * {@link #mergeFiles(List, SampleMetadata, SampleProducer)}.
+     */
+    private static SampleReader openChunk(File chunk, SampleMetadata metadata) {
+        if (BinarySampleFormat.isBinaryFile(chunk)) {
+            return new BinarySampleReader(chunk);
+        }
+        return new CsvSampleReader(chunk, metadata);
+    }
+
     private File getChunkFile() {
         DecimalFormat df = new DecimalFormat("00000");
         File out = new File(getWorkingDirectory(), "chunk-"
-                + df.format(sequence.incrementAndGet()) + ".csv");
+                + df.format(sequence.incrementAndGet()) + ".bin");
         out.deleteOnExit();
         return out;
     }
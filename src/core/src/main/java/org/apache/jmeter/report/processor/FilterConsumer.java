@@ -110,4 +110,24 @@ public class FilterConsumer extends AbstractSampleConsumer {
     public void stopConsuming() {
         super.stopProducing();
     }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        // Samples are only filtered, there is nothing to merge
+    }
+
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    @Override
+    protected void publishState() {
+        // Samples are only filtered, there is nothing to publish
+    }
 }
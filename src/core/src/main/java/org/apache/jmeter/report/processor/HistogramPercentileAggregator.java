@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import org.apache.jorphan.math.LogLinearHistogram;
+
+/**
+ * The class HistogramPercentileAggregator gets a percentile from the samples
+ * counted in the log-linear buckets of {@link LogLinearHistogram}.
+ * <p>
+ * The values are rounded to long, then the values below
+ * {@code 2^precisionBits} are exact, and the greater values differ from the
+ * exact percentile by less than {@code 2^-(precisionBits + 1)} of their value
+ * (0.4% for 7 bits). The result is never lower than the minimum or greater than
+ * the maximum of the values.
+ * <p>
+ * Only the buckets between the lowest and the highest value are allocated, so
+ * the memory depends on the range of the values and not on their number, for
+ * instance at most 3200 counters for 7 bits and values below 2^31.
+ * Aggregators with the same precision can be merged without loss of accuracy.
+ *
+ * @since 6.0
+ */
+public class HistogramPercentileAggregator implements MergeableAggregator {
+
+    private final double percentileIndex;
+    private final int precisionBits;
+
+    /** counts of the buckets, counts[0] is the count of bucket firstIndex */
+    private long[] counts;
+    private int firstIndex;
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Instantiates a new histogram percentile aggregator.
+     *
+     * @param index
+     *            the index of the percentile, between 0 (excluded) and 100
+     * @param precisionBits
+     *            the number of bits of the values that are kept, from 1 to
+     *            {@value LogLinearHistogram#MAX_PRECISION_BITS}
+     */
+    public HistogramPercentileAggregator(double index, int precisionBits) {
+        if (precisionBits < 1 || precisionBits > LogLinearHistogram.MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("precisionBits must be between 1 and "
+                    + LogLinearHistogram.MAX_PRECISION_BITS + ", got " + precisionBits);
+        }
+        this.percentileIndex = index;
+        this.precisionBits = precisionBits;
+    }
+
+    /**
+     * @return the number of bits of the values that are kept
+     */
+    public final int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.core.GraphAggregator#getCount()
+     */
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the smallest value such that the specified percentage of the values
+     * are lower or equal to it (nearest rank), as approximated by the buckets.
+     *
+     * @return the percentile, or {@link Double#NaN} if no value was added
+     */
+    @Override
+    public double getResult() {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.min(count, Math.max(1L, (long) Math.ceil(count * percentileIndex / 100)));
+        int i = 0;
+        for (; i < counts.length - 1; i++) {
+            rank -= counts[i];
+            if (rank <= 0) {
+                break;
+            }
+        }
+        long value = LogLinearHistogram.bucketMiddleValue(firstIndex + i, precisionBits);
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.core.GraphAggregator#addValue(double)
+     */
+    @Override
+    public void addValue(double value) {
+        long rounded = Math.max(0L, Math.round(value));
+        int index = LogLinearHistogram.bucketIndex(rounded, precisionBits);
+        ensureBuckets(index, index);
+        counts[index - firstIndex]++;
+        count++;
+        min = Math.min(min, rounded);
+        max = Math.max(max, rounded);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.core.GraphAggregator#reset()
+     */
+    @Override
+    public void reset() {
+        counts = null;
+        firstIndex = 0;
+        count = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Adds the bucket counts of the other aggregator, which must have the same
+     * precision.
+     *
+     * @param other
+     *            the {@link HistogramPercentileAggregator} to merge
+     */
+    @Override
+    public void merge(Aggregator other) {
+        HistogramPercentileAggregator aggregator = (HistogramPercentileAggregator) other;
+        if (aggregator.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Aggregators have different precisions: "
+                    + precisionBits + " and " + aggregator.precisionBits);
+        }
+        if (aggregator.count == 0) {
+            return;
+        }
+        int otherFirst = aggregator.firstIndex;
+        ensureBuckets(otherFirst, otherFirst + aggregator.counts.length - 1);
+        for (int i = 0; i < aggregator.counts.length; i++) {
+            counts[otherFirst - firstIndex + i] += aggregator.counts[i];
+        }
+        count += aggregator.count;
+        min = Math.min(min, aggregator.min);
+        max = Math.max(max, aggregator.max);
+    }
+
+    /**
+     * Grows the counts so they cover the buckets from lowIndex to highIndex.
+     */
+    private void ensureBuckets(int lowIndex, int highIndex) {
+        if (counts == null) {
+            counts = new long[highIndex - lowIndex + 1];
+            firstIndex = lowIndex;
+            return;
+        }
+        int lastIndex = firstIndex + counts.length - 1;
+        if (lowIndex >= firstIndex && highIndex <= lastIndex) {
+            return;
+        }
+        int newFirst = Math.min(firstIndex, lowIndex);
+        int newLast = Math.max(lastIndex, highIndex);
+        // Grow by a few buckets more than needed, as the next values are often close
+        int margin = Math.max(8, counts.length / 4);
+        if (newFirst < firstIndex) {
+            newFirst = Math.max(0, newFirst - margin);
+        }
+        if (newLast > lastIndex) {
+            newLast += margin;
+        }
+        long[] newCounts = new long[newLast - newFirst + 1];
+        System.arraycopy(counts, 0, newCounts, firstIndex - newFirst, counts.length);
+        counts = newCounts;
+        firstIndex = newFirst;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import org.apache.jmeter.report.config.ReportGeneratorConfiguration;
+import org.apache.jmeter.util.JMeterUtils;
+
+/**
+ * A factory for creating HistogramPercentileAggregator objects.
+ * <p>
+ * Unlike {@link PercentileAggregatorFactory}, the aggregators keep bucket
+ * counts instead of a sliding window of the values, so they use a bounded
+ * amount of memory and can be merged. The report uses them when the
+ * {@value #PERCENTILE_ALGORITHM_PROPERTY} property is {@code histogram}.
+ *
+ * @since 6.0
+ */
+public class HistogramPercentileAggregatorFactory extends AbstractAggregatorFactory {
+
+    /** Algorithm of the percentiles of the report: {@code window} (default) or {@code histogram} */
+    public static final String PERCENTILE_ALGORITHM_PROPERTY =
+            ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+                    + ReportGeneratorConfiguration.KEY_DELIMITER
+                    + "percentile_algorithm";
+
+    /** Number of bits of the values kept by the histograms */
+    public static final String PRECISION_BITS_PROPERTY =
+            ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
+                    + ReportGeneratorConfiguration.KEY_DELIMITER
+                    + "percentile_precision_bits";
+
+    private static final boolean ENABLED = "histogram".equalsIgnoreCase(
+            JMeterUtils.getPropDefault(PERCENTILE_ALGORITHM_PROPERTY, "window").trim());
+
+    private static final int DEFAULT_PRECISION_BITS =
+            JMeterUtils.getPropDefault(PRECISION_BITS_PROPERTY, 7);
+
+    private double percentileIndex;
+    private int precisionBits = DEFAULT_PRECISION_BITS;
+
+    /**
+     * @return true if the percentiles of the report should be computed with
+     *         histograms instead of sliding windows
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @return the number of bits of the values kept by the histograms, from the
+     *         {@value #PRECISION_BITS_PROPERTY} property
+     */
+    public static int getDefaultPrecisionBits() {
+        return DEFAULT_PRECISION_BITS;
+    }
+
+    /**
+     * Creates the factory of the percentiles of the report: a
+     * {@link HistogramPercentileAggregatorFactory} when {@link #isEnabled()},
+     * a {@link PercentileAggregatorFactory} otherwise.
+     *
+     * @param percentileIndex
+     *            the index of the percentile
+     * @return the factory
+     */
+    public static AggregatorFactory createPercentileFactory(double percentileIndex) {
+        if (isEnabled()) {
+            HistogramPercentileAggregatorFactory factory = new HistogramPercentileAggregatorFactory();
+            factory.setPercentileIndex(percentileIndex);
+            return factory;
+        }
+        PercentileAggregatorFactory factory = new PercentileAggregatorFactory();
+        factory.setPercentileIndex(percentileIndex);
+        return factory;
+    }
+
+    /**
+     * Creates an aggregator of the percentiles of the report, see
+     * {@link #createPercentileFactory(double)}.
+     *
+     * @param percentileIndex
+     *            the index of the percentile
+     * @return the aggregator
+     */
+    public static MergeableAggregator createPercentileAggregator(double percentileIndex) {
+        if (isEnabled()) {
+            return new HistogramPercentileAggregator(percentileIndex, DEFAULT_PRECISION_BITS);
+        }
+        return new PercentileAggregator(percentileIndex);
+    }
+
+    /**
+     * Gets the percentile index.
+     *
+     * @return the percentile index
+     */
+    public final double getPercentileIndex() {
+        return percentileIndex;
+    }
+
+    /**
+     * Sets the percentile index.
+     *
+     * @param percentileIndex
+     *            the index of the percentile to set
+     */
+    public void setPercentileIndex(double percentileIndex) {
+        this.percentileIndex = percentileIndex;
+    }
+
+    /**
+     * Gets the number of bits of the values kept by the aggregators.
+     *
+     * @return the precision bits
+     */
+    public final int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * Sets the number of bits of the values kept by the aggregators, see
+     * {@link HistogramPercentileAggregator}.
+     *
+     * @param precisionBits
+     *            the precision bits to set
+     */
+    public void setPrecisionBits(int precisionBits) {
+        this.precisionBits = precisionBits;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see
+     * org.apache.jmeter.report.core.AbstractAggregatorFactory#createAggregator
+     * ()
+     */
+    @Override
+    protected Aggregator createAggregator() {
+        return new HistogramPercentileAggregator(percentileIndex, precisionBits);
+    }
+
+}
@@ -22,7 +22,7 @@ package org.apache.jmeter.report.processor;
  *
  * @since 3.0
  */
-public class MaxAggregator implements Aggregator {
+public class MaxAggregator implements MergeableAggregator {
 
     private long count = 0L;
     private double value = Double.MIN_VALUE;
@@ -69,4 +69,16 @@ public class MaxAggregator implements Aggregator {
         value = Double.MIN_VALUE;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.MergeableAggregator#merge(org.apache.jmeter.report.processor.Aggregator)
+     */
+    @Override
+    public void merge(Aggregator other) {
+        MaxAggregator aggregator = (MaxAggregator) other;
+        value = Math.max(value, aggregator.value);
+        count += aggregator.count;
+    }
+
 }
@@ -17,16 +17,16 @@
 
 package org.apache.jmeter.report.processor;
 
-import org.apache.commons.math3.stat.descriptive.moment.Mean;
-
 /**
  * The class MeanAggregator is used to get mean from samples.
  *
  * @since 3.0
  */
-public class MeanAggregator implements Aggregator {
+public class MeanAggregator implements MergeableAggregator {
 
-    private final Mean mean = new Mean();
+    // Same running mean as commons-math Mean, whose state cannot be merged
+    private long count = 0L;
+    private double mean = Double.NaN;
 
     /*
      * (non-Javadoc)
@@ -35,7 +35,7 @@ public class MeanAggregator implements Aggregator {
      */
     @Override
     public long getCount() {
-        return mean.getN();
+        return count;
     }
 
     /*
@@ -45,7 +45,7 @@ public class MeanAggregator implements Aggregator {
      */
     @Override
     public double getResult() {
-        return mean.getResult();
+        return mean;
     }
 
     /*
@@ -55,7 +55,11 @@ public class MeanAggregator implements Aggregator {
      */
     @Override
     public void addValue(double value) {
-        mean.increment(value);
+        if (count == 0) {
+            mean = 0.0;
+        }
+        count++;
+        mean += (value - mean) / count;
     }
 
     /*
@@ -65,7 +69,29 @@ public class MeanAggregator implements Aggregator {
      */
     @Override
     public void reset() {
-        mean.clear();
+        count = 0L;
+        mean = Double.NaN;
     }
 
+    /**
+     * Combines the means of both aggregators, weighted by their number of values.
+     * The result may differ from the mean of all the values added to a single aggregator
+     * in the last digits, due to rounding.
+     *
+     * @param other
+     *            the {@link MeanAggregator} to merge
+     */
+    @Override
+    public void merge(Aggregator other) {
+        MeanAggregator aggregator = (MeanAggregator) other;
+        if (aggregator.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            mean = aggregator.mean;
+        } else {
+            mean += (aggregator.mean - mean) * aggregator.count / (count + aggregator.count);
+        }
+        count += aggregator.count;
+    }
 }
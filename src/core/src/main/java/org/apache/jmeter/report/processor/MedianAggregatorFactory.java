@@ -19,7 +19,8 @@ package org.apache.jmeter.report.processor;
 
 /**
  * A factory for creating PercentileAggregator with index of percentile fixed to
- * value 50.
+ * value 50, or HistogramPercentileAggregator when
+ * {@link HistogramPercentileAggregatorFactory#isEnabled()}.
  *
  * @since 3.0
  */
@@ -34,7 +35,7 @@ public class MedianAggregatorFactory extends AbstractAggregatorFactory {
      */
     @Override
     protected Aggregator createAggregator() {
-        return new PercentileAggregator(50);
+        return HistogramPercentileAggregatorFactory.createPercentileAggregator(50);
     }
 
 }
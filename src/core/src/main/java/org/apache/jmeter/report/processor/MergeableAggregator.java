@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+/**
+ * An aggregator whose state can be combined with the state of another aggregator of the same kind.
+ * <p>
+ * It lets the report generator aggregate partitions of the samples separately
+ * (see {@link AbstractSampleConsumer#merge(AbstractSampleConsumer)}).
+ *
+ * @since 6.0
+ */
+public interface MergeableAggregator extends Aggregator {
+
+    /**
+     * Adds the values aggregated by the specified aggregator to the current aggregator,
+     * as if they had been added after the values of the current aggregator.
+     * The specified aggregator must not be used afterwards.
+     *
+     * @param other
+     *            the aggregator to merge, of the same class and configured the same way as the current one
+     */
+    void merge(Aggregator other);
+}
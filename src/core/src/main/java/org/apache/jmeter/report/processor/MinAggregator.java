@@ -22,7 +22,7 @@ package org.apache.jmeter.report.processor;
  *
  * @since 3.0
  */
-public class MinAggregator implements Aggregator {
+public class MinAggregator implements MergeableAggregator {
 
     private long count = 0L;
     private double value = Double.MAX_VALUE;
@@ -69,4 +69,16 @@ public class MinAggregator implements Aggregator {
         value = Double.MAX_VALUE;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.MergeableAggregator#merge(org.apache.jmeter.report.processor.Aggregator)
+     */
+    @Override
+    public void merge(Aggregator other) {
+        MinAggregator aggregator = (MinAggregator) other;
+        value = Math.min(value, aggregator.value);
+        count += aggregator.count;
+    }
+
 }
@@ -124,4 +124,24 @@ public class NormalizerSampleConsumer extends AbstractSampleConsumer {
     public void stopConsuming() {
         super.stopProducing();
     }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        // Samples are only rewritten, there is nothing to merge
+    }
+
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    @Override
+    protected void publishState() {
+        // Samples are only rewritten, there is nothing to publish
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.jmeter.report.core.CsvFilePartitioner;
+import org.apache.jmeter.report.core.CsvSampleReader;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleException;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.core.TimeHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads a CSV results file in parallel.
+ * <p>
+ * The file is split in parts aligned on its records (see {@link CsvFilePartitioner}), each part is consumed
+ * by its own consumer chain on a fork-join pool, then the chains are merged in the order of the parts
+ * (see {@link AbstractSampleConsumer#merge(AbstractSampleConsumer)}) and only the first one is stopped.
+ * So the results are the same as if a single chain consumed the whole file with a {@link CsvFileSampleSource}.
+ * <p>
+ * The file is read by a single part when it can't be split: compressed or binary files, files without header,
+ * files with secondary inputs (see {@link CsvFileSampleSource}) or files too small to be worth splitting.
+ *
+ * @since 6.0
+ */
+public class PartitionedCsvFileSampleSource {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedCsvFileSampleSource.class);
+
+    /** Minimum size of a part, smaller files are not worth splitting */
+    public static final long DEFAULT_MIN_PARTITION_SIZE = 4L * 1024 * 1024;
+
+    private static final String PARTITION_DIRECTORY_PREFIX = "partition-";
+
+    private final File inputFile;
+    private final int partitionCount;
+    private final SampleMetadata metadata;
+
+    /**
+     * @param inputFile   the input sample file (must not be {@code null})
+     * @param separator   the character separator to be used for delimiting samples columns
+     * @param parallelism the maximum number of parts to read in parallel
+     */
+    public PartitionedCsvFileSampleSource(File inputFile, char separator, int parallelism) {
+        this(inputFile, separator, parallelism, DEFAULT_MIN_PARTITION_SIZE);
+    }
+
+    /**
+     * @param inputFile        the input sample file (must not be {@code null})
+     * @param separator        the character separator to be used for delimiting samples columns
+     * @param parallelism      the maximum number of parts to read in parallel
+     * @param minPartitionSize the minimum size in bytes of a part
+     */
+    public PartitionedCsvFileSampleSource(File inputFile, char separator, int parallelism, long minPartitionSize) {
+        this.inputFile = inputFile;
+        int partitions = 1;
+        if (parallelism > 1) {
+            if (CsvFileSampleSource.findSecondaryInputs(inputFile).length > 0) {
+                log.info("Results file {} has secondary inputs, it will not be split", inputFile);
+            } else if (!CsvFilePartitioner.isPartitionable(inputFile)) {
+                log.info("Results file {} is compressed, binary or has no header, it will not be split", inputFile);
+            } else {
+                partitions = (int) Math.max(1, Math.min(parallelism, inputFile.length() / minPartitionSize));
+            }
+        }
+        this.partitionCount = partitions;
+        if (partitions > 1) {
+            try (CsvSampleReader reader = new CsvSampleReader(inputFile, separator, true)) {
+                this.metadata = reader.getMetadata();
+            }
+        } else {
+            this.metadata = null;
+        }
+    }
+
+    /**
+     * Gets the maximum number of parts the file will be split in.
+     *
+     * @return the number of consumer chains needed by {@link #run(SampleContext, List)},
+     * 1 if the file can't be split
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Consumes the parts of the file with the consumer chains, and stops the first chain
+     * after it has merged the other chains.
+     *
+     * @param sampleContext the context of the first chain
+     * @param chains        the consumer chains, built the same way and mergeable
+     *                      (see {@link AbstractSampleConsumer#isMergeable()}),
+     *                      at least as many as {@link #getPartitionCount()}
+     * @throws SampleException if a part can't be consumed
+     */
+    public void run(SampleContext sampleContext, List<? extends AbstractSampleConsumer> chains) {
+        if (partitionCount < 2 || chains.size() < partitionCount) {
+            throw new IllegalStateException("Expecting " + partitionCount + " chains to consume "
+                    + inputFile + ", got " + chains.size());
+        }
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(partitionCount);
+        List<File> partitionDirectories = new ArrayList<>();
+        try {
+            long[] offsets = CsvFilePartitioner.split(inputFile, partitionCount, pool);
+            int parts = offsets.length - 1;
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>(parts);
+            for (int i = 0; i < parts; i++) {
+                SampleContext context = sampleContext;
+                if (i > 0) {
+                    // The consumers of each part need their own working directories
+                    File directory = new File(sampleContext.getWorkingDirectory(), PARTITION_DIRECTORY_PREFIX + i);
+                    if (!directory.isDirectory() && !directory.mkdirs()) {
+                        throw new SampleException("Cannot create working directory \"" + directory + "\"");
+                    }
+                    partitionDirectories.add(directory);
+                    context = new SampleContext();
+                    context.setWorkingDirectory(directory);
+                }
+                AbstractSampleConsumer chain = chains.get(i);
+                chain.setSampleContext(context);
+                chain.setConsumedMetadata(metadata, 0);
+                chain.setChannelAttribute(0, CsvFileSampleSource.SOURCE_FILE_ATTRIBUTE, inputFile);
+                long partStart = offsets[i];
+                long partEnd = offsets[i + 1];
+                tasks.add(pool.submit(() -> consume(chain, partStart, partEnd)));
+            }
+            long sampleCount = 0;
+            for (ForkJoinTask<Long> task : tasks) {
+                sampleCount += task.get();
+            }
+
+            AbstractSampleConsumer first = chains.get(0);
+            for (int i = 1; i < parts; i++) {
+                first.merge(chains.get(i));
+            }
+            first.stopConsuming();
+            if (log.isInfoEnabled()) {
+                log.info("run(): {} samples produced in {} by {} parts of {}",
+                        sampleCount, TimeHelper.time(System.currentTimeMillis() - start), parts, inputFile);
+            }
+        } catch (IOException e) {
+            throw new SampleException("Could not split " + inputFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SampleException("Interrupted while consuming " + inputFile, e);
+        } catch (ExecutionException e) {
+            throw new SampleException("Could not consume " + inputFile + ": " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (File directory : partitionDirectories) {
+                try {
+                    FileUtils.deleteDirectory(directory);
+                } catch (IOException e) {
+                    log.warn("Cannot delete temporary directory, '{}'", directory, e);
+                }
+            }
+        }
+    }
+
+    private long consume(AbstractSampleConsumer chain, long start, long end) {
+        long sampleCount = 0;
+        try (CsvSampleReader reader = new CsvSampleReader(inputFile, metadata, start, end)) {
+            chain.startConsuming();
+            Sample sample;
+            while ((sample = reader.readSample()) != null) {
+                chain.consume(sample, 0);
+                sampleCount++;
+            }
+        }
+        return sampleCount;
+    }
+}
@@ -26,7 +26,7 @@ import org.apache.jmeter.util.JMeterUtils;
  *
  * @since 3.0
  */
-public class PercentileAggregator implements Aggregator {
+public class PercentileAggregator implements MergeableAggregator {
     private static final int SLIDING_WINDOW_SIZE = JMeterUtils.getPropDefault(
             ReportGeneratorConfiguration.REPORT_GENERATOR_KEY_PREFIX
                     + ReportGeneratorConfiguration.KEY_DELIMITER
@@ -94,4 +94,18 @@ public class PercentileAggregator implements Aggregator {
         statistics.clear();
     }
 
+    /**
+     * Adds the values kept by the other aggregator in the order they were added,
+     * so the sliding window ends up holding the same values as if they had all been added to this aggregator.
+     *
+     * @param other
+     *            the {@link PercentileAggregator} to merge
+     */
+    @Override
+    public void merge(Aggregator other) {
+        for (double value : ((PercentileAggregator) other).statistics.getValues()) {
+            statistics.addValue(value);
+        }
+    }
+
 }
@@ -70,12 +70,34 @@ public class RequestsSummaryConsumer extends AbstractSampleConsumer {
      */
     @Override
     public void stopConsuming() {
+        publishState();
+        super.stopProducing();
+    }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        RequestsSummaryConsumer consumer = (RequestsSummaryConsumer) other;
+        count += consumer.count;
+        errorCount += consumer.errorCount;
+    }
+
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    @Override
+    protected void publishState() {
         MapResultData result = new MapResultData();
         result.setResult("KoPercent", new ValueResultData((double) errorCount
                 * 100 / count));
         result.setResult("OkPercent", new ValueResultData(
                 (double) (count - errorCount) * 100 / count));
         setDataToContext(getName(), result);
-        super.stopProducing();
     }
 }
@@ -31,6 +31,7 @@ public class SampleContext {
 
     private File workingDirectory;
     private final Map<String, Object> data = new HashMap<>();
+    private boolean refreshingReport;
 
     /**
      * Return the root directory that consumers are authorized to use for
@@ -63,4 +64,27 @@ public class SampleContext {
         return data;
     }
 
+    /**
+     * Indicates whether the data exporters refresh a report they already
+     * generated, so their output folder already holds their files.
+     *
+     * @return true if the exporters may overwrite their previous output
+     * @since 6.0
+     */
+    public final boolean isRefreshingReport() {
+        return refreshingReport;
+    }
+
+    /**
+     * Sets whether the data exporters refresh a report they already
+     * generated.
+     *
+     * @param refreshingReport
+     *            true if the exporters may overwrite their previous output
+     * @since 6.0
+     */
+    public final void setRefreshingReport(boolean refreshingReport) {
+        this.refreshingReport = refreshingReport;
+    }
+
 }
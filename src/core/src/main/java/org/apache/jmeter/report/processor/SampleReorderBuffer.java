@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.jmeter.report.core.Sample;
+
+/**
+ * Sorts samples that arrive nearly ordered, with a bounded amount of memory.
+ * <p>
+ * The samples are inserted in a sorted buffer, after the buffered samples
+ * that do not come after them, so samples that compare equal keep their input
+ * order. The number of buffered samples a sample overtakes is its
+ * displacement. The buffer keeps about {@value #DISPLACEMENT_FACTOR} times the
+ * greatest displacement seen so far, and emits its first samples when it is
+ * full. A sample that is already in order costs a single comparison.
+ * <p>
+ * The input can't be sorted this way once a sample should come before a
+ * sample already emitted, or when its displacement is greater than a quarter
+ * of the maximum capacity: {@link #offer(Sample, Consumer)} returns
+ * {@code false} then.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @since 6.0
+ */
+final class SampleReorderBuffer {
+
+    /** Ratio between the capacity of the buffer and the greatest displacement */
+    static final int DISPLACEMENT_FACTOR = 4;
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private final Comparator<Sample> order;
+    private final int maxCapacity;
+    private final int maxDisplacement;
+
+    /** the buffered samples are buffer[head] to buffer[tail - 1] */
+    private Sample[] buffer;
+    private int head;
+    private int tail;
+
+    private int capacity;
+    private int observedDisplacement;
+    private Sample lastEmitted;
+
+    /**
+     * @param order       the order of the samples
+     * @param maxCapacity the maximum number of samples kept in memory
+     */
+    SampleReorderBuffer(Comparator<Sample> order, int maxCapacity) {
+        this.order = order;
+        this.maxCapacity = Math.max(1, maxCapacity);
+        this.maxDisplacement = Math.max(1, this.maxCapacity / DISPLACEMENT_FACTOR);
+        this.capacity = Math.min(MIN_CAPACITY, this.maxCapacity);
+        this.buffer = new Sample[2 * capacity + 1];
+    }
+
+    /**
+     * Inserts a sample, and emits the first samples if the buffer is full.
+     *
+     * @param sample  the sample to insert
+     * @param emitted receives the samples that leave the buffer, in order
+     * @return {@code false} if the sample was not inserted because it is too
+     *         far from its place
+     */
+    boolean offer(Sample sample, Consumer<Sample> emitted) {
+        int position = insertionPoint(sample);
+        int displacement = tail - position;
+        if (displacement > maxDisplacement
+                || position == head && lastEmitted != null && order.compare(sample, lastEmitted) < 0) {
+            return false;
+        }
+        if (displacement > observedDisplacement) {
+            observedDisplacement = displacement;
+            capacity = Math.min(maxCapacity,
+                    Math.max(capacity, DISPLACEMENT_FACTOR * displacement));
+        }
+        insert(position, sample);
+        while (size() > capacity) {
+            emitted.accept(removeFirst());
+        }
+        return true;
+    }
+
+    /**
+     * Emits all the buffered samples, in order.
+     *
+     * @param emitted receives the samples
+     */
+    void drain(Consumer<Sample> emitted) {
+        while (size() > 0) {
+            emitted.accept(removeFirst());
+        }
+    }
+
+    /**
+     * Removes the buffered samples.
+     *
+     * @return the samples, in order
+     */
+    List<Sample> removeAll() {
+        List<Sample> samples = new ArrayList<>(size());
+        drain(samples::add);
+        return samples;
+    }
+
+    /**
+     * @return the greatest number of buffered samples a sample had to overtake
+     */
+    int getObservedDisplacement() {
+        return observedDisplacement;
+    }
+
+    /**
+     * @return the number of samples the buffer keeps before it emits the first ones
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    int size() {
+        return tail - head;
+    }
+
+    /**
+     * @return the index of the first buffered sample that comes after the sample
+     */
+    private int insertionPoint(Sample sample) {
+        if (tail == head || order.compare(sample, buffer[tail - 1]) >= 0) {
+            return tail;
+        }
+        int low = head;
+        int high = tail - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(sample, buffer[middle]) < 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    private void insert(int position, Sample sample) {
+        if (tail == buffer.length) {
+            // Move the samples to the beginning, and make room for the next ones
+            int size = size();
+            Sample[] target = size >= buffer.length / 2
+                    ? new Sample[Math.max(buffer.length, 2 * (size + 1))]
+                    : buffer;
+            System.arraycopy(buffer, head, target, 0, size);
+            if (target == buffer) {
+                Arrays.fill(buffer, size, tail, null);
+            }
+            buffer = target;
+            position -= head;
+            head = 0;
+            tail = size;
+        }
+        System.arraycopy(buffer, position, buffer, position + 1, tail - position);
+        buffer[position] = sample;
+        tail++;
+    }
+
+    private Sample removeFirst() {
+        Sample first = buffer[head];
+        buffer[head++] = null;
+        lastEmitted = first;
+        return first;
+    }
+}
@@ -81,11 +81,11 @@ public class StatisticsSummaryConsumer extends
         }
 
         long elapsedTime = sample.getElapsedTime();
-        data.getPercentile1().addValue((double) elapsedTime);
-        data.getPercentile2().addValue((double) elapsedTime);
-        data.getPercentile3().addValue((double) elapsedTime);
+        data.getPercentile1Aggregator().addValue((double) elapsedTime);
+        data.getPercentile2Aggregator().addValue((double) elapsedTime);
+        data.getPercentile3Aggregator().addValue((double) elapsedTime);
         data.getMean().addValue((double) elapsedTime);
-        data.getMedian().addValue((double) elapsedTime);
+        data.getMedianAggregator().addValue((double) elapsedTime);
         data.setMin(elapsedTime);
         data.setMax(elapsedTime);
 
@@ -146,10 +146,10 @@ public class StatisticsSummaryConsumer extends
         result.addResult(new ValueResultData(data.getMean().getResult()));
         result.addResult(new ValueResultData(data.getMin()));
         result.addResult(new ValueResultData(data.getMax()));
-        result.addResult(new ValueResultData(data.getMedian().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile1().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile2().getResult()));
-        result.addResult(new ValueResultData(data.getPercentile3().getResult()));
+        result.addResult(new ValueResultData(data.getMedianAggregator().getResult()));
+        result.addResult(new ValueResultData(data.getPercentile1Aggregator().getResult()));
+        result.addResult(new ValueResultData(data.getPercentile2Aggregator().getResult()));
+        result.addResult(new ValueResultData(data.getPercentile3Aggregator().getResult()));
         result.addResult(new ValueResultData(data.getThroughput()));
         result.addResult(new ValueResultData(data.getKBytesPerSecond()));
         result.addResult(new ValueResultData(data.getSentKBytesPerSecond()));
@@ -205,4 +205,15 @@ public class StatisticsSummaryConsumer extends
         return String.format(JMeterUtils.getResString("reportgenerator_summary_statistics_percentile_fmt"),
                 percentileLabel);
     }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected StatisticsSummaryData mergeData(StatisticsSummaryData data, StatisticsSummaryData otherData) {
+        data.merge(otherData);
+        return data;
+    }
 }
@@ -33,10 +33,10 @@ public class StatisticsSummaryData {
     private long errors = 0L;
     private long total = 0L;
     private final MeanAggregator mean;
-    private final PercentileAggregator median;
-    private final PercentileAggregator percentile1;
-    private final PercentileAggregator percentile2;
-    private final PercentileAggregator percentile3;
+    private final MergeableAggregator median;
+    private final MergeableAggregator percentile1;
+    private final MergeableAggregator percentile2;
+    private final MergeableAggregator percentile3;
     private long min = Long.MAX_VALUE;
     private long max = Long.MIN_VALUE;
 
@@ -163,42 +163,85 @@ public class StatisticsSummaryData {
 
     /**
      * @return the percentile1
+     * @throws UnsupportedOperationException when the percentiles are computed with histograms
+     * @deprecated use {@link #getPercentile1Aggregator()}, that works with all the percentile algorithms
      */
+    @Deprecated
     public final PercentileAggregator getPercentile1() {
-        return percentile1;
+        return asWindowAggregator(percentile1);
     }
 
     /**
      * Gets the percentile2.
      *
      * @return the percentile2
+     * @throws UnsupportedOperationException when the percentiles are computed with histograms
+     * @deprecated use {@link #getPercentile2Aggregator()}, that works with all the percentile algorithms
      */
+    @Deprecated
     public final PercentileAggregator getPercentile2() {
-        return percentile2;
+        return asWindowAggregator(percentile2);
     }
 
     /**
      * Gets the percentile3.
      *
      * @return the percentile3
+     * @throws UnsupportedOperationException when the percentiles are computed with histograms
+     * @deprecated use {@link #getPercentile3Aggregator()}, that works with all the percentile algorithms
      */
+    @Deprecated
     public final PercentileAggregator getPercentile3() {
+        return asWindowAggregator(percentile3);
+    }
+
+    /**
+     * @return the aggregator of the first percentile
+     * @since 6.0
+     */
+    public final MergeableAggregator getPercentile1Aggregator() {
+        return percentile1;
+    }
+
+    /**
+     * @return the aggregator of the second percentile
+     * @since 6.0
+     */
+    public final MergeableAggregator getPercentile2Aggregator() {
+        return percentile2;
+    }
+
+    /**
+     * @return the aggregator of the third percentile
+     * @since 6.0
+     */
+    public final MergeableAggregator getPercentile3Aggregator() {
         return percentile3;
     }
 
+    private static PercentileAggregator asWindowAggregator(MergeableAggregator aggregator) {
+        if (aggregator instanceof PercentileAggregator) {
+            return (PercentileAggregator) aggregator;
+        }
+        throw new UnsupportedOperationException("Percentiles are computed with "
+                + aggregator.getClass().getSimpleName() + ", use the MergeableAggregator accessors");
+    }
+
     /**
      * Instantiates a new statistics info.
+     * The percentiles are computed with sliding windows or histograms,
+     * see {@link HistogramPercentileAggregatorFactory#isEnabled()}.
      * @param percentileIndex1 value of first percentile
      * @param percentileIndex2 value of second percentile
      * @param percentileIndex3 value of third percentile
      */
     public StatisticsSummaryData(double percentileIndex1, double percentileIndex2,
             double percentileIndex3) {
-        percentile1 = new PercentileAggregator(percentileIndex1);
-        percentile2 = new PercentileAggregator(percentileIndex2);
-        percentile3 = new PercentileAggregator(percentileIndex3);
+        percentile1 = HistogramPercentileAggregatorFactory.createPercentileAggregator(percentileIndex1);
+        percentile2 = HistogramPercentileAggregatorFactory.createPercentileAggregator(percentileIndex2);
+        percentile3 = HistogramPercentileAggregatorFactory.createPercentileAggregator(percentileIndex3);
         mean = new MeanAggregator();
-        median = new PercentileAggregator(50);
+        median = HistogramPercentileAggregatorFactory.createPercentileAggregator(50);
     }
 
     /**
@@ -263,8 +306,19 @@ public class StatisticsSummaryData {
 
     /**
      * @return the median response times
+     * @throws UnsupportedOperationException when the percentiles are computed with histograms
+     * @deprecated use {@link #getMedianAggregator()}, that works with all the percentile algorithms
      */
+    @Deprecated
     public PercentileAggregator getMedian() {
+        return asWindowAggregator(median);
+    }
+
+    /**
+     * @return the aggregator of the median response times
+     * @since 6.0
+     */
+    public MergeableAggregator getMedianAggregator() {
         return median;
     }
 
@@ -292,4 +346,26 @@ public class StatisticsSummaryData {
     public double getSentKBytesPerSecond() {
         return getSentBytesPerSecond() / 1024;
     }
+
+    /**
+     * Merges the statistics of samples consumed after the samples of this data.
+     *
+     * @param other the data to merge, computed with the same percentiles
+     * @since 6.0
+     */
+    public void merge(StatisticsSummaryData other) {
+        setFirstTime(other.firstTime);
+        setEndTime(other.endTime);
+        bytes += other.bytes;
+        sentBytes += other.sentBytes;
+        errors += other.errors;
+        total += other.total;
+        setMin(other.min);
+        setMax(other.max);
+        mean.merge(other.mean);
+        median.merge(other.median);
+        percentile1.merge(other.percentile1);
+        percentile2.merge(other.percentile2);
+        percentile3.merge(other.percentile3);
+    }
 }
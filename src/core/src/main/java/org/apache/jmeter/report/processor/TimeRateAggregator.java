@@ -22,7 +22,7 @@ package org.apache.jmeter.report.processor;
  *
  * @since 3.0
  */
-public class TimeRateAggregator implements Aggregator {
+public class TimeRateAggregator implements MergeableAggregator {
 
     private long count = 0;
     private long granularity = 1;
@@ -85,4 +85,16 @@ public class TimeRateAggregator implements Aggregator {
         value = 0;
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.MergeableAggregator#merge(org.apache.jmeter.report.processor.Aggregator)
+     */
+    @Override
+    public void merge(Aggregator other) {
+        TimeRateAggregator aggregator = (TimeRateAggregator) other;
+        count += aggregator.count;
+        value += aggregator.value;
+    }
+
 }
@@ -154,4 +154,15 @@ public class Top5ErrorsBySamplerConsumer extends
             boolean ignoreTCFromTop5ErrorsBySampler) {
         this.ignoreTCFromTop5ErrorsBySampler = ignoreTCFromTop5ErrorsBySampler;
     }
+
+    @Override
+    protected boolean isStateMergeable() {
+        return true;
+    }
+
+    @Override
+    protected Top5ErrorsSummaryData mergeData(Top5ErrorsSummaryData data, Top5ErrorsSummaryData otherData) {
+        data.merge(otherData);
+        return data;
+    }
 }
@@ -17,7 +17,7 @@
 
 package org.apache.jmeter.report.processor;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -34,7 +34,7 @@ public class Top5ErrorsSummaryData {
     private long errors;
 
     public Top5ErrorsSummaryData() {
-        countPerError = new HashMap<>();
+        countPerError = new LinkedHashMap<>();
     }
 
     /**
@@ -81,4 +81,16 @@ public class Top5ErrorsSummaryData {
                 .map(e -> new Object[]{e.getKey(), e.getValue()})
                 .toArray(Object[][]::new);
     }
+
+    /**
+     * Adds the errors counted by other data.
+     *
+     * @param other the data to merge
+     * @since 6.0
+     */
+    public void merge(Top5ErrorsSummaryData other) {
+        other.countPerError.forEach((error, count) -> countPerError.merge(error, count, Long::sum));
+        total += other.total;
+        errors += other.errors;
+    }
 }
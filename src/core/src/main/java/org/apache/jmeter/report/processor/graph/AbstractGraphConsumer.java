@@ -28,6 +28,7 @@ import org.apache.jmeter.report.processor.Aggregator;
 import org.apache.jmeter.report.processor.AggregatorFactory;
 import org.apache.jmeter.report.processor.ListResultData;
 import org.apache.jmeter.report.processor.MapResultData;
+import org.apache.jmeter.report.processor.MergeableAggregator;
 import org.apache.jmeter.report.processor.ValueResultData;
 
 /**
@@ -529,6 +530,31 @@ public abstract class AbstractGraphConsumer extends AbstractSampleConsumer {
     public void stopConsuming() {
         super.stopProducing();
 
+        publishState();
+
+        for (GroupInfo groupInfo : groupInfos.values()) {
+            groupInfo.getGroupData().clear();
+        }
+    }
+
+    /**
+     * The results of the graph are computed from its group data, which is kept
+     * when they are published.
+     *
+     * @return true
+     */
+    @Override
+    protected boolean isStatePublishable() {
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.AbstractSampleConsumer#publishState()
+     */
+    @Override
+    protected void publishState() {
         MapResultData result = createResult();
 
         // Get the aggregate results from the map
@@ -566,9 +592,37 @@ public abstract class AbstractGraphConsumer extends AbstractSampleConsumer {
 
         // Store the result
         setDataToContext(getName(), result);
+    }
 
+    /**
+     * The graph can be merged when all its aggregators can be merged.
+     * Subclasses keeping state outside of their group data must override this
+     * method, and {@link #mergeState(AbstractSampleConsumer)} if they can merge it.
+     *
+     * @return true if the aggregators of all the groups are mergeable
+     */
+    @Override
+    protected boolean isStateMergeable() {
         for (GroupInfo groupInfo : groupInfos.values()) {
-            groupInfo.getGroupData().clear();
+            AggregatorFactory factory = groupInfo.getAggregatorFactory();
+            if (!(factory.createValueAggregator() instanceof MergeableAggregator)) {
+                return false;
+            }
+            if (groupInfo.enablesAggregatedKeysSeries()
+                    && !(factory.createKeyAggregator() instanceof MergeableAggregator
+                            && factory.createAggregatedKeyValueAggregator() instanceof MergeableAggregator)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        Map<String, GroupInfo> otherGroupInfos = ((AbstractGraphConsumer) other).groupInfos;
+        for (Map.Entry<String, GroupInfo> groupEntry : groupInfos.entrySet()) {
+            groupEntry.getValue().getGroupData()
+                    .merge(otherGroupInfos.get(groupEntry.getKey()).getGroupData());
         }
     }
 
@@ -154,6 +154,29 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
         super.stopConsuming();
     }
 
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.jmeter.report.processor.graph.AbstractGraphConsumer#
+     * mergeState(org.apache.jmeter.report.processor.AbstractSampleConsumer)
+     */
+    @Override
+    protected void mergeState(AbstractSampleConsumer other) {
+        super.mergeState(other);
+        embeddedConsumer.merge(((AbstractVersusRequestsGraphConsumer) other).embeddedConsumer);
+    }
+
+    /**
+     * The samples are only counted and stored in files until the consumer is
+     * stopped, so the graph has no result before.
+     *
+     * @return false
+     */
+    @Override
+    protected boolean isStatePublishable() {
+        return false;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -172,6 +195,7 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
 
         private static class FileInfo {
             private final File file;
+            private final int channel;
             private final CsvSampleWriter writer;
 
             /**
@@ -179,11 +203,14 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
              *
              * @param file
              *            the file
+             * @param channel
+             *            the channel of the buffered samples
              * @param metadata
              *            the metadata
              */
-            public FileInfo(File file, SampleMetadata metadata) {
+            public FileInfo(File file, int channel, SampleMetadata metadata) {
                 this.file = file;
+                this.channel = channel;
                 this.writer = new CsvSampleWriter(file, metadata);
             }
 
@@ -196,6 +223,15 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
                 return file;
             }
 
+            /**
+             * Gets the channel of the buffered samples.
+             *
+             * @return the channel
+             */
+            public int getChannel() {
+                return channel;
+            }
+
             /**
              * Gets the sample writer.
              *
@@ -286,7 +322,7 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
                     File tmpFile = File.createTempFile(parent.getName(), "-"
                             + i, workDir);
                     tmpFile.deleteOnExit();
-                    fileInfos.add(new FileInfo(tmpFile, getConsumedMetadata(i)));
+                    fileInfos.add(new FileInfo(tmpFile, i, getConsumedMetadata(i)));
                 } catch (IOException ex) {
                     String message = String.format(
                             "Cannot create temporary file for channel #%d", i);
@@ -319,39 +355,59 @@ public abstract class AbstractVersusRequestsGraphConsumer extends
             fileInfos.get(channel).getWriter().write(sample);
         }
 
+        private void propagateSamples(FileInfo fileInfo, int channel) {
+            // Clean the writer
+            CsvSampleWriter writer = fileInfo.getWriter();
+            writer.close();
+
+            // Create a reader and use it to get the buffered samples
+            File file = fileInfo.getFile();
+            try (CsvSampleReader reader = new CsvSampleReader(file,
+                    getConsumedMetadata(channel))) {
+                while (reader.hasNext()) {
+                    Sample sample = reader.readSample();
+                    // Ask parent to consume the altered sample
+                    Long requestsPerGranularity = counts.get(getTimeInterval(sample));
+                    Long requestsPerSecond = requestsPerGranularity * 1000 / parent.getGranularity();
+                    parent.consumeBase(
+                            createIndexedSample(sample, channel, requestsPerSecond), channel);
+                }
+            } finally {
+                if(!file.delete()) {
+                    log.warn("Could not delete intermediate file {}", file.getAbsolutePath());
+                }
+            }
+        }
+
+        @Override
+        protected boolean isStateMergeable() {
+            return true;
+        }
+
+        @Override
+        protected void mergeState(AbstractSampleConsumer other) {
+            TimeCountConsumer consumer = (TimeCountConsumer) other;
+            consumer.counts.forEach((time, count) -> counts.merge(time, count, Long::sum));
+            fileInfos.addAll(consumer.fileInfos);
+        }
+
         @Override
         public void stopConsuming() {
 
             // Ask parent to start consumption
             parent.startConsumingBase();
 
-            // Propagate tagged samples to parent
+            // Propagate tagged samples to parent, the files of the merged
+            // consumers come after the files of this consumer
             int channelsCount = getConsumedChannelCount();
             for (int i = 0; i < channelsCount; i++) {
-                FileInfo fileInfo = fileInfos.get(i);
-
-                // Clean the writer
-                CsvSampleWriter writer = fileInfo.getWriter();
-                writer.close();
-
-                // Create a reader and use it to get the buffered samples
-                File file = fileInfo.getFile();
-                try (CsvSampleReader reader = new CsvSampleReader(file,
-                        getConsumedMetadata(i))) {
-                    while (reader.hasNext()) {
-                        Sample sample = reader.readSample();
-                        // Ask parent to consume the altered sample
-                        Long requestsPerGranularity = counts.get(getTimeInterval(sample));
-                        Long requestsPerSecond = requestsPerGranularity * 1000 / parent.getGranularity();
-                        parent.consumeBase(
-                                createIndexedSample(sample, i, requestsPerSecond), i);
-                    }
-                } finally {
-                    if(!file.delete()) {
-                        log.warn("Could not delete intermediate file {}", file.getAbsolutePath());
+                for (FileInfo fileInfo : fileInfos) {
+                    if (fileInfo.getChannel() == i) {
+                        propagateSamples(fileInfo, i);
                     }
                 }
             }
+            fileInfos.clear();
 
             if (createdWorkDir) {
                 File workingDir = parent.getWorkingDirectory();
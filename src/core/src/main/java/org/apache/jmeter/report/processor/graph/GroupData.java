@@ -18,6 +18,8 @@
 package org.apache.jmeter.report.processor.graph;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.apache.jmeter.report.processor.AggregatorFactory;
 
@@ -25,7 +27,8 @@ import org.apache.jmeter.report.processor.AggregatorFactory;
  * The class GroupData helps to store group data for a graph.
  */
 public class GroupData {
-    private final HashMap<String, SeriesData> seriesData = new HashMap<>();
+    // Insertion ordered, so merged group data produce the same results
+    private final HashMap<String, SeriesData> seriesData = new LinkedHashMap<>();
     private final SeriesData overallSeries;
 
     /**
@@ -69,4 +72,24 @@ public class GroupData {
             overallSeries.clear();
         }
     }
+
+    /**
+     * Merges the series of other group data, built with the same aggregator factory.
+     *
+     * @param other the group data to merge, must not be used afterwards
+     * @since 6.0
+     */
+    public void merge(GroupData other) {
+        for (Map.Entry<String, SeriesData> entry : other.seriesData.entrySet()) {
+            SeriesData series = seriesData.get(entry.getKey());
+            if (series == null) {
+                seriesData.put(entry.getKey(), entry.getValue());
+            } else {
+                series.merge(entry.getValue());
+            }
+        }
+        if (overallSeries != null) {
+            overallSeries.merge(other.overallSeries);
+        }
+    }
 }
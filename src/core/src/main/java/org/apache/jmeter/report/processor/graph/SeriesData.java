@@ -18,10 +18,12 @@
 package org.apache.jmeter.report.processor.graph;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.jmeter.report.processor.Aggregator;
 import org.apache.jmeter.report.processor.AggregatorFactory;
+import org.apache.jmeter.report.processor.MergeableAggregator;
 
 /**
  * The class SeriesData helps to store series data in a graph.
@@ -30,8 +32,8 @@ import org.apache.jmeter.report.processor.AggregatorFactory;
  */
 public class SeriesData {
 
-    /** The regular groupData. */
-    private final HashMap<Double, Aggregator> aggregators = new HashMap<>();
+    /** The regular groupData, insertion ordered so merged series data produce the same results. */
+    private final HashMap<Double, Aggregator> aggregators = new LinkedHashMap<>();
 
     /** The keys aggregator for aggregated keys seriesData. */
     private final Aggregator keysAggregator;
@@ -151,4 +153,26 @@ public class SeriesData {
             valuesAggregator.reset();
         }
     }
+
+    /**
+     * Merges the aggregators of other series data, built with the same aggregator factory.
+     *
+     * @param other the series data to merge, must not be used afterwards
+     * @since 6.0
+     */
+    public void merge(SeriesData other) {
+        for (Map.Entry<Double, Aggregator> entry : other.aggregators.entrySet()) {
+            Aggregator aggregator = aggregators.get(entry.getKey());
+            if (aggregator == null) {
+                aggregators.put(entry.getKey(), entry.getValue());
+            } else {
+                ((MergeableAggregator) aggregator).merge(entry.getValue());
+            }
+        }
+        count += other.count;
+        if (keysAggregator != null) {
+            ((MergeableAggregator) keysAggregator).merge(other.keysAggregator);
+            ((MergeableAggregator) valuesAggregator).merge(other.valuesAggregator);
+        }
+    }
 }
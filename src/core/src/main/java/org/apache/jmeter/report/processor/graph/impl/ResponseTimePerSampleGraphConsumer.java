@@ -64,6 +64,17 @@ public class ResponseTimePerSampleGraphConsumer extends AbstractGraphConsumer {
         return new IndexedNameSelector();
     }
 
+    /**
+     * The keys are indexes of the sample names, which depend on the order the
+     * names were found in, so the graph can't be merged.
+     *
+     * @return false
+     */
+    @Override
+    protected boolean isStateMergeable() {
+        return false;
+    }
+
     /**
      * Creates the group info for elapsed time percentile depending on jmeter
      * properties.
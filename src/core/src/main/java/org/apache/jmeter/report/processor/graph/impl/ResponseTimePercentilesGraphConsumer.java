@@ -20,6 +20,7 @@ package org.apache.jmeter.report.processor.graph.impl;
 import java.util.Collections;
 import java.util.Map;
 
+import org.apache.jmeter.report.processor.HistogramPercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.MapResultData;
 import org.apache.jmeter.report.processor.SumAggregatorFactory;
 import org.apache.jmeter.report.processor.graph.AbstractGraphConsumer;
@@ -27,10 +28,15 @@ import org.apache.jmeter.report.processor.graph.CountValueSelector;
 import org.apache.jmeter.report.processor.graph.GraphKeysSelector;
 import org.apache.jmeter.report.processor.graph.GroupInfo;
 import org.apache.jmeter.report.processor.graph.NameSeriesSelector;
+import org.apache.jorphan.math.LogLinearHistogram;
 
 /**
  * The Class ResponseTimePercentilesGraphConsumer computes percentile
  * graph for each samples
+ * <p>
+ * When {@link HistogramPercentileAggregatorFactory#isEnabled()}, the samples
+ * are counted per bucket of the histograms instead of per elapsed time, so the
+ * number of points per sample name is bounded.
  *
  * @since 3.0
  */
@@ -56,6 +62,12 @@ public class ResponseTimePercentilesGraphConsumer extends AbstractGraphConsumer
      */
     @Override
     protected final GraphKeysSelector createKeysSelector() {
+        if (HistogramPercentileAggregatorFactory.isEnabled()) {
+            // Count the samples per histogram bucket instead of per distinct elapsed time
+            int precisionBits = HistogramPercentileAggregatorFactory.getDefaultPrecisionBits();
+            return sample -> (double) LogLinearHistogram.bucketMiddleValue(
+                    LogLinearHistogram.bucketIndex(sample.getElapsedTime(), precisionBits), precisionBits);
+        }
         return sample -> (double) sample.getElapsedTime();
     }
 
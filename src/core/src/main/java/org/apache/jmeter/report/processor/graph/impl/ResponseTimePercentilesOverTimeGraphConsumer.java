@@ -23,21 +23,26 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.jmeter.report.processor.AggregatorFactory;
+import org.apache.jmeter.report.processor.HistogramPercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.MaxAggregatorFactory;
 import org.apache.jmeter.report.processor.MedianAggregatorFactory;
 import org.apache.jmeter.report.processor.MinAggregatorFactory;
-import org.apache.jmeter.report.processor.PercentileAggregatorFactory;
 import org.apache.jmeter.report.processor.graph.AbstractOverTimeGraphConsumer;
+import org.apache.jmeter.report.processor.graph.GraphValueSelector;
 import org.apache.jmeter.report.processor.graph.GroupInfo;
 import org.apache.jmeter.report.processor.graph.StaticSeriesSelector;
+import org.apache.jmeter.report.processor.graph.SuccessfulCorrectedElapsedTimeValueSelector;
 import org.apache.jmeter.report.processor.graph.SuccessfulElapsedTimeValueSelector;
 import org.apache.jmeter.report.processor.graph.TimeStampKeysSelector;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
 import org.apache.jmeter.util.JMeterUtils;
 
 /**
  * The class ResponseTimePercentilesOverTimeGraphConsumer provides a graph to
  * visualize percentiles over time period.
  * Only successful responses are taken into account for computations.
+ * When the intended start time of the samples is saved, the percentiles corrected for
+ * coordinated omission are rendered as well.
  *
  * @since 3.1
  */
@@ -71,6 +76,15 @@ public class ResponseTimePercentilesOverTimeGraphConsumer
         groupInfos.put("aggregate_rpt_pct3",
                 createPercentileGroupInfo("aggregate_rpt_pct3", PCT3_LABEL));
 
+        if (SampleSaveConfiguration.staticConfig().saveIntendedStartTime()) {
+            groupInfos.put("corrected_rpt_pct1",
+                    createCorrectedPercentileGroupInfo("aggregate_rpt_pct1", PCT1_LABEL));
+            groupInfos.put("corrected_rpt_pct2",
+                    createCorrectedPercentileGroupInfo("aggregate_rpt_pct2", PCT2_LABEL));
+            groupInfos.put("corrected_rpt_pct3",
+                    createCorrectedPercentileGroupInfo("aggregate_rpt_pct3", PCT3_LABEL));
+        }
+
         return groupInfos;
     }
 
@@ -97,22 +111,34 @@ public class ResponseTimePercentilesOverTimeGraphConsumer
     }
 
     private static GroupInfo createPercentileGroupInfo(String propKey, String label) {
-        String seriesName = formatPercentile(label);
-        double defaultValue = new BigDecimal(label).setScale(2, RoundingMode.CEILING).doubleValue();
-        double property = JMeterUtils.getPropDefault(propKey, defaultValue);
-        PercentileAggregatorFactory factory = new PercentileAggregatorFactory();
-        factory.setPercentileIndex(property);
         StaticSeriesSelector seriesSelector = new StaticSeriesSelector();
-        seriesSelector.setSeriesName(seriesName);
+        seriesSelector.setSeriesName(formatPercentile(label));
+        return createGroupInfo(createPercentileFactory(propKey, label), seriesSelector);
+    }
 
-        return createGroupInfo(factory, seriesSelector);
+    private static GroupInfo createCorrectedPercentileGroupInfo(String propKey, String label) {
+        StaticSeriesSelector seriesSelector = new StaticSeriesSelector();
+        seriesSelector.setSeriesName("Corrected " + formatPercentile(label));
+        return createGroupInfo(createPercentileFactory(propKey, label), seriesSelector,
+                new SuccessfulCorrectedElapsedTimeValueSelector());
+    }
+
+    private static AggregatorFactory createPercentileFactory(String propKey, String label) {
+        double defaultValue = new BigDecimal(label).setScale(2, RoundingMode.CEILING).doubleValue();
+        double property = JMeterUtils.getPropDefault(propKey, defaultValue);
+        return HistogramPercentileAggregatorFactory.createPercentileFactory(property);
     }
 
     private static GroupInfo createGroupInfo(AggregatorFactory aggregationFactory, StaticSeriesSelector seriesSelector) {
+        return createGroupInfo(aggregationFactory, seriesSelector, new SuccessfulElapsedTimeValueSelector());
+    }
+
+    private static GroupInfo createGroupInfo(AggregatorFactory aggregationFactory,
+            StaticSeriesSelector seriesSelector, GraphValueSelector valueSelector) {
         return new GroupInfo(
                 aggregationFactory,
                 seriesSelector,
-                new SuccessfulElapsedTimeValueSelector(),
+                valueSelector,
                 false,
                 false);
     }
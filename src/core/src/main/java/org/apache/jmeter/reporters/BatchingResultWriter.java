@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.reporters;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes samples to a result file from a background thread.
+ * <p>
+ * The samples are serialized on the calling thread into a buffer owned by that thread, so the sampling threads
+ * do not contend on the file writer. When a buffer reaches {@code bufferSize} characters, it is handed off
+ * to the writer thread. The writer thread also collects the partially filled buffers and flushes the file
+ * every {@code flushInterval}, so a single flush commits the samples of all the threads.
+ * <p>
+ * The samples of each thread are written in order, the samples of different threads might be interleaved
+ * differently than their completion order.
+ * <p>
+ * Thread safe class
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.INTERNAL, since = "6.0")
+public final class BatchingResultWriter implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(BatchingResultWriter.class);
+
+    /**
+     * Serializes a sample.
+     */
+    @FunctionalInterface
+    public interface SampleSerializer {
+        /**
+         * @param event  the sample to serialize
+         * @param writer the destination of the serialized sample
+         * @throws IOException when the sample can't be serialized
+         */
+        void write(SampleEvent event, PrintWriter writer) throws IOException;
+    }
+
+    /** Maximum number of handed-off buffers (in units of {@code bufferSize}) before the producers wait */
+    private static final int MAX_PENDING_BUFFERS = 256;
+
+    private final PrintWriter out;
+    private final SampleSerializer serializer;
+    private final int bufferSize;
+    private final long maxPendingChars;
+    private final long flushIntervalNanos;
+
+    private final ThreadLocal<ThreadBuffer> threadBuffer = ThreadLocal.withInitial(this::newThreadBuffer);
+    private final Set<ThreadBuffer> threadBuffers = ConcurrentHashMap.newKeySet();
+    /** Buffers handed off by the threads, in the order of hand-off */
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingChars = new AtomicLong();
+    /** Guards writes to {@link #out} */
+    private final Object writeLock = new Object();
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * Buffer of a single thread, guarded by its own monitor.
+     * Only the owner thread writes samples to it, the writer thread locks it when it collects the samples.
+     */
+    private static final class ThreadBuffer {
+        final Thread owner;
+        final StringBuilder buffer;
+        final PrintWriter writer;
+
+        ThreadBuffer(Thread owner, int capacity) {
+            this.owner = owner;
+            this.buffer = new StringBuilder(capacity);
+            this.writer = new PrintWriter(new StringBuilderWriter(buffer));
+        }
+    }
+
+    /**
+     * Appends to a {@link StringBuilder} without synchronization, unlike {@link java.io.StringWriter}.
+     */
+    private static final class StringBuilderWriter extends Writer {
+        private final StringBuilder buffer;
+
+        StringBuilderWriter(StringBuilder buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            buffer.append(str, off, off + len);
+        }
+
+        @Override
+        public void write(int c) {
+            buffer.append((char) c);
+        }
+
+        @Override
+        public void flush() {
+            // NOOP
+        }
+
+        @Override
+        public void close() {
+            // NOOP
+        }
+    }
+
+    /**
+     * Creates the writer and starts its background thread.
+     *
+     * @param out                 the destination file writer
+     * @param serializer          serializes samples
+     * @param bufferSize          number of characters a thread buffers before handing them off to the writer thread
+     * @param flushIntervalMillis maximal delay between the completion of a sample and its write to the file
+     * @param name                name of the writer thread
+     */
+    public BatchingResultWriter(PrintWriter out, SampleSerializer serializer, int bufferSize,
+            long flushIntervalMillis, String name) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive, got " + bufferSize);
+        }
+        if (flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("flushIntervalMillis must be positive, got " + flushIntervalMillis);
+        }
+        this.out = out;
+        this.serializer = serializer;
+        this.bufferSize = bufferSize;
+        this.maxPendingChars = (long) bufferSize * MAX_PENDING_BUFFERS;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.writer = new Thread(this::run, name);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private ThreadBuffer newThreadBuffer() {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread(), bufferSize);
+        threadBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Serializes the sample into the buffer of the current thread.
+     * The sample is written to the file immediately if the writer is closed.
+     *
+     * @param event the sample to write
+     * @throws IOException when the sample can't be serialized
+     */
+    public void write(SampleEvent event) throws IOException {
+        ThreadBuffer buffer = threadBuffer.get();
+        boolean isClosed;
+        synchronized (buffer) {
+            serializer.write(event, buffer.writer);
+            isClosed = closed;
+            if (isClosed || buffer.buffer.length() >= bufferSize) {
+                handOff(buffer);
+            }
+        }
+        if (isClosed) {
+            // Late sample, e.g. from a thread that outlived the test
+            writePending();
+        } else {
+            awaitPendingBelowLimit();
+        }
+    }
+
+    /**
+     * Moves the content of the buffer to the pending queue, must be called with the buffer monitor held.
+     */
+    private void handOff(ThreadBuffer buffer) {
+        StringBuilder sb = buffer.buffer;
+        if (sb.length() == 0) {
+            return;
+        }
+        pending.add(sb.toString());
+        pendingChars.addAndGet(sb.length());
+        sb.setLength(0);
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Slows down the producers when the disk can't keep up, so the pending samples do not exhaust the heap.
+     */
+    private void awaitPendingBelowLimit() {
+        while (pendingChars.get() > maxPendingChars && !closed && writer.isAlive()) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Writes all the buffered samples and flushes the file.
+     */
+    public void flush() {
+        collectThreadBuffers();
+        writePending();
+        synchronized (writeLock) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes all the buffered samples, flushes the file and stops the writer thread.
+     * The destination writer is not closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Writer thread {} did not stop in time", writer.getName());
+        }
+        flush();
+    }
+
+    private void run() {
+        long nextFlush = System.nanoTime() + flushIntervalNanos;
+        while (!closed) {
+            long now = System.nanoTime();
+            if (now - nextFlush >= 0) {
+                flush();
+                nextFlush = now + flushIntervalNanos;
+            } else {
+                writePending();
+                LockSupport.parkNanos(this, nextFlush - now);
+            }
+        }
+    }
+
+    private void collectThreadBuffers() {
+        for (Iterator<ThreadBuffer> it = threadBuffers.iterator(); it.hasNext(); ) {
+            ThreadBuffer buffer = it.next();
+            synchronized (buffer) {
+                handOff(buffer);
+            }
+            if (!buffer.owner.isAlive()) {
+                // The thread will not write anymore
+                it.remove();
+            }
+        }
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            String chunk;
+            while ((chunk = pending.poll()) != null) {
+                out.write(chunk);
+                pendingChars.addAndGet(-chunk.length());
+            }
+        }
+    }
+}
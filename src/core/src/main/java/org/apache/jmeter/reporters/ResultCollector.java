@@ -25,23 +25,30 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.gui.GuiPackage;
+import org.apache.jmeter.report.core.BinarySampleFormat;
+import org.apache.jmeter.report.core.BinarySampleWriter;
+import org.apache.jmeter.report.core.SampleMetaDataParser;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.samplers.AsyncSampleListener;
 import org.apache.jmeter.samplers.Clearable;
 import org.apache.jmeter.samplers.Remoteable;
 import org.apache.jmeter.samplers.SampleEvent;
-import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.BlockCompressedFiles;
+import org.apache.jmeter.save.BlockCompressedOutputStream;
 import org.apache.jmeter.save.CSVSaveService;
 import org.apache.jmeter.save.SaveService;
 import org.apache.jmeter.services.FileServer;
@@ -58,7 +65,7 @@ import org.slf4j.LoggerFactory;
  * This class handles all saving of samples.
  * The class must be thread-safe because it is shared between threads (NoThreadClone).
  */
-public class ResultCollector extends AbstractListenerElement implements SampleListener, Clearable, Serializable,
+public class ResultCollector extends AbstractListenerElement implements AsyncSampleListener, Clearable, Serializable,
         TestStateListener, Remoteable, NoThreadClone {
     /**
      * Keep track of the file writer and the configuration,
@@ -68,9 +75,26 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
     private static class FileEntry{
         final PrintWriter pw;
         final SampleSaveConfiguration config;
-        FileEntry(PrintWriter printWriter, SampleSaveConfiguration sampleSaveConfiguration){
+        /** Background writer of the samples, null if the samples are written by the sampling threads */
+        final BatchingResultWriter batchingWriter;
+        /** Writer of the binary format, in which case {@link #pw} is null */
+        final BinarySampleWriter binaryWriter;
+        /** Stream under {@link #pw} if the file is compressed, null otherwise */
+        final BlockCompressedOutputStream compressedStream;
+        FileEntry(PrintWriter printWriter, SampleSaveConfiguration sampleSaveConfiguration,
+                BatchingResultWriter batchingWriter, BlockCompressedOutputStream compressedStream){
             this.pw = printWriter;
             this.config = sampleSaveConfiguration;
+            this.batchingWriter = batchingWriter;
+            this.binaryWriter = null;
+            this.compressedStream = compressedStream;
+        }
+        FileEntry(BinarySampleWriter binaryWriter, SampleSaveConfiguration sampleSaveConfiguration){
+            this.pw = null;
+            this.config = sampleSaveConfiguration;
+            this.batchingWriter = null;
+            this.binaryWriter = binaryWriter;
+            this.compressedStream = null;
         }
     }
 
@@ -85,6 +109,32 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             log.info("Shutdown hook ended");
         }
     }
+
+    /**
+     * Lets XStream load a file the streaming reader failed on, without passing the same samples twice.
+     */
+    private static final class ResumableResultCollectorHelper extends ResultCollectorHelper {
+        private long skipped;
+        private long loaded;
+
+        ResumableResultCollectorHelper(ResultCollector resultCollector, Visualizer visualizer) {
+            super(resultCollector, visualizer);
+        }
+
+        @Override
+        public void add(SampleResult sample) {
+            loaded++;
+            if (loaded > skipped) {
+                super.add(sample);
+            }
+        }
+
+        /** The samples loaded so far will be skipped when the file is loaded again */
+        void restart() {
+            skipped = Math.max(skipped, loaded);
+            loaded = 0;
+        }
+    }
     private static final Logger log = LoggerFactory.getLogger(ResultCollector.class);
 
     private static final long serialVersionUID = 234L;
@@ -117,6 +167,30 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
     /** AutoFlush on each line */
     private static final boolean SAVING_AUTOFLUSH = JMeterUtils.getPropDefault("jmeter.save.saveservice.autoflush", false); //$NON-NLS-1$
 
+    /** Serialize samples on the sampling threads and write them to the file from a background thread */
+    private static final boolean BATCHED_WRITER =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.batched_writer", false); //$NON-NLS-1$
+
+    /** Number of characters a thread buffers before handing them off to the background writer */
+    private static final int BATCHED_WRITER_BUFFER_SIZE =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.batched_writer.buffer_size", 16384); //$NON-NLS-1$
+
+    /** Maximal delay in milliseconds between the end of a sample and its write to the file */
+    private static final long BATCHED_WRITER_FLUSH_INTERVAL =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.batched_writer.flush_interval", 1000L); //$NON-NLS-1$
+
+    /** Write new CSV and XML files as independently gzip compressed blocks with an index */
+    private static final boolean COMPRESSED_OUTPUT =
+            "gzip".equalsIgnoreCase(JMeterUtils.getPropDefault("jmeter.save.saveservice.compression", "none")); //$NON-NLS-1$
+
+    /** Number of uncompressed bytes after which a compressed block is written */
+    private static final int COMPRESSION_BLOCK_SIZE =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.compression.block_size", 262144); //$NON-NLS-1$
+
+    /** Compression level, the fastest level by default as the files are written during the test */
+    private static final int COMPRESSION_LEVEL =
+            JMeterUtils.getPropDefault("jmeter.save.saveservice.compression.level", 1); //$NON-NLS-1$
+
     // Static variables
 
     // Lock used to guard static mutable variables
@@ -140,6 +214,15 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
     // Instance variables (guarded by volatile)
     private transient volatile PrintWriter out;
 
+    /** Background writer of {@link #out}, null if the samples are written synchronously */
+    private transient volatile BatchingResultWriter batchingWriter;
+
+    /** Writer of the binary format, used instead of {@link #out} */
+    private transient volatile BinarySampleWriter binaryWriter;
+
+    /** Stream under {@link #out} if the file is compressed, it also guards {@link #out} */
+    private transient volatile BlockCompressedOutputStream compressedStream;
+
     /**
      * Is a test running ?
      */
@@ -300,6 +383,9 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
                 }
                 finalizeFileOutput();
                 out = null;
+                batchingWriter = null;
+                binaryWriter = null;
+                compressedStream = null;
                 inTest = false;
             }
         }
@@ -318,10 +404,16 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             }
             instanceCount++;
             try {
-                if (out == null) {
+                if (out == null && binaryWriter == null) {
                     try {
-                        // Note: getFileWriter ignores a null filename
-                        out = getFileWriter(getFilename(), getSaveConfig());
+                        // Note: getFileEntry ignores a null filename
+                        FileEntry fileEntry = getFileEntry(getFilename(), getSaveConfig());
+                        if (fileEntry != null) {
+                            batchingWriter = fileEntry.batchingWriter;
+                            binaryWriter = fileEntry.binaryWriter;
+                            compressedStream = fileEntry.compressedStream;
+                            out = fileEntry.pw;
+                        }
                     } catch (FileNotFoundException e) {
                         out = null;
                     }
@@ -368,25 +460,41 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         String filename = getFilename();
         File file = new File(filename);
         if (file.exists()) {
-            try (BufferedReader dataReader = Files.newBufferedReader(file.toPath())){
+            try (BufferedReader dataReader = new BufferedReader(new InputStreamReader(
+                    BlockCompressedFiles.newInputStream(file), StandardCharsets.UTF_8))){
+                boolean binary = BinarySampleFormat.isBinaryFile(file);
                 // Get the first line, and see if it is XML
-                String line = dataReader.readLine();
+                String line = binary ? null : dataReader.readLine();
                 dataReader.close();
-                if (line == null) {
+                if (binary) {
+                    CSVSaveService.processBinarySamples(filename, visualizer, this);
+                    parsedOK = true;
+                } else if (line == null) {
                     log.warn("{} is empty", filename);
                 } else {
                     if (!line.startsWith("<?xml ")){// No, must be CSV //$NON-NLS-1$
                         CSVSaveService.processSamples(filename, visualizer, this);
                         parsedOK = true;
                     } else { // We are processing XML
-                        try (InputStream fis = Files.newInputStream(file.toPath());
-                             BufferedInputStream bufferedInputStream = new BufferedInputStream(fis); ){ // Assume XStream
-                            SaveService.loadTestResults(bufferedInputStream,
-                                    new ResultCollectorHelper(this, visualizer));
+                        ResumableResultCollectorHelper helper = new ResumableResultCollectorHelper(this, visualizer);
+                        try (InputStream fis = BlockCompressedFiles.newInputStream(file);
+                             BufferedInputStream bufferedInputStream = new BufferedInputStream(fis); ){
+                            SaveService.streamTestResults(bufferedInputStream, helper);
                             parsedOK = true;
                         } catch (Exception e) {
-                            if (log.isWarnEnabled()) {
-                                log.warn("Failed to load {} using XStream. Error was: {}", filename, e.toString());
+                            log.info("Failed to stream {} after {} samples, loading it using XStream. Error was: {}",
+                                    filename, helper.loaded, e.toString());
+                        }
+                        if (!parsedOK) {
+                            helper.restart();
+                            try (InputStream fis = BlockCompressedFiles.newInputStream(file);
+                                 BufferedInputStream bufferedInputStream = new BufferedInputStream(fis); ){ // Assume XStream
+                                SaveService.loadTestResults(bufferedInputStream, helper);
+                                parsedOK = true;
+                            } catch (Exception e) {
+                                if (log.isWarnEnabled()) {
+                                    log.warn("Failed to load {} using XStream. Error was: {}", filename, e.toString());
+                                }
                             }
                         }
                     }
@@ -436,7 +544,7 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         }
     }
 
-    private static PrintWriter getFileWriter(final String pFilename, SampleSaveConfiguration saveConfig)
+    private static FileEntry getFileEntry(final String pFilename, SampleSaveConfiguration saveConfig)
             throws IOException {
         if (pFilename == null || pFilename.length() == 0) {
             return null;
@@ -447,35 +555,44 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
         String filename = FileServer.resolveBaseRelativeName(pFilename);
         filename = new File(filename).getCanonicalPath(); // try to ensure uniqueness (Bug 60822)
         FileEntry fe = files.get(filename);
-        PrintWriter writer = null;
+        if (saveConfig.saveAsBinary()) {
+            return fe != null ? fe : createBinaryFileEntry(filename, saveConfig);
+        }
+        PrintWriter writer;
         boolean trimmed = true;
 
         if (fe == null) {
+            File file = new File(filename);
+            boolean compress = isCompressedOutput(file);
             if (saveConfig.saveAsXml()) {
-                trimmed = trimLastLine(filename);
+                trimmed = compress ? BlockCompressedOutputStream.removeTrailer(file) : trimLastLine(filename);
             } else {
-                trimmed = new File(filename).exists();
+                trimmed = file.exists();
             }
-            // Find the name of the directory containing the file
-            // and create it - if there is one
-            File pdir = new File(filename).getParentFile();
-            if (pdir != null) {
-                // returns false if directory already exists, so need to check again
-                if(pdir.mkdirs()){
-                    if (log.isInfoEnabled()) {
-                        log.info("Folder at {} was created", pdir.getAbsolutePath());
-                    }
-                } // else if might have been created by another process so not a problem
-                if (!pdir.exists()){
-                    log.warn("Error creating directories for {}", pdir);
-                }
+            createParentDirectory(filename);
+            BlockCompressedOutputStream compressedStream = null;
+            OutputStream stream;
+            if (compress) {
+                compressedStream = new BlockCompressedOutputStream(file, trimmed,
+                        COMPRESSION_BLOCK_SIZE, COMPRESSION_LEVEL);
+                stream = compressedStream;
+            } else {
+                stream = new BufferedOutputStream(new FileOutputStream(filename, trimmed));
             }
-            writer = new PrintWriter(new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(filename,
-                    trimmed)), SaveService.getFileEncoding(StandardCharsets.UTF_8.name())), SAVING_AUTOFLUSH);
+            writer = new PrintWriter(new OutputStreamWriter(stream,
+                    SaveService.getFileEncoding(StandardCharsets.UTF_8.name())), SAVING_AUTOFLUSH);
             if(log.isDebugEnabled()) {
                 log.debug("Opened file: {} in thread {}", filename, Thread.currentThread().getName());
             }
-            files.put(filename, new FileEntry(writer, saveConfig));
+            BatchingResultWriter batchingWriter = null;
+            // The compressed blocks must end on sample boundaries, so the samples are written by the sampling threads
+            if (BATCHED_WRITER && !compress) {
+                batchingWriter = new BatchingResultWriter(writer, ResultCollector::serializeSample,
+                        BATCHED_WRITER_BUFFER_SIZE, BATCHED_WRITER_FLUSH_INTERVAL,
+                        "ResultCollector-writer-" + new File(filename).getName());
+            }
+            fe = new FileEntry(writer, saveConfig, batchingWriter, compressedStream);
+            files.put(filename, fe);
         } else {
             writer = fe.pw;
         }
@@ -483,7 +600,68 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             log.debug("Writing header to file: {}", filename);
             writeFileStart(writer, saveConfig);
         }
-        return writer;
+        return fe;
+    }
+
+    /**
+     * New samples are appended in the format of the existing file, whatever the configuration.
+     */
+    private static boolean isCompressedOutput(File file) {
+        if (file.length() == 0) {
+            return COMPRESSED_OUTPUT;
+        }
+        boolean compressed = BlockCompressedFiles.isCompressed(file);
+        if (compressed != COMPRESSED_OUTPUT) {
+            log.warn("Keeping the {} format of existing file {}", compressed ? "compressed" : "uncompressed", file);
+        }
+        return compressed;
+    }
+
+    /**
+     * Appends a new segment to the file, so the samples of previous tests are kept.
+     */
+    private static FileEntry createBinaryFileEntry(String filename, SampleSaveConfiguration saveConfig)
+            throws IOException {
+        createParentDirectory(filename);
+        // A killed test leaves its segment open, the new samples would not be readable after it
+        if (BinarySampleFormat.terminateLastSegment(new File(filename))) {
+            log.info("Ended the incomplete results of a previous test in {}", filename);
+        }
+        SampleMetadata metadata = new SampleMetaDataParser(saveConfig.getDelimiter().charAt(0))
+                .parse(CSVSaveService.printableFieldNamesToString(saveConfig));
+        BinarySampleWriter writer = new BinarySampleWriter(
+                new BufferedOutputStream(new FileOutputStream(filename, true)), metadata);
+        if(log.isDebugEnabled()) {
+            log.debug("Opened binary file: {} in thread {}", filename, Thread.currentThread().getName());
+        }
+        FileEntry fe = new FileEntry(writer, saveConfig);
+        files.put(filename, fe);
+        return fe;
+    }
+
+    private static void createParentDirectory(String filename) {
+        // Find the name of the directory containing the file
+        // and create it - if there is one
+        File pdir = new File(filename).getParentFile();
+        if (pdir != null) {
+            // returns false if directory already exists, so need to check again
+            if(pdir.mkdirs()){
+                if (log.isInfoEnabled()) {
+                    log.info("Folder at {} was created", pdir.getAbsolutePath());
+                }
+            } // else if might have been created by another process so not a problem
+            if (!pdir.exists()){
+                log.warn("Error creating directories for {}", pdir);
+            }
+        }
+    }
+
+    private static void serializeSample(SampleEvent event, PrintWriter writer) throws IOException {
+        if (event.getResult().getSaveConfig().saveAsXml()) {
+            SaveService.saveSampleResult(event, writer);
+        } else {
+            CSVSaveService.saveSampleResult(event, writer);
+        }
     }
 
     // returns false if the file did not contain the terminator
@@ -544,11 +722,28 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
 
         if (isSampleWanted(result.isSuccessful())) {
             sendToVisualizer(result);
-            if (out != null && !isResultMarked(result) && !this.isStats) {
+            if ((out != null || binaryWriter != null) && !isResultMarked(result) && !this.isStats) {
                 SampleSaveConfiguration config = getSaveConfig();
                 result.setSaveConfig(config);
+                BatchingResultWriter batching = batchingWriter;
+                BinarySampleWriter binary = binaryWriter;
+                BlockCompressedOutputStream compressed = compressedStream;
                 try {
-                    if (config.saveAsXml()) {
+                    if (binary != null) {
+                        synchronized (binary) {
+                            CSVSaveService.saveSampleResultColumns(event, binary::writeRow);
+                        }
+                    } else if (compressed != null) {
+                        synchronized (compressed) {
+                            serializeSample(event, out);
+                            out.flush();
+                            // Sub-results start between the start and the end of their parent
+                            compressed.endSample(result.getStartTime(),
+                                    config.saveSubresults() ? result.getEndTime() : result.getStartTime());
+                        }
+                    } else if (batching != null) {
+                        batching.write(event);
+                    } else if (config.saveAsXml()) {
                         SaveService.saveSampleResult(event, out);
                     } else { // !saveAsXml
                         CSVSaveService.saveSampleResult(event, out);
@@ -584,9 +779,31 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
      * Flush PrintWriter to synchronize file contents
      */
     public void flushFile() {
-        if (out != null) {
+        BinarySampleWriter binary = binaryWriter;
+        BlockCompressedOutputStream compressed = compressedStream;
+        if (binary != null) {
+            log.info("forced flush through ResultCollector#flushFile");
+            synchronized (binary) {
+                binary.flush();
+            }
+        } else if (compressed != null && out != null) {
+            log.info("forced flush through ResultCollector#flushFile");
+            synchronized (compressed) {
+                out.flush();
+                try {
+                    compressed.finishBlock();
+                } catch (IOException e) {
+                    log.error("Error writing compressed block", e);
+                }
+            }
+        } else if (out != null) {
             log.info("forced flush through ResultCollector#flushFile");
-            out.flush();
+            BatchingResultWriter batching = batchingWriter;
+            if (batching != null) {
+                batching.flush();
+            } else {
+                out.flush();
+            }
         }
     }
 
@@ -596,6 +813,23 @@ public class ResultCollector extends AbstractListenerElement implements SampleLi
             ResultCollector.FileEntry value = me.getValue();
             try {
                 log.debug("Closing: {}", key);
+                if (value.binaryWriter != null) {
+                    synchronized (value.binaryWriter) {
+                        value.binaryWriter.close();
+                    }
+                    continue;
+                }
+                if (value.compressedStream != null) {
+                    synchronized (value.compressedStream) {
+                        // The end of the XML document gets its own block, so it can be removed to append samples
+                        value.pw.flush();
+                        value.compressedStream.finishBlock();
+                    }
+                }
+                if (value.batchingWriter != null) {
+                    // Writes the samples buffered by the threads before the end of the file
+                    value.batchingWriter.close();
+                }
                 writeFileEnd(value.pw, value.config);
                 value.pw.close();
                 if (value.pw.checkError()){
@@ -20,14 +20,17 @@ package org.apache.jmeter.reporters;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.jmeter.control.TransactionController;
 import org.apache.jmeter.engine.util.NoThreadClone;
+import org.apache.jmeter.samplers.AsyncSampleListener;
 import org.apache.jmeter.samplers.Remoteable;
 import org.apache.jmeter.samplers.SampleEvent;
-import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.SampleResult;
 import org.apache.jmeter.testelement.AbstractTestElement;
 import org.apache.jmeter.testelement.TestStateListener;
@@ -56,9 +59,14 @@ import org.slf4j.LoggerFactory;
  *
  * Data is accumulated according to the test element name.
  *
+ * The samples are added to striped counters, so the sampling threads do not contend on a lock,
+ * and the thread that reaches the reporting boundary first merges them.
+ * Optionally, the summary shows the 90 and 99 percentiles (property summariser.percentiles)
+ * and a line per sample label (summariser.breakdown.label) or per thread group (summariser.breakdown.thread_group).
+ *
  */
 public class Summariser extends AbstractTestElement
-    implements Serializable, SampleListener, TestStateListener, NoThreadClone, Remoteable {
+    implements Serializable, AsyncSampleListener, TestStateListener, NoThreadClone, Remoteable {
 
     /*
      * N.B. NoThreadClone is used to ensure that the testStarted() methods will share the same
@@ -85,6 +93,17 @@ public class Summariser extends AbstractTestElement
                     "summariser.ignore_transaction_controller_sample_result", //$NON-NLS-1$
                     true);
 
+    /** Show the 90 and 99 percentiles of the elapsed times ? */
+    private static final boolean PERCENTILES = JMeterUtils.getPropDefault("summariser.percentiles", false); //$NON-NLS-1$
+
+    /** Show a line per sample label ? */
+    private static final boolean BREAKDOWN_LABEL =
+            JMeterUtils.getPropDefault("summariser.breakdown.label", false); //$NON-NLS-1$
+
+    /** Show a line per thread group ? */
+    private static final boolean BREAKDOWN_THREAD_GROUP =
+            JMeterUtils.getPropDefault("summariser.breakdown.thread_group", false); //$NON-NLS-1$
+
     /*
      * Ensure that a report is not skipped if we are slightly late in checking
      * the time.
@@ -107,7 +126,7 @@ public class Summariser extends AbstractTestElement
      * Cached copy of Totals for this instance.
      * The variables do not need to be synchronised,
      * as they are not shared between threads
-     * However the contents do need to be synchronized.
+     * The contents are thread-safe.
      */
     private transient Totals myTotals = null;
 
@@ -147,18 +166,40 @@ public class Summariser extends AbstractTestElement
     private static class Totals {
 
         /** Time of last summary (to prevent double reporting) */
-        private long last = 0;
+        private final AtomicLong last = new AtomicLong();
 
-        private final SummariserRunningSample delta = new SummariserRunningSample("DELTA");
+        private final SummariserRunningSample delta = new SummariserRunningSample("DELTA", PERCENTILES);
 
-        private final SummariserRunningSample total = new SummariserRunningSample("TOTAL");
+        private final SummariserRunningSample total = new SummariserRunningSample("TOTAL", PERCENTILES);
+
+        /** Totals per sample label, if enabled */
+        private final Map<String, Totals> labels = new ConcurrentHashMap<>();
+
+        /** Totals per thread group, if enabled */
+        private final Map<String, Totals> threadGroups = new ConcurrentHashMap<>();
+
+        private void addSample(SampleResult s, String threadGroup) {
+            delta.addSample(s);
+            if (BREAKDOWN_LABEL) {
+                breakdown(labels, s.getSampleLabel()).delta.addSample(s);
+            }
+            if (BREAKDOWN_THREAD_GROUP) {
+                breakdown(threadGroups, threadGroup).delta.addSample(s);
+            }
+        }
+
+        private static Totals breakdown(Map<String, Totals> totals, String key) {
+            return totals.computeIfAbsent(Objects.toString(key, ""), k -> new Totals());
+        }
 
         /**
          * Add the delta values to the total values and clear the delta
+         * @return the delta values
          */
-        private void moveDelta() {
-            total.addSample(delta);
-            delta.clear();
+        private SummariserRunningSample moveDelta() {
+            SummariserRunningSample values = delta.drain();
+            total.addSample(values);
+            return values;
         }
     }
 
@@ -169,7 +210,6 @@ public class Summariser extends AbstractTestElement
      * @see org.apache.jmeter.samplers.SampleListener#sampleOccurred(org.apache.jmeter.samplers.SampleEvent)
      */
     @Override
-    @SuppressWarnings("SynchronizeOnNonFinalField")
     public void sampleOccurred(SampleEvent e) {
         SampleResult s = e.getResult();
         if(IGNORE_TC_GENERATED_SAMPLERESULT && TransactionController.isFromTransactionController(s)) {
@@ -178,38 +218,55 @@ public class Summariser extends AbstractTestElement
 
         long now = System.currentTimeMillis() / 1000;// in seconds
 
-        SummariserRunningSample myDelta = null;
-        SummariserRunningSample myTotal = null;
-        boolean reportNow = false;
+        if (s != null) {
+            myTotals.addSample(s, e.getThreadGroup());
+        }
 
         /*
          * Have we reached the reporting boundary?
          * Need to allow for a margin of error, otherwise can miss the slot.
          * Also need to check we've not hit the window already
          */
+        long last = myTotals.last.get();
+        if ((now > last + INTERVAL_WINDOW) && (now % INTERVAL <= INTERVAL_WINDOW)
+                && myTotals.last.compareAndSet(last, now)) { // stop double-reporting
+            report(myName, myTotals);
+        }
+    }
 
-        synchronized (myTotals) {
-            if (s != null) {
-                myTotals.delta.addSample(s);
-            }
-
-            if ((now > myTotals.last + INTERVAL_WINDOW) && (now % INTERVAL <= INTERVAL_WINDOW)) {
-                reportNow = true;
-
-                // copy the data to minimise the synch time
-                myDelta = new SummariserRunningSample(myTotals.delta);
-                myTotals.moveDelta();
-                myTotal = new SummariserRunningSample(myTotals.total);
+    private static void report(String name, Totals totals) {
+        SummariserRunningSample myDelta;
+        SummariserRunningSample myTotal;
+        // Only the reporting thread and testEnded lock the totals, the samples are added without lock
+        synchronized (totals) {
+            myDelta = totals.moveDelta();
+            myTotal = new SummariserRunningSample(totals.total);
+        }
+        formatAndWriteToLog(name, myDelta, "+", true);
 
-                myTotals.last = now; // stop double-reporting
-            }
+        // Only if we have updated them
+        if (myTotal.getNumSamples() != myDelta.getNumSamples()) {
+            formatAndWriteToLog(name, myTotal, "=", false);
         }
-        if (reportNow) {
-            formatAndWriteToLog(myName, myDelta, "+");
+        reportBreakdown(name, totals.labels);
+        reportBreakdown(name, totals.threadGroups);
+    }
 
-            // Only if we have updated them
-            if (myTotal != null && myDelta != null &&myTotal.getNumSamples() != myDelta.getNumSamples()) { // NOSONAR
-                formatAndWriteToLog(myName, myTotal, "=");
+    private static void reportBreakdown(String name, Map<String, Totals> breakdown) {
+        for (Map.Entry<String, Totals> entry : new TreeMap<>(breakdown).entrySet()) {
+            Totals totals = entry.getValue();
+            SummariserRunningSample myDelta;
+            SummariserRunningSample myTotal;
+            synchronized (totals) {
+                myDelta = totals.moveDelta();
+                myTotal = new SummariserRunningSample(totals.total);
+            }
+            String breakdownName = name + " [" + entry.getKey() + "]";
+            if (myDelta.getNumSamples() > 0) {
+                formatAndWriteToLog(breakdownName, myDelta, "+", false);
+            }
+            if (myTotal.getNumSamples() != myDelta.getNumSamples()) {
+                formatAndWriteToLog(breakdownName, myTotal, "=", false);
             }
         }
     }
@@ -308,20 +365,35 @@ public class Summariser extends AbstractTestElement
         for(Map.Entry<String, Totals> entry : totals){
             String name = entry.getKey();
             Totals total = entry.getValue();
-            total.delta.setEndTime(); // ensure delta has correct end time
-            // Only print final delta if there were some samples in the delta
-            // and there has been at least one sample reported previously
-            if (total.delta.getNumSamples() > 0 && total.total.getNumSamples() >  0) {
-                formatAndWriteToLog(name, total.delta, "+");
+            printFinalTotals(name, total, true);
+            for (Map.Entry<String, Totals> label : new TreeMap<>(total.labels).entrySet()) {
+                printFinalTotals(name + " [" + label.getKey() + "]", label.getValue(), false);
+            }
+            for (Map.Entry<String, Totals> threadGroup : new TreeMap<>(total.threadGroups).entrySet()) {
+                printFinalTotals(name + " [" + threadGroup.getKey() + "]", threadGroup.getValue(), false);
             }
-            total.moveDelta(); // This will update the total endTime
-            formatAndWriteToLog(name, total.total, "=");
         }
     }
 
-    private static void formatAndWriteToLog(String name, SummariserRunningSample summariserRunningSample, String type) {
+    private static void printFinalTotals(String name, Totals total, boolean threadCounts) {
+        SummariserRunningSample delta;
+        SummariserRunningSample myTotal;
+        synchronized (total) {
+            delta = total.moveDelta(); // This will update the total endTime
+            myTotal = new SummariserRunningSample(total.total);
+        }
+        // Only print final delta if there were some samples in the delta
+        // and there has been at least one sample reported previously
+        if (delta.getNumSamples() > 0 && myTotal.getNumSamples() > delta.getNumSamples()) {
+            formatAndWriteToLog(name, delta, "+", threadCounts);
+        }
+        formatAndWriteToLog(name, myTotal, "=", false);
+    }
+
+    private static void formatAndWriteToLog(String name, SummariserRunningSample summariserRunningSample, String type,
+            boolean threadCounts) {
         if (TOOUT || (TOLOG && log.isInfoEnabled())) {
-            String formattedMessage = format(name, summariserRunningSample, type);
+            String formattedMessage = format(name, summariserRunningSample, type, threadCounts);
             if (TOLOG) {
                 log.info(formattedMessage);
             }
@@ -336,9 +408,11 @@ public class Summariser extends AbstractTestElement
      * @param name Summariser name
      * @param summariserRunningSample {@link SummariserRunningSample}
      * @param type Type of summariser (difference or total)
+     * @param threadCounts true to show the thread counts
      * @return the summary information
      */
-    private static String format(String name, SummariserRunningSample summariserRunningSample, String type) {
+    private static String format(String name, SummariserRunningSample summariserRunningSample, String type,
+            boolean threadCounts) {
         DecimalFormat dfDouble = new DecimalFormat("#0.0"); // $NON-NLS-1$
         StringBuilder tmp = new StringBuilder(20); // for intermediate use
         StringBuilder sb = new StringBuilder(140); // output line buffer
@@ -363,12 +437,18 @@ public class Summariser extends AbstractTestElement
         sb.append(longToSb(tmp, summariserRunningSample.getMin(), 5));
         sb.append(" Max: ");
         sb.append(longToSb(tmp, summariserRunningSample.getMax(), 5));
+        if (summariserRunningSample.hasPercentiles()) {
+            sb.append(" P90: ");
+            sb.append(longToSb(tmp, summariserRunningSample.getPercentPoint(0.9), 5));
+            sb.append(" P99: ");
+            sb.append(longToSb(tmp, summariserRunningSample.getPercentPoint(0.99), 5));
+        }
         sb.append(" Err: ");
         sb.append(longToSb(tmp, summariserRunningSample.getErrorCount(), 5));
         sb.append(" (");
         sb.append(summariserRunningSample.getErrorPercentageString());
         sb.append(')');
-        if ("+".equals(type)) {
+        if (threadCounts) {
             ThreadCounts tc = JMeterContextService.getThreadCounts();
             sb.append(" Active: ");
             sb.append(tc.activeThreads);
@@ -377,6 +457,13 @@ public class Summariser extends AbstractTestElement
             sb.append(" Finished: ");
             sb.append(tc.finishedThreads);
         }
+        if (summariserRunningSample.getCorrectedNumSamples() > 0) {
+            // Response times corrected for coordinated omission, see SampleResult#getCorrectedTime
+            sb.append(" Corrected Avg: ");
+            sb.append(longToSb(tmp, summariserRunningSample.getCorrectedAverage(), 5));
+            sb.append(" Max: ");
+            sb.append(longToSb(tmp, summariserRunningSample.getCorrectedMax(), 5));
+        }
         return sb.toString();
     }
 
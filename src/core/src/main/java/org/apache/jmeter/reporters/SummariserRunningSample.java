@@ -18,8 +18,11 @@
 package org.apache.jmeter.reporters;
 
 import java.text.DecimalFormat;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jorphan.math.LogLinearHistogram;
 
 /**
  * <p>
@@ -28,29 +31,43 @@ import org.apache.jmeter.samplers.SampleResult;
  * the stats out with whatever methods you prefer.
  * </p>
  * <p>
- * Please note that this class is not thread-safe.
- * The calling class is responsible for ensuring thread safety if required.
- * The caller needs to synchronize access in order to ensure that variables are consistent.
+ * The values are kept in striped cells ({@link LongAdder} and {@link LongAccumulator}),
+ * so many threads can add samples without contending on a lock.
+ * The statistics are merged when they are read, they are consistent once the samples are no longer added,
+ * for instance in the instance returned by {@link #drain()}.
  * </p>
  * @since 2.13
  */
 class SummariserRunningSample {
 
+    /** Precision of the percentiles: they differ by less than 1/64 of the exact value */
+    private static final int PERCENTILE_PRECISION_BITS = 5;
+
     private final DecimalFormat errorFormatter = new DecimalFormat("#0.00%"); // $NON-NLS-1$
 
-    private long counter;
+    private final LongAdder counter = new LongAdder();
+
+    private final LongAdder runningSum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Long::max, Long.MIN_VALUE);
 
-    private long runningSum;
+    private final LongAccumulator min = new LongAccumulator(Long::min, Long.MAX_VALUE);
 
-    private long max;
+    private final LongAdder errorCount = new LongAdder();
 
-    private long min;
+    private volatile long startTime;
 
-    private long errorCount;
+    private volatile long endTime;
 
-    private long startTime;
+    // Samples with intended start time (see SampleResult#getCorrectedTime)
+    private final LongAdder correctedCounter = new LongAdder();
 
-    private long endTime;
+    private final LongAdder correctedSum = new LongAdder();
+
+    private final LongAccumulator correctedMax = new LongAccumulator(Long::max, Long.MIN_VALUE);
+
+    // null if the percentiles are not computed
+    private final LogLinearHistogram histogram;
 
     private final String label;
 
@@ -58,7 +75,17 @@ class SummariserRunningSample {
      * @param label the label of this component
      */
     public SummariserRunningSample(String label) {
+        this(label, false);
+    }
+
+    /**
+     * @param label       the label of this component
+     * @param percentiles true to compute the percentiles of the elapsed times
+     * @since 6.0
+     */
+    public SummariserRunningSample(String label, boolean percentiles) {
         this.label = label;
+        this.histogram = percentiles ? new LogLinearHistogram(PERCENTILE_PRECISION_BITS) : null;
         init();
     }
 
@@ -67,22 +94,24 @@ class SummariserRunningSample {
      * @param src the instance to copy
      */
     public SummariserRunningSample(SummariserRunningSample src) {
-        label = src.label;
-        counter = src.counter;
-        errorCount = src.errorCount;
+        this(src.label, src.histogram != null);
         startTime = src.startTime;
+        addValues(src);
         endTime = src.endTime;
-        max = src.max;
-        min = src.min;
-        runningSum = src.runningSum;
     }
 
     private void init() { // WARNING: called from ctor so must not be overridden (i.e. must be private or final)
-        counter = 0L;
-        runningSum = 0L;
-        max = Long.MIN_VALUE;
-        min = Long.MAX_VALUE;
-        errorCount = 0L;
+        counter.reset();
+        runningSum.reset();
+        max.reset();
+        min.reset();
+        errorCount.reset();
+        correctedCounter.reset();
+        correctedSum.reset();
+        correctedMax.reset();
+        if (histogram != null) {
+            histogram.clear();
+        }
         startTime = System.currentTimeMillis();
         endTime = startTime;
     }
@@ -94,41 +123,81 @@ class SummariserRunningSample {
         init();
     }
 
+    /**
+     * Moves the values to a new instance and clears this one.
+     * The samples added concurrently are not lost, but the values of such a sample
+     * might be split between the returned instance and this one.
+     *
+     * @return the values of this instance, the end time is the current time
+     * @since 6.0
+     */
+    public SummariserRunningSample drain() {
+        SummariserRunningSample values = new SummariserRunningSample(label, histogram != null);
+        long now = System.currentTimeMillis();
+        values.startTime = startTime;
+        values.endTime = now;
+        startTime = now;
+        endTime = now;
+        values.counter.add(counter.sumThenReset());
+        values.errorCount.add(errorCount.sumThenReset());
+        values.runningSum.add(runningSum.sumThenReset());
+        values.max.accumulate(max.getThenReset());
+        values.min.accumulate(min.getThenReset());
+        values.correctedCounter.add(correctedCounter.sumThenReset());
+        values.correctedSum.add(correctedSum.sumThenReset());
+        values.correctedMax.accumulate(correctedMax.getThenReset());
+        if (histogram != null) {
+            histogram.drainTo(values.histogram);
+        }
+        return values;
+    }
+
     /**
      * Used for delta
      * @param rs {@link SummariserRunningSample}
      */
     public void addSample(SummariserRunningSample rs) {
-        counter += rs.counter;
-        errorCount += rs.errorCount;
-        runningSum += rs.runningSum;
-        if (max < rs.max) {
-            max = rs.max;
-        }
-        if (min > rs.min) {
-            min = rs.min;
-        }
+        addValues(rs);
         // We want end time to be current time so sample rates reflect real time
         endTime = System.currentTimeMillis();
     }
 
+    private void addValues(SummariserRunningSample rs) {
+        counter.add(rs.counter.sum());
+        errorCount.add(rs.errorCount.sum());
+        runningSum.add(rs.runningSum.sum());
+        max.accumulate(rs.max.get());
+        min.accumulate(rs.min.get());
+        correctedCounter.add(rs.correctedCounter.sum());
+        correctedSum.add(rs.correctedSum.sum());
+        correctedMax.accumulate(rs.correctedMax.get());
+        if (histogram != null && rs.histogram != null) {
+            histogram.add(rs.histogram);
+        }
+    }
+
     /**
-     * Used for each SampleResult
+     * Used for each SampleResult.
+     * The end time is not updated, so the threads do not write the same field for every sample:
+     * it is set when the values are read with {@link #drain()} or {@link #setEndTime()}.
      * @param res {@link SampleResult}
      */
     public void addSample(SampleResult res) {
-        counter += res.getSampleCount();
-        errorCount += res.getErrorCount();
+        counter.add(res.getSampleCount());
+        errorCount.add(res.getErrorCount());
         long aTimeInMillis = res.getTime();
-        runningSum += aTimeInMillis;
-        if (aTimeInMillis > max) {
-            max = aTimeInMillis;
+        runningSum.add(aTimeInMillis);
+        max.accumulate(aTimeInMillis);
+        min.accumulate(aTimeInMillis);
+        if (res.getIntendedStartTime() > 0) {
+            long correctedTime = res.getCorrectedTime();
+            correctedCounter.add(res.getSampleCount());
+            correctedSum.add(correctedTime);
+            correctedMax.accumulate(correctedTime);
         }
-        if (aTimeInMillis < min) {
-            min = aTimeInMillis;
+        if (histogram != null) {
+            histogram.record(aTimeInMillis);
         }
-        // We want end time to be current time so sample rates reflect real time
-        endTime = System.currentTimeMillis();
     }
 
     /**
@@ -139,7 +208,7 @@ class SummariserRunningSample {
      *         the {@link SummariserRunningSample} class.
      */
     public long getNumSamples() {
-        return counter;
+        return counter.sum();
     }
 
     /**
@@ -148,7 +217,7 @@ class SummariserRunningSample {
      * @return how long the samples took
      */
     public long getElapsed() {
-        if (counter == 0) {
+        if (counter.sum() == 0) {
             return 0;// No samples collected ...
         }
         return endTime - startTime;
@@ -160,7 +229,8 @@ class SummariserRunningSample {
      * @return throughput associated to this sampler
      */
     public double getRate() {
-        if (counter == 0) {
+        long count = counter.sum();
+        if (count == 0) {
             return 0.0;// No samples collected ...
         }
 
@@ -170,7 +240,7 @@ class SummariserRunningSample {
             return Double.MAX_VALUE;
         }
 
-        return (double) counter / howLongRunning * 1000.0;
+        return (double) count / howLongRunning * 1000.0;
     }
 
     /**
@@ -179,17 +249,18 @@ class SummariserRunningSample {
      * @return the average time in milliseconds that samples ran in.
      */
     public long getAverage() {
-        if (counter == 0) {
+        long count = counter.sum();
+        if (count == 0) {
             return 0;
         }
-        return runningSum / counter;
+        return runningSum.sum() / count;
     }
 
     /**
      * @return errorCount
      */
     public long getErrorCount() {
-        return errorCount;
+        return errorCount.sum();
     }
 
     /**
@@ -212,10 +283,11 @@ class SummariserRunningSample {
      *         that were recorded. Returns 0.0 if there are no samples
      */
     public double getErrorPercentage() {
-        if (counter == 0) {
+        long count = counter.sum();
+        if (count == 0) {
             return 0.0;
         }
-        double rval = (double) errorCount / (double) counter;
+        double rval = (double) errorCount.sum() / (double) count;
         return rval;
     }
 
@@ -225,7 +297,7 @@ class SummariserRunningSample {
      * @return the time in milliseconds of the slowest sample.
      */
     public long getMax() {
-        return max;
+        return max.get();
     }
 
     /**
@@ -234,7 +306,62 @@ class SummariserRunningSample {
      * @return the time in milliseconds of the quickest sample.
      */
     public long getMin() {
-        return min;
+        return min.get();
+    }
+
+    /**
+     * Returns the number of samples that have the intended start time,
+     * so the corrected statistics are available for them.
+     *
+     * @return the number of samples with the intended start time
+     * @see SampleResult#getIntendedStartTime()
+     * @since 6.0
+     */
+    public long getCorrectedNumSamples() {
+        return correctedCounter.sum();
+    }
+
+    /**
+     * Returns the average elapsed time corrected for coordinated omission.
+     *
+     * @return the average of {@link SampleResult#getCorrectedTime()}, or 0 if there were no samples with
+     * the intended start time
+     * @since 6.0
+     */
+    public long getCorrectedAverage() {
+        long count = correctedCounter.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return correctedSum.sum() / count;
+    }
+
+    /**
+     * @return the maximum of {@link SampleResult#getCorrectedTime()}
+     * @since 6.0
+     */
+    public long getCorrectedMax() {
+        return correctedMax.get();
+    }
+
+    /**
+     * @return true if the percentiles of the elapsed times are computed
+     * @since 6.0
+     */
+    public boolean hasPercentiles() {
+        return histogram != null;
+    }
+
+    /**
+     * Get the elapsed time which %percent% of the samples are less than.
+     *
+     * @param percent number representing the wished percent (between {@code 0} and {@code 1.0})
+     * @return the percentile with a relative error below 1/64, or 0 if the percentiles are not computed
+     * @see LogLinearHistogram#getPercentPoint(double)
+     * @since 6.0
+     */
+    public long getPercentPoint(double percent) {
+        return histogram == null ? 0 : histogram.getPercentPoint(percent);
     }
 
     /**
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.samplers;
+
+import org.apiguardian.api.API;
+
+/**
+ * Implement this method-less interface to indicate your {@link SampleListener} may receive
+ * {@link SampleListener#sampleOccurred(SampleEvent)} on a listener dispatch thread
+ * rather than on the thread that produced the sample.
+ * <p>
+ * Such listeners must not depend on the {@link org.apache.jmeter.threads.JMeterContext} of the sampling thread,
+ * and they must be shared by all the threads (see {@link org.apache.jmeter.engine.util.NoThreadClone}).
+ * The listeners that do not implement the interface are always notified on the sampling thread.
+ *
+ * @see org.apache.jmeter.threads.AsyncListenerNotifier
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public interface AsyncSampleListener extends SampleListener {
+}
@@ -230,6 +230,9 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
     /** time to end connecting */
     private long connectTime = 0;
 
+    /** time the sample should have started according to the throughput timers, 0 if unknown */
+    private long intendedStartTime = 0;
+
     /** Way to signal what to do on Test */
     private TestLogicalAction testLogicalAction = TestLogicalAction.CONTINUE;
 
@@ -315,6 +318,7 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         label = res.label;//OK
         latency = res.latency;
         connectTime = res.connectTime;
+        intendedStartTime = res.intendedStartTime;
         location = res.location;//OK
         parent = res.parent;
         pauseTime = res.pauseTime;
@@ -967,6 +971,7 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         sb.append(", elapsedTime=").append(elapsedTime);
         sb.append(", latency=").append(latency);
         sb.append(", connectTime=").append(connectTime);
+        sb.append(", intendedStartTime=").append(intendedStartTime);
         sb.append(", testLogicalAction=").append(testLogicalAction);
         sb.append(", stopThread=").append(stopThread);
         sb.append(", stopTest=").append(stopTest);
@@ -1408,6 +1413,57 @@ public class SampleResult implements Serializable, Cloneable, Searchable {
         this.connectTime = time;
     }
 
+    /**
+     * Time the sample should have started at according to the schedule of the throughput timers
+     * (see {@link org.apache.jmeter.timers.ScheduledTimer}).
+     * It differs from the start time when the thread could not keep up with the schedule,
+     * for instance, when the previous response was slow.
+     *
+     * @return the intended start time in milliseconds since epoch, or 0 if the sample had no schedule
+     * @since 6.0
+     */
+    public long getIntendedStartTime() {
+        return intendedStartTime;
+    }
+
+    /**
+     * @param intendedStartTime the intended start time in milliseconds since epoch, 0 if unknown
+     * @see #getIntendedStartTime()
+     * @since 6.0
+     */
+    public void setIntendedStartTime(long intendedStartTime) {
+        this.intendedStartTime = intendedStartTime;
+    }
+
+    /**
+     * Elapsed time corrected for coordinated omission: the time the user would have waited
+     * if the request had been sent at its intended start time.
+     *
+     * @return elapsed time plus the delay between the intended and the actual start time,
+     * or the elapsed time if the intended start time is not known
+     * @see #getIntendedStartTime()
+     * @since 6.0
+     */
+    public long getCorrectedTime() {
+        return correctedTime(elapsedTime, startTime, intendedStartTime);
+    }
+
+    /**
+     * Computes elapsed time corrected for coordinated omission.
+     *
+     * @param elapsed           elapsed time
+     * @param startTime         actual start time
+     * @param intendedStartTime intended start time, 0 if unknown
+     * @return elapsed time plus the delay between the intended and the actual start time
+     * @since 6.0
+     */
+    public static long correctedTime(long elapsed, long startTime, long intendedStartTime) {
+        if (intendedStartTime <= 0 || intendedStartTime >= startTime) {
+            return elapsed;
+        }
+        return elapsed + startTime - intendedStartTime;
+    }
+
     /**
      * This is only intended for use by SampleResultConverter!
      *
@@ -81,6 +81,9 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     /** Indicates that the results file should be in CSV format. * */
     private static final String CSV = "csv"; // $NON_NLS-1$
 
+    /** Indicates that the results file should be in the binary columnar format. * */
+    private static final String BINARY = "binary"; // $NON_NLS-1$
+
     /** A properties file indicator for true. * */
     private static final String TRUE = "true"; // $NON_NLS-1$
 
@@ -218,6 +221,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private static final String SAVE_IDLE_TIME       = "jmeter.save.saveservice.idle_time"; // $NON_NLS-1$
 
+    private static final String SAVE_INTENDED_START_TIME = "jmeter.save.saveservice.intended_start_time"; // $NON_NLS-1$
+
     // Defaults from properties:
     private static final boolean TIME;
     private static final boolean TIMESTAMP;
@@ -227,6 +232,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     private static final boolean MESSAGE;
     private static final boolean THREAD_NAME;
     private static final boolean IS_XML;
+    private static final boolean IS_BINARY;
     private static final boolean RESPONSE_DATA;
     private static final boolean DATATYPE;
     private static final boolean ENCODING;
@@ -278,6 +284,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private static final boolean IDLE_TIME;
 
+    private static final boolean INTENDED_START_TIME;
+
     public static final String DEFAULT_DELIMITER = ","; // $NON_NLS-1$
 
     // Read in the properties having to do with saving from a properties file.
@@ -370,11 +378,16 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
         if (XML.equals(howToSave)) {
             IS_XML = true;
+            IS_BINARY = false;
+        } else if (BINARY.equals(howToSave)) {
+            IS_XML = false;
+            IS_BINARY = true;
         } else {
             if (!CSV.equals(howToSave)) {
                 log.warn("{} has unexpected value: '{}' - assuming 'csv' format", OUTPUT_FORMAT_PROP, howToSave);
             }
             IS_XML = false;
+            IS_BINARY = false;
         }
 
         THREAD_COUNTS=TRUE.equalsIgnoreCase(props.getProperty(SAVE_THREAD_COUNTS, TRUE));
@@ -382,6 +395,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         SAMPLE_COUNT=TRUE.equalsIgnoreCase(props.getProperty(SAVE_SAMPLE_COUNT, FALSE));
 
         IDLE_TIME=TRUE.equalsIgnoreCase(props.getProperty(SAVE_IDLE_TIME, TRUE));
+
+        INTENDED_START_TIME=TRUE.equalsIgnoreCase(props.getProperty(SAVE_INTENDED_START_TIME, FALSE));
     }
 
     private static final SampleSaveConfiguration STATIC_SAVE_CONFIGURATION = new SampleSaveConfiguration();
@@ -427,6 +442,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         "ResponseData", // XML
         "Subresults", // XML
         "Assertions", // XML
+        "IntendedStartTime",
+        "AsBinary",
     }));
     // N.B. Remember to update the equals and hashCode methods when adding new variables.
 
@@ -447,6 +464,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
     private boolean responseData = RESPONSE_DATA;
     private boolean samplerData = SAMPLER_DATA;
     private boolean xml = IS_XML;
+    private boolean binary = IS_BINARY;
     private boolean fieldNames = FIELD_NAMES;
     private boolean responseHeaders = RESPONSE_HEADERS;
     private boolean requestHeaders = REQUEST_HEADERS;
@@ -467,6 +485,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
 
     private boolean idleTime = IDLE_TIME;
 
+    private boolean intendedStartTime = INTENDED_START_TIME;
+
     // Does not appear to be used (yet)
     // it is
     @SuppressWarnings("FieldCanBeStatic")
@@ -501,6 +521,8 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
      */
     public SampleSaveConfiguration(boolean value) {
         assertions = value;
+        // The binary format replaces the other formats, so it must be enabled explicitly
+        binary = false;
         bytes = value;
         code = value;
         connectTime = value;
@@ -510,6 +532,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         fileName = value;
         hostname = value;
         idleTime = value;
+        intendedStartTime = value;
         label = value;
         latency = value;
         message = value;
@@ -644,6 +667,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
             s.responseData == responseData &&
             s.samplerData == samplerData &&
             s.xml == xml &&
+            s.binary == binary &&
             s.fieldNames == fieldNames &&
             s.responseHeaders == responseHeaders &&
             s.requestHeaders == requestHeaders &&
@@ -658,6 +682,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
             s.hostname == hostname &&
             s.sampleCount == sampleCount &&
             s.idleTime == idleTime &&
+            s.intendedStartTime == intendedStartTime &&
             s.threadCounts == threadCounts;
 
         boolean stringValues = false;
@@ -691,6 +716,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         hash = 31 * hash + (responseData ? 1 : 0);
         hash = 31 * hash + (samplerData ? 1 : 0);
         hash = 31 * hash + (xml ? 1 : 0);
+        hash = 31 * hash + (binary ? 1 : 0);
         hash = 31 * hash + (fieldNames ? 1 : 0);
         hash = 31 * hash + (responseHeaders ? 1 : 0);
         hash = 31 * hash + (requestHeaders ? 1 : 0);
@@ -708,6 +734,7 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         hash = 31 * hash + (dateFormat != null  ? dateFormat.hashCode() : 0);
         hash = 31 * hash + (sampleCount ? 1 : 0);
         hash = 31 * hash + (idleTime ? 1 : 0);
+        hash = 31 * hash + (intendedStartTime ? 1 : 0);
 
         return hash;
     }
@@ -869,6 +896,25 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         this.xml = xml;
     }
 
+    /**
+     * The binary columnar format takes precedence over {@link #saveAsXml()}.
+     *
+     * @return true if the results are saved in the binary format
+     * @see org.apache.jmeter.report.core.BinarySampleFormat
+     * @since 6.0
+     */
+    public boolean saveAsBinary() {
+        return binary;
+    }
+
+    /**
+     * @param binary true to save the results in the binary columnar format
+     * @since 6.0
+     */
+    public void setAsBinary(boolean binary) {
+        this.binary = binary;
+    }
+
     public boolean saveFieldNames() {
         return fieldNames;
     }
@@ -933,6 +979,23 @@ public class SampleSaveConfiguration implements Cloneable, Serializable {
         this.sampleCount = save;
     }
 
+    /**
+     * @return true if the intended start time of the samples (see {@link SampleResult#getIntendedStartTime()})
+     * should be saved
+     * @since 6.0
+     */
+    public boolean saveIntendedStartTime() {
+        return intendedStartTime;
+    }
+
+    /**
+     * @param save true if the intended start time of the samples should be saved
+     * @since 6.0
+     */
+    public void setIntendedStartTime(boolean save) {
+        this.intendedStartTime = save;
+    }
+
     ///////////////// End of standard field accessors /////////////////////
 
 
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the result files transparently, whether they are plain or written by {@link BlockCompressedOutputStream}.
+ * <p>
+ * A compressed file can be read without its index, as a regular gzip file. With the index, the readers
+ * can skip the blocks whose samples all started outside a time window. The first block is always read,
+ * as it contains the header of the file.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class BlockCompressedFiles {
+    private static final Logger log = LoggerFactory.getLogger(BlockCompressedFiles.class);
+
+    /** Suffix added to the name of the result file to get the name of its index */
+    public static final String INDEX_SUFFIX = ".index"; // $NON-NLS-1$
+
+    static final String INDEX_HEADER = "# offset,length,samples,minStartTime,maxStartTime"; // $NON-NLS-1$
+
+    private static final int BUF_SIZE = 64 * 1024;
+
+    private BlockCompressedFiles() {
+        super();
+    }
+
+    /**
+     * @param file the result file
+     * @return the sidecar index of the file
+     */
+    public static File indexFile(File file) {
+        return new File(file.getPath() + INDEX_SUFFIX);
+    }
+
+    /**
+     * @param file the result file
+     * @return true if the file is gzip compressed
+     */
+    public static boolean isCompressed(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        } catch (IOException e) { // NOSONAR The file will fail to be read later on
+            return false;
+        }
+    }
+
+    /**
+     * Opens the result file, decompressing it if needed.
+     *
+     * @param file the result file
+     * @return the uncompressed content of the file
+     * @throws IOException if the file can't be opened
+     */
+    public static InputStream newInputStream(File file) throws IOException {
+        return newInputStream(file, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Opens the result file, decompressing it if needed, and skips the compressed blocks whose samples
+     * all started outside the time window.
+     * The samples of the returned blocks still have to be filtered.
+     *
+     * @param file         the result file
+     * @param minStartTime the beginning of the time window in milliseconds since the epoch
+     * @param maxStartTime the end of the time window in milliseconds since the epoch
+     * @return the uncompressed content of the selected blocks
+     * @throws IOException if the file can't be opened
+     */
+    public static InputStream newInputStream(File file, long minStartTime, long maxStartTime) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()), BUF_SIZE);
+        try {
+            in.mark(2);
+            boolean compressed = in.read() == 0x1f && in.read() == 0x8b;
+            in.reset();
+            if (!compressed) {
+                return in;
+            }
+            List<Block> blocks = readIndex(file);
+            if (blocks == null) {
+                return new GZIPInputStream(in, BUF_SIZE);
+            }
+            long indexedLength = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end();
+            List<Block> selected = new ArrayList<>();
+            for (int i = 0; i < blocks.size(); i++) {
+                Block block = blocks.get(i);
+                if (i == 0 || block.overlaps(minStartTime, maxStartTime)) {
+                    selected.add(block);
+                }
+            }
+            if (selected.size() == blocks.size() && indexedLength == file.length()) {
+                return new GZIPInputStream(in, BUF_SIZE);
+            }
+            in.close();
+            if (indexedLength < file.length()) {
+                log.warn("Ignoring the last {} bytes of {}, they are not in its index",
+                        file.length() - indexedLength, file);
+            }
+            log.info("Reading {} of {} compressed blocks of {}", selected.size(), blocks.size(), file);
+            return new BlocksInputStream(file, selected);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file the result file
+     * @return the blocks of the index, or null if the file has no index or the index does not match the file
+     */
+    static List<Block> readIndex(File file) {
+        File indexFile = indexFile(file);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        List<Block> blocks = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                Block block = Block.parse(line);
+                if (block == null) {
+                    // Last entry was not completely written
+                    break;
+                }
+                long expectedOffset = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).end();
+                if (block.offset != expectedOffset || block.end() > file.length()) {
+                    log.warn("Index {} does not match {}, reading the whole file", indexFile, file);
+                    return null;
+                }
+                blocks.add(block);
+            }
+        } catch (IOException e) {
+            log.warn("Could not read index {}, reading the whole file", indexFile, e);
+            return null;
+        }
+        return blocks;
+    }
+
+    static void writeIndex(File file, List<Block> blocks) throws IOException {
+        try (Writer index = Files.newBufferedWriter(indexFile(file).toPath(), StandardCharsets.UTF_8)) {
+            index.write(INDEX_HEADER);
+            index.write('\n');
+            for (Block block : blocks) {
+                index.write(block.toString());
+                index.write('\n');
+            }
+        }
+    }
+
+    /** Entry of the index */
+    static final class Block {
+        final long offset;
+        final long length;
+        final long samples;
+        final long minStartTime;
+        final long maxStartTime;
+
+        Block(long offset, long length, long samples, long minStartTime, long maxStartTime) {
+            this.offset = offset;
+            this.length = length;
+            this.samples = samples;
+            this.minStartTime = minStartTime;
+            this.maxStartTime = maxStartTime;
+        }
+
+        long end() {
+            return offset + length;
+        }
+
+        /**
+         * @return true if the block may contain samples started in the window, or if it contains no sample
+         */
+        boolean overlaps(long windowStart, long windowEnd) {
+            return samples == 0 || (maxStartTime >= windowStart && minStartTime <= windowEnd);
+        }
+
+        static Block parse(String line) {
+            String[] parts = line.split(",");
+            if (parts.length != 5) {
+                return null;
+            }
+            try {
+                return new Block(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                        Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+            } catch (NumberFormatException e) { // NOSONAR Incomplete line
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return offset + "," + length + "," + samples + "," + minStartTime + "," + maxStartTime;
+        }
+    }
+
+    /** Decompresses the selected blocks one after the other */
+    private static final class BlocksInputStream extends InputStream {
+        private final RandomAccessFile file;
+        private final Iterator<Block> blocks;
+        private InputStream current;
+
+        BlocksInputStream(File file, List<Block> blocks) throws IOException {
+            this.file = new RandomAccessFile(file, "r"); // $NON-NLS-1$
+            this.blocks = blocks.iterator();
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (current == null) {
+                    if (!blocks.hasNext()) {
+                        return -1;
+                    }
+                    current = open(blocks.next());
+                }
+                int n = current.read(b, off, len);
+                if (n >= 0) {
+                    return n;
+                }
+                current = null;
+            }
+        }
+
+        private InputStream open(Block block) throws IOException {
+            byte[] data = new byte[Math.toIntExact(block.length)];
+            file.seek(block.offset);
+            file.readFully(data);
+            return new GZIPInputStream(new ByteArrayInputStream(data), BUF_SIZE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apiguardian.api.API;
+
+/**
+ * Writes a result file as a sequence of independently compressed gzip members, so the file can be read by any
+ * gzip tool and every block can be decompressed on its own.
+ * <p>
+ * The blocks end on sample boundaries: the caller writes a sample, then calls
+ * {@link #endSample(long, long)} which closes the block once it reaches the configured size.
+ * Every block is described by a line in the sidecar index (see {@link BlockCompressedFiles#indexFile(File)})
+ * with its offset, its length, its number of samples and the range of the start times of its samples,
+ * so readers can skip the blocks outside a time window.
+ * <p>
+ * {@link #flush()} keeps the current block in memory, use {@link #finishBlock()} to write it to the disk.
+ * <p>
+ * This class is not thread safe.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public class BlockCompressedOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+
+    private final OutputStream file;
+    private final Writer index;
+    private final int blockSize;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final BlockBuffer block;
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+    private final ByteArrayOutputStream compressed = new ByteArrayOutputStream(64 * 1024);
+
+    private long offset;
+    private long samples;
+    private long minStartTime = Long.MAX_VALUE;
+    private long maxStartTime = Long.MIN_VALUE;
+    private boolean closed;
+
+    /**
+     * @param output    the result file
+     * @param append    true to add blocks to the end of an existing file, false to replace the file
+     * @param blockSize the number of uncompressed bytes after which a block is closed
+     * @param level     the compression level from 1 (fast) to 9 (small)
+     * @throws IOException if the file or the index can't be opened
+     */
+    public BlockCompressedOutputStream(File output, boolean append, int blockSize, int level) throws IOException {
+        File indexFile = BlockCompressedFiles.indexFile(output);
+        boolean appendToFile = append && output.exists();
+        if (!appendToFile) {
+            Files.deleteIfExists(indexFile.toPath());
+        }
+        this.offset = appendToFile ? output.length() : 0;
+        boolean newIndex = !indexFile.exists();
+        this.file = new FileOutputStream(output, appendToFile); // NOSONAR Closed by close()
+        try {
+            this.index = Files.newBufferedWriter(indexFile.toPath(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            if (newIndex) {
+                index.write(BlockCompressedFiles.INDEX_HEADER);
+                index.write('\n');
+            }
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        this.blockSize = blockSize;
+        this.block = new BlockBuffer(blockSize + blockSize / 4);
+        this.deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        block.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        block.write(b, off, len);
+    }
+
+    /**
+     * Does not write the current block, so the blocks are not cut in the middle of a sample.
+     */
+    @Override
+    public void flush() {
+        // NOOP
+    }
+
+    /**
+     * Marks the end of a sample, the block is written once it is large enough.
+     *
+     * @param firstStartTime the smallest start time of the rows of the sample (sub-results included)
+     * @param lastStartTime  the largest start time of the rows of the sample
+     * @throws IOException if the block can't be written
+     */
+    public void endSample(long firstStartTime, long lastStartTime) throws IOException {
+        ensureOpen();
+        samples++;
+        minStartTime = Math.min(minStartTime, firstStartTime);
+        maxStartTime = Math.max(maxStartTime, lastStartTime);
+        if (block.size() >= blockSize) {
+            finishBlock();
+        }
+    }
+
+    /**
+     * Compresses the pending bytes, if any, as a new block and writes it with its index entry.
+     *
+     * @throws IOException if the block can't be written
+     */
+    public void finishBlock() throws IOException {
+        ensureOpen();
+        if (block.size() == 0) {
+            return;
+        }
+        compress();
+        compressed.writeTo(file);
+        file.flush();
+        BlockCompressedFiles.Block entry = new BlockCompressedFiles.Block(offset, compressed.size(), samples,
+                samples == 0 ? -1 : minStartTime, samples == 0 ? -1 : maxStartTime);
+        index.write(entry.toString());
+        index.write('\n');
+        index.flush();
+        offset += compressed.size();
+        block.reset();
+        samples = 0;
+        minStartTime = Long.MAX_VALUE;
+        maxStartTime = Long.MIN_VALUE;
+    }
+
+    private void compress() {
+        compressed.reset();
+        compressed.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+        crc.reset();
+        crc.update(block.array(), 0, block.size());
+        deflater.reset();
+        deflater.setInput(block.array(), 0, block.size());
+        deflater.finish();
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            compressed.write(deflateBuffer, 0, n);
+        }
+        writeIntLE((int) crc.getValue());
+        writeIntLE(block.size());
+    }
+
+    private void writeIntLE(int value) {
+        compressed.write(value & 0xff);
+        compressed.write((value >>> 8) & 0xff);
+        compressed.write((value >>> 16) & 0xff);
+        compressed.write((value >>> 24) & 0xff);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Writes the pending bytes as the last block, then closes the file and the index.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try (file; index) {
+            finishBlock();
+        } finally {
+            closed = true;
+            deflater.end();
+        }
+    }
+
+    /**
+     * Removes the last block of the file if it contains no sample, e.g. the end of an XML document,
+     * so new samples can be appended to the document.
+     *
+     * @param output the result file
+     * @return true if the last block was removed
+     * @throws IOException if the file can't be modified
+     */
+    public static boolean removeTrailer(File output) throws IOException {
+        List<BlockCompressedFiles.Block> blocks = BlockCompressedFiles.readIndex(output);
+        if (blocks == null || blocks.isEmpty()) {
+            return false;
+        }
+        BlockCompressedFiles.Block last = blocks.get(blocks.size() - 1);
+        if (last.samples != 0) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(output.toPath(),
+                StandardOpenOption.WRITE)) {
+            channel.truncate(last.offset);
+        }
+        blocks.remove(blocks.size() - 1);
+        BlockCompressedFiles.writeIndex(output, blocks);
+        return true;
+    }
+
+    /** Gives access to the internal array to compress it without a copy */
+    private static final class BlockBuffer extends ByteArrayOutputStream {
+        BlockBuffer(int size) {
+            super(size);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
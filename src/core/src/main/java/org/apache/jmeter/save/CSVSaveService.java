@@ -19,7 +19,7 @@ package org.apache.jmeter.save;
 
 import java.io.BufferedReader;
 import java.io.CharArrayWriter;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,13 +35,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 
 import javax.swing.table.DefaultTableModel;
 
 import org.apache.commons.collections4.map.LinkedMap;
-import org.apache.commons.lang3.CharUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jmeter.report.core.BinarySampleFormat;
+import org.apache.jmeter.report.core.BinarySampleReader;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleException;
+import org.apache.jmeter.report.core.SampleMetadata;
 import org.apache.jmeter.reporters.ResultCollector;
 import org.apache.jmeter.samplers.SampleEvent;
 import org.apache.jmeter.samplers.SampleResult;
@@ -104,6 +109,7 @@ public final class CSVSaveService {
     public static final String CSV_ENCODING = "Encoding"; // $NON-NLS-1$
     public static final String CSV_HOSTNAME = "Hostname"; // $NON-NLS-1$
     public static final String CSV_IDLETIME = "IdleTime"; // $NON-NLS-1$
+    public static final String CSV_INTENDED_START_TIME = "IntendedStart"; // $NON-NLS-1$
 
     // Used to enclose variable name labels, to distinguish from any of the
     // above labels
@@ -125,6 +131,10 @@ public final class CSVSaveService {
 
     private static final String LINE_SEP = System.getProperty("line.separator"); // $NON-NLS-1$
 
+    // Reusable line buffers of the sampling threads
+    private static final ThreadLocal<CsvSampleSerializer> SERIALIZER =
+            ThreadLocal.withInitial(CsvSampleSerializer::new);
+
     private static final boolean USE_JAVA_REGEX = !JMeterUtils.getPropDefault(
             "jmeter.regex.engine", "oro").equalsIgnoreCase("oro");
 
@@ -136,6 +146,7 @@ public final class CSVSaveService {
 
     /**
      * Read Samples from a file; handles quoted strings.
+     * The file may be compressed, see {@link BlockCompressedFiles}.
      *
      * @param filename
      *            input file
@@ -151,7 +162,7 @@ public final class CSVSaveService {
             ResultCollector resultCollector) throws IOException {
         final boolean errorsOnly = resultCollector.isErrorLogging();
         final boolean successOnly = resultCollector.isSuccessOnlyLogging();
-        try (InputStream inStream = new FileInputStream(filename);
+        try (InputStream inStream = BlockCompressedFiles.newInputStream(new File(filename));
                 Reader inReader = new InputStreamReader(inStream,
                         SaveService.getFileEncoding(StandardCharsets.UTF_8.name()));
                 BufferedReader dataReader = new BufferedReader(inReader)) {
@@ -191,6 +202,57 @@ public final class CSVSaveService {
         }
     }
 
+    /**
+     * Read Samples from a file saved in the binary format, see {@link BinarySampleFormat}.
+     *
+     * @param filename
+     *            input file
+     * @param visualizer
+     *            where to send the results
+     * @param resultCollector
+     *            the parent collector
+     * @throws IOException
+     *             when the file referenced by <code>filename</code> can't be
+     *             read correctly
+     * @since 6.0
+     */
+    public static void processBinarySamples(String filename, Visualizer visualizer,
+            ResultCollector resultCollector) throws IOException {
+        final boolean errorsOnly = resultCollector.isErrorLogging();
+        final boolean successOnly = resultCollector.isSuccessOnlyLogging();
+        try (BinarySampleReader reader = new BinarySampleReader(new File(filename))) {
+            SampleMetadata metadata = reader.getMetadata();
+            String[] columns = new String[metadata.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metadata.getColumnName(i);
+            }
+            String header = String.join(Character.toString(metadata.getSeparator()), columns);
+            SampleSaveConfiguration saveConfig = CSVSaveService.getSampleSaveConfiguration(header, filename);
+            if (saveConfig == null) {
+                throw new IOException(filename + ": unexpected columns " + header);
+            }
+            long lineNumber = 1;
+            Sample sample;
+            while ((sample = reader.readSample()) != null) {
+                lineNumber++;
+                String[] parts = new String[columns.length];
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = sample.getData(i);
+                }
+                SampleEvent event = CSVSaveService.makeResultFromDelimitedString(parts, saveConfig, lineNumber);
+                if (event != null) {
+                    final SampleResult result = event.getResult();
+                    if (ResultCollector.isSampleWanted(result.isSuccessful(),
+                            errorsOnly, successOnly)) {
+                        visualizer.add(result);
+                    }
+                }
+            }
+        } catch (SampleException e) {
+            throw new IOException(filename + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Make a SampleResult given a set of tokens
      *
@@ -378,6 +440,12 @@ public final class CSVSaveService {
                 result.setConnectTime(Long.parseLong(text));
             }
 
+            if (saveConfig.saveIntendedStartTime()) {
+                field = CSV_INTENDED_START_TIME;
+                text = parts[i++];
+                result.setIntendedStartTime(Long.parseLong(text));
+            }
+
             if (i + saveConfig.getVarCount() < parts.length) {
                 log.warn("Line: {}. Found {} fields, expected {}. Extra fields have been ignored.", lineNumber,
                         parts.length, i);
@@ -436,6 +504,7 @@ public final class CSVSaveService {
         appendFields(saveConfig.saveHostname(), text, delim, CSV_HOSTNAME);
         appendFields(saveConfig.saveIdleTime(), text, delim, CSV_IDLETIME);
         appendFields(saveConfig.saveConnectTime(), text, delim, CSV_CONNECT_TIME);
+        appendFields(saveConfig.saveIntendedStartTime(), text, delim, CSV_INTENDED_START_TIME);
 
         for (int i = 0; i < SampleEvent.getVarCount(); i++) {
             text.append(VARIABLE_NAME_QUOTE_CHAR);
@@ -501,6 +570,7 @@ public final class CSVSaveService {
         headerLabelMethods.put(CSV_HOSTNAME, new Functor("setHostname"));
         headerLabelMethods.put(CSV_IDLETIME, new Functor("setIdleTime"));
         headerLabelMethods.put(CSV_CONNECT_TIME, new Functor("setConnectTime"));
+        headerLabelMethods.put(CSV_INTENDED_START_TIME, new Functor("setIntendedStartTime"));
     }
 
     /**
@@ -758,64 +828,6 @@ public final class CSVSaveService {
                 .getDelimiter());
     }
 
-    /*
-     * Class to handle generating the delimited string. - adds the delimiter
-     * if not the first call - quotes any strings that require it
-     */
-    static final class StringQuoter {
-        private final StringBuilder sb;
-        private final char[] specials;
-        private boolean addDelim;
-
-        public StringQuoter(char delim) {
-            sb = new StringBuilder(150);
-            specials = new char[] { delim, QUOTING_CHAR, CharUtils.CR,
-                    CharUtils.LF };
-            addDelim = false; // Don't add delimiter first time round
-        }
-
-        private void addDelim() {
-            if (addDelim) {
-                sb.append(specials[0]);
-            } else {
-                addDelim = true;
-            }
-        }
-
-        // These methods handle parameters that could contain delimiters or
-        // quotes:
-        public void append(String s) {
-            addDelim();
-            sb.append(quoteDelimiters(s, specials));
-        }
-
-        public void append(Object obj) {
-            append(String.valueOf(obj));
-        }
-
-        // These methods handle parameters that cannot contain delimiters or
-        // quotes
-        public void append(int i) {
-            addDelim();
-            sb.append(i);
-        }
-
-        public void append(long l) {
-            addDelim();
-            sb.append(l);
-        }
-
-        public void append(boolean b) {
-            addDelim();
-            sb.append(b);
-        }
-
-        @Override
-        public String toString() {
-            return sb.toString();
-        }
-    }
-
     /**
      * Convert a result into a string, where the fields of the result are
      * separated by a specified String.
@@ -843,111 +855,28 @@ public final class CSVSaveService {
      *            the separation string
      * @return the separated value representation of the result
      */
-    @SuppressWarnings("JavaUtilDate")
     public static String resultToDelimitedString(SampleEvent event,
             SampleResult sample,
             SampleSaveConfiguration saveConfig,
             final String delimiter) {
-        StringQuoter text = new StringQuoter(delimiter.charAt(0));
-        if (saveConfig.saveTimestamp()) {
-            if (saveConfig.printMilliseconds()) {
-                text.append(sample.getTimeStamp());
-            } else if (saveConfig.threadSafeLenientFormatter() != null) {
-                String stamp = saveConfig.threadSafeLenientFormatter().format(
-                        new Date(sample.getTimeStamp()));
-                text.append(stamp);
-            }
-        }
-
-        if (saveConfig.saveTime()) {
-            text.append(sample.getTime());
-        }
-
-        if (saveConfig.saveLabel()) {
-            text.append(sample.getSampleLabel());
-        }
-
-        if (saveConfig.saveCode()) {
-            text.append(sample.getResponseCode());
-        }
-
-        if (saveConfig.saveMessage()) {
-            text.append(sample.getResponseMessage());
-        }
-
-        if (saveConfig.saveThreadName()) {
-            text.append(sample.getThreadName());
-        }
-
-        if (saveConfig.saveDataType()) {
-            text.append(sample.getDataType());
-        }
-
-        if (saveConfig.saveSuccess()) {
-            text.append(sample.isSuccessful());
-        }
-
-        if (saveConfig.saveAssertionResultsFailureMessage()) {
-            String message = sample.getFirstAssertionFailureMessage();
-            if (message != null) {
-                text.append(message);
-            } else {
-                text.append(""); // Need to append something so delimiter is
-                                 // added
-            }
-        }
-
-        if (saveConfig.saveBytes()) {
-            text.append(sample.getBytesAsLong());
-        }
-
-        if (saveConfig.saveSentBytes()) {
-            text.append(sample.getSentBytes());
-        }
-
-        if (saveConfig.saveThreadCounts()) {
-            text.append(sample.getGroupThreads());
-            text.append(sample.getAllThreads());
-        }
-        if (saveConfig.saveUrl()) {
-            text.append(sample.getURL());
-        }
-
-        if (saveConfig.saveFileName()) {
-            text.append(sample.getResultFileName());
-        }
-
-        if (saveConfig.saveLatency()) {
-            text.append(sample.getLatency());
-        }
-
-        if (saveConfig.saveEncoding()) {
-            text.append(sample.getDataEncodingWithDefault());
-        }
-
-        if (saveConfig.saveSampleCount()) {
-            // Need both sample and error count to be any use
-            text.append(sample.getSampleCount());
-            text.append(sample.getErrorCount());
-        }
-
-        if (saveConfig.saveHostname()) {
-            text.append(event.getHostname());
-        }
-
-        if (saveConfig.saveIdleTime()) {
-            text.append(sample.getIdleTime());
-        }
-
-        if (saveConfig.saveConnectTime()) {
-            text.append(sample.getConnectTime());
-        }
-
-        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
-            text.append(event.getVarValue(i));
-        }
+        return SERIALIZER.get().format(event, sample, saveConfig, delimiter.charAt(0)).toString();
+    }
 
-        return text.toString();
+    /**
+     * Convert a result into the unquoted values of the columns that would be saved in a CSV file,
+     * in the order of {@link #printableFieldNamesToString(SampleSaveConfiguration)}.
+     *
+     * @param event
+     *            the sample event to be converted
+     * @param sample {@link SampleResult} to log
+     * @param saveConfig {@link SampleSaveConfiguration} to use for logging
+     * @return the values of the columns
+     * @since 6.0
+     */
+    public static String[] resultToColumns(SampleEvent event,
+            SampleResult sample,
+            SampleSaveConfiguration saveConfig) {
+        return SERIALIZER.get().columns(event, sample, saveConfig);
     }
 
     // =================================== CSV quote/unquote handling
@@ -1137,26 +1066,52 @@ public final class CSVSaveService {
      */
     public static void saveSampleResult(SampleEvent event, PrintWriter out) {
         SampleSaveConfiguration saveConfiguration = event.getResult().getSaveConfig();
-        String delimiter = saveConfiguration.getDelimiter();
-        String formattedResult = resultToDelimitedString(event, event.getResult(), saveConfiguration, delimiter);
-        out.println(formattedResult);
+        char delimiter = saveConfiguration.getDelimiter().charAt(0);
+        CsvSampleSerializer serializer = SERIALIZER.get();
+        serializer.writeLine(event, event.getResult(), saveConfiguration, delimiter, out);
 
         if(saveConfiguration.saveSubresults()) {
             SampleResult result = event.getResult();
-            saveSubResults(event, out, saveConfiguration, delimiter, result, 0);
+            saveSubResults(event, out, saveConfiguration, serializer, delimiter, result, 0);
+        }
+    }
+
+    /**
+     * Passes the unquoted values of the columns of a result to the consumer, one array per row.
+     * The sub-results get their own rows if they are saved, as in {@link #saveSampleResult(SampleEvent, PrintWriter)}.
+     *
+     * @param event {@link SampleEvent}
+     * @param out receives the values of the columns of each row
+     * @since 6.0
+     */
+    public static void saveSampleResultColumns(SampleEvent event, Consumer<? super String[]> out) {
+        SampleSaveConfiguration saveConfiguration = event.getResult().getSaveConfig();
+        out.accept(resultToColumns(event, event.getResult(), saveConfiguration));
+
+        if(saveConfiguration.saveSubresults()) {
+            saveSubResultColumns(event, out, saveConfiguration, event.getResult(), 0);
+        }
+    }
+
+    private static void saveSubResultColumns(SampleEvent event, Consumer<? super String[]> out,
+            SampleSaveConfiguration saveConfiguration, SampleResult result, int recursionLevel) {
+        if (recursionLevel > 10) {
+            return;
+        }
+        for (SampleResult subResult : result.getSubResults()) {
+            out.accept(resultToColumns(event, subResult, saveConfiguration));
+            saveSubResultColumns(event, out, saveConfiguration, subResult, recursionLevel + 1);
         }
     }
 
     private static void saveSubResults(SampleEvent event, PrintWriter out, SampleSaveConfiguration saveConfiguration,
-            String delimiter, SampleResult result, int recursionLevel) {
+            CsvSampleSerializer serializer, char delimiter, SampleResult result, int recursionLevel) {
         if (recursionLevel > 10) {
             return;
         }
-        String formattedResult;
         for (SampleResult subResult : result.getSubResults()) {
-            formattedResult = resultToDelimitedString(event, subResult, saveConfiguration, delimiter);
-            out.println(formattedResult);
-            saveSubResults(event, out, saveConfiguration, delimiter, subResult, recursionLevel + 1);
+            serializer.writeLine(event, subResult, saveConfiguration, delimiter, out);
+            saveSubResults(event, out, saveConfiguration, serializer, delimiter, subResult, recursionLevel + 1);
         }
     }
 }
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+
+/**
+ * Serializes samples to CSV lines in a reusable buffer, or to the values of their CSV columns.
+ * <p>
+ * The columns to save are computed once per combination of {@link SampleSaveConfiguration} flags,
+ * numbers are appended without creating strings, and the strings that need no quoting are copied as is.
+ * The output is the same as the one of {@link CSVSaveService#resultToDelimitedString(SampleEvent, SampleResult,
+ * SampleSaveConfiguration, String)} before 6.0.
+ * <p>
+ * Not thread safe: {@link CSVSaveService} uses an instance per thread.
+ *
+ * @since 6.0
+ */
+final class CsvSampleSerializer {
+    /** The configurations of a thread rarely differ, plans are replaced in a round-robin fashion beyond that */
+    private static final int MAX_PLANS = 8;
+
+    private static final char QUOTE = CSVSaveService.QUOTING_CHAR;
+
+    /** Columns in the order of the CSV header, see {@link CSVSaveService#printableFieldNamesToString()} */
+    enum Column {
+        TIMESTAMP, ELAPSED, LABEL, RESPONSE_CODE, RESPONSE_MESSAGE, THREAD_NAME, DATA_TYPE, SUCCESS,
+        FAILURE_MESSAGE, BYTES, SENT_BYTES, GROUP_THREADS, ALL_THREADS, URL, FILENAME, LATENCY, ENCODING,
+        SAMPLE_COUNT, ERROR_COUNT, HOSTNAME, IDLE_TIME, CONNECT_TIME, INTENDED_START_TIME
+    }
+
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+    private char delimiter;
+    /** false when the columns are collected unquoted, see {@link #columns} */
+    private boolean quote;
+
+    private final int[] planKeys = new int[MAX_PLANS];
+    private final Column[][] plans = new Column[MAX_PLANS][];
+    private int planCount;
+    private int nextPlan;
+
+    /**
+     * Formats a sample into the reusable buffer.
+     *
+     * @param event      the sample event, provides the host name and the sample variables
+     * @param sample     the sample to format, the event's result or one of its sub-results
+     * @param saveConfig the columns to save
+     * @param delimiter  the separator of the columns
+     * @return the line without line separator, only valid until the next call
+     */
+    CharSequence format(SampleEvent event, SampleResult sample, SampleSaveConfiguration saveConfig,
+            char delimiter) {
+        this.delimiter = delimiter;
+        this.quote = true;
+        line.setLength(0);
+        boolean first = true;
+        for (Column column : plan(saveConfig)) {
+            first = appendColumn(column, first, event, sample, saveConfig);
+        }
+        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+            first = delimit(first);
+            appendQuoted(event.getVarValue(i));
+        }
+        return line;
+    }
+
+    /**
+     * Formats the columns of a sample without quoting them, null values are saved as "null" as in the CSV lines.
+     *
+     * @param event      the sample event, provides the host name and the sample variables
+     * @param sample     the sample to format, the event's result or one of its sub-results
+     * @param saveConfig the columns to save
+     * @return the values of the columns, in the order of the CSV header
+     */
+    String[] columns(SampleEvent event, SampleResult sample, SampleSaveConfiguration saveConfig) {
+        this.quote = false;
+        Column[] plan = plan(saveConfig);
+        List<String> values = new ArrayList<>(plan.length + SampleEvent.getVarCount());
+        for (Column column : plan) {
+            line.setLength(0);
+            if (!appendColumn(column, true, event, sample, saveConfig)) {
+                values.add(line.toString());
+            }
+        }
+        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+            values.add(String.valueOf(event.getVarValue(i)));
+        }
+        return values.toArray(new String[0]);
+    }
+
+    /**
+     * Formats a sample and writes it as a line.
+     *
+     * @param event      the sample event
+     * @param sample     the sample to write
+     * @param saveConfig the columns to save
+     * @param delimiter  the separator of the columns
+     * @param out        the destination
+     */
+    void writeLine(SampleEvent event, SampleResult sample, SampleSaveConfiguration saveConfig,
+            char delimiter, PrintWriter out) {
+        format(event, sample, saveConfig, delimiter);
+        int length = line.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        // Samples are written concurrently by the sampling threads,
+        // and the line must not be separated from its line separator
+        synchronized (out) {
+            out.write(chars, 0, length);
+            out.println();
+        }
+    }
+
+    private boolean delimit(boolean first) {
+        if (!first) {
+            line.append(delimiter);
+        }
+        return false;
+    }
+
+    @SuppressWarnings("JavaUtilDate")
+    private boolean appendColumn(Column column, boolean first, SampleEvent event, SampleResult sample,
+            SampleSaveConfiguration saveConfig) {
+        switch (column) {
+            case TIMESTAMP:
+                if (saveConfig.printMilliseconds()) {
+                    delimit(first);
+                    line.append(sample.getTimeStamp());
+                } else {
+                    FastDateFormat formatter = saveConfig.threadSafeLenientFormatter();
+                    if (formatter == null) {
+                        // No column at all, as before
+                        return first;
+                    }
+                    delimit(first);
+                    appendQuoted(formatter.format(new Date(sample.getTimeStamp())));
+                }
+                break;
+            case ELAPSED:
+                delimit(first);
+                line.append(sample.getTime());
+                break;
+            case LABEL:
+                delimit(first);
+                appendQuoted(sample.getSampleLabel());
+                break;
+            case RESPONSE_CODE:
+                delimit(first);
+                appendQuoted(sample.getResponseCode());
+                break;
+            case RESPONSE_MESSAGE:
+                delimit(first);
+                appendQuoted(sample.getResponseMessage());
+                break;
+            case THREAD_NAME:
+                delimit(first);
+                appendQuoted(sample.getThreadName());
+                break;
+            case DATA_TYPE:
+                delimit(first);
+                appendQuoted(sample.getDataType());
+                break;
+            case SUCCESS:
+                delimit(first);
+                line.append(sample.isSuccessful());
+                break;
+            case FAILURE_MESSAGE:
+                delimit(first);
+                String message = sample.getFirstAssertionFailureMessage();
+                if (message != null) {
+                    appendQuoted(message);
+                }
+                break;
+            case BYTES:
+                delimit(first);
+                line.append(sample.getBytesAsLong());
+                break;
+            case SENT_BYTES:
+                delimit(first);
+                line.append(sample.getSentBytes());
+                break;
+            case GROUP_THREADS:
+                delimit(first);
+                line.append(sample.getGroupThreads());
+                break;
+            case ALL_THREADS:
+                delimit(first);
+                line.append(sample.getAllThreads());
+                break;
+            case URL:
+                delimit(first);
+                appendQuoted(String.valueOf(sample.getURL()));
+                break;
+            case FILENAME:
+                delimit(first);
+                appendQuoted(sample.getResultFileName());
+                break;
+            case LATENCY:
+                delimit(first);
+                line.append(sample.getLatency());
+                break;
+            case ENCODING:
+                delimit(first);
+                appendQuoted(sample.getDataEncodingWithDefault());
+                break;
+            case SAMPLE_COUNT:
+                delimit(first);
+                line.append(sample.getSampleCount());
+                break;
+            case ERROR_COUNT:
+                delimit(first);
+                line.append(sample.getErrorCount());
+                break;
+            case HOSTNAME:
+                delimit(first);
+                appendQuoted(event.getHostname());
+                break;
+            case IDLE_TIME:
+                delimit(first);
+                line.append(sample.getIdleTime());
+                break;
+            case CONNECT_TIME:
+                delimit(first);
+                line.append(sample.getConnectTime());
+                break;
+            case INTENDED_START_TIME:
+                delimit(first);
+                line.append(sample.getIntendedStartTime());
+                break;
+            default:
+                throw new IllegalStateException("Unexpected column " + column);
+        }
+        return false;
+    }
+
+    /**
+     * Appends the value as {@link CSVSaveService#quoteDelimiters(String, char[])} would return it,
+     * without creating a string.
+     */
+    private void appendQuoted(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        int length = value.length();
+        int plain = 0;
+        while (plain < length && !isSpecial(value.charAt(plain))) {
+            plain++;
+        }
+        if (plain == length) {
+            line.append(value);
+            return;
+        }
+        line.append(QUOTE).append(value, 0, plain);
+        for (int i = plain; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+            line.append(c);
+        }
+        line.append(QUOTE);
+    }
+
+    private boolean isSpecial(char c) {
+        return c == delimiter || c == QUOTE || c == '\r' || c == '\n';
+    }
+
+    private Column[] plan(SampleSaveConfiguration saveConfig) {
+        int key = planKey(saveConfig);
+        for (int i = 0; i < planCount; i++) {
+            if (planKeys[i] == key) {
+                return plans[i];
+            }
+        }
+        Column[] plan = buildPlan(key);
+        int slot;
+        if (planCount < MAX_PLANS) {
+            slot = planCount++;
+        } else {
+            slot = nextPlan;
+            nextPlan = (nextPlan + 1) % MAX_PLANS;
+        }
+        planKeys[slot] = key;
+        plans[slot] = plan;
+        return plan;
+    }
+
+    /**
+     * The flags are read for every sample, so a configuration modified between two tests is taken into account.
+     * Reading them is cheap, deciding on each column and formatting it was the expensive part.
+     */
+    static int planKey(SampleSaveConfiguration saveConfig) {
+        int key = 0;
+        key = bit(key, Column.TIMESTAMP, saveConfig.saveTimestamp());
+        key = bit(key, Column.ELAPSED, saveConfig.saveTime());
+        key = bit(key, Column.LABEL, saveConfig.saveLabel());
+        key = bit(key, Column.RESPONSE_CODE, saveConfig.saveCode());
+        key = bit(key, Column.RESPONSE_MESSAGE, saveConfig.saveMessage());
+        key = bit(key, Column.THREAD_NAME, saveConfig.saveThreadName());
+        key = bit(key, Column.DATA_TYPE, saveConfig.saveDataType());
+        key = bit(key, Column.SUCCESS, saveConfig.saveSuccess());
+        key = bit(key, Column.FAILURE_MESSAGE, saveConfig.saveAssertionResultsFailureMessage());
+        key = bit(key, Column.BYTES, saveConfig.saveBytes());
+        key = bit(key, Column.SENT_BYTES, saveConfig.saveSentBytes());
+        key = bit(key, Column.GROUP_THREADS, saveConfig.saveThreadCounts());
+        key = bit(key, Column.ALL_THREADS, saveConfig.saveThreadCounts());
+        key = bit(key, Column.URL, saveConfig.saveUrl());
+        key = bit(key, Column.FILENAME, saveConfig.saveFileName());
+        key = bit(key, Column.LATENCY, saveConfig.saveLatency());
+        key = bit(key, Column.ENCODING, saveConfig.saveEncoding());
+        key = bit(key, Column.SAMPLE_COUNT, saveConfig.saveSampleCount());
+        key = bit(key, Column.ERROR_COUNT, saveConfig.saveSampleCount());
+        key = bit(key, Column.HOSTNAME, saveConfig.saveHostname());
+        key = bit(key, Column.IDLE_TIME, saveConfig.saveIdleTime());
+        key = bit(key, Column.CONNECT_TIME, saveConfig.saveConnectTime());
+        key = bit(key, Column.INTENDED_START_TIME, saveConfig.saveIntendedStartTime());
+        return key;
+    }
+
+    private static int bit(int key, Column column, boolean save) {
+        return save ? key | (1 << column.ordinal()) : key;
+    }
+
+    static Column[] buildPlan(int key) {
+        List<Column> columns = new ArrayList<>();
+        for (Column column : Column.values()) {
+            if ((key & (1 << column.ordinal())) != 0) {
+                columns.add(column);
+            }
+        }
+        return columns.toArray(new Column[0]);
+    }
+
+}
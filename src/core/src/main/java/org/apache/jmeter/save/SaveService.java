@@ -25,6 +25,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
@@ -118,6 +119,15 @@ public class SaveService {
         JMeterUtils.setupXStreamSecurityPolicy(JTLSAVER);
     }
 
+    /** Whether XML result files are written and read without XStream when possible */
+    public static final String XML_STREAMING_PROPERTY = "jmeter.save.saveservice.xml_streaming"; // $NON-NLS-1$
+
+    private static final boolean XML_STREAMING = JMeterUtils.getPropDefault(XML_STREAMING_PROPERTY, true);
+
+    // Reusable sample buffers of the sampling threads
+    private static final ThreadLocal<XmlResultWriter> XML_RESULT_WRITER =
+            ThreadLocal.withInitial(XmlResultWriter::new);
+
     // The XML header, with placeholder for encoding, since that is controlled by property
     private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"<ph>\"?>"; // $NON-NLS-1$
 
@@ -331,24 +341,39 @@ public class SaveService {
     }
 
     /**
-     * Save a sampleResult to an XML output file using XStream.
+     * Save a sampleResult to an XML output file.
+     * <p>
+     * The sample is written by {@link XmlResultWriter} if its classes have an {@link XmlSampleResultHandler}
+     * and {@value #XML_STREAMING_PROPERTY} is not false, and by XStream otherwise.
+     * The output is the same.
      *
      * @param evt sampleResult wrapped in a sampleEvent
      * @param writer output stream which must be created using {@link #getFileEncoding(String)}
      * @throws IOException when writing data to output fails
      */
     // Used by ResultCollector.sampleOccurred(SampleEvent event)
-    public static synchronized void saveSampleResult(SampleEvent evt, Writer writer) throws IOException {
+    public static void saveSampleResult(SampleEvent evt, Writer writer) throws IOException {
+        if (XML_STREAMING && evt.getResult() != null && XML_RESULT_WRITER.get().write(evt, writer)) {
+            return;
+        }
+        saveSampleResultWithXStream(evt, writer);
+    }
+
+    // Also used by the tests of the streaming writer
+    static synchronized void saveSampleResultWithXStream(SampleEvent evt, Writer writer) throws IOException {
         DataHolder dh = JTLSAVER.newDataHolder();
         dh.put(SAMPLE_EVENT_OBJECT, evt);
-        // This is effectively the same as saver.toXML(Object, Writer) except we get to provide the DataHolder
-        // Don't know why there is no method for this in the XStream class
-        try {
-            JTLSAVER.marshal(evt.getResult(), new XppDriver().createWriter(writer), dh);
-        } catch(RuntimeException e) {
-            throw new IllegalArgumentException("Failed marshalling:"+(evt.getResult() != null ? showDebuggingInfo(evt.getResult()) : "null"), e);
+        // The streaming writer writes whole samples to the same writer while holding its lock
+        synchronized (writer) {
+            // This is effectively the same as saver.toXML(Object, Writer) except we get to provide the DataHolder
+            // Don't know why there is no method for this in the XStream class
+            try {
+                JTLSAVER.marshal(evt.getResult(), new XppDriver().createWriter(writer), dh);
+            } catch(RuntimeException e) {
+                throw new IllegalArgumentException("Failed marshalling:"+(evt.getResult() != null ? showDebuggingInfo(evt.getResult()) : "null"), e);
+            }
+            writer.write('\n');
         }
-        writer.write('\n');
     }
 
     /**
@@ -415,6 +440,42 @@ public class SaveService {
         inputStreamReader.close();
     }
 
+    /**
+     * Read results from JTL file with {@link XmlResultReader}, which uses XStream only for the samples
+     * that have no {@link XmlSampleResultHandler}.
+     * If {@value #XML_STREAMING_PROPERTY} is false, this is the same as
+     * {@link #loadTestResults(InputStream, ResultCollectorHelper)}.
+     * <p>
+     * The streaming reader is stricter than XStream: for instance, it rejects the character references
+     * that XStream writes for control characters. The file can be read with
+     * {@link #loadTestResults(InputStream, ResultCollectorHelper)} then.
+     *
+     * @param reader of the file
+     * @param resultCollectorHelper receives the samples
+     * @throws IOException if an I/O error occurs or the file is not valid, the samples read so far have been
+     *                     passed to the helper
+     * @since 6.0
+     */
+    public static void streamTestResults(InputStream reader, ResultCollectorHelper resultCollectorHelper)
+            throws IOException {
+        if (!XML_STREAMING) {
+            loadTestResults(reader, resultCollectorHelper);
+            return;
+        }
+        XmlResultReader.read(reader, resultCollectorHelper::add);
+    }
+
+    /**
+     * Reads an element of a JTL file with XStream.
+     *
+     * @param xml the element
+     * @return the object read
+     */
+    static Object readResultItem(String xml) {
+        DataHolder dh = JTLSAVER.newDataHolder();
+        return JTLSAVER.unmarshal(new XppDriver().createReader(new StringReader(xml)), null, dh);
+    }
+
     /**
      * Load a Test tree (JMX file)
      * @param file the JMX file
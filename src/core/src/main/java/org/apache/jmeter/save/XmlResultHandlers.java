@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jorphan.reflect.ClassFinder;
+import org.apache.jorphan.reflect.LogAndIgnoreServiceLoadExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Registry of the {@link XmlSampleResultHandler}s and of the element names they use.
+ * The names come from {@code saveservice.properties}, so the registry is initialized after {@link SaveService}.
+ */
+final class XmlResultHandlers {
+    private static final Logger log = LoggerFactory.getLogger(XmlResultHandlers.class);
+
+    static final String TAG_RESPONSE_DATA = "responseData"; // $NON-NLS-1$
+    static final String TAG_RESPONSE_FILE = "responseFile"; // $NON-NLS-1$
+    static final String TAG_RESPONSE_HEADER = "responseHeader"; // $NON-NLS-1$
+    static final String TAG_REQUEST_HEADER = "requestHeader"; // $NON-NLS-1$
+    static final String TAG_SAMPLER_DATA = "samplerData"; // $NON-NLS-1$
+
+    /** Written by XStream for a null item */
+    static final String TAG_NULL = "null"; // $NON-NLS-1$
+
+    /** Element names of the reflection converter for {@link AssertionResult} fields */
+    static final String TAG_ASSERTION_NAME = "name"; // $NON-NLS-1$
+    static final String TAG_ASSERTION_FAILURE = "failure"; // $NON-NLS-1$
+    static final String TAG_ASSERTION_ERROR = "error"; // $NON-NLS-1$
+    static final String TAG_ASSERTION_FAILURE_MESSAGE = "failureMessage"; // $NON-NLS-1$
+
+    static final String TAG_ASSERTION_RESULT = XmlResultWriter.encodeName(
+            SaveService.classToAlias(AssertionResult.class.getName()));
+
+    static final String TAG_URL = XmlResultWriter.encodeName(SaveService.classToAlias(URL.class.getName()));
+
+    private static final Map<Class<?>, Entry> BY_CLASS;
+    private static final Map<String, Entry> BY_ELEMENT;
+
+    static {
+        Map<Class<?>, Entry> byClass = new HashMap<>();
+        Map<String, Entry> byElement = new HashMap<>();
+        register(byClass, byElement, new SampleResultHandler());
+        for (XmlSampleResultHandler handler : ClassFinder.loadServices(XmlSampleResultHandler.class,
+                ServiceLoader.load(XmlSampleResultHandler.class),
+                new LogAndIgnoreServiceLoadExceptionHandler(log))) {
+            register(byClass, byElement, handler);
+        }
+        BY_CLASS = Collections.unmodifiableMap(byClass);
+        BY_ELEMENT = Collections.unmodifiableMap(byElement);
+    }
+
+    /**
+     * A handler and the name of the elements of its results.
+     */
+    static final class Entry {
+        final XmlSampleResultHandler handler;
+        final String element;
+
+        Entry(XmlSampleResultHandler handler, String element) {
+            this.handler = handler;
+            this.element = element;
+        }
+    }
+
+    private XmlResultHandlers() {
+    }
+
+    private static void register(Map<Class<?>, Entry> byClass, Map<String, Entry> byElement,
+            XmlSampleResultHandler handler) {
+        String element = XmlResultWriter.encodeName(SaveService.classToAlias(handler.getResultClass().getName()));
+        if (element == null) {
+            log.warn("Ignoring {}: the alias of {} can't be written without XStream",
+                    handler, handler.getResultClass().getName());
+            return;
+        }
+        Entry entry = new Entry(handler, element);
+        byClass.put(handler.getResultClass(), entry);
+        byElement.put(element, entry);
+        log.debug("Results of {} are written as <{}> by {}", handler.getResultClass().getName(), element, handler);
+    }
+
+    /**
+     * @param resultClass class of a result
+     * @return the handler of the class or null if the class is saved with XStream
+     */
+    static Entry forClass(Class<?> resultClass) {
+        return BY_CLASS.get(resultClass);
+    }
+
+    /**
+     * @param element name of an element
+     * @return the handler of the results saved as the element or null if they are read with XStream
+     */
+    static Entry forElement(String element) {
+        return BY_ELEMENT.get(element);
+    }
+
+    /**
+     * Handler of {@link SampleResult}, as {@link org.apache.jmeter.save.converters.SampleResultConverter} does.
+     */
+    private static final class SampleResultHandler implements XmlSampleResultHandler {
+        @Override
+        public Class<? extends SampleResult> getResultClass() {
+            return SampleResult.class;
+        }
+
+        @Override
+        public SampleResult newResult() {
+            return new SampleResult();
+        }
+
+        @Override
+        public void writeSamplerData(XmlResultWriter writer, SampleResult result, SampleSaveConfiguration save) {
+            if (save.saveSamplerData(result)) {
+                writer.writeString(TAG_SAMPLER_DATA, result.getSamplerData());
+            }
+            if (save.saveUrl()) {
+                URL url = result.getURL();
+                if (url != null) {
+                    writer.writeUrl(url);
+                }
+            }
+        }
+
+        @Override
+        public boolean readElement(SampleResult result, String name, String text) {
+            // The URL is not restored
+            return false;
+        }
+    }
+}
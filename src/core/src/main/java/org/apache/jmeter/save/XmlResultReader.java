@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.save.converters.ConversionHelp;
+import org.apache.jorphan.util.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads XML result files with StAX.
+ * <p>
+ * The samples are read as {@link org.apache.jmeter.save.converters.TestResultWrapperConverter} and
+ * {@link org.apache.jmeter.save.converters.SampleResultConverter} read them,
+ * the elements without {@link XmlSampleResultHandler} are read with XStream.
+ */
+final class XmlResultReader {
+    private static final Logger log = LoggerFactory.getLogger(XmlResultReader.class);
+
+    private static final String TAG_TEST_RESULTS = "testResults"; // $NON-NLS-1$
+    private static final String ATT_VERSION = "version"; // $NON-NLS-1$
+
+    // samplerData attributes, as in SampleResultConverter
+    private static final String ATT_BYTES = "by"; //$NON-NLS-1$
+    private static final String ATT_SENT_BYTES = "sby"; //$NON-NLS-1$
+    private static final String ATT_DATA_ENCODING = "de"; //$NON-NLS-1$
+    private static final String ATT_DATA_TYPE = "dt"; //$NON-NLS-1$
+    private static final String ATT_ERROR_COUNT = "ec"; //$NON-NLS-1$
+    private static final String ATT_LABEL = "lb"; //$NON-NLS-1$
+    private static final String ATT_LATENCY = "lt"; //$NON-NLS-1$
+    private static final String ATT_CONNECT_TIME = "ct"; //$NON-NLS-1$
+    private static final String ATT_ALL_THRDS = "na"; //$NON-NLS-1$
+    private static final String ATT_GRP_THRDS = "ng"; //$NON-NLS-1$
+    private static final String ATT_RESPONSE_CODE = "rc"; //$NON-NLS-1$
+    private static final String ATT_RESPONSE_MESSAGE = "rm"; //$NON-NLS-1$
+    private static final String ATT_RESPONSE_CODE_OLD = "rs"; //$NON-NLS-1$
+    private static final String ATT_SUCCESS = "s"; //$NON-NLS-1$
+    private static final String ATT_SAMPLE_COUNT = "sc"; //$NON-NLS-1$
+    private static final String ATT_TIME = "t"; //$NON-NLS-1$
+    private static final String ATT_INTENDED_START = "ist"; //$NON-NLS-1$
+    private static final String ATT_IDLETIME = "it"; //$NON-NLS-1$
+    private static final String ATT_THREADNAME = "tn"; //$NON-NLS-1$
+    private static final String ATT_TIME_STAMP = "ts"; //$NON-NLS-1$
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    private final XMLStreamReader reader;
+
+    private XmlResultReader(XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * Reads the samples of a {@code <testResults>} document.
+     *
+     * @param in      the XML document, its encoding is taken from the XML declaration
+     * @param samples receives the samples in the order of the file
+     * @throws IOException if the file can't be read or is not a valid XML document,
+     *                     the samples read so far have been passed to the consumer
+     */
+    static void read(InputStream in, Consumer<? super SampleResult> samples) throws IOException {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            new XmlResultReader(reader).readTestResults(samples);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML result file: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) { // NOSONAR the read error matters more
+                    log.debug("Error closing XML reader", e);
+                }
+            }
+        }
+    }
+
+    private void readTestResults(Consumer<? super SampleResult> samples) throws XMLStreamException {
+        reader.nextTag();
+        if (!TAG_TEST_RESULTS.equals(reader.getLocalName())) {
+            throw new XMLStreamException("Expected <" + TAG_TEST_RESULTS + "> but got <"
+                    + reader.getLocalName() + ">", reader.getLocation());
+        }
+        String version = reader.getAttributeValue(null, ATT_VERSION);
+        if (version == null || version.isEmpty()) {
+            version = "1.0"; //$NON-NLS-1$
+        }
+        ConversionHelp.setInVersion(version); // Make sure decoding follows input file
+        while (nextChild()) {
+            XmlResultHandlers.Entry entry = XmlResultHandlers.forElement(reader.getLocalName());
+            Object item = entry != null ? readSample(entry) : readWithXStream();
+            if (item instanceof SampleResult) {
+                samples.accept((SampleResult) item);
+            }
+        }
+    }
+
+    /**
+     * Moves to the next child of the current element.
+     *
+     * @return true if positioned on the start of a child, false if positioned on the end of the current element
+     */
+    private boolean nextChild() throws XMLStreamException {
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+            if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the current element, the nested elements are skipped.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = null;
+        String first = "";
+        int depth = 0;
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (depth == 0) {
+                        return text == null ? first : text.toString();
+                    }
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (depth == 0) {
+                        if (text == null && first.isEmpty()) {
+                            first = reader.getText();
+                        } else {
+                            if (text == null) {
+                                text = new StringBuilder(first);
+                            }
+                            text.append(reader.getText());
+                        }
+                    }
+                    break;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+                default:
+                    break;
+            }
+        }
+    }
+
+    private SampleResult readSample(XmlResultHandlers.Entry entry) throws XMLStreamException {
+        SampleResult res = entry.handler.newResult();
+        readAttributes(res);
+        while (nextChild()) {
+            String name = reader.getLocalName();
+            XmlResultHandlers.Entry subEntry = XmlResultHandlers.forElement(name);
+            if (subEntry != null) {
+                res.storeSubResult(readSample(subEntry), false);
+            } else if (name.equals(XmlResultHandlers.TAG_ASSERTION_RESULT)) {
+                res.addAssertionResult(readAssertion());
+            } else if (name.equals(XmlResultHandlers.TAG_RESPONSE_HEADER)) {
+                res.setResponseHeaders(readText());
+            } else if (name.equals(XmlResultHandlers.TAG_REQUEST_HEADER)) {
+                res.setRequestHeaders(readText());
+            } else if (name.equals(XmlResultHandlers.TAG_RESPONSE_DATA)) {
+                readResponseData(res, readText());
+            } else if (name.equals(XmlResultHandlers.TAG_SAMPLER_DATA)) {
+                res.setSamplerData(readText());
+            } else if (name.equals(XmlResultHandlers.TAG_RESPONSE_FILE)) {
+                res.setResultFileName(readText());
+            } else {
+                readOtherElement(entry, res, name);
+            }
+        }
+        // If we have a file, but no data, then read the file
+        String resultFileName = res.getResultFileName();
+        if (!resultFileName.isEmpty() && res.getResponseData().length == 0) {
+            readFile(resultFileName, res);
+        }
+        return res;
+    }
+
+    private void readAttributes(SampleResult res) {
+        res.setSampleLabel(ConversionHelp.decode(attribute(ATT_LABEL)));
+        res.setDataEncoding(ConversionHelp.decode(attribute(ATT_DATA_ENCODING)));
+        res.setDataType(ConversionHelp.decode(attribute(ATT_DATA_TYPE)));
+        String oldrc = attribute(ATT_RESPONSE_CODE_OLD);
+        if (oldrc != null) {
+            res.setResponseCode(ConversionHelp.decode(oldrc));
+        } else {
+            res.setResponseCode(ConversionHelp.decode(attribute(ATT_RESPONSE_CODE)));
+        }
+        res.setResponseMessage(ConversionHelp.decode(attribute(ATT_RESPONSE_MESSAGE)));
+        res.setSuccessful(Converter.getBoolean(attribute(ATT_SUCCESS), true));
+        res.setThreadName(ConversionHelp.decode(attribute(ATT_THREADNAME)));
+        res.setStampAndTime(Converter.getLong(attribute(ATT_TIME_STAMP)),
+                Converter.getLong(attribute(ATT_TIME)));
+        res.setIdleTime(Converter.getLong(attribute(ATT_IDLETIME)));
+        res.setLatency(Converter.getLong(attribute(ATT_LATENCY)));
+        res.setConnectTime(Converter.getLong(attribute(ATT_CONNECT_TIME)));
+        res.setIntendedStartTime(Converter.getLong(attribute(ATT_INTENDED_START)));
+        res.setBytes(Converter.getLong(attribute(ATT_BYTES)));
+        res.setSentBytes(Converter.getLong(attribute(ATT_SENT_BYTES)));
+        res.setSampleCount(Converter.getInt(attribute(ATT_SAMPLE_COUNT), 1)); // default is 1
+        res.setErrorCount(Converter.getInt(attribute(ATT_ERROR_COUNT), 0)); // default is 0
+        res.setGroupThreads(Converter.getInt(attribute(ATT_GRP_THRDS)));
+        res.setAllThreads(Converter.getInt(attribute(ATT_ALL_THRDS)));
+    }
+
+    private String attribute(String name) {
+        return reader.getAttributeValue(null, name);
+    }
+
+    private static void readResponseData(SampleResult res, String responseData) {
+        if (!responseData.isEmpty()) {
+            final String dataEncoding = res.getDataEncodingWithDefault();
+            try {
+                res.setResponseData(responseData.getBytes(dataEncoding));
+            } catch (UnsupportedEncodingException e) {
+                res.setResponseData("Can't support the char set: " + dataEncoding, null);
+                res.setDataType(SampleResult.TEXT);
+            }
+        }
+    }
+
+    /**
+     * Reads an {@link AssertionResult} as XStream's reflection converter does.
+     */
+    private AssertionResult readAssertion() throws XMLStreamException {
+        String name = null;
+        boolean failure = false;
+        boolean error = false;
+        String failureMessage = null;
+        while (nextChild()) {
+            String field = reader.getLocalName();
+            String value = readText();
+            if (field.equals(XmlResultHandlers.TAG_ASSERTION_NAME)) {
+                name = value;
+            } else if (field.equals(XmlResultHandlers.TAG_ASSERTION_FAILURE)) {
+                failure = Boolean.parseBoolean(value);
+            } else if (field.equals(XmlResultHandlers.TAG_ASSERTION_ERROR)) {
+                error = Boolean.parseBoolean(value);
+            } else if (field.equals(XmlResultHandlers.TAG_ASSERTION_FAILURE_MESSAGE)) {
+                failureMessage = value;
+            }
+        }
+        AssertionResult assertionResult = new AssertionResult(name);
+        assertionResult.setFailure(failure);
+        assertionResult.setError(error);
+        assertionResult.setFailureMessage(failureMessage);
+        return assertionResult;
+    }
+
+    /**
+     * Passes a text element to the handler, or reads a structured element with XStream.
+     */
+    private void readOtherElement(XmlResultHandlers.Entry entry, SampleResult res, String name)
+            throws XMLStreamException {
+        StringWriter xml = new StringWriter();
+        StringBuilder text = new StringBuilder();
+        boolean structured = copyElement(xml, text);
+        if (!structured) {
+            entry.handler.readElement(res, name, text.toString());
+            return;
+        }
+        Object item = SaveService.readResultItem(xml.toString());
+        if (item instanceof SampleResult) {
+            res.storeSubResult((SampleResult) item, false);
+        } else if (item instanceof AssertionResult) {
+            res.addAssertionResult((AssertionResult) item);
+        }
+    }
+
+    private Object readWithXStream() throws XMLStreamException {
+        StringWriter xml = new StringWriter();
+        copyElement(xml, new StringBuilder());
+        return SaveService.readResultItem(xml.toString());
+    }
+
+    /**
+     * Copies the current element.
+     *
+     * @param xml  receives the element
+     * @param text receives the text directly contained in the element
+     * @return true if the element contains other elements
+     */
+    private boolean copyElement(StringWriter xml, StringBuilder text) throws XMLStreamException {
+        XMLStreamWriter writer = OUTPUT_FACTORY.createXMLStreamWriter(xml);
+        boolean structured = false;
+        int depth = 0;
+        try {
+            while (true) {
+                switch (reader.getEventType()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (depth > 0) {
+                            structured = true;
+                        }
+                        depth++;
+                        writer.writeStartElement(reader.getLocalName());
+                        for (int i = 0; i < reader.getAttributeCount(); i++) {
+                            writer.writeAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        writer.writeEndElement();
+                        depth--;
+                        if (depth == 0) {
+                            return structured;
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        writer.writeCharacters(reader.getText());
+                        if (depth == 1) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_DOCUMENT:
+                        throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+                    default:
+                        break;
+                }
+                reader.next();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void readFile(String resultFileName, SampleResult res) {
+        try {
+            res.setResponseData(Files.readAllBytes(Paths.get(resultFileName)));
+        } catch (IOException e) {
+            log.warn("Failed to read result file.", e);
+        }
+    }
+}
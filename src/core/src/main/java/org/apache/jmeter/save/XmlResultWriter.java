@@ -0,0 +1,457 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URL;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.converters.ConversionHelp;
+import org.apiguardian.api.API;
+
+/**
+ * Writes samples to XML result files without XStream.
+ * <p>
+ * The output is the same as the one of the XStream converters
+ * ({@link org.apache.jmeter.save.converters.SampleResultConverter} and the converters of the subclasses),
+ * including the indentation and the escaping of XStream's {@code PrettyPrintWriter}.
+ * A sample is written only if its class, the classes of its sub-results and of its assertion results
+ * have an {@link XmlSampleResultHandler}, {@link SaveService} uses XStream otherwise.
+ * <p>
+ * Not thread safe: {@link SaveService} uses an instance per thread.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public final class XmlResultWriter {
+    // samplerData attributes, as in SampleResultConverter
+    private static final String ATT_BYTES = "by"; //$NON-NLS-1$
+    private static final String ATT_SENT_BYTES = "sby"; //$NON-NLS-1$
+    private static final String ATT_DATA_ENCODING = "de"; //$NON-NLS-1$
+    private static final String ATT_DATA_TYPE = "dt"; //$NON-NLS-1$
+    private static final String ATT_ERROR_COUNT = "ec"; //$NON-NLS-1$
+    private static final String ATT_HOSTNAME = "hn"; //$NON-NLS-1$
+    private static final String ATT_LABEL = "lb"; //$NON-NLS-1$
+    private static final String ATT_LATENCY = "lt"; //$NON-NLS-1$
+    private static final String ATT_CONNECT_TIME = "ct"; //$NON-NLS-1$
+    private static final String ATT_ALL_THRDS = "na"; //$NON-NLS-1$
+    private static final String ATT_GRP_THRDS = "ng"; //$NON-NLS-1$
+    private static final String ATT_RESPONSE_CODE = "rc"; //$NON-NLS-1$
+    private static final String ATT_RESPONSE_MESSAGE = "rm"; //$NON-NLS-1$
+    private static final String ATT_SUCCESS = "s"; //$NON-NLS-1$
+    private static final String ATT_SAMPLE_COUNT = "sc"; //$NON-NLS-1$
+    private static final String ATT_TIME = "t"; //$NON-NLS-1$
+    private static final String ATT_INTENDED_START = "ist"; //$NON-NLS-1$
+    private static final String ATT_IDLETIME = "it"; //$NON-NLS-1$
+    private static final String ATT_THREADNAME = "tn"; //$NON-NLS-1$
+    private static final String ATT_TIME_STAMP = "ts"; //$NON-NLS-1$
+
+    private static final String ATT_CLASS = "class"; //$NON-NLS-1$
+    private static final String JAVA_LANG_STRING = "java.lang.String"; //$NON-NLS-1$
+
+    private static final int INDENT_CAPACITY = 16;
+
+    /** A large response should not stay in memory once written */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private StringBuilder out = new StringBuilder(1024);
+    private char[] chars = new char[1024];
+
+    // State of XStream's PrettyPrintWriter
+    private String[] elements = new String[INDENT_CAPACITY];
+    private int depth;
+    private boolean tagInProgress;
+    private boolean readyForNewLine;
+    private boolean tagIsEmpty;
+
+    XmlResultWriter() {
+    }
+
+    /**
+     * Writes a sample followed by a line feed, as {@link SaveService#saveSampleResult(SampleEvent, Writer)} does.
+     *
+     * @param event  the sample event
+     * @param writer the destination
+     * @return false if the sample must be written with XStream, nothing has been written then
+     * @throws IOException if the sample can't be written
+     */
+    boolean write(SampleEvent event, Writer writer) throws IOException {
+        SampleResult result = event.getResult();
+        out.setLength(0);
+        depth = 0;
+        tagInProgress = false;
+        readyForNewLine = false;
+        tagIsEmpty = false;
+        try {
+            if (!writeSample(event, result, result.getSaveConfig())) {
+                return false;
+            }
+            out.append('\n');
+            int length = out.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            out.getChars(0, length, chars, 0);
+            // The samples of the sampling threads must not be mixed up
+            synchronized (writer) {
+                writer.write(chars, 0, length);
+            }
+            return true;
+        } finally {
+            if (out.capacity() > MAX_RETAINED_CAPACITY) {
+                out = new StringBuilder(1024);
+                chars = new char[1024];
+            }
+        }
+    }
+
+    private boolean writeSample(SampleEvent event, SampleResult res, SampleSaveConfiguration save) {
+        XmlResultHandlers.Entry entry = XmlResultHandlers.forClass(res.getClass());
+        if (entry == null) {
+            return false;
+        }
+        startNode(entry.element);
+        if (!writeAttributes(event, res, save)) {
+            return false;
+        }
+        if (save.saveAssertions()) {
+            for (AssertionResult assertionResult : res.getAssertionResults()) {
+                if (assertionResult.getClass() != AssertionResult.class) {
+                    return false;
+                }
+                writeAssertion(assertionResult);
+            }
+        }
+        if (save.saveSubresults()) {
+            for (SampleResult subResult : res.getSubResults()) {
+                subResult.setSaveConfig(save);
+                if (!writeSample(event, subResult, save)) {
+                    return false;
+                }
+            }
+        }
+        if (save.saveResponseHeaders()) {
+            writeString(XmlResultHandlers.TAG_RESPONSE_HEADER, res.getResponseHeaders());
+        }
+        if (save.saveRequestHeaders()) {
+            writeString(XmlResultHandlers.TAG_REQUEST_HEADER, res.getRequestHeaders());
+        }
+        if (save.saveResponseData(res)) {
+            startNode(XmlResultHandlers.TAG_RESPONSE_DATA);
+            addAttribute(ATT_CLASS, JAVA_LANG_STRING);
+            try {
+                if (SampleResult.TEXT.equals(res.getDataType())) {
+                    setValue(new String(res.getResponseData(), res.getDataEncodingWithDefault()));
+                } else {
+                    setValue("Non-TEXT response data, cannot record: (" + res.getDataType() + ")");
+                }
+            } catch (UnsupportedEncodingException e) {
+                setValue("Unsupported encoding in response data, cannot record: " + e);
+            }
+            endNode();
+        }
+        if (save.saveFileName()) {
+            startNode(XmlResultHandlers.TAG_RESPONSE_FILE);
+            addAttribute(ATT_CLASS, JAVA_LANG_STRING);
+            setValue(res.getResultFileName());
+            endNode();
+        }
+        entry.handler.writeSamplerData(this, res, save);
+        endNode();
+        return true;
+    }
+
+    private boolean writeAttributes(SampleEvent event, SampleResult res, SampleSaveConfiguration save) {
+        if (save.saveTime()) {
+            addAttribute(ATT_TIME, res.getTime());
+        }
+        if (save.saveIdleTime()) {
+            addAttribute(ATT_IDLETIME, res.getIdleTime());
+        }
+        if (save.saveLatency()) {
+            addAttribute(ATT_LATENCY, res.getLatency());
+        }
+        if (save.saveConnectTime()) {
+            addAttribute(ATT_CONNECT_TIME, res.getConnectTime());
+        }
+        if (save.saveIntendedStartTime()) {
+            addAttribute(ATT_INTENDED_START, res.getIntendedStartTime());
+        }
+        if (save.saveTimestamp()) {
+            addAttribute(ATT_TIME_STAMP, res.getTimeStamp());
+        }
+        if (save.saveSuccess()) {
+            addAttribute(ATT_SUCCESS, Boolean.toString(res.isSuccessful()));
+        }
+        if (save.saveLabel()) {
+            addAttribute(ATT_LABEL, ConversionHelp.encode(res.getSampleLabel()));
+        }
+        if (save.saveCode()) {
+            addAttribute(ATT_RESPONSE_CODE, ConversionHelp.encode(res.getResponseCode()));
+        }
+        if (save.saveMessage()) {
+            addAttribute(ATT_RESPONSE_MESSAGE, ConversionHelp.encode(res.getResponseMessage()));
+        }
+        if (save.saveThreadName()) {
+            addAttribute(ATT_THREADNAME, ConversionHelp.encode(res.getThreadName()));
+        }
+        if (save.saveDataType()) {
+            addAttribute(ATT_DATA_TYPE, ConversionHelp.encode(res.getDataType()));
+        }
+        if (save.saveEncoding()) {
+            addAttribute(ATT_DATA_ENCODING, ConversionHelp.encode(res.getDataEncodingNoDefault()));
+        }
+        if (save.saveBytes()) {
+            addAttribute(ATT_BYTES, res.getBytesAsLong());
+        }
+        if (save.saveSentBytes()) {
+            addAttribute(ATT_SENT_BYTES, res.getSentBytes());
+        }
+        if (save.saveSampleCount()) {
+            addAttribute(ATT_SAMPLE_COUNT, res.getSampleCount());
+            addAttribute(ATT_ERROR_COUNT, res.getErrorCount());
+        }
+        if (save.saveThreadCounts()) {
+            addAttribute(ATT_GRP_THRDS, res.getGroupThreads());
+            addAttribute(ATT_ALL_THRDS, res.getAllThreads());
+        }
+        if (save.saveHostname()) {
+            addAttribute(ATT_HOSTNAME, event.getHostname());
+        }
+        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+            String name = encodeName(SampleEvent.getVarName(i));
+            if (name == null) {
+                return false;
+            }
+            addAttribute(name, ConversionHelp.encode(event.getVarValue(i)));
+        }
+        return true;
+    }
+
+    /**
+     * Writes an {@link AssertionResult} as XStream's reflection converter does: the non-null fields in their order.
+     */
+    private void writeAssertion(AssertionResult assertionResult) {
+        startNode(XmlResultHandlers.TAG_ASSERTION_RESULT);
+        if (assertionResult.getName() != null) {
+            writeValue(XmlResultHandlers.TAG_ASSERTION_NAME, assertionResult.getName());
+        }
+        writeValue(XmlResultHandlers.TAG_ASSERTION_FAILURE, Boolean.toString(assertionResult.isFailure()));
+        writeValue(XmlResultHandlers.TAG_ASSERTION_ERROR, Boolean.toString(assertionResult.isError()));
+        if (assertionResult.getFailureMessage() != null) {
+            writeValue(XmlResultHandlers.TAG_ASSERTION_FAILURE_MESSAGE, assertionResult.getFailureMessage());
+        }
+        endNode();
+    }
+
+    private void writeValue(String tag, String value) {
+        startNode(tag);
+        setValue(value);
+        endNode();
+    }
+
+    /**
+     * Writes a string element with a {@code class} attribute, as {@code SampleResultConverter#writeString} does.
+     *
+     * @param tag   the name of the element
+     * @param value the text of the element, nothing is written if it is null
+     */
+    public void writeString(String tag, String value) {
+        if (value != null) {
+            startNode(tag);
+            addAttribute(ATT_CLASS, JAVA_LANG_STRING);
+            setValue(value);
+            endNode();
+        }
+    }
+
+    /**
+     * Writes an URL as XStream does.
+     *
+     * @param url the URL, an empty {@code null} element is written if it is null
+     */
+    public void writeUrl(URL url) {
+        if (url == null) {
+            startNode(XmlResultHandlers.TAG_NULL);
+        } else {
+            startNode(XmlResultHandlers.TAG_URL);
+            setValue(url.toString());
+        }
+        endNode();
+    }
+
+    // PrettyPrintWriter
+
+    private void startNode(String name) {
+        tagIsEmpty = false;
+        finishTag();
+        out.append('<').append(name);
+        if (depth == elements.length) {
+            String[] newElements = new String[depth * 2];
+            System.arraycopy(elements, 0, newElements, 0, depth);
+            elements = newElements;
+        }
+        elements[depth++] = name;
+        tagInProgress = true;
+        readyForNewLine = true;
+        tagIsEmpty = true;
+    }
+
+    private void addAttribute(String name, String value) {
+        out.append(' ').append(name).append("=\"");
+        appendEscaped(value, true);
+        out.append('"');
+    }
+
+    private void addAttribute(String name, long value) {
+        out.append(' ').append(name).append("=\"").append(value).append('"');
+    }
+
+    private void setValue(String text) {
+        readyForNewLine = false;
+        tagIsEmpty = false;
+        finishTag();
+        appendEscaped(text, false);
+    }
+
+    private void endNode() {
+        depth--;
+        if (tagIsEmpty) {
+            out.append('/');
+            readyForNewLine = false;
+            finishTag();
+        } else {
+            finishTag();
+            out.append("</").append(elements[depth]).append('>');
+        }
+        elements[depth] = null;
+        readyForNewLine = true;
+    }
+
+    private void finishTag() {
+        if (tagInProgress) {
+            out.append('>');
+        }
+        tagInProgress = false;
+        if (readyForNewLine) {
+            out.append('\n');
+            for (int i = 0; i < depth; i++) {
+                out.append("  ");
+            }
+        }
+        readyForNewLine = false;
+        tagIsEmpty = false;
+    }
+
+    private void appendEscaped(String text, boolean isAttribute) {
+        int length = text.length();
+        int plain = 0;
+        while (plain < length && !needsEscape(text.charAt(plain), isAttribute)) {
+            plain++;
+        }
+        out.append(text, 0, plain);
+        for (int i = plain; i < length; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\0':
+                    out.append("&#x0;");
+                    break;
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '"':
+                    out.append("&quot;");
+                    break;
+                case '\'':
+                    out.append("&apos;");
+                    break;
+                case '\r':
+                    out.append("&#xd;");
+                    break;
+                default:
+                    if (needsEscape(c, isAttribute)) {
+                        out.append("&#x").append(Integer.toHexString(c)).append(';');
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * Same rules as PrettyPrintWriter in quirks mode: tabs and line feeds are kept in texts only,
+     * and undefined or control characters are written as character references.
+     */
+    private static boolean needsEscape(char c, boolean isAttribute) {
+        if (c >= 0x20 && c < 0x7f) {
+            return c == '&' || c == '<' || c == '>' || c == '"' || c == '\'';
+        }
+        if (c == '\t' || c == '\n') {
+            return isAttribute;
+        }
+        return !Character.isDefined(c) || Character.isISOControl(c);
+    }
+
+    /**
+     * Encodes a name as XStream's {@code XmlFriendlyNameCoder} does.
+     *
+     * @param name the name of an element or an attribute
+     * @return the encoded name, or null if the encoding is left to XStream
+     */
+    static String encodeName(String name) {
+        boolean plain = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '$' || c == '_' || c <= 27 || c >= 127) {
+                plain = false;
+                break;
+            }
+        }
+        if (plain) {
+            return name;
+        }
+        StringBuilder encoded = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '$') {
+                encoded.append("_-");
+            } else if (c == '_') {
+                encoded.append("__");
+            } else if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z'
+                    || i > 0 && (c >= '0' && c <= '9' || c == '-' || c == '.')) {
+                encoded.append(c);
+            } else {
+                // Rare characters that XStream escapes with their code
+                return null;
+            }
+        }
+        return encoded.toString();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apiguardian.api.API;
+
+/**
+ * Writes and reads the XML elements of a {@link SampleResult} subclass, so {@link SaveService#saveSampleResult}
+ * and {@link SaveService#streamTestResults} save and load its results without XStream.
+ * <p>
+ * The written elements must be the same as the ones of the XStream converter of the class.
+ * The element name of the results is the alias of the class in {@code saveservice.properties}.
+ * Implementations are found with {@link java.util.ServiceLoader}, the results of the classes that have no handler
+ * are saved and loaded with XStream.
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.EXPERIMENTAL, since = "6.0")
+public interface XmlSampleResultHandler {
+
+    /**
+     * @return the class of the results handled, subclasses are not handled
+     */
+    Class<? extends SampleResult> getResultClass();
+
+    /**
+     * @return a new result to fill with the attributes and the elements read from a file
+     */
+    SampleResult newResult();
+
+    /**
+     * Writes the elements that follow the response data.
+     * For a plain {@link SampleResult}, these are the sampler data and the URL.
+     *
+     * @param writer the writer of the sample
+     * @param result the result to write
+     * @param save   the configuration of the saved fields
+     */
+    void writeSamplerData(XmlResultWriter writer, SampleResult result, SampleSaveConfiguration save);
+
+    /**
+     * Reads an element that {@link SampleResult} does not know.
+     *
+     * @param result the result being read
+     * @param name   the name of the element
+     * @param text   the text of the element
+     * @return true if the element was handled, the element is ignored otherwise
+     */
+    boolean readElement(SampleResult result, String name, String text);
+}
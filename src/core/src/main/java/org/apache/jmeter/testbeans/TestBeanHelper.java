@@ -21,25 +21,39 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
 
 import org.apache.jmeter.testbeans.gui.GenericTestBeanCustomizer;
 import org.apache.jmeter.testbeans.gui.TableEditor;
 import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.testelement.property.BooleanProperty;
 import org.apache.jmeter.testelement.property.CollectionProperty;
 import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jmeter.testelement.property.MultiProperty;
 import org.apache.jmeter.testelement.property.NullProperty;
+import org.apache.jmeter.testelement.property.NumberProperty;
+import org.apache.jmeter.testelement.property.StringProperty;
 import org.apache.jmeter.testelement.property.TestElementProperty;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.util.Converter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 /**
  * This is an experimental class. An attempt to address the complexity of
  * writing new JMeter components.
@@ -53,6 +67,14 @@ import org.slf4j.LoggerFactory;
 public class TestBeanHelper {
     protected static final Logger log = LoggerFactory.getLogger(TestBeanHelper.class);
 
+    /**
+     * Whether {@link #prepare(TestElement)} skips the properties that have not changed since the previous call.
+     * It is disabled by default, since the beans that modify their own fields between two samples
+     * rely on the properties being applied again.
+     */
+    private static final boolean SKIP_UNCHANGED =
+            JMeterUtils.getPropDefault("testbeanhelper.skip_unchanged_properties", false); // $NON-NLS-1$
+
     /**
      * This class extracts information from {@link CachedPropertyDescriptor} in such a way so it
      * does not need to synchronize.
@@ -73,14 +95,41 @@ public class TestBeanHelper {
          * @see PropertyDescriptor#getPropertyType()
          */
         final Class<?> propertyType;
+        /**
+         * Calls {@link #writeMethod} without reflection.
+         */
+        final BiConsumer<Object, Object> setter;
 
         CachedPropertyDescriptor(PropertyDescriptor descriptor) {
             this.descriptor = descriptor;
             this.writeMethod = descriptor.getWriteMethod();
             this.propertyType = descriptor.getPropertyType();
+            this.setter = createSetter(writeMethod, propertyType);
+        }
+    }
+
+    /**
+     * Values that {@link #prepare(TestElement)} has applied to a bean, indexed like {@link #GOOD_PROPS}.
+     */
+    private static final class PreparedState {
+        final JMeterProperty[] properties;
+        final Object[] values;
+
+        PreparedState(int size) {
+            properties = new JMeterProperty[size];
+            values = new Object[size];
         }
     }
 
+    /**
+     * Values applied to the beans when {@link #SKIP_UNCHANGED} is enabled.
+     * The entries go away with the test elements.
+     */
+    private static final Cache<TestElement, PreparedState> PREPARED_STATES =
+            Caffeine.newBuilder()
+                    .weakKeys() // So test elements are compared using identity == rather than .equals
+                    .build();
+
     /**
      * Cache property information, so preparing test elements does not need to perform reflective and
      * synchronization again.
@@ -126,20 +175,40 @@ public class TestBeanHelper {
      * @param el the TestElement to be prepared
      */
     public static void prepare(TestElement el) {
+        prepare(el, SKIP_UNCHANGED);
+    }
+
+    /**
+     * Prepare the bean for work by populating the bean's properties from the
+     * property value map.
+     *
+     * @param el            the TestElement to be prepared
+     * @param skipUnchanged true to skip the properties that have not changed since the previous call
+     */
+    static void prepare(TestElement el, boolean skipUnchanged) {
         if (!(el instanceof TestBean)) {
             return;
         }
-        // Avoid allocating array for every method call
-        Object[] tmp = new Object[1];
+        List<CachedPropertyDescriptor> descriptors = GOOD_PROPS.get(el.getClass());
+        PreparedState state = skipUnchanged ? getPreparedState(el, descriptors.size()) : null;
         try {
-            for (CachedPropertyDescriptor desc : GOOD_PROPS.get(el.getClass())) {
+            for (int i = 0; i < descriptors.size(); i++) {
+                CachedPropertyDescriptor desc = descriptors.get(i);
                 // Obtain a value of the appropriate type for this property.
                 Class<?> type = desc.propertyType;
 
                 JMeterProperty jprop;
+                Object rawValue = null;
                 Object value;
                 try {
                     jprop = el.getProperty(desc.descriptor.getName());
+                    if (state != null && isReusable(jprop)) {
+                        rawValue = jprop.getObjectValue();
+                        if (state.properties[i] == jprop && Objects.equals(state.values[i], rawValue)) {
+                            // The bean already has the value
+                            continue;
+                        }
+                    }
                     value = unwrapProperty(desc.descriptor, jprop, type);
                 } catch (OutOfMemoryError | StackOverflowError e) {
                     throw e;
@@ -161,9 +230,12 @@ public class TestBeanHelper {
                 // Set the bean's property to the value we just obtained:
                 // We can't assign null to primitive types.
                 if (value != null || !type.isPrimitive()) {
-                    Method writeMethod = desc.writeMethod;
-                    tmp[0] = value;
-                    invokeOrBailOut(el, writeMethod, tmp);
+                    setOrBailOut(el, desc, value);
+                }
+                if (state != null) {
+                    boolean reusable = isReusable(jprop);
+                    state.properties[i] = reusable ? jprop : null;
+                    state.values[i] = reusable ? rawValue : null;
                 }
             }
         } catch (UnsatisfiedLinkError ule) { // Can occur running headless on Jenkins
@@ -172,6 +244,24 @@ public class TestBeanHelper {
         }
     }
 
+    private static PreparedState getPreparedState(TestElement el, int size) {
+        return PREPARED_STATES.get(el, key -> new PreparedState(size));
+    }
+
+    /**
+     * Checks if the bean value for the property can be reused while the property is not modified.
+     * Only the properties with immutable values qualify: functions must be evaluated every time,
+     * and collections and elements are converted to new objects.
+     *
+     * @param jprop property to check
+     * @return true if the converted value depends only on the property value
+     */
+    private static boolean isReusable(JMeterProperty jprop) {
+        return jprop instanceof StringProperty
+                || jprop instanceof NumberProperty
+                || jprop instanceof BooleanProperty;
+    }
+
     private static Object unwrapProperty(PropertyDescriptor desc, JMeterProperty jprop, Class<?> type) {
         Object value;
         if(jprop instanceof TestElementProperty)
@@ -216,6 +306,83 @@ public class TestBeanHelper {
         return null;
     }
 
+    /**
+     * Creates a function that calls the setter without reflection.
+     * <p>
+     * {@link LambdaMetafactory} produces the fastest call, however, the generated class refers
+     * the bean class by name, so it is used only when the classes are visible from JMeter core.
+     * Otherwise, the setter uses a {@link MethodHandle}, and it falls back to reflection
+     * if the method is not accessible.
+     *
+     * @param writeMethod  the setter of the property
+     * @param propertyType the type of the property
+     * @return the function that sets the property value to the bean
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(Method writeMethod, Class<?> propertyType) {
+        MethodHandle handle;
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            handle = lookup.unreflect(writeMethod);
+        } catch (IllegalAccessException e) {
+            log.debug("Using reflection to call {}", writeMethod, e);
+            return (bean, value) -> invokeOrBailOut(bean, writeMethod, value);
+        }
+        Class<?> beanType = writeMethod.getDeclaringClass();
+        Class<?> valueType = MethodType.methodType(propertyType).wrap().returnType();
+        if (isVisible(beanType) && isVisible(valueType)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(
+                        lookup,
+                        "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        handle,
+                        MethodType.methodType(void.class, beanType, valueType));
+                return (BiConsumer<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug("Unable to generate setter for {}, will use method handle", writeMethod, e);
+            }
+        }
+        MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return (bean, value) -> {
+            try {
+                setter.invokeExact(bean, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, TestBeanHelper.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Utility method that sets the property value and does the error handling around
+     * the invocation.
+     *
+     * @param invokee the bean
+     * @param desc    the property to set
+     * @param value   the value of the property
+     */
+    private static void setOrBailOut(Object invokee, CachedPropertyDescriptor desc, Object value) {
+        try {
+            desc.setter.accept(invokee, value);
+        } catch (UndeclaredThrowableException e) {
+            throw new Error(createMessage(invokee, desc.writeMethod, value), e.getCause());
+        } catch (Exception e) {
+            // ClassCastException for inappropriate type, or an exception thrown by the setter
+            throw new Error(createMessage(invokee, desc.writeMethod, value), e);
+        }
+    }
+
     /**
      * Utility method that invokes a method and does the error handling around
      * the invocation.
@@ -224,35 +391,32 @@ public class TestBeanHelper {
      *            the object on which the method should be invoked
      * @param method
      *            the method which should be invoked
-     * @param params
-     *            the parameters for the method
-     * @return the result of the method invocation.
+     * @param value
+     *            the parameter for the method
      */
-    private static Object invokeOrBailOut(Object invokee, Method method, Object[] params) {
+    private static void invokeOrBailOut(Object invokee, Method method, Object value) {
         try {
-            return method.invoke(invokee, params);
+            method.invoke(invokee, value);
         } catch (IllegalArgumentException | IllegalAccessException e) {
-            throw new Error(createMessage(invokee, method, params), e);
+            throw new Error(createMessage(invokee, method, value), e);
         } catch (InvocationTargetException e) {
-            throw new Error(createMessage(invokee, method, params), e.getCause());
+            throw new Error(createMessage(invokee, method, value), e.getCause());
         }
     }
 
-    private static String createMessage(Object invokee, Method method, Object[] params){
+    private static String createMessage(Object invokee, Method method, Object value){
         StringBuilder sb = new StringBuilder();
         sb.append("This should never happen. Tried to invoke:\n");
         sb.append(invokee.getClass().getName());
         sb.append("#");
         sb.append(method.getName());
         sb.append("(");
-        for(Object o : params) {
-            if (o != null) {
-                sb.append(o.getClass().getSimpleName());
-                sb.append(' ');
-            }
-            sb.append(o);
+        if (value != null) {
+            sb.append(value.getClass().getSimpleName());
             sb.append(' ');
         }
+        sb.append(value);
+        sb.append(' ');
         sb.append(")");
         return sb.toString();
     }
@@ -17,6 +17,10 @@
 
 package org.apache.jmeter.testelement;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -27,12 +31,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.jmeter.engine.util.NoThreadClone;
 import org.apache.jmeter.gui.Searchable;
+import org.apache.jmeter.testelement.property.AbstractProperty;
 import org.apache.jmeter.testelement.property.BooleanProperty;
 import org.apache.jmeter.testelement.property.CollectionProperty;
+import org.apache.jmeter.testelement.property.DoubleProperty;
+import org.apache.jmeter.testelement.property.FloatProperty;
 import org.apache.jmeter.testelement.property.IntegerProperty;
 import org.apache.jmeter.testelement.property.JMeterProperty;
 import org.apache.jmeter.testelement.property.LongProperty;
@@ -43,6 +51,7 @@ import org.apache.jmeter.testelement.property.PropertyIterator;
 import org.apache.jmeter.testelement.property.PropertyIteratorImpl;
 import org.apache.jmeter.testelement.property.StringProperty;
 import org.apache.jmeter.testelement.property.TestElementProperty;
+import org.apache.jmeter.testelement.schema.PropertyDescriptor;
 import org.apache.jmeter.threads.AbstractThreadGroup;
 import org.apache.jmeter.threads.JMeterContext;
 import org.apache.jmeter.threads.JMeterContextService;
@@ -59,7 +68,16 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     private static final Logger log = LoggerFactory.getLogger(AbstractTestElement.class);
 
     /**
-     * Protects access to {@link #propMap} and {@link #temporaryProperties} when the element is shared across threads.
+     * The serialized form stores all the properties in {@code propMap}, as it did before
+     * the properties declared in the schema were moved to {@link #schemaProps}.
+     */
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("propMap", Map.class)
+    };
+
+    /**
+     * Protects access to {@link #schemaProps}, {@link #propMap} and {@link #temporaryProperties}
+     * when the element is shared across threads.
      * The assumption is that the properties are not changed during a test run, so read locks are used
      * to allow concurrent reads.
      * Note: acquiring locks (read or write) allocates memory, and accesses {@link ThreadLocal}, so it can be expensive
@@ -109,12 +127,23 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     }
 
     /**
+     * Properties declared in the {@link #getSchema() schema}, indexed by {@link TestElementSchema#slotOf(String)}.
+     * The slots of the unset properties are {@code null}, and the array is allocated with the first property,
+     * so the elements do not pay a map entry for the well-known properties, and the getters that use
+     * a {@link PropertyDescriptor} find the property without hashing its name.
+     * The size of the array never changes, so the properties can be read without locks,
+     * and the updates use {@link #lock} just like {@link #propMap}.
+     */
+    private transient volatile AtomicReferenceArray<JMeterProperty> schemaProps;
+
+    /**
+     * Properties that are not declared in the {@link #getSchema() schema}.
      * When the element is shared between threads, then {@link #lock} protects the access,
      * however, when element in not shared, then adds overhead as every lock and unlock allocates memory.
      * So in case of cloned-per-thread elements, we use {@link Collections#synchronizedMap(Map)} instead.
      */
     @GuardedBy("lock")
-    private final Map<String, JMeterProperty> propMap =
+    private transient Map<String, JMeterProperty> propMap =
             lock != null
                     ? new LinkedHashMap<>()
                     : Collections.synchronizedMap(new LinkedHashMap<>());
@@ -164,7 +193,9 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
             }
             PropertyIterator iter = propertyIterator();
             while (iter.hasNext()) {
-                clonedElement.setProperty(iter.next().clone());
+                JMeterProperty property = iter.next();
+                // Properties of a frozen template are immutable, so the clones can reuse them
+                clonedElement.setProperty(isShared(property) ? property : property.clone());
             }
             clonedElement.setRunningVersion(runningVersion);
             return clonedElement;
@@ -179,6 +210,12 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     @Override
     public void clear() {
         try (ResourceLock ignored = writeLock()) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            if (slots != null) {
+                for (int i = 0; i < slots.length(); i++) {
+                    slots.set(i, null);
+                }
+            }
             propMap.clear();
             Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
             if (propMapConcurrent != null) {
@@ -223,6 +260,14 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     @Override
     public void removeProperty(String key) {
         try (ResourceLock ignored = writeLock()) {
+            int slot = getSchema().slotOf(key);
+            if (slot >= 0) {
+                AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+                if (slots != null) {
+                    slots.set(slot, null);
+                }
+                return;
+            }
             propMap.remove(key);
             Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
             if (propMapConcurrent != null) {
@@ -237,8 +282,18 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     @Override
     public boolean equals(Object o) {
         if (o instanceof AbstractTestElement) {
+            AbstractTestElement other = (AbstractTestElement) o;
             try (ResourceLock ignored = readLock()) {
-                return ((AbstractTestElement) o).propMap.equals(propMap);
+                List<JMeterProperty> properties = propertyList();
+                if (properties.size() != other.propertyList().size()) {
+                    return false;
+                }
+                for (JMeterProperty property : properties) {
+                    if (!property.equals(other.getStoredProperty(property.getName()))) {
+                        return false;
+                    }
+                }
+                return true;
             }
         } else {
             return false;
@@ -250,7 +305,12 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
      */
     @Override
     public int hashCode() {
-        return propMap.hashCode();
+        // Same as the hash code of a map of the properties
+        int hash = 0;
+        for (JMeterProperty property : propertyList()) {
+            hash += property.getName().hashCode() ^ property.hashCode();
+        }
+        return hash;
     }
 
     /*
@@ -316,6 +376,37 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     @Override
     @API(status = API.Status.EXPERIMENTAL, since = "5.6")
     public JMeterProperty getPropertyOrNull(String key) {
+        return getStoredProperty(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The properties declared in the {@link #getSchema() schema} are read from an array
+     * indexed by {@link TestElementSchema#slotOf(PropertyDescriptor)}.
+     * @since 6.0
+     */
+    @Override
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public JMeterProperty getPropertyOrNull(PropertyDescriptor<?, ?> property) {
+        int slot = getSchema().slotOf(property);
+        if (slot >= 0) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            return slots == null ? null : slots.get(slot);
+        }
+        return getAdHocProperty(property.getName());
+    }
+
+    private JMeterProperty getStoredProperty(String key) {
+        int slot = getSchema().slotOf(key);
+        if (slot >= 0) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            return slots == null ? null : slots.get(slot);
+        }
+        return getAdHocProperty(key);
+    }
+
+    private JMeterProperty getAdHocProperty(String key) {
         Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
         if (propMapConcurrent != null) {
             return propMapConcurrent.get(key);
@@ -324,6 +415,60 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
         return propMap.get(key);
     }
 
+    /**
+     * Stores the property in its schema slot, or in the map if the schema does not declare it.
+     * The caller must hold the write lock.
+     */
+    private void storeProperty(String key, JMeterProperty property) {
+        TestElementSchema schema = getSchema();
+        int slot = schema.slotOf(key);
+        if (slot >= 0) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            if (slots == null) {
+                slots = allocateSchemaProps(schema);
+            }
+            slots.set(slot, property);
+            return;
+        }
+        propMap.put(key, property);
+        Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
+        if (propMapConcurrent != null) {
+            propMapConcurrent.put(key, property);
+        }
+    }
+
+    private AtomicReferenceArray<JMeterProperty> allocateSchemaProps(TestElementSchema schema) {
+        // Cloned-per-thread elements do not take the write lock, so they use the monitor of propMap
+        synchronized (propMap) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            if (slots == null) {
+                slots = new AtomicReferenceArray<>(schema.getSlotCount());
+                schemaProps = slots;
+            }
+            return slots;
+        }
+    }
+
+    /**
+     * Returns a copy of the properties: the ones declared in the schema in the schema order,
+     * then the other ones in the order they were added.
+     */
+    private List<JMeterProperty> propertyList() {
+        AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+        List<JMeterProperty> properties = new ArrayList<>(propMap.size() + (slots == null ? 0 : slots.length()));
+        if (slots != null) {
+            for (int i = 0; i < slots.length(); i++) {
+                JMeterProperty property = slots.get(i);
+                if (property != null) {
+                    properties.add(property);
+                }
+            }
+        }
+        // toArray is atomic for the synchronized map
+        properties.addAll(propMap.values());
+        return properties;
+    }
+
     @Override
     public void traverse(TestElementTraverser traverser) {
         try (ResourceLock ignored = readLock()) {
@@ -434,11 +579,7 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
 
         if (prop instanceof NullProperty || (prop instanceof StringProperty && prop.getStringValue().isEmpty())) {
             try (ResourceLock ignored = writeLock()) {
-                propMap.put(property.getName(), propertyToPut);
-                Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
-                if (propMapConcurrent != null) {
-                    propMapConcurrent.put(property.getName(), propertyToPut);
-                }
+                storeProperty(property.getName(), propertyToPut);
             }
         } else {
             prop.mergeIn(propertyToPut);
@@ -484,10 +625,14 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     @Override
     public void setProperty(JMeterProperty property) {
         if (isRunningVersion()) {
-            if (getProperty(property.getName()) instanceof NullProperty) {
+            JMeterProperty existing = getProperty(property.getName());
+            if (existing instanceof NullProperty) {
                 addProperty(property);
             } else {
-                getProperty(property.getName()).setObjectValue(property.getObjectValue());
+                if (isShared(existing)) {
+                    existing = unshare(existing);
+                }
+                existing.setObjectValue(property.getObjectValue());
             }
         } else {
             try (ResourceLock ignored = writeLock()) {
@@ -496,11 +641,7 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
                     // the test plan
                     removeProperty(property.getName());
                 } else {
-                    propMap.put(property.getName(), property);
-                    Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
-                    if (propMapConcurrent != null) {
-                        propMapConcurrent.put(property.getName(), property);
-                    }
+                    storeProperty(property.getName(), property);
                 }
             }
         }
@@ -606,15 +747,22 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The properties declared in the {@link #getSchema() schema} come first, in the order of the schema,
+     * then the other properties in the order they were added.
+     * The iterator works on a copy of the properties, so the element can be modified during the iteration.
+     */
     @Override
     public PropertyIterator propertyIterator() {
         // Note: can't use ConcurrentMap here as it would return elements in unpredictable order
         try (ResourceLock ignored = readLock()) {
-            if (propMap.isEmpty()) {
+            List<JMeterProperty> properties = propertyList();
+            if (properties.isEmpty()) {
                 return PropertyIteratorImpl.EMPTY_ITERATOR;
             }
-            // TODO: copy the contents of the iterator to avoid ConcurrentModificationException?
-            return new PropertyIteratorImpl(this, propMap.values());
+            return new PropertyIteratorImpl(this, properties);
         }
     }
 
@@ -650,15 +798,16 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
     public void setRunningVersion(boolean runningVersion) {
         try (ResourceLock ignored = writeLock()) {
             this.runningVersion = runningVersion;
-            PropertyIterator iter = propertyIterator();
-            Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
-            while (iter.hasNext()) {
-                JMeterProperty property = iter.next();
-                property.setRunningVersion(runningVersion);
-                if (propMapConcurrent != null) {
-                    propMapConcurrent.put(property.getName(), property);
+            for (JMeterProperty property : propertyList()) {
+                // Shared properties keep the running version state of the template
+                if (!isShared(property)) {
+                    property.setRunningVersion(runningVersion);
                 }
             }
+            Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
+            if (propMapConcurrent != null) {
+                propMapConcurrent.putAll(propMap);
+            }
         }
     }
 
@@ -673,14 +822,33 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
             return;
         }
         try (ResourceLock ignored = writeLock()) {
+            AtomicReferenceArray<JMeterProperty> slots = schemaProps;
+            if (slots != null) {
+                for (int i = 0; i < slots.length(); i++) {
+                    JMeterProperty prop = slots.get(i);
+                    if (prop == null) {
+                        continue;
+                    }
+                    if (isTemporary(prop)) {
+                        slots.set(i, null);
+                        clearTemporary(prop);
+                    } else if (!isShared(prop)) {
+                        prop.recoverRunningVersion(this);
+                    }
+                }
+            }
+            Map<String, JMeterProperty> propMapConcurrent = this.propMapConcurrent;
             Iterator<Map.Entry<String, JMeterProperty>> iter = propMap.entrySet().iterator();
             while (iter.hasNext()) {
                 Map.Entry<String, JMeterProperty> entry = iter.next();
                 JMeterProperty prop = entry.getValue();
                 if (isTemporary(prop)) {
                     iter.remove();
+                    if (propMapConcurrent != null) {
+                        propMapConcurrent.remove(entry.getKey());
+                    }
                     clearTemporary(prop);
-                } else {
+                } else if (!isShared(prop)) {
                     prop.recoverRunningVersion(this);
                 }
             }
@@ -688,6 +856,62 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
         }
     }
 
+    private static boolean isShared(JMeterProperty property) {
+        return property instanceof AbstractProperty && ((AbstractProperty) property).isSharedBetweenThreads();
+    }
+
+    /**
+     * Replaces a shared property with a private copy, so the copy can be modified.
+     * The copy remembers the template value, so {@link #recoverRunningVersion()} restores it.
+     */
+    private JMeterProperty unshare(JMeterProperty shared) {
+        JMeterProperty copy = shared.clone();
+        copy.setRunningVersion(isRunningVersion());
+        try (ResourceLock ignored = writeLock()) {
+            storeProperty(copy.getName(), copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Marks the immutable properties of the element (strings, numbers and booleans without functions)
+     * as shared, so the clones of the element reuse them instead of copying.
+     * Nested elements from {@link TestElementProperty} are processed as well.
+     * <p>
+     * The element becomes a frozen template: it must not be used for anything but cloning after this call.
+     * The clones copy a shared property on the first modification.
+     * Elements that implement {@link NoThreadClone} are not cloned per thread, so they are left as is.
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public void shareImmutableProperties() {
+        if (this instanceof NoThreadClone) {
+            return;
+        }
+        try (ResourceLock ignored = readLock()) {
+            for (JMeterProperty property : propertyList()) {
+                if (isImmutableValue(property)) {
+                    ((AbstractProperty) property).markSharedBetweenThreads();
+                } else if (property instanceof TestElementProperty) {
+                    Object value = property.getObjectValue();
+                    if (value instanceof AbstractTestElement) {
+                        ((AbstractTestElement) value).shareImmutableProperties();
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isImmutableValue(JMeterProperty property) {
+        // Exact classes: subclasses might keep additional state, and FunctionProperty is evaluated per thread
+        Class<?> type = property.getClass();
+        return type == StringProperty.class
+                || type == BooleanProperty.class
+                || type == IntegerProperty.class
+                || type == LongProperty.class
+                || type == FloatProperty.class
+                || type == DoubleProperty.class;
+    }
+
     /**
      * Clears temporaryProperties
      */
@@ -793,6 +1017,29 @@ public abstract class AbstractTestElement implements TestElement, Serializable,
         super();
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, JMeterProperty> properties = new LinkedHashMap<>();
+        try (ResourceLock ignored = readLock()) {
+            for (JMeterProperty property : propertyList()) {
+                properties.put(property.getName(), property);
+            }
+        }
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("propMap", properties);
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        @SuppressWarnings("unchecked")
+        Map<String, JMeterProperty> properties = (Map<String, JMeterProperty>) fields.get("propMap", null);
+        // Transient fields are not initialized, so the element is not shared between threads (see lock)
+        propMap = Collections.synchronizedMap(new LinkedHashMap<>());
+        if (properties != null) {
+            properties.forEach(this::storeProperty);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -25,6 +25,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.jmeter.testelement.TestElement;
+import org.apiguardian.api.API;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +39,12 @@ public abstract class AbstractProperty implements JMeterProperty {
 
     private transient boolean runningVersion = false;
 
+    /**
+     * The property belongs to a frozen template, and the per-thread clones of the owner element reuse it
+     * instead of cloning. Such a property must not be modified.
+     */
+    private transient boolean sharedBetweenThreads = false;
+
     protected AbstractProperty(String name) {
         if (name == null) {
             throw new IllegalArgumentException("Name cannot be null");
@@ -87,6 +94,27 @@ public abstract class AbstractProperty implements JMeterProperty {
         return new PropertyIteratorImpl(values);
     }
 
+    /**
+     * Returns true if the property is reused by the per-thread clones of its owner element.
+     * Such properties must be copied before modification.
+     *
+     * @return true if the property is shared between threads
+     * @see org.apache.jmeter.testelement.AbstractTestElement#shareImmutableProperties()
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public boolean isSharedBetweenThreads() {
+        return sharedBetweenThreads;
+    }
+
+    /**
+     * Marks the property as reused by the per-thread clones of its owner element.
+     * There's no way back: the property must not be modified after this call.
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public void markSharedBetweenThreads() {
+        sharedBetweenThreads = true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public AbstractProperty clone() {
@@ -94,6 +122,8 @@ public abstract class AbstractProperty implements JMeterProperty {
             AbstractProperty prop = (AbstractProperty) super.clone();
             prop.name = name;
             prop.runningVersion = runningVersion;
+            // The copy is owned by a single element, so it can be modified
+            prop.sharedBetweenThreads = false;
             return prop;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError(e); // clone should never return null
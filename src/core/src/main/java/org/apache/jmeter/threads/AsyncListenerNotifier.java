@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.threads;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.samplers.AsyncSampleListener;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.BoundedMpscQueue;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes sample events on dedicated listener threads, so slow listeners do not delay the sampling threads.
+ * <p>
+ * Only {@link AsyncSampleListener}s are notified asynchronously, the other listeners are notified
+ * in the calling thread as {@link ListenerNotifier} does.
+ * Every listener is bound to a single listener thread, so each listener receives events in the order
+ * they were published. All the {@link ResultCollector}s are bound to the same listener thread.
+ * Sampling threads only pay for publishing to a {@link BoundedMpscQueue}.
+ * <p>
+ * When the queue of a listener thread is full, the configured {@link Backpressure} decides what to do.
+ * <p>
+ * Thread safe class
+ *
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public class AsyncListenerNotifier extends ListenerNotifier {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncListenerNotifier.class);
+
+    /** Whether the engine should use {@link AsyncListenerNotifier} */
+    public static final String ASYNC_PROPERTY = "listener.notifier.async"; // $NON-NLS-1$
+
+    /** Number of listener threads */
+    public static final String THREADS_PROPERTY = "listener.notifier.async.threads"; // $NON-NLS-1$
+
+    /** Capacity of the queue of each listener thread */
+    public static final String QUEUE_SIZE_PROPERTY = "listener.notifier.async.queue_size"; // $NON-NLS-1$
+
+    /** What to do when the queue is full, see {@link Backpressure} */
+    public static final String BACKPRESSURE_PROPERTY = "listener.notifier.async.backpressure"; // $NON-NLS-1$
+
+    /** Directory for the spill files */
+    public static final String SPILL_DIRECTORY_PROPERTY = "listener.notifier.async.spill_directory"; // $NON-NLS-1$
+
+    /** How long an idle listener thread sleeps before it checks the queue again */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /** How long a sampling thread waits before it retries publishing to a full queue */
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Maximum number of events read from a spill file at once */
+    private static final int SPILL_READ_BATCH = 1024;
+
+    /**
+     * Action to take when the queue of a listener thread is full.
+     */
+    public enum Backpressure {
+        /** The sampling thread waits till the queue has free space */
+        BLOCK,
+        /** The event is dropped, and the number of dropped events is logged at the end of the test */
+        DROP,
+        /** The event is written to a temporary file, and it is delivered once the queue is drained */
+        SPILL
+    }
+
+    private final Backpressure backpressure;
+
+    private final transient File spillDirectory;
+
+    private final transient Lane[] lanes;
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final LongAdder spilledEvents = new LongAdder();
+
+    private volatile boolean stopped;
+
+    /**
+     * @return true if the engine should use asynchronous listener notification
+     */
+    public static boolean isEnabled() {
+        return JMeterUtils.getPropDefault(ASYNC_PROPERTY, false);
+    }
+
+    /**
+     * Creates the notifier with the settings from JMeter properties.
+     */
+    public AsyncListenerNotifier() {
+        this(
+                JMeterUtils.getPropDefault(THREADS_PROPERTY, 1),
+                JMeterUtils.getPropDefault(QUEUE_SIZE_PROPERTY, 65536),
+                Backpressure.valueOf(
+                        JMeterUtils.getPropDefault(BACKPRESSURE_PROPERTY, Backpressure.BLOCK.name())
+                                .trim().toUpperCase(Locale.ROOT)),
+                new File(JMeterUtils.getPropDefault(SPILL_DIRECTORY_PROPERTY, System.getProperty("java.io.tmpdir"))));
+    }
+
+    /**
+     * @param threads        number of listener threads
+     * @param queueSize      capacity of the queue of each listener thread
+     * @param backpressure   action to take when a queue is full
+     * @param spillDirectory directory for the temporary files when {@link Backpressure#SPILL} is used
+     */
+    public AsyncListenerNotifier(int threads, int queueSize, Backpressure backpressure, File spillDirectory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of listener threads must be positive, got " + threads);
+        }
+        this.backpressure = backpressure;
+        this.spillDirectory = spillDirectory;
+        this.lanes = new Lane[threads];
+        for (int i = 0; i < threads; i++) {
+            lanes[i] = new Lane(queueSize, "ListenerNotifier-" + (i + 1));
+        }
+        log.info("Started {} listener thread(s) with queue size {} and backpressure {}",
+                threads, lanes[0].queue.capacity(), backpressure);
+    }
+
+    @Override
+    public void notifyListeners(SampleEvent res, List<SampleListener> listeners) {
+        for (SampleListener sampleListener : listeners) {
+            if (stopped || !(sampleListener instanceof AsyncSampleListener)) {
+                notifyListener(res, sampleListener);
+            } else {
+                laneOf(sampleListener).publish(new Delivery(res, sampleListener));
+            }
+        }
+    }
+
+    /**
+     * Delivers the pending events and stops the listener threads.
+     * The events that are published after this call are processed in the calling thread.
+     */
+    @Override
+    public void shutdown() {
+        stopped = true;
+        for (Lane lane : lanes) {
+            LockSupport.unpark(lane.thread);
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting for {} to deliver pending events", lane.thread.getName());
+                return;
+            }
+        }
+        long dropped = droppedEvents.sum();
+        if (dropped > 0) {
+            log.warn("{} sample event(s) were dropped since listener queue was full. Consider increasing {} or {}",
+                    dropped, QUEUE_SIZE_PROPERTY, THREADS_PROPERTY);
+        }
+        long spilled = spilledEvents.sum();
+        if (spilled > 0) {
+            log.info("{} sample event(s) were spilled to disk since listener queue was full", spilled);
+        }
+    }
+
+    /**
+     * @return number of events dropped with {@link Backpressure#DROP}
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * @return number of events written to disk with {@link Backpressure#SPILL}
+     */
+    public long getSpilledEvents() {
+        return spilledEvents.sum();
+    }
+
+    private Lane laneOf(SampleListener listener) {
+        // ResultCollectors set their save configuration on the shared SampleResult before writing it,
+        // so they must be notified one after another as the synchronous notifier does
+        if (lanes.length == 1 || listener instanceof ResultCollector) {
+            return lanes[0];
+        }
+        int hash = System.identityHashCode(listener);
+        hash ^= hash >>> 16;
+        return lanes[(hash & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    private static final class Delivery {
+        final SampleEvent event;
+        final SampleListener listener;
+
+        Delivery(SampleEvent event, SampleListener listener) {
+            this.event = event;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Queue and the thread that drains it.
+     * Once a queue overflows with {@link Backpressure#SPILL}, all further events go to the spill file until
+     * the consumer catches up, so the events of a listener are delivered in order.
+     */
+    private final class Lane implements Runnable {
+        private final BoundedMpscQueue<Delivery> queue;
+        private final Thread thread;
+        private volatile boolean consumerParked;
+        private volatile boolean spilling;
+
+        private final ReentrantLock spillLock = new ReentrantLock();
+        // The fields below are guarded by spillLock
+        private final Map<SampleListener, Integer> spillListenerIds = new IdentityHashMap<>();
+        private final List<SampleListener> spillListeners = new ArrayList<>();
+        private File spillFile;
+        private ObjectOutputStream spillOut;
+        private ObjectInputStream spillIn;
+        private long spillWritten;
+        private long spillRead;
+
+        Lane(int queueSize, String name) {
+            this.queue = new BoundedMpscQueue<>(queueSize);
+            this.thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void publish(Delivery delivery) {
+            if (spilling && spill(delivery, false)) {
+                return;
+            }
+            while (!queue.offer(delivery)) {
+                if (backpressure == Backpressure.DROP) {
+                    droppedEvents.increment();
+                    return;
+                }
+                if (backpressure == Backpressure.SPILL && spill(delivery, true)) {
+                    return;
+                }
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            }
+            if (consumerParked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Delivery> batch = new ArrayList<>();
+            while (true) {
+                Delivery delivery = queue.poll();
+                if (delivery != null) {
+                    notifyListener(delivery.event, delivery.listener);
+                    continue;
+                }
+                if (spilling) {
+                    readSpill(batch);
+                    if (!batch.isEmpty()) {
+                        for (Delivery spilled : batch) {
+                            notifyListener(spilled.event, spilled.listener);
+                        }
+                        batch.clear();
+                        continue;
+                    }
+                }
+                if (stopped && queue.isEmpty() && !spilling) {
+                    return;
+                }
+                consumerParked = true;
+                if (queue.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+            }
+        }
+
+        /**
+         * Writes the event to the spill file.
+         *
+         * @param delivery event to write
+         * @param start    true if spilling should start when it is not active yet
+         * @return true if the event was consumed (spilled or dropped due to an I/O error)
+         */
+        private boolean spill(Delivery delivery, boolean start) {
+            spillLock.lock();
+            try {
+                if (!spilling && !start) {
+                    return false;
+                }
+                if (spillOut == null) {
+                    spillFile = File.createTempFile("jmeter-listener-", ".spill", spillDirectory);
+                    spillFile.deleteOnExit();
+                    spillOut = new ObjectOutputStream(
+                            new BufferedOutputStream(Files.newOutputStream(spillFile.toPath())));
+                    log.info("Listener queue of {} is full, spilling sample events to {}", thread.getName(), spillFile);
+                }
+                Integer listenerId = spillListenerIds.get(delivery.listener);
+                if (listenerId == null) {
+                    listenerId = spillListeners.size();
+                    spillListeners.add(delivery.listener);
+                    spillListenerIds.put(delivery.listener, listenerId);
+                }
+                spillOut.writeInt(listenerId);
+                spillOut.writeObject(delivery.event);
+                // Do not keep references to the written events
+                spillOut.reset();
+                spillWritten++;
+                spilledEvents.increment();
+                spilling = true;
+                return true;
+            } catch (IOException e) {
+                log.error("Unable to spill sample event to {}, the event is dropped", spillFile, e);
+                droppedEvents.increment();
+                return true;
+            } finally {
+                spillLock.unlock();
+            }
+        }
+
+        /**
+         * Reads the next events from the spill file.
+         * Spilling ends when the consumer has read all the spilled events and the queue is empty.
+         *
+         * @param batch receives the events
+         */
+        private void readSpill(List<Delivery> batch) {
+            spillLock.lock();
+            try {
+                if (spillRead == spillWritten) {
+                    if (queue.isEmpty()) {
+                        closeSpill();
+                    }
+                    return;
+                }
+                spillOut.flush();
+                if (spillIn == null) {
+                    spillIn = new ObjectInputStream(
+                            new BufferedInputStream(Files.newInputStream(spillFile.toPath())));
+                }
+                while (spillRead < spillWritten && batch.size() < SPILL_READ_BATCH) {
+                    SampleListener listener = spillListeners.get(spillIn.readInt());
+                    SampleEvent event = (SampleEvent) spillIn.readObject();
+                    spillRead++;
+                    batch.add(new Delivery(event, listener));
+                }
+            } catch (IOException | ClassNotFoundException e) {
+                long lost = spillWritten - spillRead;
+                log.error("Unable to read spilled sample events from {}, {} event(s) are lost", spillFile, lost, e);
+                droppedEvents.add(lost);
+                closeSpill();
+            } finally {
+                spillLock.unlock();
+            }
+        }
+
+        private void closeSpill() {
+            spilling = false;
+            spillWritten = 0;
+            spillRead = 0;
+            spillListeners.clear();
+            spillListenerIds.clear();
+            try {
+                if (spillIn != null) {
+                    spillIn.close();
+                }
+                if (spillOut != null) {
+                    spillOut.close();
+                }
+            } catch (IOException e) {
+                log.warn("Unable to close spill file {}", spillFile, e);
+            } finally {
+                spillIn = null;
+                spillOut = null;
+                if (spillFile != null) {
+                    try {
+                        Files.deleteIfExists(spillFile.toPath());
+                    } catch (IOException e) {
+                        log.warn("Unable to delete spill file {}", spillFile, e);
+                    }
+                    spillFile = null;
+                }
+            }
+        }
+    }
+}
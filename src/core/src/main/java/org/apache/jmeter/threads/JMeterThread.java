@@ -20,7 +20,6 @@ package org.apache.jmeter.threads;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
@@ -48,6 +47,7 @@ import org.apache.jmeter.testelement.TestElement;
 import org.apache.jmeter.testelement.TestIterationListener;
 import org.apache.jmeter.testelement.ThreadListener;
 import org.apache.jmeter.threads.JMeterContext.TestLogicalAction;
+import org.apache.jmeter.timers.ScheduledTimer;
 import org.apache.jmeter.timers.Timer;
 import org.apache.jmeter.timers.TimerService;
 import org.apache.jmeter.util.JMeterUtils;
@@ -148,6 +148,12 @@ public class JMeterThread implements Runnable, Interruptible {
 
     private volatile Sampler currentSamplerForInterruption;
 
+    /**
+     * How late the current sample is compared to the schedule of {@link ScheduledTimer}s,
+     * -1 if the sample has no schedule.
+     */
+    private long scheduleLag = -1;
+
     private final ReentrantLock interruptLock = new ReentrantLock(); // ensure that interrupt cannot overlap with shutdown
 
     public JMeterThread(HashTree test, JMeterThreadMonitor monitor, ListenerNotifier note) {
@@ -568,6 +574,9 @@ public class JMeterThread implements Runnable, Interruptible {
         if (running) {
             Sampler sampler = pack.getSampler();
             result = doSampling(threadContext, sampler);
+            if (result != null && scheduleLag >= 0 && result.getStartTime() > 0) {
+                result.setIntendedStartTime(result.getStartTime() - scheduleLag);
+            }
         }
         // If we got any results, then perform processing on the result
         if (result != null) {
@@ -995,9 +1004,13 @@ public class JMeterThread implements Runnable, Interruptible {
      */
     private void delay(List<? extends Timer> timers) {
         long totalDelay = 0;
+        scheduleLag = -1;
         for (Timer timer : timers) {
             TestBeanHelper.prepare((TestElement) timer);
             long delay = timer.delay();
+            if (timer instanceof ScheduledTimer) {
+                updateScheduleLag((ScheduledTimer) timer, delay);
+            }
             if (APPLY_TIMER_FACTOR && timer.isModifiable()) {
                 if (log.isDebugEnabled()) {
                     log.debug("Applying TIMER_FACTOR:{} on timer:{} for thread:{}", TIMER_FACTOR,
@@ -1019,7 +1032,7 @@ public class JMeterThread implements Runnable, Interruptible {
                         return;
                     }
                 }
-                TimeUnit.MILLISECONDS.sleep(totalDelay);
+                TIMER_SERVICE.sleep(totalDelay);
             } catch (InterruptedException e) {
                 log.warn("The delay timer was interrupted - probably did not wait as long as intended.");
                 Thread.currentThread().interrupt();
@@ -1027,6 +1040,19 @@ public class JMeterThread implements Runnable, Interruptible {
         }
     }
 
+    /**
+     * Computes how late the sample starts compared to the schedule of the timer.
+     * Other timers are not counted as lag, since they delay the intended start time as well.
+     */
+    private void updateScheduleLag(ScheduledTimer timer, long delay) {
+        long intendedStartTime = timer.getIntendedStartTime();
+        if (intendedStartTime <= 0) {
+            return;
+        }
+        long lag = Math.max(0, System.currentTimeMillis() + delay - intendedStartTime);
+        scheduleLag = Math.max(scheduleLag, lag);
+    }
+
     void notifyTestListeners() {
         threadVars.incIteration();
         for (TestIterationListener listener : testIterationStartListeners) {
@@ -1042,6 +1068,15 @@ public class JMeterThread implements Runnable, Interruptible {
         notifier.notifyListeners(event, listeners);
     }
 
+    /**
+     * Lets the thread reuse the structure of the test tree computed once for its thread group.
+     *
+     * @param plan the plan of the tree the test tree of the thread was cloned from
+     */
+    void setCompilerPlan(TestCompilerPlan plan) {
+        compiler.setPlan(plan);
+    }
+
     /**
      * Set rampup delay for JMeterThread Thread
      *
@@ -1076,7 +1111,7 @@ public class JMeterThread implements Runnable, Interruptible {
                     pause = togo;
                 }
                 try {
-                    TimeUnit.MILLISECONDS.sleep(pause); // delay between checks
+                    TIMER_SERVICE.sleep(pause); // delay between checks
                 } catch (InterruptedException e) {
                     if (running) { // NOSONAR running may have been changed from another thread
                         log.warn("{} delay for {} was interrupted. Waited {} milli-seconds out of {}", type, threadName,
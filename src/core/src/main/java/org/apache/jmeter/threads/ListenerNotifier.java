@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
  * Processes sample events. <br>
  * The current implementation processes events in the calling thread
  * using {@link #notifyListeners(SampleEvent, List)} <br>
+ * See {@link AsyncListenerNotifier} for the implementation that uses dedicated listener threads. <br>
  * Thread safe class
  */
 public class ListenerNotifier implements Serializable {
@@ -53,14 +54,36 @@ public class ListenerNotifier implements Serializable {
      */
     public void notifyListeners(SampleEvent res, List<SampleListener> listeners) {
         for (SampleListener sampleListener : listeners) {
-            try {
-                TestBeanHelper.prepare((TestElement) sampleListener);
-                sampleListener.sampleOccurred(res);
-            } catch (RuntimeException e) {
-                log.error("Detected problem in Listener.", e);
-                log.info("Continuing to process further listeners");
-            }
+            notifyListener(res, sampleListener);
         }
     }
 
+    /**
+     * Notify a single listener that a sample has occurred.
+     * Problems in the listener are logged, so they do not prevent notification of further listeners.
+     *
+     * @param res
+     *            the sample event that has occurred. Must be non-null.
+     * @param sampleListener
+     *            the listener to notify
+     */
+    protected static void notifyListener(SampleEvent res, SampleListener sampleListener) {
+        try {
+            TestBeanHelper.prepare((TestElement) sampleListener);
+            sampleListener.sampleOccurred(res);
+        } catch (RuntimeException e) {
+            log.error("Detected problem in Listener.", e);
+            log.info("Continuing to process further listeners");
+        }
+    }
+
+    /**
+     * Waits till all the events passed to {@link #notifyListeners(SampleEvent, List)} are processed.
+     * The notifier must not be used after this call.
+     * The default implementation processes events in the calling thread, so there's nothing to wait for.
+     */
+    public void shutdown() {
+        // Events are processed synchronously
+    }
+
 }
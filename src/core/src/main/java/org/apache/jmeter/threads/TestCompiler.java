@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Set;
 
-import org.apache.jmeter.assertions.Assertion;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.control.Controller;
 import org.apache.jmeter.control.TransactionController;
@@ -33,13 +32,9 @@ import org.apache.jmeter.control.TransactionSampler;
 import org.apache.jmeter.engine.event.LoopIterationListener;
 import org.apache.jmeter.engine.util.ConfigMergabilityIndicator;
 import org.apache.jmeter.engine.util.NoConfigMerge;
-import org.apache.jmeter.processor.PostProcessor;
-import org.apache.jmeter.processor.PreProcessor;
-import org.apache.jmeter.samplers.SampleListener;
 import org.apache.jmeter.samplers.Sampler;
 import org.apache.jmeter.testbeans.TestBeanHelper;
 import org.apache.jmeter.testelement.TestElement;
-import org.apache.jmeter.timers.Timer;
 import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.HashTreeTraverser;
 import org.slf4j.Logger;
@@ -51,6 +46,9 @@ import org.slf4j.LoggerFactory;
  *  <li>A map with key Sampler and as value the associated SamplePackage</li>
  *  <li>A map with key TransactionController and as value the associated SamplePackage</li>
  * </ul>
+ * The structure of the packages is described by a {@link TestCompilerPlan}: the threads of a thread group
+ * share the plan computed once for the thread group, and the compiler only binds the elements of its tree
+ * to it when the traversal completes.
  */
 @SuppressWarnings("JdkObsolete")
 public class TestCompiler implements HashTreeTraverser {
@@ -75,10 +73,26 @@ public class TestCompiler implements HashTreeTraverser {
 
     private final HashTree testTree;
 
+    /** Elements of the tree, in the order of traversal */
+    private final List<TestElement> nodes = new ArrayList<>();
+
+    private TestCompilerPlan plan;
+
     public TestCompiler(HashTree testTree) {
         this.testTree = testTree;
     }
 
+    /**
+     * Sets the plan computed for the tree the test tree was cloned from,
+     * so the compiler does not need to analyze the structure of the tree again.
+     * The plan is ignored if it does not match the traversed tree.
+     *
+     * @param plan the plan shared by the threads of the thread group
+     */
+    void setPlan(TestCompilerPlan plan) {
+        this.plan = plan;
+    }
+
     /**
      * Clears the pairing Set Called by StandardJmeterEngine at the start of a
      * test run.
@@ -125,7 +139,21 @@ public class TestCompiler implements HashTreeTraverser {
     /** {@inheritDoc} */
     @Override
     public void addNode(Object node, HashTree subTree) {
-        stack.addLast((TestElement) node);
+        TestElement element = (TestElement) node;
+        int position = nodes.size();
+        if (plan == null) {
+            plan = TestCompilerPlan.build(testTree);
+        } else if (!plan.matches(position, element)) {
+            log.warn("Test tree differs from the shared plan at position {} ({}), computing the plan of the tree",
+                    position, element.getClass());
+            plan = TestCompilerPlan.build(testTree);
+        }
+        if (!plan.matches(position, element)) {
+            throw new IllegalStateException("Traversed tree differs from the compiled tree at position "
+                    + position + ": " + element.getClass());
+        }
+        stack.addLast(element);
+        nodes.add(element);
     }
 
     /** {@inheritDoc} */
@@ -136,12 +164,6 @@ public class TestCompiler implements HashTreeTraverser {
         }
         TestElement child = stack.getLast();
         trackIterationListeners(stack);
-        if (child instanceof Sampler) {
-            saveSamplerConfigs((Sampler) child);
-        }
-        else if(child instanceof TransactionController) {
-            saveTransactionControllerConfigs((TransactionController) child);
-        }
         stack.removeLast();
         if (!stack.isEmpty()) {
             TestElement parent = stack.getLast();
@@ -168,6 +190,10 @@ public class TestCompiler implements HashTreeTraverser {
                     log.warn("Unexpected duplicate for {} and {}", parent.getClass(), child.getClass());
                 }
             }
+        } else if (nodes.size() == plan.size()) {
+            // The whole tree has been traversed
+            plan.bind(nodes, samplerConfigMap, transactionControllerConfigMap);
+            nodes.clear();
         }
     }
 
@@ -195,89 +221,6 @@ public class TestCompiler implements HashTreeTraverser {
     public void processPath() {
     }
 
-    private void saveSamplerConfigs(Sampler sam) {
-        List<ConfigTestElement> configs = new ArrayList<>();
-        List<Controller> controllers = new ArrayList<>();
-        List<SampleListener> listeners = new ArrayList<>();
-        List<Timer> timers = new ArrayList<>();
-        List<Assertion> assertions = new ArrayList<>();
-        List<PostProcessor> posts = new ArrayList<>();
-        List<PreProcessor> pres = new ArrayList<>();
-        for (int i = stack.size(); i > 0; i--) {
-            addDirectParentControllers(controllers, stack.get(i - 1));
-            List<PreProcessor>  tempPre = new ArrayList<>();
-            List<PostProcessor> tempPost = new ArrayList<>();
-            List<Assertion> tempAssertions = new ArrayList<>();
-            for (Object item : testTree.list(stack.subList(0, i))) {
-                if (item instanceof ConfigTestElement) {
-                    configs.add((ConfigTestElement) item);
-                }
-                if (item instanceof SampleListener) {
-                    listeners.add((SampleListener) item);
-                }
-                if (item instanceof Timer) {
-                    timers.add((Timer) item);
-                }
-                if (item instanceof Assertion) {
-                    tempAssertions.add((Assertion) item);
-                }
-                if (item instanceof PostProcessor) {
-                    tempPost.add((PostProcessor) item);
-                }
-                if (item instanceof PreProcessor) {
-                    tempPre.add((PreProcessor) item);
-                }
-            }
-            assertions.addAll(0, tempAssertions);
-            pres.addAll(0, tempPre);
-            posts.addAll(0, tempPost);
-        }
-
-        SamplePackage pack = new SamplePackage(configs, listeners, timers, assertions,
-                posts, pres, controllers);
-        pack.setSampler(sam);
-        pack.setRunningVersion(true);
-        samplerConfigMap.put(sam, pack);
-    }
-
-    private void saveTransactionControllerConfigs(TransactionController tc) {
-        List<ConfigTestElement> configs = new ArrayList<>();
-        List<Controller> controllers = new ArrayList<>();
-        List<SampleListener> listeners = new ArrayList<>();
-        List<Timer> timers = new ArrayList<>();
-        List<Assertion> assertions = new ArrayList<>();
-        List<PostProcessor> posts = new ArrayList<>();
-        List<PreProcessor> pres = new ArrayList<>();
-        for (int i = stack.size(); i > 0; i--) {
-            addDirectParentControllers(controllers, stack.get(i - 1));
-            for (Object item : testTree.list(stack.subList(0, i))) {
-                if (item instanceof SampleListener) {
-                    listeners.add((SampleListener) item);
-                }
-                if (item instanceof Assertion) {
-                    assertions.add((Assertion) item);
-                }
-            }
-        }
-
-        SamplePackage pack = new SamplePackage(configs, listeners, timers, assertions,
-                posts, pres, controllers);
-        pack.setSampler(new TransactionSampler(tc, tc.getName()));
-        pack.setRunningVersion(true);
-        transactionControllerConfigMap.put(tc, pack);
-    }
-
-    /**
-     * @param controllers
-     * @param maybeController
-     */
-    private static void addDirectParentControllers(List<? super Controller> controllers, TestElement maybeController) {
-        if (maybeController instanceof Controller) {
-            log.debug("adding controller: {} to sampler config", maybeController);
-            controllers.add((Controller) maybeController);
-        }
-    }
-
     private static class ObjectPair
     {
         private final TestElement child;
@@ -0,0 +1,293 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.threads;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jmeter.assertions.Assertion;
+import org.apache.jmeter.config.ConfigTestElement;
+import org.apache.jmeter.control.Controller;
+import org.apache.jmeter.control.TransactionController;
+import org.apache.jmeter.control.TransactionSampler;
+import org.apache.jmeter.processor.PostProcessor;
+import org.apache.jmeter.processor.PreProcessor;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.timers.Timer;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.HashTreeTraverser;
+
+/**
+ * Structure of the {@link SamplePackage}s of a test tree, where the elements are identified by their position
+ * in the depth-first traversal of the tree.
+ * <p>
+ * The threads of a thread group get clones of the same tree, so the plan is computed once from the template tree,
+ * and each {@link TestCompiler} only binds the elements of its own tree to the positions.
+ * <p>
+ * Immutable, thread safe class
+ *
+ * @since 6.0
+ */
+final class TestCompilerPlan {
+    private static final int[] NONE = new int[0];
+
+    /** Classes of the elements, in the order of {@link HashTreeTraverser#addNode(Object, HashTree)} calls */
+    private final Class<?>[] nodeClasses;
+    /** Packages in the order of {@link HashTreeTraverser#subtractNode()} calls of the samplers */
+    private final PackagePlan[] packages;
+
+    private TestCompilerPlan(Class<?>[] nodeClasses, PackagePlan[] packages) {
+        this.nodeClasses = nodeClasses;
+        this.packages = packages;
+    }
+
+    /**
+     * Computes the plan of a test tree.
+     *
+     * @param testTree the tree to analyze
+     * @return the plan
+     */
+    static TestCompilerPlan build(HashTree testTree) {
+        Builder builder = new Builder();
+        testTree.traverse(builder);
+        return builder.build();
+    }
+
+    /**
+     * @return number of elements in the tree
+     */
+    int size() {
+        return nodeClasses.length;
+    }
+
+    /**
+     * Checks if an element of a traversed tree is consistent with the plan.
+     *
+     * @param position position of the element in the traversal
+     * @param element  the element
+     * @return true if the plan has an element of the same class at the given position
+     */
+    boolean matches(int position, TestElement element) {
+        return position < nodeClasses.length && nodeClasses[position] == element.getClass();
+    }
+
+    /**
+     * Creates the packages for the elements of a tree.
+     *
+     * @param nodes                          elements of the tree, in the order of traversal
+     * @param samplerConfigMap               receives the packages of the samplers
+     * @param transactionControllerConfigMap receives the packages of the transaction controllers
+     */
+    void bind(List<TestElement> nodes,
+            Map<Sampler, SamplePackage> samplerConfigMap,
+            Map<TransactionController, SamplePackage> transactionControllerConfigMap) {
+        for (PackagePlan plan : packages) {
+            TestElement element = nodes.get(plan.position);
+            SamplePackage pack = new SamplePackage(
+                    collect(nodes, plan.configs),
+                    collect(nodes, plan.listeners),
+                    collect(nodes, plan.timers),
+                    collect(nodes, plan.assertions),
+                    collect(nodes, plan.postProcessors),
+                    collect(nodes, plan.preProcessors),
+                    collect(nodes, plan.controllers));
+            if (plan.transaction) {
+                TransactionController tc = (TransactionController) element;
+                pack.setSampler(new TransactionSampler(tc, tc.getName()));
+                pack.setRunningVersion(true);
+                transactionControllerConfigMap.put(tc, pack);
+            } else {
+                Sampler sampler = (Sampler) element;
+                pack.setSampler(sampler);
+                pack.setRunningVersion(true);
+                samplerConfigMap.put(sampler, pack);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> collect(List<TestElement> nodes, int[] positions) {
+        List<T> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add((T) nodes.get(position));
+        }
+        return result;
+    }
+
+    /**
+     * Positions of the elements of a single {@link SamplePackage}.
+     */
+    private static final class PackagePlan {
+        final int position;
+        final boolean transaction;
+        final int[] configs;
+        final int[] listeners;
+        final int[] timers;
+        final int[] assertions;
+        final int[] postProcessors;
+        final int[] preProcessors;
+        final int[] controllers;
+
+        PackagePlan(int position, boolean transaction, int[] configs, int[] listeners, int[] timers,
+                int[] assertions, int[] postProcessors, int[] preProcessors, int[] controllers) {
+            this.position = position;
+            this.transaction = transaction;
+            this.configs = configs;
+            this.listeners = listeners;
+            this.timers = timers;
+            this.assertions = assertions;
+            this.postProcessors = postProcessors;
+            this.preProcessors = preProcessors;
+            this.controllers = controllers;
+        }
+    }
+
+    /**
+     * Assigns the positions and computes the packages with the same rules
+     * as the per-thread compilation used to.
+     */
+    private static final class Builder implements HashTreeTraverser {
+        private final List<TestElement> nodes = new ArrayList<>();
+        /** Positions of the children of each element */
+        private final Map<Integer, List<Integer>> children = new HashMap<>();
+        /** Positions of the elements on the current path */
+        private final List<Integer> path = new ArrayList<>();
+        /** Paths of the samplers and transaction controllers, in the order they are completed */
+        private final List<int[]> packagePaths = new ArrayList<>();
+
+        @Override
+        public void addNode(Object node, HashTree subTree) {
+            int position = nodes.size();
+            nodes.add((TestElement) node);
+            if (!path.isEmpty()) {
+                children.computeIfAbsent(path.get(path.size() - 1), k -> new ArrayList<>()).add(position);
+            }
+            path.add(position);
+        }
+
+        @Override
+        public void subtractNode() {
+            int position = path.get(path.size() - 1);
+            TestElement element = nodes.get(position);
+            if (element instanceof Sampler || element instanceof TransactionController) {
+                packagePaths.add(path.stream().mapToInt(Integer::intValue).toArray());
+            }
+            path.remove(path.size() - 1);
+        }
+
+        @Override
+        public void processPath() {
+            // NOOP
+        }
+
+        TestCompilerPlan build() {
+            Class<?>[] nodeClasses = new Class<?>[nodes.size()];
+            for (int i = 0; i < nodeClasses.length; i++) {
+                nodeClasses[i] = nodes.get(i).getClass();
+            }
+            PackagePlan[] packages = new PackagePlan[packagePaths.size()];
+            for (int i = 0; i < packages.length; i++) {
+                int[] packagePath = packagePaths.get(i);
+                int position = packagePath[packagePath.length - 1];
+                packages[i] = nodes.get(position) instanceof Sampler
+                        ? samplerPlan(packagePath)
+                        : transactionControllerPlan(packagePath);
+            }
+            return new TestCompilerPlan(nodeClasses, packages);
+        }
+
+        private PackagePlan samplerPlan(int[] packagePath) {
+            List<Integer> configs = new ArrayList<>();
+            List<Integer> controllers = new ArrayList<>();
+            List<Integer> listeners = new ArrayList<>();
+            List<Integer> timers = new ArrayList<>();
+            List<Integer> assertions = new ArrayList<>();
+            List<Integer> posts = new ArrayList<>();
+            List<Integer> pres = new ArrayList<>();
+            // The closest elements go first, except for assertions and processors that run from the outermost level
+            for (int i = packagePath.length; i > 0; i--) {
+                int level = packagePath[i - 1];
+                if (nodes.get(level) instanceof Controller) {
+                    controllers.add(level);
+                }
+                List<Integer> tempPre = new ArrayList<>();
+                List<Integer> tempPost = new ArrayList<>();
+                List<Integer> tempAssertions = new ArrayList<>();
+                for (int child : children.getOrDefault(level, List.of())) {
+                    TestElement item = nodes.get(child);
+                    if (item instanceof ConfigTestElement) {
+                        configs.add(child);
+                    }
+                    if (item instanceof SampleListener) {
+                        listeners.add(child);
+                    }
+                    if (item instanceof Timer) {
+                        timers.add(child);
+                    }
+                    if (item instanceof Assertion) {
+                        tempAssertions.add(child);
+                    }
+                    if (item instanceof PostProcessor) {
+                        tempPost.add(child);
+                    }
+                    if (item instanceof PreProcessor) {
+                        tempPre.add(child);
+                    }
+                }
+                assertions.addAll(0, tempAssertions);
+                pres.addAll(0, tempPre);
+                posts.addAll(0, tempPost);
+            }
+            return new PackagePlan(packagePath[packagePath.length - 1], false,
+                    toArray(configs), toArray(listeners), toArray(timers), toArray(assertions),
+                    toArray(posts), toArray(pres), toArray(controllers));
+        }
+
+        private PackagePlan transactionControllerPlan(int[] packagePath) {
+            List<Integer> controllers = new ArrayList<>();
+            List<Integer> listeners = new ArrayList<>();
+            List<Integer> assertions = new ArrayList<>();
+            for (int i = packagePath.length; i > 0; i--) {
+                int level = packagePath[i - 1];
+                if (nodes.get(level) instanceof Controller) {
+                    controllers.add(level);
+                }
+                for (int child : children.getOrDefault(level, List.of())) {
+                    TestElement item = nodes.get(child);
+                    if (item instanceof SampleListener) {
+                        listeners.add(child);
+                    }
+                    if (item instanceof Assertion) {
+                        assertions.add(child);
+                    }
+                }
+            }
+            return new PackagePlan(packagePath[packagePath.length - 1], true,
+                    NONE, toArray(listeners), NONE, toArray(assertions), NONE, NONE, toArray(controllers));
+        }
+
+        private static int[] toArray(List<Integer> positions) {
+            return positions.isEmpty() ? NONE : positions.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -21,7 +21,6 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.jmeter.engine.StandardJMeterEngine;
 import org.apache.jmeter.gui.GUIMenuSortOrder;
@@ -29,6 +28,7 @@ import org.apache.jmeter.testelement.property.BooleanProperty;
 import org.apache.jmeter.testelement.property.IntegerProperty;
 import org.apache.jmeter.testelement.property.LongProperty;
 import org.apache.jmeter.testelement.schema.PropertiesAccessor;
+import org.apache.jmeter.timers.TimerService;
 import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.collections.ListedHashTree;
 import org.apache.jorphan.util.JMeterStopTestException;
@@ -70,6 +70,9 @@ public class ThreadGroup extends AbstractThreadGroup {
 
     /** Scheduler start delay, overrides start time */
     public static final String DELAY = "ThreadGroup.delay";
+
+    /** Whether JMeterThreads run on virtual threads */
+    public static final String VIRTUAL_THREADS = "ThreadGroup.virtual_threads";
     //- JMX entries
 
     private transient Thread threadStarter;
@@ -88,11 +91,14 @@ public class ThreadGroup extends AbstractThreadGroup {
     /** Are we using delayed startup? */
     private boolean delayedStartup;
 
+    /** Do JMeterThreads run on virtual threads? */
+    private boolean virtualThreads;
+
     /** Thread safe class */
     private ListenerNotifier notifier;
 
-    /** This property will be cloned */
-    private ListedHashTree threadGroupTree;
+    /** Creates per-thread clones of the thread group tree */
+    private transient ThreadTreeFactory threadTreeFactory;
 
     /**
      * No-arg constructor.
@@ -190,6 +196,31 @@ public class ThreadGroup extends AbstractThreadGroup {
         return get(getSchema().getDelayedStart());
     }
 
+    /**
+     * Set whether {@link JMeterThread}s should run on virtual threads.
+     *
+     * @param virtualThreads true if virtual threads should be used
+     * @see VirtualThreadSupport
+     */
+    public void setVirtualThreads(boolean virtualThreads) {
+        set(getSchema().getVirtualThreads(), virtualThreads);
+    }
+
+    /**
+     * Get whether {@link JMeterThread}s should run on virtual threads.
+     * If the thread group does not configure it, {@value VirtualThreadSupport#VIRTUAL_THREADS_PROPERTY}
+     * property is used.
+     *
+     * @return true if virtual threads should be used
+     * @see VirtualThreadSupport
+     */
+    public boolean isVirtualThreads() {
+        if (getPropertyOrNull(VIRTUAL_THREADS) == null) {
+            return VirtualThreadSupport.isEnabledByDefault();
+        }
+        return getPropertyAsBoolean(VIRTUAL_THREADS);
+    }
+
     /**
      * This will schedule the time for the JMeterThread.
      *
@@ -223,14 +254,15 @@ public class ThreadGroup extends AbstractThreadGroup {
         this.running = true;
         this.groupNumber = groupNum;
         this.notifier = notifier;
-        this.threadGroupTree = threadGroupTree;
+        this.threadTreeFactory = new ThreadTreeFactory(threadGroupTree);
         int numThreads = getNumThreads();
         int rampUpPeriodInSeconds = getRampUp();
         delayedStartup = isDelayedStartup(); // Fetch once; needs to stay constant
-        log.info("Starting thread group... number={} threads={} ramp-up={} delayedStart={}", groupNumber,
-                numThreads, rampUpPeriodInSeconds, delayedStartup);
+        virtualThreads = isVirtualThreads();
+        log.info("Starting thread group... number={} threads={} ramp-up={} delayedStart={} virtualThreads={}", groupNumber,
+                numThreads, rampUpPeriodInSeconds, delayedStartup, virtualThreads);
         if (delayedStartup) {
-            threadStarter = new Thread(new ThreadStarter(notifier, threadGroupTree, engine), getName()+"-ThreadStarter");
+            threadStarter = new Thread(new ThreadStarter(notifier, engine), getName()+"-ThreadStarter");
             threadStarter.setDaemon(true);
             threadStarter.start();
             // N.B. we don't wait for the thread to complete, as that would prevent parallel TGs
@@ -251,8 +283,9 @@ public class ThreadGroup extends AbstractThreadGroup {
                     log.debug("Computed delayForNextThreadInMillis:{} for thread:{}", delayForNextThreadInMillis, Thread.currentThread().getId());
                 }
                 lastThreadStartInMillis = nowInMillis;
-                startNewThread(notifier, threadGroupTree, engine, threadNum, variables, nowInMillis, Math.max(0, delayForNextThreadInMillis));
+                startNewThread(notifier, engine, threadNum, variables, nowInMillis, Math.max(0, delayForNextThreadInMillis));
             }
+            threadTreeFactory.logStatistics(getName());
         }
         log.info("Started thread group number {}", groupNumber);
     }
@@ -260,7 +293,6 @@ public class ThreadGroup extends AbstractThreadGroup {
     /**
      * Start a new {@link JMeterThread} and registers it
      * @param notifier {@link ListenerNotifier}
-     * @param threadGroupTree {@link ListedHashTree}
      * @param engine {@link StandardJMeterEngine}
      * @param threadNum Thread number
      * @param variables initial values for the variables in the thread
@@ -268,12 +300,13 @@ public class ThreadGroup extends AbstractThreadGroup {
      * @param delay int delay in milliseconds
      * @return {@link JMeterThread} newly created
      */
-    private JMeterThread startNewThread(ListenerNotifier notifier, ListedHashTree threadGroupTree, StandardJMeterEngine engine,
+    private JMeterThread startNewThread(ListenerNotifier notifier, StandardJMeterEngine engine,
             int threadNum, JMeterVariables variables, long now, int delay) {
-        JMeterThread jmThread = makeThread(engine, this, notifier, groupNumber, threadNum, cloneTree(threadGroupTree), variables);
+        JMeterThread jmThread = threadTreeFactory.configureThread(
+                makeThread(engine, this, notifier, groupNumber, threadNum, threadTreeFactory.newThreadTree(), variables));
         scheduleThread(jmThread, now); // set start and end time
         jmThread.setInitialDelay(delay);
-        Thread newThread = new Thread(jmThread, jmThread.getThreadName());
+        Thread newThread = VirtualThreadSupport.newThread(jmThread, jmThread.getThreadName(), virtualThreads);
         registerStartedThread(jmThread, newThread);
         newThread.start();
         return jmThread;
@@ -307,7 +340,7 @@ public class ThreadGroup extends AbstractThreadGroup {
             numThreads = getNumThreads();
             setNumThreads(numThreads + 1);
         }
-        newJmThread = startNewThread(notifier, threadGroupTree, engine, numThreads, context.getVariables(), now, delay);
+        newJmThread = startNewThread(notifier, engine, numThreads, context.getVariables(), now, delay);
         JMeterContextService.addTotalThreads( 1 );
         log.info("Started new thread in group {}", groupNumber);
         return newJmThread;
@@ -505,14 +538,12 @@ public class ThreadGroup extends AbstractThreadGroup {
     class ThreadStarter implements Runnable {
 
         private final ListenerNotifier notifier;
-        private final ListedHashTree threadGroupTree;
         private final StandardJMeterEngine engine;
         private final JMeterVariables variables;
 
-        public ThreadStarter(ListenerNotifier notifier, ListedHashTree threadGroupTree, StandardJMeterEngine engine) {
+        public ThreadStarter(ListenerNotifier notifier, StandardJMeterEngine engine) {
             super();
             this.notifier = notifier;
-            this.threadGroupTree = threadGroupTree;
             this.engine = engine;
             // Store context from Root Thread to pass it to created threads
             this.variables = JMeterContextService.getContext().getVariables();
@@ -524,7 +555,7 @@ public class ThreadGroup extends AbstractThreadGroup {
          */
         private void pause(long ms){
             try {
-                TimeUnit.MILLISECONDS.sleep(ms);
+                TimerService.getInstance().sleep(ms);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
@@ -581,17 +612,22 @@ public class ThreadGroup extends AbstractThreadGroup {
                     if (usingScheduler && System.currentTimeMillis() > endtime) {
                         break; // no point continuing beyond the end time
                     }
-                    JMeterThread jmThread = makeThread(engine, ThreadGroup.this, notifier, groupNumber, threadNumber, cloneTree(threadGroupTree), variables);
+                    JMeterThread jmThread = threadTreeFactory.configureThread(makeThread(engine, ThreadGroup.this,
+                            notifier, groupNumber, threadNumber, threadTreeFactory.newThreadTree(), variables));
                     jmThread.setInitialDelay(0);   // Already waited
                     if (usingScheduler) {
                         jmThread.setScheduled(true);
                         jmThread.setEndTime(endtime);
                     }
-                    Thread newThread = new Thread(jmThread, jmThread.getThreadName());
-                    newThread.setDaemon(false); // ThreadStarter is daemon, but we don't want sampler threads to be so too
+                    Thread newThread = VirtualThreadSupport.newThread(jmThread, jmThread.getThreadName(), virtualThreads);
+                    if (!VirtualThreadSupport.isVirtual(newThread)) {
+                        // Virtual threads are always daemon, and the engine waits for them in waitThreadsStopped
+                        newThread.setDaemon(false); // ThreadStarter is daemon, but we don't want sampler threads to be so too
+                    }
                     registerStartedThread(jmThread, newThread);
                     newThread.start();
                 }
+                threadTreeFactory.logStatistics(getName());
             } catch (Exception ex) {
                 log.error("An error occurred scheduling delay start of threads for Thread Group: {}", getName(), ex);
             }
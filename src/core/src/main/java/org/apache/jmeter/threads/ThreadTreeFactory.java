@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.threads;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apache.jorphan.collections.HashTree;
+import org.apache.jorphan.collections.HashTreeTraverser;
+import org.apache.jorphan.collections.ListedHashTree;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the test trees for the threads of a thread group and collects statistics on it.
+ * <p>
+ * By default, every thread gets a full clone of the thread group tree.
+ * If {@value #SHARED_TEMPLATE_PROPERTY} is {@code true}, the tree is cloned once into a frozen template,
+ * and the per-thread clones reuse immutable properties of the template
+ * (see {@link AbstractTestElement#shareImmutableProperties()}).
+ * Each thread then copies only its mutable state: multi-valued and function properties, and the properties
+ * modified at runtime.
+ * <p>
+ * The structure of the samplers' packages (configs, timers, assertions, processors, listeners) is computed once
+ * for the thread group, and the threads only bind their own elements to it,
+ * unless {@value #SHARED_COMPILER_PLAN_PROPERTY} is {@code false}.
+ * <p>
+ * Thread safe class
+ *
+ * @since 6.0
+ */
+@API(status = API.Status.INTERNAL, since = "6.0")
+public final class ThreadTreeFactory {
+    private static final Logger log = LoggerFactory.getLogger(ThreadTreeFactory.class);
+
+    /** Whether the threads share immutable properties of a frozen template */
+    public static final String SHARED_TEMPLATE_PROPERTY = "jmeterthread.shared_template"; // $NON-NLS-1$
+
+    private static final boolean SHARED_TEMPLATE = JMeterUtils.getPropDefault(SHARED_TEMPLATE_PROPERTY, false);
+
+    /** Whether the threads share the structure of the sample packages computed once for the thread group */
+    public static final String SHARED_COMPILER_PLAN_PROPERTY = "jmeterthread.shared_compiler_plan"; // $NON-NLS-1$
+
+    private static final boolean SHARED_COMPILER_PLAN =
+            JMeterUtils.getPropDefault(SHARED_COMPILER_PLAN_PROPERTY, true);
+
+    private final ListedHashTree template;
+    private final boolean sharedTemplate;
+    private volatile TestCompilerPlan compilerPlan;
+
+    private final LongAdder clonedTrees = new LongAdder();
+    private final LongAdder cloneNanos = new LongAdder();
+
+    /**
+     * Creates the factory, the mode is configured with {@value #SHARED_TEMPLATE_PROPERTY} property.
+     *
+     * @param threadGroupTree the tree of the thread group
+     */
+    public ThreadTreeFactory(ListedHashTree threadGroupTree) {
+        this(threadGroupTree, SHARED_TEMPLATE);
+    }
+
+    /**
+     * @param threadGroupTree the tree of the thread group
+     * @param sharedTemplate  true if the threads should share immutable properties of a frozen template
+     */
+    public ThreadTreeFactory(ListedHashTree threadGroupTree, boolean sharedTemplate) {
+        this.sharedTemplate = sharedTemplate;
+        if (sharedTemplate) {
+            // The original tree can be modified (e.g. in GUI), so the shared properties come from a private copy
+            ListedHashTree frozen = AbstractThreadGroup.cloneTree(threadGroupTree);
+            frozen.traverse(new ShareImmutableProperties());
+            this.template = frozen;
+        } else {
+            this.template = threadGroupTree;
+        }
+    }
+
+    /**
+     * Creates a test tree for a new thread.
+     *
+     * @return a clone of thread group tree
+     */
+    public ListedHashTree newThreadTree() {
+        long start = System.nanoTime();
+        ListedHashTree tree = AbstractThreadGroup.cloneTree(template);
+        cloneNanos.add(System.nanoTime() - start);
+        clonedTrees.increment();
+        return tree;
+    }
+
+    /**
+     * Lets the thread reuse the structure of the thread group tree, so it does not analyze its own clone of the tree.
+     * The thread must have been created with a tree returned by {@link #newThreadTree()}.
+     *
+     * @param thread the thread to configure
+     * @return the thread
+     */
+    public JMeterThread configureThread(JMeterThread thread) {
+        if (SHARED_COMPILER_PLAN) {
+            thread.setCompilerPlan(getCompilerPlan());
+        }
+        return thread;
+    }
+
+    private TestCompilerPlan getCompilerPlan() {
+        TestCompilerPlan plan = compilerPlan;
+        if (plan == null) {
+            synchronized (this) {
+                plan = compilerPlan;
+                if (plan == null) {
+                    plan = TestCompilerPlan.build(template);
+                    compilerPlan = plan;
+                }
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Logs the time that was needed to create the thread trees so far.
+     *
+     * @param threadGroupName the name of the thread group
+     */
+    public void logStatistics(String threadGroupName) {
+        long trees = clonedTrees.sum();
+        if (trees == 0 || !log.isInfoEnabled()) {
+            return;
+        }
+        long nanos = cloneNanos.sum();
+        log.info("Thread group {}: cloned {} thread tree(s) in {} ms ({} us per thread), shared template: {}",
+                threadGroupName, trees,
+                TimeUnit.NANOSECONDS.toMillis(nanos), TimeUnit.NANOSECONDS.toMicros(nanos / trees),
+                sharedTemplate);
+    }
+
+    private static final class ShareImmutableProperties implements HashTreeTraverser {
+        @Override
+        public void addNode(Object node, HashTree subTree) {
+            if (node instanceof AbstractTestElement) {
+                ((AbstractTestElement) node).shareImmutableProperties();
+            }
+        }
+
+        @Override
+        public void subtractNode() {
+            // NOOP
+        }
+
+        @Override
+        public void processPath() {
+            // NOOP
+        }
+    }
+}
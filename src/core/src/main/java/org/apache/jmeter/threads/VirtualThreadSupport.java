@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.threads;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.jmeter.util.JMeterUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the JVM threads that run {@link JMeterThread}s.
+ * <p>
+ * JMeter is compiled for Java 17, so virtual threads (Java 21+) are looked up via {@link MethodHandle}s.
+ * If the running JVM does not support them, platform threads are used and a warning is logged once.
+ * <p>
+ * Virtual threads are cheap to park, so they suit plans where most users sleep in timers or wait for responses.
+ * A virtual thread is pinned to its carrier while it blocks inside a {@code synchronized} block or a native frame,
+ * so samplers that do that (JDBC drivers that synchronize on the connection, JMS, LDAP, Mail, BeanShell,
+ * OS Process and custom Java/JSR223 code using {@code synchronized}) limit the achievable concurrency.
+ * Use {@code -Djdk.tracePinnedThreads=short} to find such places.
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public final class VirtualThreadSupport {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadSupport.class);
+
+    /** Global default for thread groups that do not configure virtual threads explicitly */
+    public static final String VIRTUAL_THREADS_PROPERTY = "jmeterthread.virtual_threads"; // $NON-NLS-1$
+
+    private static final MethodHandle OF_VIRTUAL;
+    private static final MethodHandle BUILDER_NAME;
+    private static final MethodHandle BUILDER_UNSTARTED;
+    private static final MethodHandle IS_VIRTUAL;
+
+    private static final AtomicBoolean FALLBACK_REPORTED = new AtomicBoolean();
+
+    static {
+        MethodHandle ofVirtual = null;
+        MethodHandle name = null;
+        MethodHandle unstarted = null;
+        MethodHandle isVirtual = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            name = lookup.findVirtual(builderClass, "name", MethodType.methodType(builderClass, String.class));
+            unstarted = lookup.findVirtual(builderClass, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+            isVirtual = lookup.findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            log.debug("Virtual threads are not available in Java {}", System.getProperty("java.version"), e);
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+        IS_VIRTUAL = isVirtual;
+    }
+
+    private VirtualThreadSupport() {
+    }
+
+    /**
+     * @return true if the running JVM can create virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return the value of {@value #VIRTUAL_THREADS_PROPERTY} property
+     */
+    public static boolean isEnabledByDefault() {
+        return JMeterUtils.getPropDefault(VIRTUAL_THREADS_PROPERTY, false);
+    }
+
+    /**
+     * Creates an unstarted thread.
+     *
+     * @param runnable the code to execute
+     * @param name     thread name
+     * @param virtual  true if a virtual thread is preferred. Platform thread is created if virtual threads are not
+     *                 supported by the JVM
+     * @return unstarted thread
+     */
+    public static Thread newThread(Runnable runnable, String name, boolean virtual) {
+        if (virtual) {
+            if (isSupported()) {
+                try {
+                    Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(), name);
+                    return (Thread) BUILDER_UNSTARTED.invoke(builder, runnable);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Unable to create virtual thread " + name, e);
+                }
+            }
+            if (FALLBACK_REPORTED.compareAndSet(false, true)) {
+                log.warn("Virtual threads were requested, however, Java {} does not support them." +
+                        " Will use platform threads. Please use Java 21 or later", System.getProperty("java.version"));
+            }
+        }
+        return new Thread(runnable, name);
+    }
+
+    /**
+     * @param thread thread to check
+     * @return true if the thread is virtual
+     */
+    public static boolean isVirtual(Thread thread) {
+        if (!isSupported()) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invoke(thread);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Unable to check if thread " + thread.getName() + " is virtual", e);
+        }
+    }
+}
@@ -78,6 +78,11 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                     AbstractThreadGroupSchema.INSTANCE.getSameUserOnNextIteration(),
                     JMeterUtils.getResString("threadgroup_same_user"));
 
+    private final JBooleanPropertyEditor virtualThreadsBox =
+            new JBooleanPropertyEditor(
+                    ThreadGroupSchema.INSTANCE.getVirtualThreads(),
+                    JMeterUtils.getResString("threadgroup_virtual_threads"));
+
     public ThreadGroupGui() {
         this(true);
     }
@@ -97,6 +102,7 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                         new JTextComponentBinding(duration, ThreadGroupSchema.INSTANCE.getDuration()),
                         new JTextComponentBinding(delay, ThreadGroupSchema.INSTANCE.getDelay()),
                         sameUserBox,
+                        virtualThreadsBox,
                         scheduler
                 )
         );
@@ -202,6 +208,7 @@ public class ThreadGroupGui extends AbstractThreadGroupGui implements ItemListen
                     JMeterUtils.getResString("delayed_start")); // $NON-NLS-1$
             threadPropsPanel.add(delayedStart, "span 2");
         }
+        threadPropsPanel.add(virtualThreadsBox, "span 2");
         scheduler.addPropertyChangeListener(
                 JBooleanPropertyEditor.VALUE_PROPERTY, (ev) -> toggleSchedulerFields());
 
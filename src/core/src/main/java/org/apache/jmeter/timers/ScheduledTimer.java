@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.timers;
+
+import org.apiguardian.api.API;
+
+/**
+ * This interface identifies timers that follow a schedule, such as throughput timers.
+ * <p>
+ * When the thread can't keep up with the schedule (e.g. the previous response was slow), the timer
+ * returns a shorter delay or no delay at all, so the request starts later than intended.
+ * The time the request was intended to start is recorded as {@link org.apache.jmeter.samplers.SampleResult#getIntendedStartTime()},
+ * so the listeners can compute response times corrected for coordinated omission.
+ *
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public interface ScheduledTimer extends Timer {
+    /**
+     * Returns the time the next sample was scheduled to start at by the last {@link #delay()} call.
+     * The value might be in the past when the thread is behind the schedule.
+     *
+     * @return intended start time in milliseconds since epoch, or 0 if the timer has no schedule
+     */
+    long getIntendedStartTime();
+}
@@ -17,17 +17,51 @@
 
 package org.apache.jmeter.timers;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.jmeter.threads.JMeterContextService;
 import org.apache.jmeter.threads.JMeterThread;
+import org.apache.jmeter.util.JMeterUtils;
+import org.apiguardian.api.API;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Manages logic related to timers and pauses
+ * <p>
+ * The pauses of the threads go through {@link #sleep(long)}, which uses a single engine-wide {@link TimingWheel}
+ * if {@value #TIMING_WHEEL_PROPERTY} is {@code true}, and {@link Thread#sleep(long)} otherwise.
+ * In both cases, the service measures how late the threads wake up compared to the requested delay.
  * @since 3.2
  */
 public class TimerService {
+    private static final Logger log = LoggerFactory.getLogger(TimerService.class);
+
+    /** Whether the pauses use a shared timing wheel instead of a timed sleep per thread */
+    public static final String TIMING_WHEEL_PROPERTY = "timerservice.timing_wheel"; // $NON-NLS-1$
+
+    /** Duration of a tick of the timing wheel in milliseconds */
+    public static final String TIMING_WHEEL_TICK_PROPERTY = "timerservice.timing_wheel.tick"; // $NON-NLS-1$
+
+    private static final int TIMING_WHEEL_SIZE = 512;
+
+    private final TimingWheel timingWheel;
+
+    private final LongAdder wakeUps = new LongAdder();
+    private final LongAdder wakeUpDelayNanos = new LongAdder();
+    private final LongAccumulator maxWakeUpDelayNanos = new LongAccumulator(Math::max, 0);
 
     private TimerService() {
         super();
+        if (JMeterUtils.getPropDefault(TIMING_WHEEL_PROPERTY, false)) {
+            long tick = Math.max(1, JMeterUtils.getPropDefault(TIMING_WHEEL_TICK_PROPERTY, 1L));
+            log.info("Pauses use a timing wheel with {} ms ticks", tick);
+            timingWheel = new TimingWheel(tick, TimeUnit.MILLISECONDS, TIMING_WHEEL_SIZE, "TimerService-wheel");
+        } else {
+            timingWheel = null;
+        }
     }
 
     /**
@@ -106,4 +140,92 @@ public class TimerService {
         return initialDelay;
     }
 
+    /**
+     * Pauses the current thread, and records how late it wakes up.
+     *
+     * @param millis delay in milliseconds, nothing happens if it is not positive
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public void sleep(long millis) throws InterruptedException {
+        if (millis <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        if (timingWheel != null) {
+            timingWheel.sleep(millis);
+        } else {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+        long lateness = Math.max(0, System.nanoTime() - deadline);
+        wakeUps.increment();
+        wakeUpDelayNanos.add(lateness);
+        maxWakeUpDelayNanos.accumulate(lateness);
+    }
+
+    /**
+     * @return true if the pauses use the shared timing wheel
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public boolean isTimingWheelEnabled() {
+        return timingWheel != null;
+    }
+
+    /**
+     * @return number of pauses completed since the last {@link #resetStatistics()}
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public long getWakeUpCount() {
+        return wakeUps.sum();
+    }
+
+    /**
+     * @param unit unit of the result
+     * @return mean delay between the scheduled and the actual wake-up time
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public long getMeanWakeUpDelay(TimeUnit unit) {
+        long count = wakeUps.sum();
+        return count == 0 ? 0 : unit.convert(wakeUpDelayNanos.sum() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param unit unit of the result
+     * @return maximal delay between the scheduled and the actual wake-up time
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public long getMaxWakeUpDelay(TimeUnit unit) {
+        return unit.convert(maxWakeUpDelayNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Clears the wake-up statistics, called at the start of a test.
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public void resetStatistics() {
+        wakeUps.reset();
+        wakeUpDelayNanos.reset();
+        maxWakeUpDelayNanos.reset();
+    }
+
+    /**
+     * Logs how late the threads woke up from their pauses, called at the end of a test.
+     * @since 6.0
+     */
+    @API(status = API.Status.EXPERIMENTAL, since = "6.0")
+    public void logStatistics() {
+        long count = getWakeUpCount();
+        if (count == 0 || !log.isInfoEnabled()) {
+            return;
+        }
+        log.info("Completed {} pauses, wake-up delay: mean {} us, max {} us, timing wheel: {}",
+                count, getMeanWakeUpDelay(TimeUnit.MICROSECONDS), getMaxWakeUpDelay(TimeUnit.MICROSECONDS),
+                isTimingWheelEnabled());
+    }
 }
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.timers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apiguardian.api.API;
+
+/**
+ * Hashed timing wheel that wakes up sleeping threads on schedule.
+ * <p>
+ * A single worker thread waits for the next tick and unparks the threads whose deadline has passed,
+ * so the sleeping threads park without a timeout. With thousands of threads this avoids a kernel timer
+ * per sleeping thread. The threads wake up at most one tick after their deadline, never before it.
+ * <p>
+ * Thread safe class
+ *
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public final class TimingWheel implements AutoCloseable {
+    private final long tickNanos;
+    private final int mask;
+    /** Sleepers of each bucket, accessed by the worker thread only */
+    private final List<Sleeper>[] buckets;
+    /** New sleepers that the worker has not placed in the buckets yet */
+    private final Queue<Sleeper> pending = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+    /** Number of sleepers in the buckets, accessed by the worker thread only */
+    private int scheduled;
+
+    private volatile boolean idle;
+    private volatile boolean closed;
+
+    private static final class Sleeper {
+        final Thread thread;
+        final long deadline;
+        long remainingRounds;
+        volatile boolean expired;
+        volatile boolean cancelled;
+
+        Sleeper(Thread thread, long deadline) {
+            this.thread = thread;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * Creates the wheel and starts its worker thread.
+     *
+     * @param tick      duration of a tick
+     * @param unit      unit of the tick duration
+     * @param wheelSize number of buckets, it is rounded up to the next power of two
+     * @param name      name of the worker thread
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tick, TimeUnit unit, int wheelSize, String name) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("tick must be positive, got " + tick);
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("wheelSize must be in 1.." + (1 << 20) + ", got " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tick);
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.mask = size - 1;
+        this.buckets = new List[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Parks the current thread until the given delay elapses.
+     *
+     * @param millis delay in milliseconds
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     */
+    public void sleep(long millis) throws InterruptedException {
+        sleepNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * Parks the current thread until the given delay elapses.
+     *
+     * @param nanos delay in nanoseconds
+     * @throws InterruptedException if the thread is interrupted while sleeping
+     */
+    public void sleepNanos(long nanos) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (nanos <= 0) {
+            return;
+        }
+        if (closed) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+            return;
+        }
+        Sleeper sleeper = new Sleeper(Thread.currentThread(), System.nanoTime() + nanos);
+        pending.add(sleeper);
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        while (!sleeper.expired) {
+            if (closed) {
+                // The worker might be gone, sleep the remaining time on our own
+                sleeper.cancelled = true;
+                TimeUnit.NANOSECONDS.sleep(sleeper.deadline - System.nanoTime());
+                return;
+            }
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                sleeper.cancelled = true;
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Stops the worker thread and wakes up all the sleeping threads, they sleep the rest of their delay on their own.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            if (isEmpty()) {
+                idle = true;
+                if (pending.isEmpty() && !closed) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                // Nothing was scheduled, so the skipped ticks have nothing to expire
+                tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+            }
+            waitForTick(tick);
+            transferPending(tick);
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+        wakeUpAll();
+    }
+
+    private boolean isEmpty() {
+        return scheduled == 0 && pending.isEmpty();
+    }
+
+    /**
+     * Waits until the end of the given tick, so the sleepers of the tick are never woken up early.
+     */
+    private void waitForTick(long tick) {
+        long tickEnd = startNanos + (tick + 1) * tickNanos;
+        long now;
+        while (!closed && (now = System.nanoTime()) - tickEnd < 0) {
+            LockSupport.parkNanos(this, tickEnd - now);
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Sleeper sleeper;
+        while ((sleeper = pending.poll()) != null) {
+            if (sleeper.cancelled) {
+                continue;
+            }
+            long deadlineTick = (sleeper.deadline - startNanos) / tickNanos;
+            sleeper.remainingRounds = (deadlineTick - currentTick) / buckets.length;
+            // Deadlines that already passed expire with the current tick
+            long bucketTick = Math.max(deadlineTick, currentTick);
+            buckets[(int) (bucketTick & mask)].add(sleeper);
+            scheduled++;
+        }
+    }
+
+    private void expire(List<Sleeper> bucket) {
+        int kept = 0;
+        for (int i = 0, size = bucket.size(); i < size; i++) {
+            Sleeper sleeper = bucket.get(i);
+            if (sleeper.cancelled) {
+                continue;
+            }
+            if (sleeper.remainingRounds <= 0) {
+                sleeper.expired = true;
+                LockSupport.unpark(sleeper.thread);
+                continue;
+            }
+            sleeper.remainingRounds--;
+            bucket.set(kept++, sleeper);
+        }
+        scheduled -= bucket.size() - kept;
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    private void wakeUpAll() {
+        for (List<Sleeper> bucket : buckets) {
+            for (Sleeper sleeper : bucket) {
+                LockSupport.unpark(sleeper.thread);
+            }
+            bucket.clear();
+        }
+        scheduled = 0;
+        Sleeper sleeper;
+        while ((sleeper = pending.poll()) != null) {
+            LockSupport.unpark(sleeper.thread);
+        }
+    }
+}
@@ -20,15 +20,25 @@ package org.apache.jmeter.visualizers;
 import java.util.Map;
 
 import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.util.JMeterUtils;
 import org.apache.jorphan.math.StatCalculatorLong;
 
 /**
  * Aggregate sample data container. Just instantiate a new instance of this
  * class, and then call {@link #addSample(SampleResult)} a few times, and pull
  * the stats out with whatever methods you prefer.
+ * <p>
+ * If the property {@value #PRECISION_BITS_PROPERTY} is set, the elapsed times are kept in a histogram
+ * with that precision instead of keeping every distinct value (see {@link StatCalculatorLong#StatCalculatorLong(int)}).
  */
 public class SamplingStatCalculator {
-    private final StatCalculatorLong calculator = new StatCalculatorLong();
+    /** Precision of the histogram of the elapsed times, 0 to keep the exact values */
+    public static final String PRECISION_BITS_PROPERTY = "statcalculator.precision_bits"; // $NON-NLS-1$
+
+    private static final int PRECISION_BITS = JMeterUtils.getPropDefault(PRECISION_BITS_PROPERTY, 0);
+
+    private final StatCalculatorLong calculator =
+            PRECISION_BITS > 0 ? new StatCalculatorLong(PRECISION_BITS) : new StatCalculatorLong();
 
     private double maxThroughput;
 
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.testelement.schema
+
+import org.apiguardian.api.API
+
+/**
+ * Base class for the property descriptors: it caches [PropertyDescriptor.nameId],
+ * so the element can find the property slot with array accesses only.
+ * @since 6.0
+ */
+@API(status = API.Status.INTERNAL, since = "6.0")
+public abstract class BasePropertyDescriptor<in Schema : BaseTestElementSchema, Value> :
+    PropertyDescriptor<Schema, Value> {
+    private companion object {
+        private const val serialVersionUID: Long = 1
+    }
+
+    /**
+     * Id of the name plus one, so the default value (e.g. after deserialization) means "not computed yet".
+     */
+    @Transient
+    private var nameIdPlusOne: Int = 0
+
+    final override val nameId: Int
+        get() {
+            var id = nameIdPlusOne
+            if (id == 0) {
+                id = PropertySlots.idOf(name) + 1
+                nameIdPlusOne = id
+            }
+            return id - 1
+        }
+}
@@ -54,6 +54,50 @@ public abstract class BaseTestElementSchema {
 
     private val propertyGroups = mutableMapOf<PropertyDescriptor<*, *>, BasePropertyGroupSchema<*>>()
 
+    /**
+     * Maps [PropertyDescriptor.nameId] to the slot of the property plus one, zero means the schema
+     * does not declare the property.
+     * The properties are registered in the constructor, so the table is built on the first use.
+     */
+    private val slotTable: IntArray by lazy {
+        val ids = propertyDescriptors.values.map { it.nameId }
+        val table = IntArray((ids.maxOrNull() ?: -1) + 1)
+        ids.forEachIndexed { slot, id -> table[id] = slot + 1 }
+        table
+    }
+
+    /**
+     * The number of slots an element needs to store the properties declared in the schema.
+     * @since 6.0
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public val slotCount: Int
+        get() = propertyDescriptors.size
+
+    /**
+     * Returns the slot of the property in the elements that use the schema.
+     * The slot does not depend on the instance of the descriptor, so descriptors of the parent schemas work as well.
+     * @param property the property to lookup
+     * @return the slot in `0 until slotCount` or `-1` if the schema does not declare the property
+     * @since 6.0
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public fun slotOf(property: PropertyDescriptor<*, *>): Int {
+        val table = slotTable
+        val id = property.nameId
+        return if (id < table.size) table[id] - 1 else -1
+    }
+
+    /**
+     * Returns the slot of the property with the given name, see [slotOf].
+     * @param propertyName the name of the property, e.g. `TestElement.name`
+     * @return the slot in `0 until slotCount` or `-1` if the schema does not declare the property
+     * @since 6.0
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public fun slotOf(propertyName: String): Int =
+        propertyDescriptors[propertyName]?.let { slotOf(it) } ?: -1
+
     private fun <Property : PropertyDescriptor<*, *>> Property.register(): Property {
         propertyDescriptors[name] = this
         return this
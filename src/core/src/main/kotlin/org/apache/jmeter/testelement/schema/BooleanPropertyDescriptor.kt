@@ -32,7 +32,7 @@ public data class BooleanPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: Boolean?,
-) : PropertyDescriptor<Schema, Boolean> {
+) : BasePropertyDescriptor<Schema, Boolean>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -35,7 +35,7 @@ public data class ClassPropertyDescriptor<in Schema : BaseTestElementSchema, Val
     override val name: String,
     /** Default value, null means there's no default */
     override val defaultValue: Class<out ValueClass>? = null
-) : PropertyDescriptor<Schema, Class<out ValueClass>> {
+) : BasePropertyDescriptor<Schema, Class<out ValueClass>>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -32,7 +32,7 @@ import kotlin.reflect.KProperty
 public data class CollectionPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
-) : PropertyDescriptor<Schema, Collection<JMeterProperty>> {
+) : BasePropertyDescriptor<Schema, Collection<JMeterProperty>>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -32,7 +32,7 @@ public data class DoublePropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: Double?,
-) : PropertyDescriptor<Schema, Double> {
+) : BasePropertyDescriptor<Schema, Double>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
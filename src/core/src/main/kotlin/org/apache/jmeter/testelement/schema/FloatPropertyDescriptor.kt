@@ -32,7 +32,7 @@ public data class FloatPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: Float?,
-) : PropertyDescriptor<Schema, Float> {
+) : BasePropertyDescriptor<Schema, Float>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
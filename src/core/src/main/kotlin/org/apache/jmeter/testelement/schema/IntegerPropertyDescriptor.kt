@@ -32,7 +32,7 @@ public data class IntegerPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: Int?,
-) : PropertyDescriptor<Schema, Int> {
+) : BasePropertyDescriptor<Schema, Int>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -32,7 +32,7 @@ public data class LongPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: Long?,
-) : PropertyDescriptor<Schema, Long> {
+) : BasePropertyDescriptor<Schema, Long>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -37,6 +37,15 @@ public interface PropertyDescriptor<in Schema : BaseTestElementSchema, Value> :
     public val name: String
     public val defaultValue: Value?
 
+    /**
+     * Identifier of the property [name]: descriptors with the same name have the same id.
+     * Schemas use it to map the descriptor to a slot in the element without hashing the name.
+     * @since 6.0
+     */
+    @API(status = API.Status.INTERNAL, since = "6.0")
+    public val nameId: Int
+        get() = PropertySlots.idOf(name)
+
     public val defaultValueAsString: String?
         get() = defaultValue?.toString()
 
@@ -32,7 +32,7 @@ public data class StringPropertyDescriptor<in Schema : BaseTestElementSchema>(
     override val shortName: String,
     override val name: String,
     override val defaultValue: String?,
-) : PropertyDescriptor<Schema, String> {
+) : BasePropertyDescriptor<Schema, String>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
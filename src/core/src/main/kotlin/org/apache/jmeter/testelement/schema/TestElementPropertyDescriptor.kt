@@ -32,7 +32,7 @@ public data class TestElementPropertyDescriptor<in Schema : BaseTestElementSchem
     override val shortName: String,
     public val klass: Class<TestElementClass>,
     override val name: String,
-) : PropertyDescriptor<Schema, Class<TestElementClass>> {
+) : BasePropertyDescriptor<Schema, Class<TestElementClass>>() {
     private companion object {
         private const val serialVersionUID: Long = 1
     }
@@ -50,4 +50,12 @@ public abstract class ThreadGroupSchema : AbstractThreadGroupSchema() {
     /** Scheduler duration, overrides end time */
     public val duration: LongPropertyDescriptor<ThreadGroupSchema>
         by long("ThreadGroup.duration")
+
+    /**
+     * Whether [JMeterThread]s should run on virtual threads.
+     * If absent, `jmeterthread.virtual_threads` property is used.
+     * @since 6.0
+     */
+    public val virtualThreads: BooleanPropertyDescriptor<ThreadGroupSchema>
+        by boolean("ThreadGroup.virtual_threads")
 }
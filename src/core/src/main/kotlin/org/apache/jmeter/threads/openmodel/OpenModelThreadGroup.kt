@@ -27,6 +27,7 @@ import org.apache.jmeter.threads.JMeterThread
 import org.apache.jmeter.threads.JMeterThreadMonitor
 import org.apache.jmeter.threads.ListenerNotifier
 import org.apache.jmeter.threads.TestCompilerHelper
+import org.apache.jmeter.threads.ThreadTreeFactory
 import org.apache.jorphan.collections.ListedHashTree
 import org.apiguardian.api.API
 import org.slf4j.LoggerFactory
@@ -38,13 +39,17 @@ import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.LongAdder
 import kotlin.math.roundToLong
 
 /**
  * The thread group that emulates open model.
- * Currently, threads are created on demand, every thread exists after completion,
- * and the maximum number of threads is not limited.
+ * Currently, threads are created on demand, and every thread exists after completion.
+ * The number of concurrently running threads can be limited with [maxThreads]: the arrivals that happen
+ * when the limit is reached are skipped and counted as missed, so a slow system under test does not turn
+ * the workload into a closed model. The arrivals that start later than scheduled are counted as late.
  */
 @GUIMenuSortOrder(1)
 @API(status = API.Status.EXPERIMENTAL, since = "5.5")
@@ -85,6 +90,11 @@ public class OpenModelThreadGroup :
          */
         private val houseKeepingThreadPool = Executors.newCachedThreadPool()
 
+        /**
+         * An arrival is counted as late if the thread starts later than this after the scheduled time.
+         */
+        private const val LATE_ARRIVAL_THRESHOLD_MS = 100L
+
         private const val serialVersionUID: Long = 1L
     }
 
@@ -95,6 +105,7 @@ public class OpenModelThreadGroup :
 
     private val threadStarterFuture = AtomicReference<Future<*>?>()
     private val activeThreads = ConcurrentHashMap<JMeterThread, Future<*>>()
+    private val arrivals = ArrivalCounters()
 
     override val schema: OpenModelThreadGroupSchema
         get() = OpenModelThreadGroupSchema
@@ -114,15 +125,61 @@ public class OpenModelThreadGroup :
      */
     public var randomSeedString: String by OpenModelThreadGroupSchema.randomSeed.asString
 
+    /**
+     * Maximum number of concurrently running threads. 0 means no limit.
+     * @since 6.0
+     */
+    public var maxThreads: Int by OpenModelThreadGroupSchema.maxThreads
+
+    /**
+     * The number of arrivals that were skipped since [maxThreads] threads were running.
+     * The value is reset when the thread group starts.
+     * @since 6.0
+     */
+    public val missedArrivals: Long
+        get() = arrivals.missed.sum()
+
+    /**
+     * The number of arrivals that started more than 100 ms later than scheduled.
+     * The value is reset when the thread group starts.
+     * @since 6.0
+     */
+    public val lateArrivals: Long
+        get() = arrivals.late.sum()
+
     init {
         this[OpenModelThreadGroupSchema.mainController] = OpenModelThreadGroupController()
     }
 
+    private class ArrivalCounters : Serializable {
+        val started = LongAdder()
+        val missed = LongAdder()
+        val late = LongAdder()
+
+        // Unlike activeThreads, the value is updated by the worker itself, so it never counts finished threads
+        val running = AtomicInteger()
+
+        fun reset() {
+            started.reset()
+            missed.reset()
+            late.reset()
+            running.set(0)
+        }
+
+        private companion object {
+            private const val serialVersionUID: Long = 1L
+        }
+    }
+
     private class ThreadsStarter(
         private val testStartTime: Long,
         private val executorService: ExecutorService,
         private val activeThreads: MutableMap<JMeterThread, Future<*>>,
         private val gen: ThreadScheduleProcessGenerator,
+        private val threadTreeFactory: ThreadTreeFactory,
+        private val threadGroupName: String,
+        private val maxThreads: Int,
+        private val arrivals: ArrivalCounters,
         private val jmeterThreadFactory: (threadNumber: Int) -> JMeterThread,
     ) : Runnable {
         override fun run() {
@@ -138,15 +195,37 @@ public class OpenModelThreadGroup :
                     val nextDelay = scheduledTime - prevTime
                     if (nextDelay > 0) {
                         sleep(nextDelay)
+                        // The sleep can last longer than requested
+                        prevTime = System.currentTimeMillis()
                     }
+                } else if (prevTime - scheduledTime <= LATE_ARRIVAL_THRESHOLD_MS) {
+                    // prevTime was read before the previous arrivals were started, so it is stale when the
+                    // arrivals catch up after a stall. It is read again unless it already shows the arrival is late
+                    prevTime = System.currentTimeMillis()
+                }
+                if (maxThreads > 0 && arrivals.running.get() >= maxThreads) {
+                    // Open model: the arrival is not postponed, otherwise the next arrivals would be delayed as well
+                    arrivals.missed.increment()
+                    continue
                 }
+                if (prevTime - scheduledTime > LATE_ARRIVAL_THRESHOLD_MS) {
+                    arrivals.late.increment()
+                }
+                arrivals.started.increment()
                 val jmeterThread = jmeterThreadFactory(threadNumber++)
                 jmeterThread.endTime = endTime
+                arrivals.running.incrementAndGet()
                 activeThreads[jmeterThread] = executorService.submit {
-                    Thread.currentThread().name = jmeterThread.threadName
-                    jmeterThread.run()
+                    try {
+                        Thread.currentThread().name = jmeterThread.threadName
+                        jmeterThread.run()
+                    } finally {
+                        arrivals.running.decrementAndGet()
+                    }
                 }
             }
+            threadTreeFactory.logStatistics(threadGroupName)
+            logArrivals()
             // If test schedule ends with a pause, then we need to wait for it
             val timeLeft = endTime - System.currentTimeMillis()
             if (timeLeft > 0) {
@@ -183,6 +262,20 @@ public class OpenModelThreadGroup :
             executorService.shutdownNow()
             log.info("Thread starting done")
         }
+
+        private fun logArrivals() {
+            val missed = arrivals.missed.sum()
+            val late = arrivals.late.sum()
+            if (missed > 0 || late > 0) {
+                log.warn(
+                    "Thread group {}: started {} arrival(s), missed {} arrival(s) due to max threads limit of {}," +
+                        " {} arrival(s) started more than {} ms late",
+                    threadGroupName, arrivals.started.sum(), missed, maxThreads, late, LATE_ARRIVAL_THRESHOLD_MS
+                )
+            } else {
+                log.info("Thread group {}: started {} arrival(s)", threadGroupName, arrivals.started.sum())
+            }
+        }
     }
 
     override fun recoverRunningVersion() {
@@ -199,7 +292,11 @@ public class OpenModelThreadGroup :
             val jMeterContext = JMeterContextService.getContext()
             val variables = jMeterContext.variables
             val schedule = scheduleString
-            log.info("Starting OpenModelThreadGroup#{} with schedule {}", threadGroupIndex, schedule)
+            val maxThreads = maxThreads
+            log.info(
+                "Starting OpenModelThreadGroup#{} with schedule {}, max threads {}",
+                threadGroupIndex, schedule, if (maxThreads > 0) maxThreads else "unlimited"
+            )
             val parsedSchedule = ThreadSchedule(schedule)
             val seed = randomSeed
             val rnd = if (seed == 0L) Random() else Random(seed)
@@ -207,9 +304,15 @@ public class OpenModelThreadGroup :
             val testStartTime = JMeterContextService.getTestStartTime()
             val executorService = Executors.newCachedThreadPool()
             this.executorService = executorService
-            val starter = ThreadsStarter(testStartTime, executorService, activeThreads, gen) { threadNumber ->
-                val clonedTree = cloneTree(threadGroupTree)
-                makeThread(engine, this, notifier, threadGroupIndex, threadNumber, clonedTree, variables)
+            val threadTreeFactory = ThreadTreeFactory(threadGroupTree)
+            arrivals.reset()
+            val starter = ThreadsStarter(
+                testStartTime, executorService, activeThreads, gen, threadTreeFactory, name, maxThreads, arrivals
+            ) { threadNumber ->
+                val clonedTree = threadTreeFactory.newThreadTree()
+                threadTreeFactory.configureThread(
+                    makeThread(engine, this, notifier, threadGroupIndex, threadNumber, clonedTree, variables)
+                )
             }
             threadStarterFuture.set(
                 houseKeepingThreadPool.submit {
@@ -17,6 +17,7 @@
 
 package org.apache.jmeter.threads.openmodel
 
+import org.apache.jmeter.testelement.schema.IntegerPropertyDescriptor
 import org.apache.jmeter.testelement.schema.LongPropertyDescriptor
 import org.apache.jmeter.testelement.schema.StringPropertyDescriptor
 import org.apache.jmeter.threads.AbstractThreadGroupSchema
@@ -36,4 +37,11 @@ public abstract class OpenModelThreadGroupSchema : AbstractThreadGroupSchema() {
 
     public val randomSeed: LongPropertyDescriptor<OpenModelThreadGroupSchema>
         by long("OpenModelThreadGroup.random_seed")
+
+    /**
+     * Maximum number of concurrently running threads. 0 means no limit.
+     * @since 6.0
+     */
+    public val maxThreads: IntegerPropertyDescriptor<OpenModelThreadGroupSchema>
+        by int("OpenModelThreadGroup.max_threads")
 }
@@ -51,6 +51,7 @@ public class OpenModelThreadGroupGui : AbstractThreadGroupGui() {
     override fun getLabelResource(): String = "openmodelthreadgroup"
 
     private val randomSeedEditor = JTextField()
+    private val maxThreadsEditor = JTextField()
     private val scheduleStringEditor = JFactory.tabMovesFocus(JTextArea())
     private val explanation = JLabel()
     private val targetRateChart = TargetRateChart()
@@ -74,7 +75,8 @@ public class OpenModelThreadGroupGui : AbstractThreadGroupGui() {
         bindingGroup.addAll(
             listOf(
                 JTextComponentBinding(scheduleStringEditor, OpenModelThreadGroupSchema.schedule),
-                JTextComponentBinding(randomSeedEditor, OpenModelThreadGroupSchema.randomSeed)
+                JTextComponentBinding(randomSeedEditor, OpenModelThreadGroupSchema.randomSeed),
+                JTextComponentBinding(maxThreadsEditor, OpenModelThreadGroupSchema.maxThreads)
             )
         )
     }
@@ -89,8 +91,10 @@ public class OpenModelThreadGroupGui : AbstractThreadGroupGui() {
             add(JPanel())
             add(scheduleStringEditor)
 
-            add(labelFor(randomSeedEditor, "openmodelthreadgroup_random_seed"), "grow 0, split 3")
+            add(labelFor(randomSeedEditor, "openmodelthreadgroup_random_seed"), "grow 0, split 5")
             add(randomSeedEditor, "width 100pt, grow 0")
+            add(labelFor(maxThreadsEditor, "openmodelthreadgroup_max_threads"), "grow 0, gapleft 20pt")
+            add(maxThreadsEditor, "width 100pt, grow 0")
             add(JPanel())
 
             add(explanation)
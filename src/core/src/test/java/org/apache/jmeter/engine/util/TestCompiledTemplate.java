@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.engine.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.jmeter.functions.Function;
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.Sampler;
+import org.apache.jmeter.threads.JMeterContextService;
+import org.apache.jmeter.threads.JMeterVariables;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestCompiledTemplate extends JMeterTestCase {
+    private JMeterVariables vars;
+
+    /** Renders its argument in brackets, so the nested template is rendered while the outer one is in progress */
+    private static class Brackets implements Function {
+        private final CompoundVariable argument;
+
+        Brackets(String argument) {
+            this.argument = new CompoundVariable(argument);
+        }
+
+        @Override
+        public String execute(SampleResult previousResult, Sampler currentSampler) {
+            return "[" + argument.execute() + "]";
+        }
+
+        @Override
+        public void setParameters(Collection<CompoundVariable> parameters) {
+            // not used
+        }
+
+        @Override
+        public String getReferenceKey() {
+            return "__brackets";
+        }
+
+        @Override
+        public List<String> getArgumentDesc() {
+            return Collections.emptyList();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        vars = new JMeterVariables();
+        vars.put("name", "jack");
+        JMeterContextService.getContext().setVariables(vars);
+    }
+
+    @Test
+    public void testLiteralsAreMerged() {
+        CompiledTemplate template = CompiledTemplate.compile(Arrays.asList("a", "b",
+                new FoldedFunction(new Brackets("x"), "c")));
+        assertTrue(template.isConstant(), "literals and folded functions should give a constant");
+        assertEquals("abc", template.render(null, null));
+    }
+
+    @Test
+    public void testVariables() {
+        CompiledTemplate template = CompiledTemplate.compile(Arrays.asList(
+                "Hello ", new SimpleVariable("name"), ", ", new SimpleVariable("missing")));
+        assertFalse(template.isConstant(), "variable reference is not constant");
+        assertEquals("Hello jack, ${missing}", template.render(null, null));
+        vars.put("name", "jill");
+        assertEquals("Hello jill, ${missing}", template.render(null, null));
+    }
+
+    @Test
+    public void testNestedRendering() {
+        CompiledTemplate template = CompiledTemplate.compile(Arrays.asList(
+                "<", new Brackets("${name}-${name}"), new SimpleVariable("name"), ">"));
+        assertEquals("<[jack-jack]jack>", template.render(null, null));
+        // The buffers are reused by the next rendering
+        assertEquals("<[jack-jack]jack>", template.render(null, null));
+    }
+
+    @Test
+    public void testCompoundVariableUsesTemplate() {
+        CompoundVariable constant = new CompoundVariable("no references");
+        assertFalse(constant.isDynamic());
+        assertEquals("no references", constant.execute());
+        CompoundVariable dynamic = new CompoundVariable("Hello ${name}");
+        assertTrue(dynamic.isDynamic());
+        assertEquals("Hello jack", dynamic.execute());
+        assertEquals("Hello jack", dynamic.getFunction().execute());
+    }
+}
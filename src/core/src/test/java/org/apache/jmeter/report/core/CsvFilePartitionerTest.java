@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class CsvFilePartitionerTest extends JMeterTestCase {
+
+    private static final int NR_ROWS = 500;
+
+    @TempDir
+    File tempDir;
+
+    private File csv;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        csv = new File(tempDir, "results.csv");
+        try (Writer writer = Files.newBufferedWriter(csv.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("timeStamp,elapsed,label,responseCode,success\n");
+            for (int i = 0; i < NR_ROWS; i++) {
+                String label;
+                if (i % 7 == 0) {
+                    // Quoted labels spanning several lines, with escaped quotes
+                    label = "\"multi\nline \"\"" + i + "\"\"\n\"";
+                } else if (i % 5 == 0) {
+                    label = "\"comma, " + i + "\"";
+                } else {
+                    label = "label-" + i;
+                }
+                writer.write((1_600_000_000_000L + i) + "," + i + "," + label + ",200,true\n");
+            }
+        }
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static List<String> readAll(CsvSampleReader reader) {
+        List<String> rows = new ArrayList<>();
+        try (reader) {
+            while (reader.hasNext()) {
+                rows.add(reader.readSample().toString());
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testIsPartitionable() throws IOException {
+        assertTrue(CsvFilePartitioner.isPartitionable(csv));
+
+        File noHeader = new File(tempDir, "noheader.csv");
+        Files.write(noHeader.toPath(), "1600000000000,1,label,200,true\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(CsvFilePartitioner.isPartitionable(noHeader));
+        assertFalse(CsvFilePartitioner.isPartitionable(new File(tempDir, "missing.csv")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 8, 64, 5000})
+    public void testPartsContainAllRecordsInOrder(int partitions) throws IOException {
+        List<String> expected = readAll(new CsvSampleReader(csv, ',', true));
+        assertEquals(NR_ROWS, expected.size());
+        SampleMetadata metadata = new CsvSampleReader(csv, ',', true).getMetadata();
+
+        long[] offsets = CsvFilePartitioner.split(csv, partitions, executor);
+        assertTrue(offsets.length >= 2 && offsets.length <= partitions + 1,
+                () -> offsets.length - 1 + " parts were created for " + partitions + " requested");
+        assertEquals(csv.length(), offsets[offsets.length - 1]);
+
+        List<String> actual = new ArrayList<>();
+        for (int i = 0; i < offsets.length - 1; i++) {
+            assertTrue(offsets[i] < offsets[i + 1], "Parts should not be empty");
+            actual.addAll(readAll(new CsvSampleReader(csv, metadata, offsets[i], offsets[i + 1])));
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testRecordsOfGrowingFileAreReadOnce() throws IOException {
+        List<String> expected = readAll(new CsvSampleReader(csv, ',', true));
+        SampleMetadata metadata = new CsvSampleReader(csv, ',', true).getMetadata();
+        byte[] content = Files.readAllBytes(csv.toPath());
+        File growing = new File(tempDir, "growing.csv");
+
+        List<String> actual = new ArrayList<>();
+        Random random = new Random(7);
+        long offset = -1;
+        int written = 0;
+        try (OutputStream out = Files.newOutputStream(growing.toPath())) {
+            while (written < content.length) {
+                // Records and even the header are cut anywhere, like a file being written
+                int length = Math.min(content.length - written, 1 + random.nextInt(300));
+                out.write(content, written, length);
+                out.flush();
+                written += length;
+                if (offset < 0) {
+                    long dataStart = CsvFilePartitioner.findDataStart(growing);
+                    if (dataStart >= growing.length()) {
+                        continue;
+                    }
+                    offset = dataStart;
+                }
+                long end = CsvFilePartitioner.findRecordsEnd(growing, offset, growing.length());
+                assertTrue(end >= offset);
+                if (end > offset) {
+                    actual.addAll(readAll(new CsvSampleReader(growing, metadata, offset, end)));
+                    offset = end;
+                }
+                assertEquals(expected.subList(0, actual.size()), actual);
+            }
+        }
+        assertEquals(growing.length(), offset);
+        assertEquals(expected, actual);
+    }
+}
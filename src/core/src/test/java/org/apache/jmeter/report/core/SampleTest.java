@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.Test;
+
+public class SampleTest extends JMeterTestCase {
+
+    private static final SampleMetadata FULL_METADATA = new SampleMetadata(',',
+            CSVSaveService.TIME_STAMP, CSVSaveService.CSV_ELAPSED, CSVSaveService.LABEL,
+            CSVSaveService.SUCCESSFUL, CSVSaveService.CSV_BYTES, CSVSaveService.CSV_SENT_BYTES,
+            CSVSaveService.CSV_LATENCY, CSVSaveService.CSV_CONNECT_TIME);
+
+    private static final SampleMetadata MINIMAL_METADATA = new SampleMetadata(',',
+            CSVSaveService.TIME_STAMP, CSVSaveService.CSV_ELAPSED, CSVSaveService.LABEL);
+
+    @Test
+    public void testDecodesFields() {
+        Sample sample = new Sample(0, FULL_METADATA,
+                "1000", " 25 ", "label", "true", "1024", "256", "12", "3");
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1000L, sample.getTimestamp());
+            assertEquals(25L, sample.getElapsedTime());
+            assertEquals(975L, sample.getStartTime());
+            assertEquals(1000L, sample.getEndTime());
+            assertEquals("label", sample.getName());
+            assertTrue(sample.getSuccess());
+            assertEquals(1024L, sample.getReceivedBytes());
+            assertEquals(256L, sample.getSentBytes());
+            assertEquals(12L, sample.getLatency());
+            assertEquals(3L, sample.getConnectTime());
+        }
+    }
+
+    @Test
+    public void testOptionalColumns() {
+        Sample sample = new Sample(0, MINIMAL_METADATA, "1000", "25", "label");
+        assertEquals(0L, sample.getSentBytes());
+        assertEquals(0L, sample.getConnectTime());
+        assertEquals(0L, sample.getIntendedStartTime());
+        assertEquals(25L, sample.getCorrectedElapsedTime());
+    }
+
+    @Test
+    public void testMissingColumn() {
+        Sample sample = new Sample(0, MINIMAL_METADATA, "1000", "25", "label");
+        assertThrows(SampleException.class, sample::getSuccess);
+        assertThrows(SampleException.class, sample::getLatency);
+        assertThrows(SampleException.class, sample::getResponseCode);
+    }
+
+    @Test
+    public void testInvalidNumber() {
+        Sample sample = new Sample(4, FULL_METADATA,
+                "1000", "abc", "label", "FALSE", "1024", "256", "12", "3");
+        SampleException e = assertThrows(SampleException.class, sample::getElapsedTime);
+        assertTrue(e.getMessage().startsWith("Error in sample at line:5"), e::getMessage);
+        assertFalse(sample.getSuccess());
+    }
+}
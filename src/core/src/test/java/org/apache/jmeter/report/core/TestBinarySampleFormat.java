@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.jmeter.junit.JMeterTestUtils;
+import org.apache.jmeter.util.JMeterUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestBinarySampleFormat {
+
+    private static final SampleMetadata METADATA =
+            new SampleMetadata(',', "timeStamp", "elapsed", "label", "responseCode", "success", "\"var\"");
+
+    @TempDir
+    File tempDir;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // We have to initialize JMeterUtils
+        JMeterTestUtils.setupJMeterHome();
+        JMeterUtils.loadJMeterProperties(JMeterUtils.getJMeterBinDir() + "/jmeter.properties");
+    }
+
+    private static List<String[]> rows(int count) {
+        List<String[]> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new String[]{
+                    Long.toString(1_700_000_000_000L + i * 7L),
+                    Integer.toString(i % 3 == 0 ? 1200 - i : i),
+                    "label " + (i % 5),
+                    i % 10 == 0 ? "Non HTTP response code: java.net.SocketException" : "200",
+                    Boolean.toString(i % 10 != 0),
+                    i % 2 == 0 ? "007" : "with,comma \"and\" quotes\né"
+            });
+        }
+        return rows;
+    }
+
+    private static byte[] write(List<String[]> rows, int blockRows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BinarySampleWriter writer = new BinarySampleWriter(out, METADATA, blockRows)) {
+            for (String[] row : rows) {
+                writer.writeRow(row);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<String[]> read(byte[] data) {
+        List<String[]> rows = new ArrayList<>();
+        try (BinarySampleReader reader = new BinarySampleReader(new ByteArrayInputStream(data), "test")) {
+            assertEquals(METADATA.toString(), reader.getMetadata().toString());
+            Sample sample;
+            while ((sample = reader.readSample()) != null) {
+                String[] row = new String[METADATA.getColumnCount()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = sample.getData(i);
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void assertRows(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size(), "number of samples");
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "sample " + i);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<String[]> rows = rows(10_000);
+        assertRows(rows, read(write(rows, 1000)));
+    }
+
+    @Test
+    public void testEmptySegment() {
+        assertRows(new ArrayList<>(), read(write(new ArrayList<>(), 10)));
+    }
+
+    @Test
+    public void testAppendedSegments() {
+        List<String[]> first = rows(25);
+        List<String[]> second = rows(13);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(write(first, 10));
+        out.writeBytes(write(second, 10));
+        List<String[]> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertRows(expected, read(out.toByteArray()));
+    }
+
+    @Test
+    public void testTruncatedBlockIsIgnored() {
+        List<String[]> rows = rows(30);
+        byte[] data = write(rows, 10);
+        // Drops the end marker and a part of the last block
+        byte[] truncated = Arrays.copyOf(data, data.length - 5);
+        assertRows(rows.subList(0, 20), read(truncated));
+    }
+
+    /**
+     * @return the bytes of a segment whose writer was killed after writing the blocks of the rows
+     */
+    private static byte[] writeKilled(List<String[]> rows, int blockRows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySampleWriter writer = new BinarySampleWriter(out, METADATA, blockRows);
+        for (String[] row : rows) {
+            writer.writeRow(row);
+        }
+        writer.flush();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSegmentAppendedAfterKilledRunIsRead() {
+        List<String[]> first = rows(25);
+        List<String[]> second = rows(13);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(writeKilled(first, 10));
+        out.writeBytes(write(second, 10));
+        List<String[]> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertRows(expected, read(out.toByteArray()));
+    }
+
+    @Test
+    public void testKilledRunIsTerminatedBeforeAppending() throws Exception {
+        List<String[]> first = rows(30);
+        List<String[]> second = rows(13);
+        byte[] killed = writeKilled(first, 10);
+        File file = new File(tempDir, "results.jtlb");
+        // Killed in the middle of the last block
+        Files.write(file.toPath(), Arrays.copyOf(killed, killed.length - 5));
+
+        assertTrue(BinarySampleFormat.terminateLastSegment(file), "file should be repaired");
+        assertFalse(BinarySampleFormat.terminateLastSegment(file), "file is already complete");
+        Files.write(file.toPath(), write(second, 10), StandardOpenOption.APPEND);
+
+        List<String[]> expected = new ArrayList<>(first.subList(0, 20));
+        expected.addAll(second);
+        assertRows(expected, read(Files.readAllBytes(file.toPath())));
+    }
+
+    @Test
+    public void testKilledRunInHeaderIsTruncated() throws Exception {
+        List<String[]> first = rows(12);
+        byte[] complete = write(first, 10);
+        byte[] killed = write(rows(3), 10);
+        File file = new File(tempDir, "results.jtlb");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(complete);
+        out.write(killed, 0, 10);
+        Files.write(file.toPath(), out.toByteArray());
+
+        assertTrue(BinarySampleFormat.terminateLastSegment(file), "file should be repaired");
+        assertArrayEquals(complete, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void testRepeatedValuesShareInstances() {
+        List<String[]> rows = read(write(rows(10), 10));
+        assertSame(rows.get(0)[2], rows.get(5)[2], "labels of a block should come from its dictionary");
+    }
+
+    @Test
+    public void testIsCanonicalLong() {
+        assertTrue(BinarySampleWriter.isCanonicalLong("0"));
+        assertTrue(BinarySampleWriter.isCanonicalLong("-15"));
+        assertTrue(BinarySampleWriter.isCanonicalLong("1700000000000"));
+        assertFalse(BinarySampleWriter.isCanonicalLong(""));
+        assertFalse(BinarySampleWriter.isCanonicalLong("-"));
+        assertFalse(BinarySampleWriter.isCanonicalLong("-0"));
+        assertFalse(BinarySampleWriter.isCanonicalLong("007"));
+        assertFalse(BinarySampleWriter.isCanonicalLong("+1"));
+        assertFalse(BinarySampleWriter.isCanonicalLong("1.5"));
+        assertFalse(BinarySampleWriter.isCanonicalLong("12345678901234567890"));
+    }
+
+    @Test
+    public void testCsvConversionRoundTrip() throws Exception {
+        File csv = new File(tempDir, "results.csv");
+        String content = "timeStamp,elapsed,label,responseCode,success\n"
+                + "1700000000000,12,Home page,200,true\n"
+                + "1700000000005,120,\"Login, then home\",500,false\n";
+        Files.write(csv.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        File binary = new File(tempDir, "results.jtlb");
+        File back = new File(tempDir, "back.csv");
+
+        assertEquals(2, BinarySampleConverter.toBinary(csv, binary, ','));
+        assertTrue(BinarySampleFormat.isBinaryFile(binary));
+        assertFalse(BinarySampleFormat.isBinaryFile(csv));
+        assertEquals(2, BinarySampleConverter.toCsv(binary, back));
+
+        assertEquals(Files.readAllLines(csv.toPath()), Files.readAllLines(back.toPath()));
+        try (BinarySampleReader reader = new BinarySampleReader(binary)) {
+            Sample sample = reader.readSample();
+            assertEquals("Home page", sample.getName());
+            assertEquals(1700000000000L, sample.getTimestamp());
+            assertEquals("Login, then home", reader.readSample().getName());
+            assertNull(reader.readSample());
+        }
+    }
+}
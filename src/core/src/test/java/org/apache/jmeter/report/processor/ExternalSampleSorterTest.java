@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.report.core.CsvSampleReader;
+import org.apache.jmeter.report.core.CsvSampleWriter;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleBuilder;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+public class ExternalSampleSorterTest extends JMeterTestCase {
+
+    private static final int NR_ROWS = 120_000;
+
+    private final SampleMetadata metadata = new SampleMetadata(',', "timeStamp", "index");
+
+    @TempDir
+    File tempDir;
+
+    private File writeInput(long[] timeStamps) {
+        File input = new File(tempDir, "input.csv");
+        try (CsvSampleWriter writer = new CsvSampleWriter(input, metadata)) {
+            for (int i = 0; i < timeStamps.length; i++) {
+                writer.write(new SampleBuilder(metadata).add(timeStamps[i]).add(i).build());
+            }
+        }
+        return input;
+    }
+
+    private static long[] nearlySorted() {
+        Random random = new Random(3);
+        long[] timeStamps = new long[NR_ROWS];
+        for (int i = 0; i < NR_ROWS; i++) {
+            timeStamps[i] = 1_600_000_000_000L + i + random.nextInt(2000);
+        }
+        return timeStamps;
+    }
+
+    private static long[] shuffled() {
+        List<Long> values = new ArrayList<>(NR_ROWS);
+        for (int i = 0; i < NR_ROWS; i++) {
+            values.add(1_600_000_000_000L + i / 3);
+        }
+        Collections.shuffle(values, new Random(5));
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "nearly sorted, true",
+            "nearly sorted, false",
+            "shuffled, true",
+            "shuffled, false",
+    })
+    public void testSort(String input, boolean adaptive) {
+        long[] timeStamps = "shuffled".equals(input) ? shuffled() : nearlySorted();
+        File inputFile = writeInput(timeStamps);
+        File outputFile = new File(tempDir, "output.csv");
+
+        ExternalSampleSorter sorter = new ExternalSampleSorter(new FieldSampleComparator("timeStamp"));
+        sorter.setAdaptive(adaptive);
+        SampleContext context = new SampleContext();
+        context.setWorkingDirectory(tempDir);
+        sorter.setSampleContext(context);
+        sorter.sort(metadata, inputFile, outputFile, false);
+
+        boolean[] seen = new boolean[NR_ROWS];
+        int count = 0;
+        long previous = Long.MIN_VALUE;
+        try (CsvSampleReader reader = new CsvSampleReader(outputFile, metadata)) {
+            Sample sample;
+            while ((sample = reader.readSample()) != null) {
+                long timeStamp = sample.getData(long.class, "timeStamp");
+                int index = sample.getData(int.class, "index");
+                assertTrue(previous <= timeStamp, "samples should be sorted by timeStamp");
+                assertEquals(timeStamps[index], timeStamp, "timeStamp of sample " + index);
+                seen[index] = true;
+                previous = timeStamp;
+                count++;
+            }
+        }
+        assertEquals(NR_ROWS, count);
+        for (int i = 0; i < NR_ROWS; i++) {
+            assertTrue(seen[i], "sample " + i + " is missing");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class HistogramPercentileAggregatorTest {
+
+    private static long nearestRank(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(sorted.length * percentile / 100);
+        return sorted[Math.max(1, rank) - 1];
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        HistogramPercentileAggregator aggregator = new HistogramPercentileAggregator(90, 7);
+        assertTrue(Double.isNaN(aggregator.getResult()), "No value was added");
+        for (int value = 100; value >= 1; value--) {
+            aggregator.addValue(value);
+        }
+        assertEquals(100, aggregator.getCount());
+        assertEquals(90, aggregator.getResult());
+
+        aggregator.reset();
+        assertEquals(0, aggregator.getCount());
+        aggregator.addValue(42);
+        assertEquals(42, aggregator.getResult());
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {50, 90, 95, 99, 99.9, 100})
+    public void testRelativeErrorIsBounded(double percentile) {
+        int precisionBits = 7;
+        HistogramPercentileAggregator aggregator = new HistogramPercentileAggregator(percentile, precisionBits);
+        Random random = new Random(12);
+        long[] values = new long[20000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal like response times, from a few ms to minutes
+            values[i] = (long) Math.exp(3 + random.nextGaussian() * 2);
+            aggregator.addValue(values[i]);
+        }
+        Arrays.sort(values);
+        long exact = nearestRank(values, percentile);
+        double error = Math.abs(aggregator.getResult() - exact);
+        assertTrue(error <= exact / Math.pow(2, precisionBits + 1),
+                () -> "Percentile " + percentile + " is " + aggregator.getResult() + ", expecting " + exact);
+    }
+
+    @Test
+    public void testResultStaysBetweenMinAndMax() {
+        HistogramPercentileAggregator aggregator = new HistogramPercentileAggregator(100, 3);
+        aggregator.addValue(1001);
+        aggregator.addValue(1002);
+        assertEquals(1002, aggregator.getResult());
+    }
+
+    @Test
+    public void testMergeRequiresSamePrecision() {
+        HistogramPercentileAggregator aggregator = new HistogramPercentileAggregator(90, 7);
+        HistogramPercentileAggregator other = new HistogramPercentileAggregator(90, 6);
+        other.addValue(1);
+        assertThrows(IllegalArgumentException.class, () -> aggregator.merge(other));
+    }
+}
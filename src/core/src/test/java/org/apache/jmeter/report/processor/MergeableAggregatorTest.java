@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class MergeableAggregatorTest extends JMeterTestCase {
+
+    private static final double[] VALUES = new Random(42).doubles(1000, 0, 5000).toArray();
+
+    static Stream<Arguments> aggregators() {
+        return Stream.of(
+                Arguments.of("max", (Supplier<MergeableAggregator>) MaxAggregator::new),
+                Arguments.of("min", (Supplier<MergeableAggregator>) MinAggregator::new),
+                Arguments.of("sum", (Supplier<MergeableAggregator>) SumAggregator::new),
+                Arguments.of("mean", (Supplier<MergeableAggregator>) MeanAggregator::new),
+                Arguments.of("percentile", (Supplier<MergeableAggregator>) () -> new PercentileAggregator(90)),
+                Arguments.of("histogram", (Supplier<MergeableAggregator>) () -> new HistogramPercentileAggregator(90, 7)),
+                Arguments.of("rate", (Supplier<MergeableAggregator>) () -> {
+                    TimeRateAggregator aggregator = new TimeRateAggregator();
+                    aggregator.setGranularity(1000);
+                    return aggregator;
+                }));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("aggregators")
+    public void testMergeGivesSerialResult(String name, Supplier<MergeableAggregator> factory) {
+        MergeableAggregator serial = factory.get();
+        for (double value : VALUES) {
+            serial.addValue(value);
+        }
+
+        MergeableAggregator merged = factory.get();
+        int[] bounds = {0, 1, 1, 400, 999, VALUES.length};
+        for (int i = 0; i < bounds.length - 1; i++) {
+            MergeableAggregator part = factory.get();
+            for (int j = bounds[i]; j < bounds[i + 1]; j++) {
+                part.addValue(VALUES[j]);
+            }
+            merged.merge(part);
+        }
+
+        assertEquals(serial.getCount(), merged.getCount(), "count");
+        assertEquals(serial.getResult(), merged.getResult(), Math.abs(serial.getResult()) * 1e-12, "result");
+    }
+
+    @Test
+    public void testMergeStatisticsSummaryData() {
+        StatisticsSummaryData serial = new StatisticsSummaryData(90, 95, 99);
+        StatisticsSummaryData first = new StatisticsSummaryData(90, 95, 99);
+        StatisticsSummaryData second = new StatisticsSummaryData(90, 95, 99);
+        for (int i = 0; i < VALUES.length; i++) {
+            long elapsed = (long) VALUES[i];
+            update(serial, 1000L + i, elapsed, i % 10 == 0);
+            update(i < VALUES.length / 3 ? first : second, 1000L + i, elapsed, i % 10 == 0);
+        }
+        first.merge(second);
+
+        assertEquals(serial.getTotal(), first.getTotal());
+        assertEquals(serial.getErrors(), first.getErrors());
+        assertEquals(serial.getBytes(), first.getBytes());
+        assertEquals(serial.getFirstTime(), first.getFirstTime());
+        assertEquals(serial.getEndTime(), first.getEndTime());
+        assertEquals(serial.getMin(), first.getMin());
+        assertEquals(serial.getMax(), first.getMax());
+        assertEquals(serial.getMean().getResult(), first.getMean().getResult(), 1e-9);
+        assertEquals(serial.getMedianAggregator().getResult(), first.getMedianAggregator().getResult());
+        assertEquals(serial.getPercentile1Aggregator().getResult(), first.getPercentile1Aggregator().getResult());
+        assertEquals(serial.getPercentile3Aggregator().getResult(), first.getPercentile3Aggregator().getResult());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testStatisticsSummaryDataKeepsWindowGetters() {
+        StatisticsSummaryData data = new StatisticsSummaryData(90, 95, 99);
+        // The sliding windows are the default percentile algorithm
+        assertSame(data.getMedianAggregator(), data.getMedian());
+        assertSame(data.getPercentile1Aggregator(), data.getPercentile1());
+        assertSame(data.getPercentile2Aggregator(), data.getPercentile2());
+        assertSame(data.getPercentile3Aggregator(), data.getPercentile3());
+    }
+
+    private static void update(StatisticsSummaryData data, long startTime, long elapsed, boolean error) {
+        data.setFirstTime(startTime);
+        data.setEndTime(startTime + elapsed);
+        data.incTotal();
+        data.incBytes(elapsed * 2);
+        if (error) {
+            data.incErrors();
+        }
+        data.setMin(elapsed);
+        data.setMax(elapsed);
+        data.getMean().addValue(elapsed);
+        data.getMedianAggregator().addValue(elapsed);
+        data.getPercentile1Aggregator().addValue(elapsed);
+        data.getPercentile2Aggregator().addValue(elapsed);
+        data.getPercentile3Aggregator().addValue(elapsed);
+    }
+}
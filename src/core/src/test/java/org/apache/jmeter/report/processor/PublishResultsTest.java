@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.apache.jmeter.report.dashboard.JsonizerVisitor;
+import org.apache.jmeter.report.processor.graph.impl.HitsPerSecondGraphConsumer;
+import org.apache.jmeter.report.processor.graph.impl.ResponseTimeVSRequestGraphConsumer;
+import org.apache.jmeter.save.CSVSaveService;
+import org.junit.jupiter.api.Test;
+
+public class PublishResultsTest extends JMeterTestCase {
+
+    private static final SampleMetadata METADATA = new SampleMetadata(',',
+            CSVSaveService.TIME_STAMP, CSVSaveService.CSV_ELAPSED, CSVSaveService.LABEL,
+            CSVSaveService.RESPONSE_CODE, CSVSaveService.RESPONSE_MESSAGE, CSVSaveService.SUCCESSFUL,
+            CSVSaveService.FAILURE_MESSAGE);
+
+    private static List<Sample> createSamples(int count) {
+        List<Sample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean success = i % 9 != 0;
+            samples.add(new Sample(i, METADATA, Long.toString(1_600_000_000_000L + i * 37L),
+                    Integer.toString(i % 250), "label-" + i % 3, success ? "200" : "500",
+                    success ? "OK" : "Server Error", Boolean.toString(success), ""));
+        }
+        return samples;
+    }
+
+    private static AbstractSampleConsumer createChain() {
+        FilterConsumer filter = new FilterConsumer();
+        filter.setName("filter");
+        filter.setReverseFilter(true);
+        RequestsSummaryConsumer requests = new RequestsSummaryConsumer();
+        requests.setName("requests");
+        filter.addSampleConsumer(requests);
+        ErrorsSummaryConsumer errors = new ErrorsSummaryConsumer();
+        errors.setName("errors");
+        errors.setHasOverallResult(true);
+        filter.addSampleConsumer(errors);
+        HitsPerSecondGraphConsumer hits = new HitsPerSecondGraphConsumer();
+        hits.setName("hits");
+        hits.setGranularity(1000L);
+        hits.initialize();
+        filter.addSampleConsumer(hits);
+        return filter;
+    }
+
+    private static SampleContext start(AbstractSampleConsumer chain) {
+        SampleContext context = new SampleContext();
+        chain.setSampleContext(context);
+        chain.setConsumedMetadata(METADATA, 0);
+        chain.startConsuming();
+        return context;
+    }
+
+    private static Map<String, String> toJson(SampleContext context) {
+        Map<String, String> json = new TreeMap<>();
+        context.getData().forEach((key, value) ->
+                json.put(key, ((ResultData) value).accept(new JsonizerVisitor())));
+        return json;
+    }
+
+    @Test
+    public void testPublishedResultsMatchStoppedChain() {
+        List<Sample> samples = createSamples(1000);
+
+        AbstractSampleConsumer serial = createChain();
+        SampleContext serialContext = start(serial);
+        samples.forEach(sample -> serial.consume(sample, 0));
+        serial.stopConsuming();
+
+        AbstractSampleConsumer refreshed = createChain();
+        assertTrue(refreshed.isPublishable());
+        SampleContext refreshedContext = start(refreshed);
+        List<Sample> firstPart = samples.subList(0, 400);
+        firstPart.forEach(sample -> refreshed.consume(sample, 0));
+        refreshed.publishResults();
+
+        AbstractSampleConsumer partial = createChain();
+        SampleContext partialContext = start(partial);
+        firstPart.forEach(sample -> partial.consume(sample, 0));
+        partial.stopConsuming();
+        assertEquals(toJson(partialContext), toJson(refreshedContext));
+
+        samples.subList(400, samples.size()).forEach(sample -> refreshed.consume(sample, 0));
+        refreshed.publishResults();
+        assertEquals(toJson(serialContext), toJson(refreshedContext));
+    }
+
+    @Test
+    public void testVersusRequestsGraphIsNotPublishable() {
+        AbstractSampleConsumer chain = createChain();
+        chain.addSampleConsumer(new ResponseTimeVSRequestGraphConsumer());
+        assertFalse(chain.isPublishable());
+    }
+}
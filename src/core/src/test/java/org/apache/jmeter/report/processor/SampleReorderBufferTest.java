@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.report.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.jmeter.report.core.Sample;
+import org.apache.jmeter.report.core.SampleMetadata;
+import org.junit.jupiter.api.Test;
+
+public class SampleReorderBufferTest {
+
+    private static final SampleMetadata METADATA = new SampleMetadata(',', "timeStamp", "index");
+
+    private static final Comparator<Sample> BY_TIMESTAMP =
+            Comparator.comparingLong(s -> Long.parseLong(s.getData(0)));
+
+    private static Sample sample(long timeStamp, int index) {
+        return new Sample(index, METADATA, Long.toString(timeStamp), Integer.toString(index));
+    }
+
+    private static void assertSortedAndStable(List<Sample> samples) {
+        for (int i = 1; i < samples.size(); i++) {
+            Sample previous = samples.get(i - 1);
+            Sample current = samples.get(i);
+            int order = BY_TIMESTAMP.compare(previous, current);
+            assertTrue(order < 0 || order == 0 && previous.getSampleRow() < current.getSampleRow(),
+                    () -> previous + " should not come before " + current);
+        }
+    }
+
+    @Test
+    public void testSortsNearlySortedSamples() {
+        Random random = new Random(7);
+        SampleReorderBuffer buffer = new SampleReorderBuffer(BY_TIMESTAMP, 50000);
+        List<Sample> sorted = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            // Timestamps jittered by up to 500, with duplicates
+            assertTrue(buffer.offer(sample(i / 2 + random.nextInt(500), i), sorted::add));
+        }
+        assertTrue(buffer.size() <= buffer.getCapacity(), "buffer should keep at most its capacity");
+        assertTrue(buffer.getCapacity() < 50000, "capacity should be sized from the disorder");
+        buffer.drain(sorted::add);
+
+        assertEquals(100000, sorted.size());
+        assertSortedAndStable(sorted);
+    }
+
+    @Test
+    public void testRejectsSampleBeforeEmittedSamples() {
+        SampleReorderBuffer buffer = new SampleReorderBuffer(BY_TIMESTAMP, 8);
+        List<Sample> emitted = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(buffer.offer(sample(100 + i, i), emitted::add));
+        }
+        assertEquals(2, emitted.size());
+        assertFalse(buffer.offer(sample(100, 10), emitted::add), "sample 100 was already emitted");
+
+        List<Sample> remaining = buffer.removeAll();
+        assertEquals(8, remaining.size());
+        assertEquals(0, buffer.size());
+        assertSortedAndStable(remaining);
+    }
+
+    @Test
+    public void testRejectsReversedSamples() {
+        SampleReorderBuffer buffer = new SampleReorderBuffer(BY_TIMESTAMP, 1000);
+        int accepted = 0;
+        while (buffer.offer(sample(1_000_000 - accepted, accepted), s -> { })) {
+            accepted++;
+        }
+        assertEquals(1000 / SampleReorderBuffer.DISPLACEMENT_FACTOR + 1, accepted);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.reporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.Test;
+
+class TestBatchingResultWriter extends JMeterTestCase {
+    private static final int THREADS = 8;
+    private static final int SAMPLES_PER_THREAD = 5000;
+
+    private static SampleEvent event(String label) {
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(label);
+        return new SampleEvent(result, "tg");
+    }
+
+    private static void writeLabel(SampleEvent event, PrintWriter writer) {
+        writer.println(event.getResult().getSampleLabel());
+    }
+
+    @Test
+    void writesAllSamplesInOrderPerThread() throws InterruptedException {
+        StringWriter file = new StringWriter();
+        PrintWriter out = new PrintWriter(file);
+        BatchingResultWriter writer = new BatchingResultWriter(out, TestBatchingResultWriter::writeLabel,
+                256, 10, "test-writer");
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            String prefix = "t" + t + "-";
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < SAMPLES_PER_THREAD; i++) {
+                    try {
+                        writer.write(event(prefix + i));
+                    } catch (IOException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+
+        String[] lines = file.toString().split(System.lineSeparator());
+        assertEquals(THREADS * SAMPLES_PER_THREAD, lines.length, "number of written samples");
+        int[] next = new int[THREADS];
+        for (String line : lines) {
+            int dash = line.indexOf('-');
+            int thread = Integer.parseInt(line.substring(1, dash));
+            int index = Integer.parseInt(line.substring(dash + 1));
+            assertEquals(next[thread], index, () -> "Samples of thread " + thread + " are out of order");
+            next[thread]++;
+        }
+    }
+
+    @Test
+    void flushesPartialBuffersPeriodically() throws IOException, InterruptedException {
+        StringWriter file = new StringWriter();
+        BatchingResultWriter writer = new BatchingResultWriter(new PrintWriter(file),
+                TestBatchingResultWriter::writeLabel, 1_000_000, 10, "test-writer");
+        try {
+            writer.write(event("single"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (file.toString().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals("single" + System.lineSeparator(), file.toString(),
+                    "The sample should be written after the flush interval even if the buffer is not full");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    void writesLateSamplesAfterClose() throws IOException {
+        StringWriter file = new StringWriter();
+        BatchingResultWriter writer = new BatchingResultWriter(new PrintWriter(file),
+                TestBatchingResultWriter::writeLabel, 1024, 1000, "test-writer");
+        writer.write(event("before"));
+        writer.close();
+        writer.write(event("after"));
+        assertTrue(file.toString().endsWith("after" + System.lineSeparator()),
+                () -> "Samples written after close should go to the file immediately, got " + file);
+        assertEquals("before" + System.lineSeparator() + "after" + System.lineSeparator(), file.toString());
+    }
+}
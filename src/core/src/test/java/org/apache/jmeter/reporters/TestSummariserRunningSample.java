@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.reporters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleResult;
+import org.junit.jupiter.api.Test;
+
+class TestSummariserRunningSample extends JMeterTestCase {
+
+    private static SampleResult sample(long elapsed, boolean success) {
+        SampleResult result = SampleResult.createTestSample(1_700_000_000_000L, 1_700_000_000_000L + elapsed);
+        result.setSuccessful(success);
+        return result;
+    }
+
+    @Test
+    void computesStatistics() {
+        SummariserRunningSample running = new SummariserRunningSample("TOTAL", true);
+        for (int i = 1; i <= 100; i++) {
+            running.addSample(sample(i, i % 10 != 0));
+        }
+        assertEquals(100, running.getNumSamples());
+        assertEquals(10, running.getErrorCount());
+        assertEquals(1, running.getMin());
+        assertEquals(100, running.getMax());
+        assertEquals(50, running.getAverage());
+        assertTrue(running.hasPercentiles());
+        assertEquals(90, running.getPercentPoint(0.9), 90 / 64.0);
+        assertEquals(99, running.getPercentPoint(0.99), 99 / 64.0);
+    }
+
+    @Test
+    void percentilesAreOptional() {
+        SummariserRunningSample running = new SummariserRunningSample("TOTAL");
+        running.addSample(sample(10, true));
+        assertFalse(running.hasPercentiles());
+        assertEquals(0, running.getPercentPoint(0.9));
+    }
+
+    @Test
+    void drainDoesNotLoseConcurrentSamples() throws InterruptedException {
+        SummariserRunningSample delta = new SummariserRunningSample("DELTA", true);
+        SummariserRunningSample total = new SummariserRunningSample("TOTAL", true);
+        int threads = 4;
+        int samples = 20_000;
+        Thread[] producers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < samples; i++) {
+                    delta.addSample(sample(i % 500, i % 100 != 0));
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            while (producer.isAlive()) {
+                total.addSample(delta.drain());
+            }
+            producer.join();
+        }
+        total.addSample(delta.drain());
+
+        assertEquals(0, delta.getNumSamples());
+        assertEquals((long) threads * samples, total.getNumSamples());
+        assertEquals((long) threads * samples / 100, total.getErrorCount());
+        assertEquals(0, total.getMin());
+        assertEquals(499, total.getMax());
+        assertEquals(249, total.getAverage());
+        assertEquals((long) threads * samples, new SummariserRunningSample(total).getNumSamples());
+    }
+}
@@ -381,4 +381,16 @@ class TestSampleResult implements JMeterSerialTest {
         Assertions.assertFalse(secondResult.markFile(null), "Expected false on first call of markFile with null");
         Assertions.assertTrue(secondResult.markFile(null), "Expected true on second call of markFile with null");
     }
+
+    @Test
+    void testCorrectedTime() {
+        SampleResult result = SampleResult.createTestSample(1000, 1100);
+        Assertions.assertEquals(100, result.getCorrectedTime(), "no intended start time");
+
+        result.setIntendedStartTime(900);
+        Assertions.assertEquals(200, result.getCorrectedTime(), "sample started 100 ms late");
+
+        result.setIntendedStartTime(1050);
+        Assertions.assertEquals(100, result.getCorrectedTime(), "sample started ahead of schedule");
+    }
 }
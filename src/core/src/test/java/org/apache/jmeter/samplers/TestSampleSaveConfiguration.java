@@ -118,6 +118,14 @@ public class TestSampleSaveConfiguration extends JMeterTestCase {
         assertTrue(a.equals(b), "Objects should be equal");
         assertTrue(b.equals(a), "Objects should be equal");
     }
+
+    @Test
+    public void testTrueDoesNotSaveAsBinary() throws Exception {
+        SampleSaveConfiguration a = new SampleSaveConfiguration(true);
+        assertFalse(a.saveAsBinary(), "Binary format must be enabled explicitly");
+        assertTrue(a.saveAsXml(), "saveAsXml");
+    }
+
     @Test
     public void testFalseTrue() throws Exception {
         SampleSaveConfiguration a = new SampleSaveConfiguration(false);
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestBlockCompressedOutputStream {
+    private static final String HEADER = "timeStamp,elapsed,label\n";
+
+    @TempDir
+    File tempDir;
+
+    private static String row(long timeStamp) {
+        return timeStamp + ",10,label\n";
+    }
+
+    /** Writes samples started every 100 ms */
+    private static String writeSamples(BlockCompressedOutputStream out, long first, int count) throws IOException {
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            long start = first + i * 100L;
+            String row = row(start);
+            out.write(row.getBytes(StandardCharsets.UTF_8));
+            out.endSample(start, start);
+            expected.append(row);
+        }
+        return expected.toString();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int blockSize() {
+        // Two rows per block, the first block has the header and a single row
+        return row(0).length() + row(100).length();
+    }
+
+    @Test
+    void fileIsReadableAsGzip() throws IOException {
+        File file = new File(tempDir, "results.csv");
+        String expected;
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, false, blockSize(), 1)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            expected = HEADER + writeSamples(out, 0, 7);
+        }
+        assertTrue(BlockCompressedFiles.isCompressed(file));
+        assertEquals(expected, read(new GZIPInputStream(Files.newInputStream(file.toPath()))));
+        assertEquals(expected, read(BlockCompressedFiles.newInputStream(file)));
+
+        List<BlockCompressedFiles.Block> blocks = BlockCompressedFiles.readIndex(file);
+        assertEquals(4, blocks.size(), "blocks " + blocks);
+        assertEquals(1, blocks.get(0).samples);
+        assertEquals(100, blocks.get(1).minStartTime);
+        assertEquals(200, blocks.get(1).maxStartTime);
+        assertEquals(500, blocks.get(3).minStartTime);
+        assertEquals(2, blocks.get(3).samples);
+        assertEquals(file.length(), blocks.get(3).end());
+    }
+
+    @Test
+    void skipsBlocksOutsideTimeWindow() throws IOException {
+        File file = new File(tempDir, "results.csv");
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, false, blockSize(), 1)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            writeSamples(out, 0, 10);
+        }
+        // The first block is always read for the header
+        String window = read(BlockCompressedFiles.newInputStream(file, 450, 550));
+        assertEquals(HEADER + row(0) + row(500) + row(600), window);
+    }
+
+    @Test
+    void appendsToExistingFile() throws IOException {
+        File file = new File(tempDir, "results.csv");
+        String expected;
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, false, blockSize(), 1)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            expected = HEADER + writeSamples(out, 0, 3);
+        }
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, true, blockSize(), 9)) {
+            expected += writeSamples(out, 1000, 3);
+        }
+        assertEquals(expected, read(BlockCompressedFiles.newInputStream(file)));
+        assertEquals(HEADER + row(0) + row(1000) + row(1100) + row(1200),
+                read(BlockCompressedFiles.newInputStream(file, 1100, Long.MAX_VALUE)));
+    }
+
+    @Test
+    void removesTrailerWithoutSamples() throws IOException {
+        File file = new File(tempDir, "results.xml");
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, false, 1 << 20, 1)) {
+            out.write("<testResults>\n".getBytes(StandardCharsets.UTF_8));
+            writeSamples(out, 0, 1);
+            out.finishBlock();
+            out.write("</testResults>\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue(BlockCompressedOutputStream.removeTrailer(file));
+        assertEquals("<testResults>\n" + row(0), read(BlockCompressedFiles.newInputStream(file)));
+        assertFalse(BlockCompressedOutputStream.removeTrailer(file), "The last block contains a sample");
+    }
+
+    @Test
+    void ignoresIncompleteBlock() throws IOException {
+        File file = new File(tempDir, "results.csv");
+        try (BlockCompressedOutputStream out = new BlockCompressedOutputStream(file, false, blockSize(), 1)) {
+            out.write(HEADER.getBytes(StandardCharsets.UTF_8));
+            writeSamples(out, 0, 4);
+        }
+        try (OutputStream out = Files.newOutputStream(file.toPath(), StandardOpenOption.APPEND)) {
+            // Beginning of a block that was not written completely
+            out.write(new byte[]{0x1f, (byte) 0x8b, 8});
+        }
+        assertEquals(HEADER + row(0) + row(100) + row(200) + row(300),
+                read(BlockCompressedFiles.newInputStream(file)));
+        assertEquals(HEADER + row(0) + row(300),
+                read(BlockCompressedFiles.newInputStream(file, 300, 300)));
+    }
+
+    @Test
+    void plainFileIsReadAsIs() throws IOException {
+        File file = new File(tempDir, "results.csv");
+        Files.write(file.toPath(), (HEADER + row(0)).getBytes(StandardCharsets.UTF_8));
+        assertFalse(BlockCompressedFiles.isCompressed(file));
+        assertNull(BlockCompressedFiles.readIndex(file));
+        assertEquals(HEADER + row(0), read(BlockCompressedFiles.newInputStream(file, 100, 200)));
+    }
+}
@@ -17,6 +17,7 @@
 
 package org.apache.jmeter.save;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -182,4 +183,37 @@ public class TestCSVSaveService extends JMeterTestCase {
 
         assertEquals(RESULT, CSVSaveService.resultToDelimitedString(new SampleEvent(result,"")), "Result text has changed");
     }
+
+    @Test
+    public void testIntendedStartTime() {
+        SampleSaveConfiguration config = new SampleSaveConfiguration(false);
+        config.setTimestamp(true);
+        config.setTime(true);
+        config.setIntendedStartTime(true);
+        assertEquals("timeStamp,elapsed,IntendedStart", CSVSaveService.printableFieldNamesToString(config));
+
+        SampleResult result = new SampleResult();
+        result.setSaveConfig(config);
+        result.setStampAndTime(1000, 20);
+        result.setIntendedStartTime(990);
+        assertEquals("1000,20,990", CSVSaveService.resultToDelimitedString(new SampleEvent(result, "")));
+    }
+
+    @Test
+    public void testResultToColumnsIsNotQuoted() {
+        SampleSaveConfiguration config = new SampleSaveConfiguration(false);
+        config.setTimestamp(true);
+        config.setLabel(true);
+        config.setSuccess(true);
+
+        SampleResult result = new SampleResult();
+        result.setSaveConfig(config);
+        result.setStampAndTime(1000, 20);
+        result.setSampleLabel("a,\"b\"");
+        result.setSuccessful(true);
+        SampleEvent event = new SampleEvent(result, "");
+        assertEquals("1000,\"a,\"\"b\"\"\",true", CSVSaveService.resultToDelimitedString(event));
+        assertArrayEquals(new String[]{"1000", "a,\"b\"", "true"},
+                CSVSaveService.resultToColumns(event, result, config));
+    }
 }
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * The serializer must write exactly what the per-column {@link CSVSaveService#quoteDelimiters(String, char[])}
+ * quoting wrote before it was introduced, and the columns of the binary files must have the same values.
+ */
+class TestCsvSampleSerializer extends JMeterTestCase {
+    private static final List<BiConsumer<SampleSaveConfiguration, Boolean>> FLAGS = Arrays.asList(
+            SampleSaveConfiguration::setTimestamp,
+            SampleSaveConfiguration::setTime,
+            SampleSaveConfiguration::setLabel,
+            SampleSaveConfiguration::setCode,
+            SampleSaveConfiguration::setMessage,
+            SampleSaveConfiguration::setThreadName,
+            SampleSaveConfiguration::setDataType,
+            SampleSaveConfiguration::setSuccess,
+            SampleSaveConfiguration::setAssertionResultsFailureMessage,
+            SampleSaveConfiguration::setBytes,
+            SampleSaveConfiguration::setSentBytes,
+            SampleSaveConfiguration::setThreadCounts,
+            SampleSaveConfiguration::setUrl,
+            SampleSaveConfiguration::setFileName,
+            SampleSaveConfiguration::setLatency,
+            SampleSaveConfiguration::setEncoding,
+            SampleSaveConfiguration::setSampleCount,
+            SampleSaveConfiguration::setHostname,
+            SampleSaveConfiguration::setIdleTime,
+            SampleSaveConfiguration::setConnectTime,
+            SampleSaveConfiguration::setIntendedStartTime);
+
+    private static SampleSaveConfiguration config(boolean[] flags, String delimiter) {
+        SampleSaveConfiguration config = new SampleSaveConfiguration(false);
+        for (int i = 0; i < flags.length; i++) {
+            FLAGS.get(i).accept(config, flags[i]);
+        }
+        config.setDelimiter(delimiter);
+        return config;
+    }
+
+    private static SampleResult sample(String label) throws MalformedURLException {
+        SampleResult result = new SampleResult();
+        result.setStampAndTime(1_700_000_000_123L, 42);
+        result.setSampleLabel(label);
+        result.setResponseCode("200");
+        result.setResponseMessage("line1\nline2\r\"quoted\"");
+        result.setThreadName("Thread Group 1-1");
+        result.setDataType(SampleResult.TEXT);
+        result.setSuccessful(false);
+        result.setBytes(12345L);
+        result.setSentBytes(678);
+        result.setGroupThreads(3);
+        result.setAllThreads(7);
+        result.setURL(new URL("https://jmeter.apache.org/?a=1,2;3|4"));
+        result.setResultFileName(null);
+        result.setLatency(11);
+        result.setIdleTime(5);
+        result.setConnectTime(2);
+        result.setIntendedStartTime(1_700_000_000_100L);
+        result.setSampleCount(2);
+        result.setErrorCount(1);
+        AssertionResult assertion = new AssertionResult("assertion");
+        assertion.setFailure(true);
+        assertion.setFailureMessage("expected \"a\", got \"b\"");
+        result.addAssertionResult(assertion);
+        return result;
+    }
+
+    /** The columns saved before the serializer, null values are saved as "null" */
+    @SuppressWarnings("JavaUtilDate")
+    private static List<String> expectedColumns(SampleEvent event, SampleResult sample,
+            SampleSaveConfiguration config) {
+        List<Object> columns = new ArrayList<>();
+        if (config.saveTimestamp()) {
+            if (config.printMilliseconds()) {
+                columns.add(sample.getTimeStamp());
+            } else if (config.threadSafeLenientFormatter() != null) {
+                columns.add(config.threadSafeLenientFormatter().format(new Date(sample.getTimeStamp())));
+            }
+        }
+        addIf(columns, config.saveTime(), sample.getTime());
+        addIf(columns, config.saveLabel(), sample.getSampleLabel());
+        addIf(columns, config.saveCode(), sample.getResponseCode());
+        addIf(columns, config.saveMessage(), sample.getResponseMessage());
+        addIf(columns, config.saveThreadName(), sample.getThreadName());
+        addIf(columns, config.saveDataType(), sample.getDataType());
+        addIf(columns, config.saveSuccess(), sample.isSuccessful());
+        String message = sample.getFirstAssertionFailureMessage();
+        addIf(columns, config.saveAssertionResultsFailureMessage(), message != null ? message : "");
+        addIf(columns, config.saveBytes(), sample.getBytesAsLong());
+        addIf(columns, config.saveSentBytes(), sample.getSentBytes());
+        addIf(columns, config.saveThreadCounts(), sample.getGroupThreads());
+        addIf(columns, config.saveThreadCounts(), sample.getAllThreads());
+        addIf(columns, config.saveUrl(), sample.getURL());
+        addIf(columns, config.saveFileName(), sample.getResultFileName());
+        addIf(columns, config.saveLatency(), sample.getLatency());
+        addIf(columns, config.saveEncoding(), sample.getDataEncodingWithDefault());
+        addIf(columns, config.saveSampleCount(), sample.getSampleCount());
+        addIf(columns, config.saveSampleCount(), sample.getErrorCount());
+        addIf(columns, config.saveHostname(), event.getHostname());
+        addIf(columns, config.saveIdleTime(), sample.getIdleTime());
+        addIf(columns, config.saveConnectTime(), sample.getConnectTime());
+        addIf(columns, config.saveIntendedStartTime(), sample.getIntendedStartTime());
+        for (int i = 0; i < SampleEvent.getVarCount(); i++) {
+            columns.add(event.getVarValue(i));
+        }
+        return columns.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    private static void addIf(List<Object> columns, boolean save, Object value) {
+        if (save) {
+            columns.add(value);
+        }
+    }
+
+    /** The serialization before the serializer: each column quoted on its own */
+    private static String expected(SampleEvent event, SampleResult sample, SampleSaveConfiguration config) {
+        char delimiter = config.getDelimiter().charAt(0);
+        char[] specials = {delimiter, CSVSaveService.QUOTING_CHAR, '\r', '\n'};
+        return expectedColumns(event, sample, config).stream()
+                .map(column -> CSVSaveService.quoteDelimiters(column, specials))
+                .collect(Collectors.joining(String.valueOf(delimiter)));
+    }
+
+    /**
+     * The CSV lines and the columns of the binary files must hold the same values.
+     */
+    private static void assertSameLine(CsvSampleSerializer serializer, SampleResult sample,
+            SampleSaveConfiguration config) {
+        sample.setSaveConfig(config);
+        SampleEvent event = new SampleEvent(sample, "tg");
+        assertEquals(expected(event, sample, config),
+                serializer.format(event, sample, config, config.getDelimiter().charAt(0)).toString(),
+                () -> "Columns " + CSVSaveService.printableFieldNamesToString(config));
+        assertEquals(expectedColumns(event, sample, config),
+                Arrays.asList(serializer.columns(event, sample, config)),
+                () -> "Unquoted columns " + CSVSaveService.printableFieldNamesToString(config));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {",", ";", "\t", "|"})
+    void eachColumnIsSerializedAsBefore(String delimiter) throws MalformedURLException {
+        CsvSampleSerializer serializer = new CsvSampleSerializer();
+        SampleResult sample = sample("label, with \"specials\";|\t");
+        for (int i = 0; i < FLAGS.size(); i++) {
+            boolean[] flags = new boolean[FLAGS.size()];
+            flags[i] = true;
+            assertSameLine(serializer, sample, config(flags, delimiter));
+        }
+        boolean[] all = new boolean[FLAGS.size()];
+        Arrays.fill(all, true);
+        assertSameLine(serializer, sample, config(all, delimiter));
+        assertSameLine(serializer, sample, config(new boolean[FLAGS.size()], delimiter));
+    }
+
+    @Test
+    void randomConfigurationsAreSerializedAsBefore() throws MalformedURLException {
+        // More configurations than cached plans
+        CsvSampleSerializer serializer = new CsvSampleSerializer();
+        Random random = new Random(42);
+        String[] labels = {"plain", "", "comma,", "\"", "new\nline", "café 😀", null};
+        for (int i = 0; i < 500; i++) {
+            boolean[] flags = new boolean[FLAGS.size()];
+            for (int j = 0; j < flags.length; j++) {
+                flags[j] = random.nextBoolean();
+            }
+            SampleResult sample = sample(labels[random.nextInt(labels.length)]);
+            assertSameLine(serializer, sample, config(flags, random.nextBoolean() ? "," : "\t"));
+        }
+    }
+
+    @Test
+    void formattedTimestampIsQuotedIfNeeded() throws MalformedURLException {
+        boolean[] flags = new boolean[FLAGS.size()];
+        flags[0] = true;
+        flags[1] = true;
+        SampleSaveConfiguration config = config(flags, ",");
+        config.setDateFormat("yyyy/MM/dd HH:mm:ss,SSS");
+        assertSameLine(new CsvSampleSerializer(), sample("label"), config);
+    }
+
+    @Test
+    void subResultsAreWrittenOnTheirOwnLines() throws MalformedURLException {
+        boolean[] flags = new boolean[FLAGS.size()];
+        Arrays.fill(flags, true);
+        SampleSaveConfiguration config = config(flags, ",");
+        config.setSubresults(true);
+        SampleResult parent = sample("parent,1");
+        SampleResult child = sample("child \"1\"");
+        parent.addRawSubResult(child);
+        parent.setSaveConfig(config);
+        SampleEvent event = new SampleEvent(parent, "tg");
+
+        StringWriter written = new StringWriter();
+        try (PrintWriter out = new PrintWriter(written)) {
+            CSVSaveService.saveSampleResult(event, out);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(expected(event, parent, config));
+        lines.add(expected(event, child, config));
+        assertEquals(String.join(System.lineSeparator(), lines) + System.lineSeparator(), written.toString());
+        assertEquals(lines.get(0), CSVSaveService.resultToDelimitedString(event));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.reporters.ResultCollectorHelper;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.visualizers.Visualizer;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The streaming reader must read the same samples as XStream.
+ */
+class TestXmlResultReader extends JMeterTestCase {
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testResults version=\"1.2\">\n";
+    private static final String FOOTER = "</testResults>\n";
+
+    private static String samples() throws IOException {
+        StringWriter xml = new StringWriter();
+        SampleResult parent = TestXmlResultWriter.sample("parent & <child>");
+        AssertionResult failed = new AssertionResult("Size Assertion");
+        failed.setFailure(true);
+        failed.setFailureMessage("too \"big\"");
+        parent.addAssertionResult(failed);
+        parent.addRawSubResult(TestXmlResultWriter.sample("child\twith\ttabs"));
+        parent.setResultFileName("response.html");
+        parent.setSaveConfig(new SampleSaveConfiguration(true));
+        SaveService.saveSampleResultWithXStream(new SampleEvent(parent, "tg"), xml);
+
+        SampleResult plain = TestXmlResultWriter.sample("plain");
+        SampleSaveConfiguration defaults = new SampleSaveConfiguration();
+        defaults.setAsXml(true);
+        plain.setSaveConfig(defaults);
+        SaveService.saveSampleResultWithXStream(new SampleEvent(plain, "tg"), xml);
+        return xml.toString();
+    }
+
+    private static InputStream input(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> readStreaming(String xml) throws IOException {
+        List<String> samples = new ArrayList<>();
+        XmlResultReader.read(input(xml), sample -> samples.add(describe(sample)));
+        return samples;
+    }
+
+    private static List<String> readWithXStream(String xml) throws IOException {
+        List<String> samples = new ArrayList<>();
+        Visualizer visualizer = new Visualizer() {
+            @Override
+            public void add(SampleResult sample) {
+                samples.add(describe(sample));
+            }
+
+            @Override
+            public boolean isStats() {
+                return false;
+            }
+        };
+        SaveService.loadTestResults(input(xml), new ResultCollectorHelper(new ResultCollector(), visualizer));
+        return samples;
+    }
+
+    private static String describe(SampleResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(result.getClass().getSimpleName())
+                .append(" lb=").append(result.getSampleLabel())
+                .append(" ts=").append(result.getTimeStamp())
+                .append(" t=").append(result.getTime())
+                .append(" lt=").append(result.getLatency())
+                .append(" ct=").append(result.getConnectTime())
+                .append(" it=").append(result.getIdleTime())
+                .append(" ist=").append(result.getIntendedStartTime())
+                .append(" s=").append(result.isSuccessful())
+                .append(" rc=").append(result.getResponseCode())
+                .append(" rm=").append(result.getResponseMessage())
+                .append(" tn=").append(result.getThreadName())
+                .append(" dt=").append(result.getDataType())
+                .append(" de=").append(result.getDataEncodingNoDefault())
+                .append(" by=").append(result.getBytesAsLong())
+                .append(" sby=").append(result.getSentBytes())
+                .append(" ng=").append(result.getGroupThreads())
+                .append(" na=").append(result.getAllThreads())
+                .append(" sc=").append(result.getSampleCount())
+                .append(" ec=").append(result.getErrorCount())
+                .append(" data=").append(result.getResponseDataAsString())
+                .append(" requestHeaders=").append(result.getRequestHeaders())
+                .append(" responseHeaders=").append(result.getResponseHeaders())
+                .append(" samplerData=").append(result.getSamplerData())
+                .append(" file=").append(result.getResultFileName());
+        for (AssertionResult assertion : result.getAssertionResults()) {
+            sb.append(" assertion=").append(assertion.getName())
+                    .append('/').append(assertion.isFailure())
+                    .append('/').append(assertion.isError())
+                    .append('/').append(assertion.getFailureMessage());
+        }
+        for (SampleResult subResult : result.getSubResults()) {
+            sb.append(" sub=[").append(describe(subResult)).append(']');
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void readsSameSamplesAsXStream() throws IOException {
+        String xml = HEADER + samples() + FOOTER;
+        List<String> expected = readWithXStream(xml);
+        assertEquals(2, expected.size(), "samples read by XStream");
+        assertEquals(expected, readStreaming(xml));
+    }
+
+    @Test
+    void readsOldResponseCodeAttribute() throws IOException {
+        String xml = HEADER + "<sample t=\"10\" ts=\"1000\" s=\"false\" lb=\"old\" rs=\"500\"/>\n" + FOOTER;
+        assertEquals(readWithXStream(xml), readStreaming(xml));
+    }
+
+    @Test
+    void passesSamplesReadBeforeAnError() {
+        String xml = HEADER + "<sample t=\"10\" ts=\"1000\" lb=\"first\"/>\n<sample t=\"10\" ts=\"2000\" lb=\"cut";
+        List<String> labels = new ArrayList<>();
+        assertThrows(IOException.class,
+                () -> XmlResultReader.read(input(xml), sample -> labels.add(sample.getSampleLabel())));
+        assertEquals(List.of("first"), labels);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.save;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.jmeter.assertions.AssertionResult;
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The streaming writer must write exactly what XStream writes.
+ */
+class TestXmlResultWriter extends JMeterTestCase {
+
+    static SampleResult sample(String label) throws MalformedURLException {
+        SampleResult result = new SampleResult(1_700_000_000_000L, 123);
+        result.setSampleLabel(label);
+        result.setResponseCode("200");
+        result.setResponseMessage("OK & \"fine\" <really>");
+        result.setThreadName("Thread Group 1-1");
+        result.setDataType(SampleResult.TEXT);
+        result.setSuccessful(true);
+        result.setBytes(1234L);
+        result.setSentBytes(56);
+        result.setLatency(45);
+        result.setConnectTime(12);
+        result.setIdleTime(3);
+        result.setIntendedStartTime(1_699_999_999_990L);
+        result.setGroupThreads(2);
+        result.setAllThreads(4);
+        result.setURL(new URL("https://jmeter.apache.org/?q=a&b='c'"));
+        result.setRequestHeaders("Accept: */*\r\nX-Tab:\tvalue\r\n");
+        result.setResponseHeaders("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\n");
+        result.setSamplerData("GET https://jmeter.apache.org/");
+        result.setResponseData("line 1\nline 2\twith tab, 'quotes' & <tags> é 😀", StandardCharsets.UTF_8.name());
+        return result;
+    }
+
+    private static String writeWithXStream(SampleEvent event) throws IOException {
+        StringWriter writer = new StringWriter();
+        SaveService.saveSampleResultWithXStream(event, writer);
+        return writer.toString();
+    }
+
+    private static String writeStreaming(SampleEvent event) throws IOException {
+        StringWriter writer = new StringWriter();
+        assertTrue(new XmlResultWriter().write(event, writer), "The sample should be written without XStream");
+        return writer.toString();
+    }
+
+    private static void assertSameXml(SampleResult result, SampleSaveConfiguration config) throws IOException {
+        result.setSaveConfig(config);
+        SampleEvent event = new SampleEvent(result, "Thread Group");
+        assertEquals(writeWithXStream(event), writeStreaming(event));
+    }
+
+    @Test
+    void writesDefaultColumnsAsXStream() throws IOException {
+        SampleSaveConfiguration config = new SampleSaveConfiguration();
+        config.setAsXml(true);
+        assertSameXml(sample("Home page"), config);
+    }
+
+    @Test
+    void writesEverythingAsXStream() throws IOException {
+        SampleResult result = sample("label with \"quotes\", <tags> & 'apostrophes'\tand\ttabs\nand lines");
+        AssertionResult passed = new AssertionResult("Response Assertion");
+        result.addAssertionResult(passed);
+        AssertionResult failed = new AssertionResult("Duration Assertion");
+        failed.setFailure(true);
+        failed.setFailureMessage("took 123 > 100 ms");
+        result.addAssertionResult(failed);
+        result.addRawSubResult(sample("child 1"));
+        SampleResult child = sample("child 2");
+        child.addRawSubResult(sample("grand child"));
+        result.addRawSubResult(child);
+        result.setResultFileName("response.html");
+        assertSameXml(result, new SampleSaveConfiguration(true));
+    }
+
+    @Test
+    void escapesControlCharactersAsXStream() throws IOException {
+        SampleResult result = sample("bell\u0007 nul\0 cr\r del\u007f undefined￿");
+        result.setResponseData("bell\u0007 nul\0 cr\r del\u007f", StandardCharsets.UTF_8.name());
+        assertSameXml(result, new SampleSaveConfiguration(true));
+    }
+
+    @Test
+    void writesNullAndEmptyValuesAsXStream() throws IOException {
+        SampleResult result = new SampleResult(1_700_000_000_000L, 0);
+        result.addAssertionResult(new AssertionResult(""));
+        result.setResponseData(new byte[0]);
+        assertSameXml(result, new SampleSaveConfiguration(true));
+    }
+
+    @Test
+    void writesNonTextResponseAsXStream() throws IOException {
+        SampleResult result = sample("image");
+        result.setDataType(SampleResult.BINARY);
+        result.setResponseData(new byte[]{1, 2, 3});
+        assertSameXml(result, new SampleSaveConfiguration(true));
+    }
+
+    @Test
+    void leavesUnknownSubclassesToXStream() throws IOException {
+        SampleResult result = new SampleResult() {
+            private static final long serialVersionUID = 1L;
+        };
+        result.setSaveConfig(new SampleSaveConfiguration(true));
+        assertFalse(new XmlResultWriter().write(new SampleEvent(result, "tg"), new StringWriter()));
+
+        SampleResult parent = sample("parent");
+        parent.addRawSubResult(result);
+        parent.setSaveConfig(new SampleSaveConfiguration(true));
+        StringWriter writer = new StringWriter();
+        assertFalse(new XmlResultWriter().write(new SampleEvent(parent, "tg"), writer));
+        assertEquals("", writer.toString(), "Nothing should be written when XStream is needed");
+    }
+
+    @Test
+    void encodesNamesAsXStream() {
+        assertEquals("sample", XmlResultWriter.encodeName("sample"));
+        assertEquals("my__var", XmlResultWriter.encodeName("my_var"));
+        assertEquals("a_-b", XmlResultWriter.encodeName("a$b"));
+        assertEquals("__0", XmlResultWriter.encodeName("_0"));
+        assertNull(XmlResultWriter.encodeName("a b_"), "XStream escapes the space with its code");
+        assertNull(XmlResultWriter.encodeName("é_"));
+    }
+}
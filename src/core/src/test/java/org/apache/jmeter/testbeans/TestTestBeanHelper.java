@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.testbeans;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.junit.jupiter.api.Test;
+
+public class TestTestBeanHelper extends JMeterTestCase {
+
+    public static class SampleBean extends AbstractTestElement implements TestBean {
+        private static final long serialVersionUID = 1L;
+
+        private String label;
+        private int count;
+        private int labelUpdates;
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+            labelUpdates++;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
+    @Test
+    public void testPrepareSetsConvertedValues() {
+        SampleBean bean = new SampleBean();
+        bean.setProperty("label", "hello");
+        bean.setProperty("count", "42");
+        TestBeanHelper.prepare(bean);
+        assertEquals("hello", bean.getLabel());
+        assertEquals(42, bean.getCount());
+    }
+
+    @Test
+    public void testUnchangedPropertiesAreSetAgainByDefault() {
+        SampleBean bean = new SampleBean();
+        bean.setProperty("label", "hello");
+        TestBeanHelper.prepare(bean);
+        // The bean modifies its own field during the sample
+        bean.label = "modified";
+        TestBeanHelper.prepare(bean);
+        assertEquals("hello", bean.getLabel());
+        assertEquals(2, bean.labelUpdates, "property should be set on every call");
+    }
+
+    @Test
+    public void testUnchangedPropertiesAreNotSetAgain() {
+        SampleBean bean = new SampleBean();
+        bean.setProperty("label", "hello");
+        bean.setProperty("count", 1);
+        TestBeanHelper.prepare(bean, true);
+        TestBeanHelper.prepare(bean, true);
+        assertEquals(1, bean.labelUpdates, "unchanged property should be set only once");
+
+        bean.setProperty("label", "world");
+        bean.setProperty("count", 2);
+        TestBeanHelper.prepare(bean, true);
+        assertEquals("world", bean.getLabel());
+        assertEquals(2, bean.getCount());
+        assertEquals(2, bean.labelUpdates, "modified property should be set again");
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.threads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.jmeter.junit.JMeterTestCase;
+import org.apache.jmeter.reporters.ResultCollector;
+import org.apache.jmeter.samplers.AsyncSampleListener;
+import org.apache.jmeter.samplers.SampleEvent;
+import org.apache.jmeter.samplers.SampleListener;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TestAsyncListenerNotifier extends JMeterTestCase {
+    private static final int PRODUCERS = 4;
+    private static final int SAMPLES_PER_PRODUCER = 2000;
+
+    @TempDir
+    File spillDirectory;
+
+    private static class RecordingListener extends AbstractTestElement implements AsyncSampleListener {
+        private static final long serialVersionUID = 1L;
+        private final List<String> labels = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+        private volatile Thread notifiedThread;
+
+        @Override
+        public void sampleOccurred(SampleEvent e) {
+            try {
+                gate.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            notifiedThread = Thread.currentThread();
+            labels.add(e.getResult().getSampleLabel());
+        }
+
+        @Override
+        public void sampleStarted(SampleEvent e) {
+            // not used
+        }
+
+        @Override
+        public void sampleStopped(SampleEvent e) {
+            // not used
+        }
+    }
+
+    private static SampleEvent event(String label) {
+        SampleResult result = new SampleResult();
+        result.setSampleLabel(label);
+        return new SampleEvent(result, "tg");
+    }
+
+    private static void publishConcurrently(ListenerNotifier notifier, List<SampleListener> listeners)
+            throws InterruptedException {
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            String prefix = "p" + p + "-";
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < SAMPLES_PER_PRODUCER; i++) {
+                    notifier.notifyListeners(event(prefix + i), listeners);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+
+    private static void assertOrderedPerProducer(List<String> labels) {
+        int[] next = new int[PRODUCERS];
+        for (String label : labels) {
+            int dash = label.indexOf('-');
+            int producer = Integer.parseInt(label.substring(1, dash));
+            int index = Integer.parseInt(label.substring(dash + 1));
+            assertEquals(next[producer], index, () -> "Samples of producer " + producer + " are out of order");
+            next[producer]++;
+        }
+    }
+
+    @Test
+    void deliversAllEventsInOrderOnListenerThread() throws InterruptedException {
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(2, 16, AsyncListenerNotifier.Backpressure.BLOCK, spillDirectory);
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        publishConcurrently(notifier, Arrays.asList(first, second));
+        notifier.shutdown();
+
+        for (RecordingListener listener : Arrays.asList(first, second)) {
+            assertEquals(PRODUCERS * SAMPLES_PER_PRODUCER, listener.labels.size());
+            assertOrderedPerProducer(listener.labels);
+            assertTrue(listener.notifiedThread.getName().startsWith("ListenerNotifier-"),
+                    () -> "Listener should be notified on listener thread, got " + listener.notifiedThread);
+        }
+        assertEquals(0, notifier.getDroppedEvents(), "dropped events");
+    }
+
+    @Test
+    void dropsEventsWhenQueueIsFull() {
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(1, 4, AsyncListenerNotifier.Backpressure.DROP, spillDirectory);
+        RecordingListener listener = new RecordingListener();
+        CountDownLatch gate = new CountDownLatch(1);
+        listener.gate = gate;
+        List<SampleListener> listeners = Collections.singletonList(listener);
+        for (int i = 0; i < 100; i++) {
+            notifier.notifyListeners(event("p0-" + i), listeners);
+        }
+        gate.countDown();
+        notifier.shutdown();
+
+        assertTrue(notifier.getDroppedEvents() > 0, "Some events should be dropped");
+        assertEquals(100, listener.labels.size() + notifier.getDroppedEvents(),
+                "Every event should be either delivered or dropped");
+    }
+
+    @Test
+    void spillsEventsToDiskWhenQueueIsFull() throws InterruptedException {
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(1, 4, AsyncListenerNotifier.Backpressure.SPILL, spillDirectory);
+        RecordingListener listener = new RecordingListener();
+        CountDownLatch gate = new CountDownLatch(1);
+        listener.gate = gate;
+        Thread release = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            gate.countDown();
+        });
+        release.start();
+        publishConcurrently(notifier, Collections.singletonList(listener));
+        release.join();
+        notifier.shutdown();
+
+        assertTrue(notifier.getSpilledEvents() > 0, "Some events should be spilled");
+        assertEquals(0, notifier.getDroppedEvents(), "dropped events");
+        assertEquals(PRODUCERS * SAMPLES_PER_PRODUCER, listener.labels.size());
+        assertOrderedPerProducer(listener.labels);
+    }
+
+    @Test
+    void notifiesRegularListenersOnCallingThread() {
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(1, 4, AsyncListenerNotifier.Backpressure.BLOCK, spillDirectory);
+        List<Thread> threads = new ArrayList<>();
+        SampleListener plain = new PlainListener(threads);
+        notifier.notifyListeners(event("p0-0"), Collections.singletonList(plain));
+        notifier.shutdown();
+
+        assertEquals(Collections.singletonList(Thread.currentThread()), threads,
+                "Listeners that do not implement AsyncSampleListener should be notified on the sampling thread");
+    }
+
+    @Test
+    void notifiesResultCollectorsOnSameThread() {
+        AsyncListenerNotifier notifier =
+                new AsyncListenerNotifier(4, 16, AsyncListenerNotifier.Backpressure.BLOCK, spillDirectory);
+        Set<String> threadNames = Collections.synchronizedSet(new HashSet<>());
+        List<SampleListener> collectors = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            collectors.add(new ResultCollector() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public void sampleOccurred(SampleEvent event) {
+                    threadNames.add(Thread.currentThread().getName());
+                }
+            });
+        }
+        notifier.notifyListeners(event("p0-0"), collectors);
+        notifier.shutdown();
+
+        assertEquals(1, threadNames.size(),
+                () -> "ResultCollectors share the save configuration of the sample, they must use one thread, got "
+                        + threadNames);
+    }
+
+    private static class PlainListener extends AbstractTestElement implements SampleListener {
+        private static final long serialVersionUID = 1L;
+        private final transient List<Thread> threads;
+
+        PlainListener(List<Thread> threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public void sampleOccurred(SampleEvent e) {
+            threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public void sampleStarted(SampleEvent e) {
+            // not used
+        }
+
+        @Override
+        public void sampleStopped(SampleEvent e) {
+            // not used
+        }
+    }
+}
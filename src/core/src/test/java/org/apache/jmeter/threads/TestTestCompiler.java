@@ -18,12 +18,23 @@
 package org.apache.jmeter.threads;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jmeter.assertions.Assertion;
+import org.apache.jmeter.assertions.AssertionResult;
 import org.apache.jmeter.config.ConfigTestElement;
 import org.apache.jmeter.control.GenericController;
 import org.apache.jmeter.samplers.AbstractSampler;
 import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.testelement.AbstractTestElement;
+import org.apache.jmeter.testelement.TestElement;
+import org.apache.jmeter.timers.Timer;
+import org.apache.jorphan.collections.HashTree;
 import org.apache.jorphan.collections.ListedHashTree;
+import org.apache.jorphan.collections.SearchByClass;
 import org.junit.jupiter.api.Test;
 
 public class TestTestCompiler {
@@ -47,6 +58,103 @@ public class TestTestCompiler {
         assertEquals("A test value", sampler.getPropertyAsString("test.property"));
     }
 
+    @Test
+    public void sharedPlanBindsElementsOfClonedTree() {
+        ListedHashTree template = new ListedHashTree();
+        GenericController outer = named(new GenericController(), "outer");
+        GenericController inner = named(new GenericController(), "inner");
+        NamedSampler first = named(new NamedSampler(), "first");
+        NamedSampler second = named(new NamedSampler(), "second");
+        TestTimer innerTimer = named(new TestTimer(), "innerTimer");
+        template.add(outer, named(new TestTimer(), "outerTimer"));
+        template.add(outer, named(new TestAssertion(), "outerAssertion"));
+        template.add(outer, inner);
+        template.getTree(outer).add(inner, first);
+        template.getTree(outer).getTree(inner).add(first, named(new TestAssertion(), "firstAssertion"));
+        template.getTree(outer).add(inner, named(new ConfigTestElement(), "innerConfig"));
+        template.getTree(outer).add(inner, second);
+        template.getTree(outer).add(inner, innerTimer);
+        TestCompiler.initialize();
+
+        TestCompilerPlan plan = TestCompilerPlan.build(template);
+        ListedHashTree clone = AbstractThreadGroup.cloneTree(template);
+        TestCompiler shared = new TestCompiler(clone);
+        shared.setPlan(plan);
+        clone.traverse(shared);
+
+        ListedHashTree ownTree = AbstractThreadGroup.cloneTree(template);
+        TestCompiler own = new TestCompiler(ownTree);
+        ownTree.traverse(own);
+
+        List<NamedSampler> sharedSamplers = samplers(clone);
+        List<NamedSampler> ownSamplers = samplers(ownTree);
+        assertEquals(2, sharedSamplers.size(), "samplers in the cloned tree");
+        for (int i = 0; i < sharedSamplers.size(); i++) {
+            SamplePackage sharedPack = shared.configureSampler(sharedSamplers.get(i));
+            SamplePackage ownPack = own.configureSampler(ownSamplers.get(i));
+            String sampler = sharedSamplers.get(i).getName();
+            assertEquals(names(ownPack.getTimers()), names(sharedPack.getTimers()), () -> "timers of " + sampler);
+            assertEquals(names(ownPack.getAssertions()), names(sharedPack.getAssertions()),
+                    () -> "assertions of " + sampler);
+            assertEquals(names(ownPack.getConfigs()), names(sharedPack.getConfigs()), () -> "configs of " + sampler);
+            assertEquals(names(ownPack.getControllers()), names(sharedPack.getControllers()),
+                    () -> "controllers of " + sampler);
+        }
+        SamplePackage firstPack = shared.configureSampler(sharedSamplers.get(0));
+        assertEquals(List.of("innerTimer", "outerTimer"), names(firstPack.getTimers()), "timers of first sampler");
+        assertEquals(List.of("outerAssertion", "firstAssertion"), names(firstPack.getAssertions()),
+                "assertions run from the outermost level");
+        assertEquals(List.of("innerConfig"), names(firstPack.getConfigs()), "configs of first sampler");
+        assertEquals(List.of("inner", "outer"), names(firstPack.getControllers()), "controllers of first sampler");
+        assertNotSame(innerTimer, firstPack.getTimers().get(0), "package must contain the elements of the clone");
+    }
+
+    private static <T extends TestElement> T named(T element, String name) {
+        element.setName(name);
+        return element;
+    }
+
+    private static List<NamedSampler> samplers(HashTree tree) {
+        SearchByClass<NamedSampler> search = new SearchByClass<>(NamedSampler.class);
+        tree.traverse(search);
+        return new ArrayList<>(search.getSearchResults());
+    }
+
+    private static List<String> names(List<?> elements) {
+        List<String> names = new ArrayList<>();
+        for (Object element : elements) {
+            names.add(((TestElement) element).getName());
+        }
+        return names;
+    }
+
+    public static class NamedSampler extends AbstractSampler {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public SampleResult sample(org.apache.jmeter.samplers.Entry e) {
+            return null;
+        }
+    }
+
+    public static class TestTimer extends AbstractTestElement implements Timer {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public long delay() {
+            return 0;
+        }
+    }
+
+    public static class TestAssertion extends AbstractTestElement implements Assertion {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public AssertionResult getResult(SampleResult response) {
+            return new AssertionResult(getName());
+        }
+    }
+
     class TestSampler extends AbstractSampler {
         private static final long serialVersionUID = 240L;
 
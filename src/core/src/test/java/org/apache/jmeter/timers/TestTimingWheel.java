@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.timers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TestTimingWheel {
+    private final TimingWheel wheel = new TimingWheel(1, TimeUnit.MILLISECONDS, 8, "test-wheel");
+
+    @AfterEach
+    void close() {
+        wheel.close();
+    }
+
+    @Test
+    void neverWakesUpEarly() throws InterruptedException {
+        // 30 ms needs several rounds of the 8-bucket wheel
+        for (long delay : new long[]{1, 5, 30}) {
+            long start = System.nanoTime();
+            wheel.sleep(delay);
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(delay),
+                    () -> "Slept " + elapsed + " ns, expected at least " + delay + " ms");
+        }
+    }
+
+    @Test
+    void wakesUpManyThreads() throws InterruptedException {
+        int threads = 200;
+        AtomicInteger early = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            long delay = 1 + i % 20;
+            Thread thread = new Thread(() -> {
+                try {
+                    long start = System.nanoTime();
+                    wheel.sleep(delay);
+                    if (System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(delay)) {
+                        early.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS), "All the threads should wake up");
+        assertEquals(0, early.get(), "Threads woken up before their deadline");
+    }
+
+    @Test
+    void sleepIsInterruptible() throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread sleeper = new Thread(() ->
+                failure.set(assertThrows(InterruptedException.class, () -> wheel.sleep(60_000))));
+        sleeper.start();
+        Thread.sleep(20);
+        sleeper.interrupt();
+        sleeper.join(5_000);
+        assertTrue(failure.get() instanceof InterruptedException, () -> "Sleep should be interrupted, got " + failure);
+    }
+
+    @Test
+    void closeLetsThreadsFinishTheirSleep() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        Thread sleeper = new Thread(() -> {
+            try {
+                wheel.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        sleeper.start();
+        Thread.sleep(10);
+        wheel.close();
+        assertTrue(done.await(5, TimeUnit.SECONDS), "Sleeping thread should complete after close");
+    }
+}
@@ -19,12 +19,21 @@ package org.apache.jmeter.testelement
 
 import io.mockk.mockk
 import io.mockk.spyk
+import org.apache.jmeter.config.ConfigTestElement
+import org.apache.jmeter.testelement.property.AbstractProperty
 import org.apache.jmeter.testelement.property.CollectionProperty
+import org.apache.jmeter.testelement.property.StringProperty
 import org.apache.jmeter.testelement.property.TestElementProperty
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertSame
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
 
 class AbstractTestElementTest {
     @Test
@@ -92,4 +101,131 @@ class AbstractTestElementTest {
             "isTemporary($innerProp)"
         }
     }
+
+    @Test
+    fun `clones share immutable properties of a frozen template`() {
+        class Element : AbstractTestElement()
+
+        val template = Element().apply {
+            setProperty("url", "/index.html")
+            setProperty(CollectionProperty("list", listOf("a", "b")))
+            isRunningVersion = true
+            shareImmutableProperties()
+        }
+
+        val first = template.clone() as Element
+        val second = template.clone() as Element
+
+        assertSame(template.getProperty("url"), first.getProperty("url")) {
+            "Immutable property should be shared with the template"
+        }
+        assertTrue((first.getProperty("url") as AbstractProperty).isSharedBetweenThreads) {
+            "url property should be marked as shared"
+        }
+        assertNotSame(template.getProperty("list"), first.getProperty("list")) {
+            "Multi-valued properties should be cloned for every thread"
+        }
+
+        first.setProperty("url", "/modified.html")
+
+        assertEquals("/modified.html", first.getPropertyAsString("url"), "first.url after modification")
+        assertEquals("/index.html", second.getPropertyAsString("url"), "second.url should not be affected")
+        assertEquals("/index.html", template.getPropertyAsString("url"), "template.url should not be affected")
+
+        first.recoverRunningVersion()
+
+        assertEquals("/index.html", first.getPropertyAsString("url"), "first.url after recoverRunningVersion")
+        assertTrue(first.getProperty("url") is StringProperty)
+    }
+
+    @Test
+    fun `schema slots follow property modifications`() {
+        val plan = TestPlan()
+        val schema = plan.schema
+        assertEquals(schema.slotOf(TestElementSchema.name), schema.slotOf(TestPlanSchema.name)) {
+            "Descriptors with the same name should share the slot"
+        }
+        assertEquals(-1, schema.slotOf("custom.property"), "slotOf(ad-hoc property)")
+
+        plan.setProperty(TestElementSchema.name.name, "first")
+        assertEquals("first", plan[TestPlanSchema.name], "name after setProperty(String, String)")
+        plan.setProperty("custom.property", "custom")
+        assertEquals("custom", plan.getPropertyAsString("custom.property"), "ad-hoc property")
+
+        plan.removeProperty(TestElementSchema.name.name)
+        assertEquals("", plan[TestPlanSchema.name], "name after removeProperty")
+
+        plan[TestPlanSchema.serializeThreadgroups] = true
+        plan.isRunningVersion = true
+        plan.setProperty(StringProperty(TestElementSchema.name.name, "temporary"))
+        assertEquals("temporary", plan[TestPlanSchema.name], "temporary name")
+        assertTrue(plan[TestPlanSchema.serializeThreadgroups], "serialized")
+
+        plan.recoverRunningVersion()
+        assertEquals("", plan[TestPlanSchema.name], "name after recoverRunningVersion")
+        assertTrue(plan[TestPlanSchema.serializeThreadgroups], "serialized after recoverRunningVersion")
+    }
+
+    @Test
+    fun `schema properties are iterated in schema order before ad-hoc properties`() {
+        val plan = TestPlan().apply {
+            setProperty("custom.second", "2")
+            set(TestPlanSchema.functionalMode, true)
+            setProperty("custom.first", "1")
+            set(TestElementSchema.name, "plan")
+        }
+
+        assertEquals(
+            listOf(TestElementSchema.name.name, TestPlanSchema.functionalMode.name, "custom.second", "custom.first"),
+            plan.propertyIterator().asSequence().map { it.name }.toList(),
+        ) {
+            "Properties declared in the schema should come first in the schema order, " +
+                "then the other ones in the order they were added"
+        }
+    }
+
+    @Test
+    fun `equals and hashCode do not depend on the storage of the properties`() {
+        val first = ConfigTestElement().apply {
+            name = "config"
+            setProperty("custom", "value")
+        }
+        val second = ConfigTestElement().apply {
+            setProperty("custom", "value")
+            name = "config"
+        }
+
+        assertEquals(first, second, "Elements with the same properties should be equal")
+        assertEquals(first.hashCode(), second.hashCode(), "hashCode of equal elements")
+
+        second.setProperty("custom", "other")
+        assertFalse(first == second, "Elements with different ad-hoc properties should not be equal")
+
+        second.setProperty("custom", "value")
+        second.removeProperty(TestElementSchema.name.name)
+        assertFalse(first == second, "Elements with different schema properties should not be equal")
+    }
+
+    @Test
+    fun `clone and java serialization keep schema and ad-hoc properties`() {
+        val source = ConfigTestElement().apply {
+            name = "config"
+            setProperty("custom", "value")
+        }
+
+        val cloned = source.clone() as ConfigTestElement
+        assertEquals(source, cloned, "clone")
+        assertEquals("config", cloned.name, "cloned.name")
+
+        val bytes = ByteArrayOutputStream().apply {
+            ObjectOutputStream(this).use { it.writeObject(source) }
+        }.toByteArray()
+        val deserialized = ObjectInputStream(ByteArrayInputStream(bytes)).use { it.readObject() } as ConfigTestElement
+
+        assertEquals(source, deserialized, "deserialized element")
+        assertEquals("config", deserialized[TestElementSchema.name], "deserialized name")
+        assertEquals("value", deserialized.getPropertyAsString("custom"), "deserialized ad-hoc property")
+        deserialized.setProperty("custom", "modified")
+        assertEquals("modified", deserialized.getPropertyAsString("custom"), "deserialized element can be modified")
+    }
 }
@@ -54,4 +54,29 @@ class ThreadGroupTest : JMeterTestCase() {
                 "Actual events are $events"
         }
     }
+
+    @Test
+    fun `virtual threads execute all the iterations`() {
+        val events = executePlanAndCollectEvents(10.seconds) {
+            ThreadGroup::class {
+                numThreads = 3
+                rampUp = 0
+                isVirtualThreads = true
+                setSamplerController(
+                    LoopController().apply {
+                        loops = 2
+                        setContinueForever(false)
+                    }
+                )
+
+                ThreadSleep::class {
+                    duration = 0.seconds
+                }
+            }
+        }
+        // Platform threads are used when the JVM does not support virtual ones, so the result must be the same
+        assertEquals(6, events.size) {
+            "3 threads x 2 loops should produce 6 samples with virtual threads. Actual events are $events"
+        }
+    }
 }
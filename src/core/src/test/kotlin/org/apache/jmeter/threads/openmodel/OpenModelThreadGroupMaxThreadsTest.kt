@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jmeter.threads.openmodel
+
+import org.apache.jmeter.junit.JMeterTestCase
+import org.apache.jmeter.test.assertions.executePlanAndCollectEvents
+import org.apache.jmeter.test.samplers.ThreadSleep
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.Timeout
+import java.util.concurrent.TimeUnit
+import kotlin.time.Duration.Companion.milliseconds
+import kotlin.time.Duration.Companion.seconds
+
+class OpenModelThreadGroupMaxThreadsTest : JMeterTestCase() {
+    @Test
+    @Timeout(10, unit = TimeUnit.SECONDS)
+    fun `arrivals above max threads are counted as missed`() {
+        lateinit var threadGroup: OpenModelThreadGroup
+        val events = executePlanAndCollectEvents(10.seconds) {
+            OpenModelThreadGroup::class {
+                threadGroup = this
+                scheduleString = "rate(50 / sec) even_arrivals(1 s) pause(500 ms)"
+                maxThreads = 1
+                ThreadSleep::class {
+                    duration = 200.milliseconds
+                }
+            }
+        }
+
+        val samples = events.map { it.result }.sortedBy { it.startTime }
+        samples.zipWithNext { prev, next ->
+            assertTrue(next.startTime >= prev.endTime) {
+                "With max threads = 1, samples must not overlap, got $prev and $next"
+            }
+        }
+        assertTrue(threadGroup.missedArrivals > 0) {
+            "Some arrivals should be missed since the sampler is slower than the arrival rate," +
+                " samples: ${samples.size}"
+        }
+        assertEquals(
+            50L,
+            samples.size + threadGroup.missedArrivals,
+            "Every arrival should either start a thread or be counted as missed"
+        )
+    }
+}
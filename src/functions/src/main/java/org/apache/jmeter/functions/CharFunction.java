@@ -35,7 +35,7 @@ import com.google.auto.service.AutoService;
  * @since 2.3.3
  */
 @AutoService(Function.class)
-public class CharFunction extends AbstractFunction {
+public class CharFunction extends AbstractFunction implements PureFunction {
 
     private static final Logger log = LoggerFactory.getLogger(CharFunction.class);
 
@@ -49,7 +49,7 @@ import com.google.auto.service.AutoService;
  * @since 2.3.3
  */
 @AutoService(Function.class)
-public class EscapeHtml extends AbstractFunction {
+public class EscapeHtml extends AbstractFunction implements PureFunction {
 
     private static final List<String> desc = new ArrayList<>();
 
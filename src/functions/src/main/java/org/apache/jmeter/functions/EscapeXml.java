@@ -46,7 +46,7 @@ import com.google.auto.service.AutoService;
  * @since 3.2
  */
 @AutoService(Function.class)
-public class EscapeXml extends AbstractFunction {
+public class EscapeXml extends AbstractFunction implements PureFunction {
 
     private static final List<String> desc = new ArrayList<>();
 
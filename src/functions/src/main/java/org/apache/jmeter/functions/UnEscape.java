@@ -39,7 +39,7 @@ import com.google.auto.service.AutoService;
  * @since 2.3.3
  */
 @AutoService(Function.class)
-public class UnEscape extends AbstractFunction {
+public class UnEscape extends AbstractFunction implements PureFunction {
 
     private static final List<String> desc = new ArrayList<>();
 
@@ -45,7 +45,7 @@ import com.google.auto.service.AutoService;
  * @since 2.3.3
  */
 @AutoService(Function.class)
-public class UnEscapeHtml extends AbstractFunction {
+public class UnEscapeHtml extends AbstractFunction implements PureFunction {
 
     private static final List<String> desc = new ArrayList<>();
 
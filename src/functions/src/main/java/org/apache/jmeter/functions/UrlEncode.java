@@ -38,7 +38,7 @@ import com.google.auto.service.AutoService;
  * @since 2.10
  */
 @AutoService(Function.class)
-public class UrlEncode extends AbstractFunction {
+public class UrlEncode extends AbstractFunction implements PureFunction {
 
     private static final String CHARSET_ENCODING = StandardCharsets.UTF_8.name();
 
@@ -75,4 +75,17 @@ public class TestUrlEncodeDecode extends JMeterTestCase {
         String returnValue = function.execute(result, null);
         Assertions.assertEquals("Veni, vidi, vici ?", returnValue);
     }
+
+    @Test
+    void testConstantCallIsFolded() {
+        CompoundVariable folded = new CompoundVariable("q=${__urlencode(Veni vidi)}");
+        Assertions.assertTrue(folded.hasFunction());
+        Assertions.assertEquals("q=Veni+vidi", folded.execute());
+
+        vars.put("word", "vici ?");
+        CompoundVariable dynamic = new CompoundVariable("q=${__urlencode(${word})}");
+        Assertions.assertEquals("q=vici+%3F", dynamic.execute());
+        vars.put("word", "veni");
+        Assertions.assertEquals("q=veni", dynamic.execute(), "call with variable arguments must not be folded");
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.jorphan.collections;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.apiguardian.api.API;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * <p>
+ * Every slot has a sequence number, so producers claim slots with a single CAS and
+ * the consumer never contends with producers (see Dmitry Vyukov's bounded queue).
+ * {@link #offer(Object)} never blocks: it returns {@code false} when the buffer is full,
+ * so the caller decides whether to wait, drop or store the element elsewhere.
+ * <p>
+ * {@link #poll()} and {@link #drain(Consumer, int)} must be called from a single thread at a time.
+ *
+ * @param <E> type of the elements
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public final class BoundedMpscQueue<E> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    /**
+     * @param capacity minimal capacity of the queue, it is rounded up to the next power of two
+     */
+    public BoundedMpscQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive, got " + capacity);
+        }
+        int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        if (size < capacity) {
+            throw new IllegalArgumentException("capacity is too large: " + capacity);
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if there's free space.
+     *
+     * @param element element to add, must not be null
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        Objects.requireNonNull(element, "element");
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                // The consumer has not released the slot yet
+                return false;
+            } else {
+                // Another producer claimed the slot
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element. Must be called by the consumer thread only.
+     *
+     * @return the oldest element or null if the queue is empty
+     */
+    public E poll() {
+        long pos = head;
+        int index = (int) pos & mask;
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = buffer.get(index);
+        buffer.lazySet(index, null);
+        sequences.set(index, pos + capacity);
+        head = pos + 1;
+        return element;
+    }
+
+    /**
+     * Removes up to {@code limit} elements and passes them to the consumer.
+     * Must be called by the consumer thread only.
+     *
+     * @param consumer receives the elements in the order they were added
+     * @param limit    maximum number of elements to drain
+     * @return number of drained elements
+     */
+    public int drain(Consumer<? super E> consumer, int limit) {
+        int count = 0;
+        E element;
+        while (count < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return approximate number of elements in the queue
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /**
+     * @return true if the queue looks empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return maximum number of elements the queue can hold
+     */
+    public int capacity() {
+        return capacity;
+    }
+}
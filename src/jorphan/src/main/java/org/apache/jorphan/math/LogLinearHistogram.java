@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jorphan.math;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apiguardian.api.API;
+
+/**
+ * Histogram of non-negative long values with log-linear buckets, in the spirit of HdrHistogram.
+ * <p>
+ * The values below {@code 2^precisionBits} have their own bucket. Above, every power of two range is split in
+ * {@code 2^precisionBits} buckets of the same width, so the values of a bucket differ by less than
+ * {@code 2^-precisionBits} of their value. The histogram reports the middle of the buckets, so a percentile
+ * differs from the exact value of the recorded data by at most {@code 2^-(precisionBits + 1)} of the exact value,
+ * for instance 1/64 (1.6%) for 5 bits of precision. Negative values are recorded as 0.
+ * <p>
+ * The memory does not depend on the recorded values: the histogram has {@code (64 - precisionBits) *
+ * 2^precisionBits} counters (1888 for 5 bits, 7296 for 7 bits).
+ * Recording is lock-free and O(1), so many threads can record into the same histogram.
+ * The queries are O(number of buckets), they are not atomic snapshots when values are recorded concurrently.
+ * Histograms with the same precision can be merged.
+ *
+ * @since 6.0
+ */
+@API(since = "6.0", status = API.Status.EXPERIMENTAL)
+public final class LogLinearHistogram {
+    /** Maximal number of precision bits, the histogram has 212992 counters then */
+    public static final int MAX_PRECISION_BITS = 12;
+
+    private final int precisionBits;
+    private final AtomicLongArray counts;
+
+    /**
+     * @param precisionBits number of bits of the values that are kept, from 1 to {@value #MAX_PRECISION_BITS}
+     */
+    public LogLinearHistogram(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > MAX_PRECISION_BITS) {
+            throw new IllegalArgumentException("precisionBits must be between 1 and " + MAX_PRECISION_BITS
+                    + ", got " + precisionBits);
+        }
+        this.precisionBits = precisionBits;
+        this.counts = new AtomicLongArray((64 - precisionBits) << precisionBits);
+    }
+
+    /**
+     * Copy constructor
+     *
+     * @param src the histogram to copy
+     */
+    public LogLinearHistogram(LogLinearHistogram src) {
+        this(src.precisionBits);
+        add(src);
+    }
+
+    /**
+     * @return the number of bits of the values that are kept
+     */
+    public int getPrecisionBits() {
+        return precisionBits;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value, negative values are recorded as 0
+     */
+    public void record(long value) {
+        counts.incrementAndGet(indexOf(value));
+    }
+
+    /**
+     * Records a value several times.
+     *
+     * @param value the value, negative values are recorded as 0
+     * @param count the number of times the value occurred
+     */
+    public void record(long value, long count) {
+        if (count != 0) {
+            counts.addAndGet(indexOf(value), count);
+        }
+    }
+
+    /**
+     * Adds the values of another histogram to this one.
+     *
+     * @param other histogram with the same precision
+     */
+    public void add(LogLinearHistogram other) {
+        checkPrecision(other);
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Moves the values of this histogram to another one and clears this one.
+     * Every value recorded concurrently ends up in exactly one of the histograms.
+     *
+     * @param target histogram with the same precision
+     */
+    public void drainTo(LogLinearHistogram target) {
+        checkPrecision(target);
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) != 0) {
+                target.counts.addAndGet(i, counts.getAndSet(i, 0));
+            }
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void clear() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * @return the number of recorded values
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Get the value which %percent% of the values are less than, with the same definition as
+     * {@link StatCalculator#getPercentPoint(double)}.
+     *
+     * @param percent number representing the wished percent (between {@code 0} and {@code 1.0})
+     * @return the middle of the bucket that contains the percentile, or 0 if the histogram is empty
+     */
+    public long getPercentPoint(double percent) {
+        long total = getCount();
+        if (total <= 0) {
+            return 0;
+        }
+        long target = Math.min(total, Math.round(total * percent));
+        int lastIndex = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            lastIndex = i;
+            target -= count;
+            if (target <= 0) {
+                return valueAt(i);
+            }
+        }
+        // Values were removed concurrently
+        return valueAt(lastIndex);
+    }
+
+    /**
+     * Calls the consumer for every bucket that has values, by increasing values.
+     *
+     * @param consumer receives the buckets
+     */
+    public void forEachBucket(BucketConsumer consumer) {
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                consumer.accept(lowestValueAt(i), highestValueAt(i), count);
+            }
+        }
+    }
+
+    /**
+     * Receives the buckets of a histogram.
+     */
+    @FunctionalInterface
+    public interface BucketConsumer {
+        /**
+         * @param lowestValue  the lowest value of the bucket
+         * @param highestValue the highest value of the bucket, inclusive
+         * @param count        the number of values in the bucket
+         */
+        void accept(long lowestValue, long highestValue, long count);
+    }
+
+    private void checkPrecision(LogLinearHistogram other) {
+        if (other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Histograms have different precisions: " + precisionBits
+                    + " and " + other.precisionBits);
+        }
+    }
+
+    private int indexOf(long value) {
+        return bucketIndex(value, precisionBits);
+    }
+
+    private long lowestValueAt(int index) {
+        return bucketLowestValue(index, precisionBits);
+    }
+
+    private long highestValueAt(int index) {
+        return bucketHighestValue(index, precisionBits);
+    }
+
+    private long valueAt(int index) {
+        return bucketMiddleValue(index, precisionBits);
+    }
+
+    /**
+     * Computes the bucket of a value, so histograms with another storage can share the buckets of this class.
+     * The buckets of greater values have greater indices.
+     *
+     * @param value         the value, negative values are in the bucket of 0
+     * @param precisionBits number of bits of the values that are kept
+     * @return the index of the bucket
+     */
+    public static int bucketIndex(long value, int precisionBits) {
+        int subBuckets = 1 << precisionBits;
+        if (value < subBuckets) {
+            return value <= 0 ? 0 : (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return ((shift + 1) << precisionBits) + (int) ((value >>> shift) - subBuckets);
+    }
+
+    /**
+     * @param index         the index of the bucket, see {@link #bucketIndex(long, int)}
+     * @param precisionBits number of bits of the values that are kept
+     * @return the lowest value of the bucket
+     */
+    public static long bucketLowestValue(int index, int precisionBits) {
+        int subBuckets = 1 << precisionBits;
+        if (index < subBuckets) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        return ((long) (subBuckets + (index & (subBuckets - 1)))) << shift;
+    }
+
+    /**
+     * @param index         the index of the bucket, see {@link #bucketIndex(long, int)}
+     * @param precisionBits number of bits of the values that are kept
+     * @return the highest value of the bucket, inclusive
+     */
+    public static long bucketHighestValue(int index, int precisionBits) {
+        if (index < 1 << precisionBits) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        return bucketLowestValue(index, precisionBits) + (1L << shift) - 1;
+    }
+
+    /**
+     * @param index         the index of the bucket, see {@link #bucketIndex(long, int)}
+     * @param precisionBits number of bits of the values that are kept
+     * @return the value that represents the bucket: the middle of the bucket
+     */
+    public static long bucketMiddleValue(int index, int precisionBits) {
+        if (index < 1 << precisionBits) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        return bucketLowestValue(index, precisionBits) + ((1L << shift) >>> 1);
+    }
+}
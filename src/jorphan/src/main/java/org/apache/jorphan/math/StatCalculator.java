@@ -21,12 +21,21 @@ import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.function.LongFunction;
 
 import org.apache.commons.lang3.mutable.MutableLong;
+import org.apiguardian.api.API;
 
 /**
  * This class serves as a way to calculate the median, max, min etc. of a list of values.
  * It is not threadsafe.
+ * <p>
+ * By default, the calculator keeps every distinct value, so the percentiles are exact,
+ * but the memory and the insertion time grow with the number of distinct values.
+ * The calculators created with a number of precision bits keep the values in a {@link LogLinearHistogram} instead:
+ * the memory is bounded and the insertion is O(1), and a percentile differs from the exact one
+ * by at most {@code 2^-(precisionBits + 1)} of its value (1/128 for 6 bits).
+ * The minimum, maximum, mean, standard deviation and count stay exact.
  *
  * @param <T> type parameter for the calculator
  *
@@ -37,6 +46,12 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
     private final Map<T, MutableLong> valuesMap = new TreeMap<>();
     // We use a TreeMap because we need the entries to be sorted
 
+    // Replaces valuesMap if not null
+    private final LogLinearHistogram histogram;
+
+    // Converts the values of the histogram
+    private final LongFunction<T> fromLong;
+
     // Running values, updated for each sample
     private double sum = 0;
 
@@ -75,10 +90,46 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
         this.minValue = min;
         this.min = maxValue;
         this.max = minValue;
+        this.histogram = null;
+        this.fromLong = null;
+    }
+
+    /**
+     * This constructor sets up a calculator that keeps the values in a {@link LogLinearHistogram}.
+     *
+     * @param zero - value to return for Median and PercentPoint if there are no values
+     * @param min - value to return for minimum if there are no values
+     * @param max - value to return for maximum if there are no values
+     * @param precisionBits - precision of the histogram, see {@link LogLinearHistogram#LogLinearHistogram(int)}
+     * @param fromLong - converts the values of the histogram to the type of the calculator
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    protected StatCalculator(final T zero, final T min, final T max, int precisionBits, LongFunction<T> fromLong) {
+        this.zero = zero;
+        this.maxValue = max;
+        this.minValue = min;
+        this.min = maxValue;
+        this.max = minValue;
+        this.histogram = new LogLinearHistogram(precisionBits);
+        this.fromLong = fromLong;
+    }
+
+    /**
+     * @return the number of precision bits of the histogram that keeps the values,
+     * or 0 if the calculator keeps the exact values
+     * @since 6.0
+     */
+    @API(since = "6.0", status = API.Status.EXPERIMENTAL)
+    public int getPrecisionBits() {
+        return histogram == null ? 0 : histogram.getPrecisionBits();
     }
 
     public void clear() {
         valuesMap.clear();
+        if (histogram != null) {
+            histogram.clear();
+        }
         sum = 0;
         sumOfSquares = 0;
         mean = 0;
@@ -107,11 +158,37 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
     }
 
     public void addAll(StatCalculator<T> calc) {
+        if (calc.histogram != null) {
+            addHistogram(calc);
+            return;
+        }
         for(Map.Entry<T, MutableLong> ent : calc.valuesMap.entrySet()) {
             addEachValue(ent.getKey(), ent.getValue().longValue());
         }
     }
 
+    /**
+     * Adds the values of a calculator that keeps them in a histogram: the count, sum, minimum and maximum
+     * are merged as is so that they stay exact, only the percentiles depend on the buckets.
+     */
+    private void addHistogram(StatCalculator<T> calc) {
+        if (calc.count == 0) {
+            return;
+        }
+        if (histogram != null && histogram.getPrecisionBits() == calc.histogram.getPrecisionBits()) {
+            histogram.add(calc.histogram);
+        } else {
+            // The values of a bucket are added as the middle of the bucket
+            calc.histogram.forEachBucket((lowest, highest, bucketCount) ->
+                    updateValueCount(calc.fromLong.apply(lowest + ((highest - lowest + 1) >>> 1)), bucketCount));
+        }
+        count += calc.count;
+        sum += calc.sum;
+        sumOfSquares += calc.sumOfSquares;
+        calculateDerivedValues(calc.min);
+        calculateDerivedValues(calc.max);
+    }
+
     public T getMedian() {
         return getPercentPoint(0.5);
     }
@@ -157,6 +234,14 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
         if (percent >= 1.0) {
             return getMax();
         }
+        if (histogram != null) {
+            // The middle of the bucket can be out of the range of the values
+            T value = fromLong.apply(histogram.getPercentPoint(percent));
+            if (value.compareTo(min) < 0) {
+                return min;
+            }
+            return value.compareTo(max) > 0 ? max : value;
+        }
 
         // use Math.round () instead of simple (long) to provide correct value rounding
         long target = Math.round(count * percent);
@@ -181,6 +266,14 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
      */
     public Map<Number, Number[]> getDistribution() {
         Map<Number, Number[]> items = new HashMap<>();
+        if (histogram != null) {
+            // The key is the middle of the bucket
+            histogram.forEachBucket((lowest, highest, count) -> {
+                T value = fromLong.apply(lowest + ((highest - lowest + 1) >>> 1));
+                items.put(value, new Number[]{value, count});
+            });
+            return items;
+        }
 
         for (Map.Entry<T, MutableLong> entry : valuesMap.entrySet()) {
             Number[] dis = new Number[2];
@@ -280,6 +373,10 @@ public abstract class StatCalculator<T extends Number & Comparable<? super T>> {
     }
 
     private void updateValueCount(T actualValue, long sampleCount) {
+        if (histogram != null) {
+            histogram.record(actualValue.longValue(), sampleCount);
+            return;
+        }
         MutableLong count = valuesMap.get(actualValue);
         if (count != null) {
             count.add(sampleCount);
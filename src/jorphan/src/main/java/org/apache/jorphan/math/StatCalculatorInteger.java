@@ -26,6 +26,17 @@ public class StatCalculatorInteger extends StatCalculator<Integer> {
         super(0, Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
+    /**
+     * Creates a calculator that keeps the values in a {@link LogLinearHistogram},
+     * so the memory does not grow with the number of distinct values.
+     *
+     * @param precisionBits precision of the histogram, see {@link LogLinearHistogram#LogLinearHistogram(int)}
+     * @since 6.0
+     */
+    public StatCalculatorInteger(int precisionBits) {
+        super(0, Integer.MIN_VALUE, Integer.MAX_VALUE, precisionBits, value -> (int) value);
+    }
+
     public void addValue(int val){
         super.addValue(val);
     }
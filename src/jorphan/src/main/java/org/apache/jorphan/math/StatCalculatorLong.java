@@ -26,6 +26,17 @@ public class StatCalculatorLong extends StatCalculator<Long> {
         super(0L, Long.MIN_VALUE, Long.MAX_VALUE);
     }
 
+    /**
+     * Creates a calculator that keeps the values in a {@link LogLinearHistogram},
+     * so the memory does not grow with the number of distinct values.
+     *
+     * @param precisionBits precision of the histogram, see {@link LogLinearHistogram#LogLinearHistogram(int)}
+     * @since 6.0
+     */
+    public StatCalculatorLong(int precisionBits) {
+        super(0L, Long.MIN_VALUE, Long.MAX_VALUE, precisionBits, value -> value);
+    }
+
     /**
      * Add a single value (normally elapsed time)
      *
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jorphan.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TestLogLinearHistogram {
+
+    private static long exactPercentPoint(long[] sorted, double percent) {
+        long target = Math.round(sorted.length * percent);
+        return sorted[(int) Math.max(0, Math.min(sorted.length, target) - 1)];
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LogLinearHistogram histogram = new LogLinearHistogram(5);
+        for (long value = 10; value >= 1; value--) {
+            histogram.record(value);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(9, histogram.getPercentPoint(0.8999999));
+        assertEquals(5, histogram.getPercentPoint(0.5));
+        assertEquals(10, histogram.getPercentPoint(1.0));
+        assertEquals(1, histogram.getPercentPoint(0));
+    }
+
+    @Test
+    void emptyHistogram() {
+        LogLinearHistogram histogram = new LogLinearHistogram(5);
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentPoint(0.99));
+    }
+
+    @Test
+    void negativeValuesAreRecordedAsZero() {
+        LogLinearHistogram histogram = new LogLinearHistogram(3);
+        histogram.record(-5);
+        assertEquals(0, histogram.getPercentPoint(0.5));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 5, 7, 10})
+    void percentilesAreWithinDocumentedError(int precisionBits) {
+        Random random = new Random(precisionBits);
+        long[] values = new long[100_000];
+        LogLinearHistogram histogram = new LogLinearHistogram(precisionBits);
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal like distribution, with a few huge values
+            values[i] = i % 1000 == 0 ? Long.MAX_VALUE - i : (long) Math.exp(4 + 2 * random.nextGaussian());
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        double maxError = Math.scalb(1.0, -(precisionBits + 1));
+        for (double percent : new double[]{0, 0.1, 0.5, 0.9, 0.95, 0.99, 0.999, 0.9999, 1}) {
+            long exact = exactPercentPoint(values, percent);
+            long approximate = histogram.getPercentPoint(percent);
+            assertTrue(Math.abs((double) approximate - exact) <= exact * maxError,
+                    () -> percent + " percentile with " + precisionBits + " bits: got " + approximate
+                            + ", exact " + exact);
+        }
+    }
+
+    @Test
+    void bucketsCoverAllValues() {
+        LogLinearHistogram histogram = new LogLinearHistogram(2);
+        for (int shift = 0; shift < 63; shift++) {
+            histogram.record(1L << shift);
+            histogram.record((1L << shift) + 1);
+        }
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(0);
+        long[] previousHighest = {-1};
+        long[] total = {0};
+        histogram.forEachBucket((lowest, highest, count) -> {
+            assertTrue(lowest > previousHighest[0], "buckets must be sorted and disjoint");
+            assertTrue(lowest <= highest, "bucket must not be empty");
+            previousHighest[0] = highest;
+            total[0] += count;
+        });
+        assertEquals(Long.MAX_VALUE, previousHighest[0]);
+        assertEquals(histogram.getCount(), total[0]);
+    }
+
+    @Test
+    void mergesHistograms() {
+        LogLinearHistogram first = new LogLinearHistogram(7);
+        LogLinearHistogram second = new LogLinearHistogram(7);
+        LogLinearHistogram all = new LogLinearHistogram(7);
+        for (int i = 0; i < 10_000; i++) {
+            (i % 3 == 0 ? first : second).record(i * 7L);
+            all.record(i * 7L);
+        }
+        LogLinearHistogram merged = new LogLinearHistogram(first);
+        merged.add(second);
+        assertEquals(all.getCount(), merged.getCount());
+        for (double percent : new double[]{0.5, 0.9, 0.99}) {
+            assertEquals(all.getPercentPoint(percent), merged.getPercentPoint(percent));
+        }
+        assertThrows(IllegalArgumentException.class, () -> merged.add(new LogLinearHistogram(5)));
+    }
+
+    @Test
+    void drainsConcurrentlyRecordedValues() throws InterruptedException {
+        LogLinearHistogram histogram = new LogLinearHistogram(5);
+        LogLinearHistogram drained = new LogLinearHistogram(5);
+        int threads = 4;
+        int values = 100_000;
+        Thread[] recorders = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            recorders[t] = new Thread(() -> {
+                for (int i = 0; i < values; i++) {
+                    histogram.record(i);
+                }
+            });
+            recorders[t].start();
+        }
+        for (Thread recorder : recorders) {
+            while (recorder.isAlive()) {
+                histogram.drainTo(drained);
+            }
+            recorder.join();
+        }
+        histogram.drainTo(drained);
+        assertEquals(0, histogram.getCount());
+        assertEquals((long) threads * values, drained.getCount());
+    }
+
+    @Test
+    void rejectsInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new LogLinearHistogram(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new LogLinearHistogram(LogLinearHistogram.MAX_PRECISION_BITS + 1));
+    }
+}
@@ -21,6 +21,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Map;
+import java.util.Random;
 
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.junit.jupiter.api.BeforeEach;
@@ -181,4 +182,106 @@ public class TestStatCalculator {
         assertEquals(12.0, calc.getSum(), 0.000000000001);
         assertEquals(0.5773502691896255, calc.getStandardDeviation(), 0.000000000000001);
     }
+
+    @Test
+    public void testHistogramPercentilesWithinErrorBound() {
+        Random random = new Random(42);
+        for (int precisionBits : new int[]{3, 6, 9}) {
+            StatCalculatorLong exact = new StatCalculatorLong();
+            StatCalculatorLong approximate = new StatCalculatorLong(precisionBits);
+            assertEquals(precisionBits, approximate.getPrecisionBits());
+            for (int i = 0; i < 50_000; i++) {
+                long value = (long) Math.exp(5 + random.nextGaussian());
+                exact.addValue(value);
+                approximate.addValue(value);
+            }
+            assertEquals(exact.getCount(), approximate.getCount());
+            assertEquals(exact.getMin(), approximate.getMin());
+            assertEquals(exact.getMax(), approximate.getMax());
+            assertEquals(exact.getMean(), approximate.getMean(), 1e-9);
+            assertEquals(exact.getStandardDeviation(), approximate.getStandardDeviation(), 1e-9);
+            double maxError = Math.scalb(1.0, -(precisionBits + 1));
+            for (double percent : new double[]{0, 0.25, 0.5, 0.9, 0.95, 0.99, 0.999, 1}) {
+                long expected = exact.getPercentPoint(percent);
+                long actual = approximate.getPercentPoint(percent);
+                assertTrue(Math.abs(actual - expected) <= expected * maxError,
+                        percent + " percentile with " + precisionBits + " bits: got " + actual
+                                + ", exact " + expected);
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramSmallValuesAreExact() {
+        StatCalculatorLong approximate = new StatCalculatorLong(5);
+        long[] values = new long[] {
+            10L,9L,5L,6L,1L,3L,8L,2L,7L,4L
+        };
+        for (long l : values) {
+            calc.addValue(l);
+            approximate.addValue(l);
+        }
+        for (double percent : new double[]{0.1, 0.5, 0.8999999, 0.95}) {
+            assertEquals(calc.getPercentPoint(percent), approximate.getPercentPoint(percent));
+        }
+        assertEquals(calc.getDistribution().keySet(), approximate.getDistribution().keySet());
+    }
+
+    @Test
+    public void testHistogramAddAll() {
+        StatCalculatorLong approximate = new StatCalculatorLong(6);
+        StatCalculatorLong other = new StatCalculatorLong(6);
+        approximate.addValue(1L);
+        approximate.addValue(3L);
+        other.addValue(2L);
+        other.addValue(2L);
+        other.addValue(2L);
+        approximate.addAll(other);
+        calc.addAll(other);
+        assertEquals(5, approximate.getCount());
+        assertEquals(10.0, approximate.getSum(), 0.000000000001);
+        assertEquals(Long.valueOf(2), approximate.getMedian());
+        assertEquals(3, calc.getCount());
+        assertEquals(Long.valueOf(2), calc.getMedian());
+    }
+
+    @Test
+    public void testHistogramAddAllKeepsExactStatistics() {
+        StatCalculatorLong exact = new StatCalculatorLong();
+        StatCalculatorLong approximate = new StatCalculatorLong(3);
+        StatCalculatorLong exactMerged = new StatCalculatorLong();
+        StatCalculatorLong approximateMerged = new StatCalculatorLong(3);
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long value = 1000 + random.nextInt(100_000);
+            exact.addValue(value);
+            approximate.addValue(value);
+        }
+        exactMerged.addValue(5L);
+        approximateMerged.addValue(5L);
+        exactMerged.addAll(exact);
+        approximateMerged.addAll(approximate);
+        calc.addValue(5L);
+        calc.addAll(approximate);
+        for (StatCalculatorLong merged : new StatCalculatorLong[]{approximateMerged, calc}) {
+            assertEquals(exactMerged.getCount(), merged.getCount());
+            assertEquals(exactMerged.getMin(), merged.getMin());
+            assertEquals(exactMerged.getMax(), merged.getMax());
+            assertEquals(exactMerged.getSum(), merged.getSum(), 1e-6);
+            assertEquals(exactMerged.getMean(), merged.getMean(), 1e-9);
+            assertEquals(exactMerged.getStandardDeviation(), merged.getStandardDeviation(), 1e-6);
+        }
+    }
+
+    @Test
+    public void testHistogramInteger() {
+        StatCalculatorInteger calci = new StatCalculatorInteger(6);
+        calci.addValue(0);
+        calci.addValue(2);
+        calci.addValue(Integer.MAX_VALUE);
+        assertEquals(Integer.valueOf(Integer.MAX_VALUE), calci.getMax());
+        assertEquals(Integer.valueOf(2), calci.getMedian());
+        assertTrue(Integer.MAX_VALUE - calci.getPercentPoint(0.99) <= Integer.MAX_VALUE / 128);
+        assertTrue(calci.getDistribution().containsKey(2));
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.jmeter.protocol.http.util;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.apache.jmeter.protocol.http.sampler.HTTPSampleResult;
+import org.apache.jmeter.samplers.SampleResult;
+import org.apache.jmeter.samplers.SampleSaveConfiguration;
+import org.apache.jmeter.save.SaveService;
+import org.apache.jmeter.save.XmlResultWriter;
+import org.apache.jmeter.save.XmlSampleResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.auto.service.AutoService;
+
+/**
+ * Writes and reads {@link HTTPSampleResult} in XML result files as {@link HTTPResultConverter} does.
+ *
+ * @since 6.0
+ */
+@AutoService(XmlSampleResultHandler.class)
+public class HTTPResultXmlHandler implements XmlSampleResultHandler {
+    private static final Logger log = LoggerFactory.getLogger(HTTPResultXmlHandler.class);
+
+    private static final String TAG_COOKIES           = "cookies";          //$NON-NLS-1$
+    private static final String TAG_METHOD            = "method";           //$NON-NLS-1$
+    private static final String TAG_QUERY_STRING      = "queryString";      //$NON-NLS-1$
+    private static final String TAG_REDIRECT_LOCATION = "redirectLocation"; //$NON-NLS-1$
+
+    private static final String TAG_URL = SaveService.classToAlias(URL.class.getName());
+
+    @Override
+    public Class<? extends SampleResult> getResultClass() {
+        return HTTPSampleResult.class;
+    }
+
+    @Override
+    public SampleResult newResult() {
+        return new HTTPSampleResult();
+    }
+
+    @Override
+    public void writeSamplerData(XmlResultWriter writer, SampleResult result, SampleSaveConfiguration save) {
+        HTTPSampleResult res = (HTTPSampleResult) result;
+        if (save.saveSamplerData(res)) {
+            writer.writeString(TAG_COOKIES, res.getCookies());
+            writer.writeString(TAG_METHOD, res.getHTTPMethod());
+            writer.writeString(TAG_QUERY_STRING, res.getQueryString());
+            writer.writeString(TAG_REDIRECT_LOCATION, res.getRedirectLocation());
+        }
+        if (save.saveUrl()) {
+            writer.writeUrl(res.getURL());
+        }
+    }
+
+    @Override
+    public boolean readElement(SampleResult result, String name, String text) {
+        HTTPSampleResult res = (HTTPSampleResult) result;
+        if (name.equals(TAG_URL)) {
+            try {
+                res.setURL(new URL(text));
+            } catch (MalformedURLException e) {
+                log.warn("Ignoring invalid URL of {}: {}", res.getSampleLabel(), text);
+            }
+        } else if (name.equals(TAG_COOKIES)) {
+            res.setCookies(text);
+        } else if (name.equals(TAG_METHOD)) {
+            res.setHTTPMethod(text);
+        } else if (name.equals(TAG_QUERY_STRING)) {
+            res.setQueryString(text);
+        } else if (name.equals(TAG_REDIRECT_LOCATION)) {
+            res.setRedirectLocation(text);
+        } else {
+            return false;
+        }
+        return true;
+    }
+}